@@ -21,10 +21,14 @@ import bisq.proto.grpc.AddressBalanceInfo;
 import bisq.proto.grpc.BalancesInfo;
 import bisq.proto.grpc.BtcBalanceInfo;
 import bisq.proto.grpc.CancelOfferRequest;
+import bisq.proto.grpc.CancelOfferResult;
+import bisq.proto.grpc.CancelOffersRequest;
 import bisq.proto.grpc.ConfirmPaymentReceivedRequest;
 import bisq.proto.grpc.ConfirmPaymentStartedRequest;
 import bisq.proto.grpc.CreateCryptoCurrencyPaymentAccountRequest;
 import bisq.proto.grpc.CreateOfferRequest;
+import bisq.proto.grpc.CreateOfferResult;
+import bisq.proto.grpc.CreateOffersRequest;
 import bisq.proto.grpc.CreatePaymentAccountRequest;
 import bisq.proto.grpc.GetAddressBalanceRequest;
 import bisq.proto.grpc.GetBalancesRequest;
@@ -242,6 +246,20 @@ public final class GrpcClient {
         grpcStubs.offersService.cancelOffer(request);
     }
 
+    public List<CreateOfferResult> createOffers(List<CreateOfferRequest> offerRequests) {
+        var request = CreateOffersRequest.newBuilder()
+                .addAllOffers(offerRequests)
+                .build();
+        return grpcStubs.offersService.createOffers(request).getResultsList();
+    }
+
+    public List<CancelOfferResult> cancelOffers(List<String> offerIds) {
+        var request = CancelOffersRequest.newBuilder()
+                .addAllIds(offerIds)
+                .build();
+        return grpcStubs.offersService.cancelOffers(request).getResultsList();
+    }
+
     public OfferInfo getOffer(String offerId) {
         var request = GetOfferRequest.newBuilder()
                 .setId(offerId)
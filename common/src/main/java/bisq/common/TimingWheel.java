@@ -0,0 +1,213 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+/**
+ * Hierarchical timing wheel. Each level is a ring of buckets covering {@code tickMs * wheelSize} ms. Entries which
+ * expire beyond the range of a level are added to the next level, which has a tick of the range of the level below.
+ * When a bucket of a higher level is reached its entries are cascaded down to the lower levels.
+ * <p>
+ * Adding and removing an entry is O(1) as each bucket is a doubly linked list and the entry knows its bucket. An
+ * advance only visits the buckets of the passed ticks, so its cost depends on the number of expiring (and cascaded)
+ * entries and not on the number of scheduled entries.
+ * <p>
+ * Expiration times are rounded up to the tick, so an entry never expires before its deadline.
+ * Not thread safe.
+ */
+class TimingWheel {
+
+    static class Entry {
+        final Runnable task;
+        long expiration;
+        @Nullable
+        private Bucket bucket;
+        @Nullable
+        private Entry prev, next;
+
+        Entry(Runnable task) {
+            this.task = task;
+        }
+
+        boolean isScheduled() {
+            return bucket != null;
+        }
+    }
+
+    private static class Bucket {
+        @Nullable
+        private Entry head;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null)
+                head.prev = entry;
+            head = entry;
+        }
+
+        void remove(Entry entry) {
+            if (entry.prev != null)
+                entry.prev.next = entry.next;
+            else
+                head = entry.next;
+            if (entry.next != null)
+                entry.next.prev = entry.prev;
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        void drain(Consumer<Entry> consumer) {
+            Entry entry = head;
+            head = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.bucket = null;
+                entry.prev = null;
+                entry.next = null;
+                consumer.accept(entry);
+                entry = next;
+            }
+        }
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final Bucket[] buckets;
+    private long currentTime;
+    @Nullable
+    private TimingWheel overflowWheel;
+    private int size;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = tickMs * wheelSize;
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++)
+            buckets[i] = new Bucket();
+        this.currentTime = startMs - (startMs % tickMs);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Schedules the entry to expire at the first tick at or after the deadline.
+     *
+     * @return False if the deadline has passed already. The entry is not scheduled then.
+     */
+    boolean add(Entry entry, long deadline) {
+        long expiration = deadline % tickMs == 0 ? deadline : deadline - (deadline % tickMs) + tickMs;
+        entry.expiration = expiration;
+        if (expiration <= currentTime)
+            return false;
+
+        addToLevel(entry);
+        size++;
+        return true;
+    }
+
+    /**
+     * Schedules the entry to expire at the next tick.
+     */
+    void addAtNextTick(Entry entry) {
+        entry.expiration = currentTime + tickMs;
+        addToLevel(entry);
+        size++;
+    }
+
+    void remove(Entry entry) {
+        if (entry.bucket != null) {
+            entry.bucket.remove(entry);
+            size--;
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time and passes all expired entries to the consumer.
+     */
+    void advance(long now, Consumer<Entry> expired) {
+        while (currentTime + tickMs <= now) {
+            currentTime += tickMs;
+            if (overflowWheel != null) {
+                // We cascade the entries of the higher levels first, entries which expire now are passed to us
+                overflowWheel.advanceLevel(currentTime, entry -> reinsert(entry, expired));
+            }
+            bucketOf(currentTime).drain(entry -> {
+                size--;
+                expired.accept(entry);
+            });
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void addToLevel(Entry entry) {
+        if (entry.expiration < currentTime + interval) {
+            bucketOf(entry.expiration).add(entry);
+        } else {
+            if (overflowWheel == null)
+                overflowWheel = new TimingWheel(interval, wheelSize, currentTime);
+            overflowWheel.addToLevel(entry);
+        }
+    }
+
+    // Called on the higher levels with the current time of the level below
+    private void advanceLevel(long time, Consumer<Entry> cascaded) {
+        while (currentTime + tickMs <= time) {
+            currentTime += tickMs;
+            if (overflowWheel != null)
+                overflowWheel.advanceLevel(currentTime, cascaded);
+            bucketOf(currentTime).drain(cascaded);
+        }
+    }
+
+    private void reinsert(Entry entry, Consumer<Entry> expired) {
+        if (entry.expiration <= currentTime) {
+            size--;
+            expired.accept(entry);
+        } else {
+            addToLevel(entry);
+        }
+    }
+
+    private Bucket bucketOf(long expiration) {
+        return buckets[(int) ((expiration / tickMs) % wheelSize)];
+    }
+}
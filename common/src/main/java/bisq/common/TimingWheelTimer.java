@@ -0,0 +1,133 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Alternative to the {@link FrameRateTimer} for headless apps with many timers. Instead of all timers being visited
+ * at each frame by the {@link MasterTimer}, timers are kept in a {@link TimingWheel}, so starting and stopping a
+ * timer is O(1) and a tick only visits the timers which expire. Timers have the same resolution as the
+ * FrameRateTimer and are executed on the user thread.
+ */
+public class TimingWheelTimer implements Timer {
+    private static final Logger log = LoggerFactory.getLogger(TimingWheelTimer.class);
+    private static final int WHEEL_SIZE = 512;
+    // The wheel runs on a monotonic clock, so changes of the wall clock (e.g. by NTP) do not affect the timers
+    private static final long START_NANOS = System.nanoTime();
+    private static final TimingWheel wheel = new TimingWheel(MasterTimer.FRAME_INTERVAL_MS, WHEEL_SIZE, 0);
+    private static final java.util.Timer ticker = new java.util.Timer("TimingWheelTimer", true);
+
+    static {
+        ticker.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                onTick();
+            }
+        }, MasterTimer.FRAME_INTERVAL_MS, MasterTimer.FRAME_INTERVAL_MS);
+    }
+
+    private static void onTick() {
+        List<Runnable> expired = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(now(), entry -> expired.add(entry.task));
+        }
+        if (!expired.isEmpty()) {
+            // Each timer gets its own task, so an exception of one timer does not affect the others
+            expired.forEach(UserThread::execute);
+        }
+    }
+
+    // Ms since the class got initialized
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - START_NANOS);
+    }
+
+    // Number of started timers, for tests and monitoring
+    static int getNumScheduledTimers() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private final TimingWheel.Entry entry = new TimingWheel.Entry(this::fire);
+    private long interval;
+    private Runnable runnable;
+    private boolean isPeriodically;
+    private volatile boolean stopped;
+
+    public TimingWheelTimer() {
+    }
+
+    @Override
+    public Timer runLater(Duration delay, Runnable runnable) {
+        this.interval = delay.toMillis();
+        this.runnable = runnable;
+        schedule();
+        return this;
+    }
+
+    @Override
+    public Timer runPeriodically(Duration interval, Runnable runnable) {
+        this.interval = interval.toMillis();
+        isPeriodically = true;
+        this.runnable = runnable;
+        schedule();
+        return this;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        synchronized (wheel) {
+            wheel.remove(entry);
+        }
+    }
+
+    private void schedule() {
+        synchronized (wheel) {
+            // The wheel expires entries at the next tick earliest, the same as the FrameRateTimer
+            if (!wheel.add(entry, Math.max(now() + interval, 0)))
+                wheel.addAtNextTick(entry);
+        }
+    }
+
+    // User thread
+    private void fire() {
+        if (stopped)
+            return;
+
+        try {
+            runnable.run();
+            if (isPeriodically && !stopped)
+                schedule();
+        } catch (Throwable t) {
+            log.error("exception in TimingWheelTimer", t);
+            stop();
+            throw t;
+        }
+    }
+}
@@ -117,6 +117,14 @@ public class Config {
     public static final String BTC_FEE_INFO = "bitcoinFeeInfo";
     public static final String BYPASS_MEMPOOL_VALIDATION = "bypassMempoolValidation";
     public static final String PASSWORD_REQUIRED = "passwordRequired";
+    public static final String USE_PAYLOAD_LOG_STORAGE = "usePayloadLogStorage";
+    public static final String USE_RECORD_STORAGE = "useRecordStorage";
+    public static final String SHARED_CONNECTION_THREADS = "sharedConnectionThreads";
+    public static final String MESSAGE_DISPATCHER_THREADS = "messageDispatcherThreads";
+    public static final String MAX_CONCURRENT_WALLET_OPENS = "maxConcurrentWalletOpens";
+    public static final String MAX_CONCURRENT_WALLET_SYNCS = "maxConcurrentWalletSyncs";
+    public static final String USE_TIMING_WHEEL_TIMER = "useTimingWheelTimer";
+    public static final String BULK_REFRESH_OFFERS = "bulkRefreshOffers";
 
     // Default values for certain options
     public static final int UNSPECIFIED_PORT = -1;
@@ -194,6 +202,14 @@ public class Config {
     public final boolean republishMailboxEntries;
     public final boolean bypassMempoolValidation;
     public final boolean passwordRequired;
+    public final boolean usePayloadLogStorage;
+    public final boolean useRecordStorage;
+    public final boolean sharedConnectionThreads;
+    public final int messageDispatcherThreads;
+    public final int maxConcurrentWalletOpens;
+    public final int maxConcurrentWalletSyncs;
+    public final boolean useTimingWheelTimer;
+    public final boolean bulkRefreshOffers;
 
     // Properties derived from options but not exposed as options themselves
     public final File torDir;
@@ -590,6 +606,71 @@ public class Config {
                         .ofType(boolean.class)
                         .defaultsTo(false);
 
+        ArgumentAcceptingOptionSpec<Boolean> usePayloadLogStorageOpt =
+                parser.accepts(USE_PAYLOAD_LOG_STORAGE,
+                        "If set to true, trade statistics, account age witnesses and signed witnesses are stored " +
+                                "in an append only log instead of a single file (experimental)")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> useRecordStorageOpt =
+                parser.accepts(USE_RECORD_STORAGE,
+                        "If set to true, open offers and trades are stored as one file per offer or trade, so a " +
+                                "change of a trade only writes that trade. Migrated data stays in that format " +
+                                "(experimental)")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> sharedConnectionThreadsOpt =
+                parser.accepts(SHARED_CONNECTION_THREADS,
+                        "If set to true, network connections use shared thread pools instead of dedicated threads " +
+                                "(recommended for seed nodes)")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Integer> messageDispatcherThreadsOpt =
+                parser.accepts(MESSAGE_DISPATCHER_THREADS,
+                        "Number of threads for verifying the signatures of received add and remove data messages " +
+                                "before they are handled on the user thread. 0 handles all messages on the user thread")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(0);
+
+        ArgumentAcceptingOptionSpec<Integer> maxConcurrentWalletOpensOpt =
+                parser.accepts(MAX_CONCURRENT_WALLET_OPENS,
+                        "Max. number of multisig wallets which are opened in parallel (each wallet runs in its own " +
+                                "monero-wallet-rpc process)")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(10);
+
+        ArgumentAcceptingOptionSpec<Integer> maxConcurrentWalletSyncsOpt =
+                parser.accepts(MAX_CONCURRENT_WALLET_SYNCS,
+                        "Max. number of multisig wallets which are synced in parallel")
+                        .withRequiredArg()
+                        .ofType(int.class)
+                        .defaultsTo(3);
+
+        ArgumentAcceptingOptionSpec<Boolean> useTimingWheelTimerOpt =
+                parser.accepts(USE_TIMING_WHEEL_TIMER,
+                        "If set to true, timers are kept in a timing wheel instead of checking all timers at " +
+                                "each frame. Only used by headless apps (experimental)")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
+        ArgumentAcceptingOptionSpec<Boolean> bulkRefreshOffersOpt =
+                parser.accepts(BULK_REFRESH_OFFERS,
+                        "If set to true, the TTL of our offers is refreshed with one message for many offers. Only " +
+                                "enable it once all nodes of the network support it, as nodes without support " +
+                                "do not receive the refresh")
+                        .withRequiredArg()
+                        .ofType(boolean.class)
+                        .defaultsTo(false);
+
         try {
             CompositeOptionSet options = new CompositeOptionSet();
 
@@ -698,6 +779,14 @@ public class Config {
             this.republishMailboxEntries = options.valueOf(republishMailboxEntriesOpt);
             this.bypassMempoolValidation = options.valueOf(bypassMempoolValidationOpt);
             this.passwordRequired = options.valueOf(passwordRequiredOpt);
+            this.usePayloadLogStorage = options.valueOf(usePayloadLogStorageOpt);
+            this.useRecordStorage = options.valueOf(useRecordStorageOpt);
+            this.sharedConnectionThreads = options.valueOf(sharedConnectionThreadsOpt);
+            this.messageDispatcherThreads = options.valueOf(messageDispatcherThreadsOpt);
+            this.maxConcurrentWalletOpens = options.valueOf(maxConcurrentWalletOpensOpt);
+            this.maxConcurrentWalletSyncs = options.valueOf(maxConcurrentWalletSyncsOpt);
+            this.useTimingWheelTimer = options.valueOf(useTimingWheelTimerOpt);
+            this.bulkRefreshOffers = options.valueOf(bulkRefreshOffersOpt);
         } catch (OptionException ex) {
             throw new ConfigException("problem parsing option '%s': %s",
                     ex.options().get(0),
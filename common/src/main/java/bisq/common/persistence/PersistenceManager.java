@@ -17,7 +17,6 @@
 
 package bisq.common.persistence;
 
-import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.config.Config;
@@ -25,8 +24,8 @@ import bisq.common.file.CorruptedStorageFileHandler;
 import bisq.common.file.FileUtil;
 import bisq.common.handlers.ResultHandler;
 import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
-import bisq.common.util.Utilities;
 
 import com.google.inject.Inject;
 
@@ -39,10 +38,13 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -69,6 +71,15 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * previously we wasted a lot of resources as way too many threads have been created without doing actual work as well
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap
  *
+ * The writes of all instances are done by the {@link PersistenceScheduler} which writes stores which become due at
+ * about the same time in one batch on a single thread. We backup the file at most every {@link #BACKUP_INTERVAL}.
+ *
+ * If record storage is enabled a {@link PersistableRecordEnvelope} is stored as one file per record by a
+ * {@link RecordStore}, so only the changed records get written. At the first start with record storage the data of
+ * the single file is migrated at the first write. After the migration the single file is moved to the backup
+ * directory, so we never read the stale single file again (e.g. if the records got corrupted). A migrated store is
+ * kept in record storage even if record storage gets disabled again.
+ *
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -80,6 +91,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    private static final PersistenceScheduler SCHEDULER = new PersistenceScheduler();
+    private static final String RECORD_DIR_POSTFIX = "_records";
+    private static final long BACKUP_INTERVAL = TimeUnit.MINUTES.toMillis(10);
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
@@ -133,6 +147,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 completeHandler.handleResult();
             }
 
+            Map<PersistenceManager<?>, Runnable> completeHandlers = new HashMap<>();
             new HashSet<>(ALL_PERSISTENCE_MANAGERS.values()).forEach(persistenceManager -> {
                 // For Priority.HIGH data we want to write to disk in any case to be on the safe side if we might have missed
                 // a requestPersistence call after an important state update. Those are usually rather small data stores.
@@ -142,16 +157,27 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 // (fixes https://github.com/bisq-network/bisq/issues/4844).
                 if (persistenceManager.readCalled.get() &&
                         (persistenceManager.source.flushAtShutDown || persistenceManager.persistenceRequested)) {
+                    // A record might have been changed without a requestPersistence call, so we serialize all records
+                    // at the last write.
+                    if (doShutdown) {
+                        persistenceManager.allRecordsChanged = true;
+                    }
+
                     // We always get our completeHandler called even if exceptions happen. In case a file write fails
                     // we still call our shutdown and count down routine as the completeHandler is triggered in any case.
 
-                    // We get our result handler called from the write thread so we map back to user thread.
-                    persistenceManager.persistNow(() ->
-                            UserThread.execute(() -> onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown)));
+                    // The scheduler calls our result handler on the user thread.
+                    completeHandlers.put(persistenceManager,
+                            () -> onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown));
                 } else {
                     onWriteCompleted(completeHandler, openInstances, persistenceManager, doShutdown);
                 }
             });
+
+            // We write all stores in one batch
+            if (!completeHandlers.isEmpty()) {
+                SCHEDULER.flush(completeHandlers);
+            }
         });
     }
 
@@ -161,6 +187,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                                          PersistenceManager<?> persistenceManager,
                                          boolean doShutdown) {
         if (doShutdown) {
+            log.info("Persistence metrics of {}: {}", persistenceManager.fileName, persistenceManager.metrics);
             persistenceManager.shutdown();
         }
 
@@ -214,9 +241,19 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private Source source = Source.PRIVATE_LOW_PRIO;
     private Path usedTempFilePath;
     private volatile boolean persistenceRequested;
+    // Time of the first requestPersistence call since the last write. Only accessed from the user thread.
+    private long firstRequestTime;
+    // Only accessed from the write thread
+    private long lastBackupTime;
+    private final PersistenceMetrics metrics = new PersistenceMetrics();
+    private boolean useRecordStorage;
     @Nullable
-    private Timer timer;
-    private ExecutorService writeToDiskExecutor;
+    private RecordStore recordStore;
+    // Serialized records of the last write by record key. Records which have not changed since are not serialized
+    // again. Only accessed from the user thread.
+    private Map<String, byte[]> serializedRecords = new HashMap<>();
+    private final Set<String> changedRecordKeys = new HashSet<>();
+    private boolean allRecordsChanged = true;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -234,6 +271,11 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.corruptedStorageFileHandler = corruptedStorageFileHandler;
     }
 
+    @Inject(optional = true)
+    public void setUseRecordStorage(@Named(Config.USE_RECORD_STORAGE) boolean useRecordStorage) {
+        this.useRecordStorage = useRecordStorage;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -270,19 +312,17 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         this.fileName = fileName;
         this.source = source;
         storageFile = new File(dir, fileName);
+        File recordDir = new File(dir, fileName + RECORD_DIR_POSTFIX);
+        // Once migrated we have to stay with the records, as the single file has been moved to the backup directory
+        if (persistable instanceof PersistableRecordEnvelope && (useRecordStorage || recordDir.isDirectory())) {
+            recordStore = new RecordStore(recordDir);
+        }
         ALL_PERSISTENCE_MANAGERS.put(fileName, this);
     }
 
     public void shutdown() {
         ALL_PERSISTENCE_MANAGERS.remove(fileName);
-
-        if (timer != null) {
-            timer.stop();
-        }
-
-        if (writeToDiskExecutor != null) {
-            writeToDiskExecutor.shutdown();
-        }
+        SCHEDULER.cancel(this);
     }
 
 
@@ -340,6 +380,12 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
         readCalled.set(true);
 
+        if (recordStore != null && fileName.equals(this.fileName) && recordStore.exists()) {
+            // Stores migrated by an older version still have the single file
+            backupMigratedStorageFile();
+            return getPersistedRecords(recordStore);
+        }
+
         File storageFile = new File(dir, fileName);
         if (!storageFile.exists()) {
             return null;
@@ -370,12 +416,73 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         return null;
     }
 
+    @Nullable
+    private T getPersistedRecords(RecordStore recordStore) {
+        long ts = System.currentTimeMillis();
+        try {
+            List<byte[]> records = recordStore.readAll();
+            protobuf.PersistableEnvelope proto = ((PersistableRecordEnvelope) persistable).toProtoEnvelope(records);
+            //noinspection unchecked
+            T persistableEnvelope = (T) persistenceProtoResolver.fromProto(proto);
+            log.info("Reading {} records of {} completed in {} ms", records.size(), fileName,
+                    System.currentTimeMillis() - ts);
+            return persistableEnvelope;
+        } catch (Throwable t) {
+            File recordDir = recordStore.getDir();
+            log.error("Reading records of {} failed with {}.", fileName, t.getMessage());
+            try {
+                // We keep a backup which might be used for recovery
+                FileUtil.removeAndBackupFile(dir, recordDir, recordDir.getName(), "backup_of_corrupted_data");
+                DevEnv.logErrorAndThrowIfDevMode(t.toString());
+            } catch (IOException e1) {
+                log.error(e1.getMessage());
+                // We swallow Exception if backup fails
+            }
+            if (corruptedStorageFileHandler != null) {
+                corruptedStorageFileHandler.addFile(recordDir.getName());
+            }
+        }
+        return null;
+    }
+
+    // The single file is stale after the migration to records. We keep it in the backup directory for recovery.
+    private void backupMigratedStorageFile() {
+        if (!storageFile.exists()) {
+            return;
+        }
+
+        try {
+            FileUtil.removeAndBackupFile(dir, storageFile, fileName, "backup_of_migrated_data");
+            log.info("{} has been migrated to records. We moved the single file to the backup directory.", fileName);
+        } catch (IOException e) {
+            log.error("Could not move migrated file {} to the backup directory.", fileName, e);
+        }
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Write file to disk
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public void requestPersistence() {
+        allRecordsChanged = true;
+        doRequestPersistence();
+    }
+
+    /**
+     * Requests persistence after only the record with the given key has changed. For a record store only that record
+     * gets serialized at the next write, otherwise it is the same as {@link #requestPersistence()}.
+     *
+     * @param recordKey The key of the changed record as used in {@link PersistableRecordEnvelope#getRecords()}
+     */
+    public void requestPersistence(String recordKey) {
+        if (recordStore != null) {
+            changedRecordKeys.add(recordKey);
+        }
+        doRequestPersistence();
+    }
+
+    private void doRequestPersistence() {
         if (flushAtShutdownCalled) {
             log.warn("We have started the shut down routine already. We ignore that requestPersistence call.");
             return;
@@ -387,6 +494,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
 
         persistenceRequested = true;
+        if (firstRequestTime == 0) {
+            firstRequestTime = System.currentTimeMillis();
+        }
 
         // If we have not initialized yet we postpone the start of the timer and call maybeStartTimerForPersistence at
         // onAllServicesInitialized
@@ -399,31 +509,59 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     private void maybeStartTimerForPersistence() {
         // We write to disk with a delay to avoid frequent write operations. Depending on the priority those delays
-        // can be rather long.
-        if (timer == null) {
-            timer = UserThread.runAfter(() -> {
-                persistNow(null);
-                UserThread.execute(() -> timer = null);
-            }, source.delay, TimeUnit.MILLISECONDS);
-        }
+        // can be rather long. The scheduler writes stores which are due at about the same time in one batch.
+        SCHEDULER.schedule(this, source.delay);
     }
 
     public void persistNow(@Nullable Runnable completeHandler) {
+        SCHEDULER.flush(Collections.singletonMap(this, completeHandler));
+    }
+
+    // Called on the user thread by the PersistenceScheduler. Returns null if we must not write.
+    @Nullable
+    PersistenceScheduler.StoreWrite prepareWrite() {
+        if (!allServicesInitialized.get()) {
+            log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
+            return null;
+        }
+
         long ts = System.currentTimeMillis();
+        long requestTime = firstRequestTime > 0 ? firstRequestTime : ts;
+        firstRequestTime = 0;
         try {
-            // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
-            // persistable object. Keeping it on the user thread we are in a synchronize model.
-            protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
-
-            // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
-            // gets mutated while the thread is running as we have serialized it already and do not operate on the
-            // reference to the persistable object.
-            getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler));
+            PersistenceScheduler.StoreWrite write;
+            if (recordStore != null) {
+                // As with the single file we serialize on the user thread, but only the records which have been
+                // requested as changed. The other records are passed as the same arrays as at the last write, so the
+                // record store does not even hash them. The records are read in that order.
+                Map<String, byte[]> records = new LinkedHashMap<>();
+                ((PersistableRecordEnvelope) persistable).getRecords().forEach((key, record) -> {
+                    byte[] serializedRecord = serializedRecords.get(key);
+                    if (allRecordsChanged || serializedRecord == null || changedRecordKeys.contains(key)) {
+                        serializedRecord = record.get().toByteArray();
+                    }
+                    records.put(key, serializedRecord);
+                });
+                serializedRecords = records;
+                changedRecordKeys.clear();
+                allRecordsChanged = false;
+                write = new RecordsWrite(recordStore, records, requestTime);
+            } else {
+                // The serialisation is done on the user thread to avoid threading issue with potential mutations of
+                // the persistable object. Keeping it on the user thread we are in a synchronize model.
+                // We do not have any issues anymore if the persistable objects gets mutated while the write thread
+                // is running as we have serialized it already and do not operate on the reference to the
+                // persistable object.
+                protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+                write = new FileWrite(serialized, requestTime);
+            }
 
             long duration = System.currentTimeMillis() - ts;
+            metrics.onSerialized(duration);
             if (duration > 100) {
                 log.info("Serializing {} took {} msec", fileName, duration);
             }
+            return write;
         } catch (Throwable e) {
             log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName);
             e.printStackTrace();
@@ -431,20 +569,57 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
-    public void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler) {
-        if (!allServicesInitialized.get()) {
-            log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
-            UserThread.execute(completeHandler);
+    String getFileName() {
+        return fileName;
+    }
+
+    public PersistenceMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void onWritten(boolean success, long bytesWritten, long requestTime) {
+        if (success) {
+            metrics.onWritten(bytesWritten, System.currentTimeMillis() - requestTime);
+        } else {
+            metrics.onWriteFailed();
+        }
+        persistenceRequested = false;
+    }
+
+    // Write thread. We do not backup at each write but at most every BACKUP_INTERVAL, the backups are for recovery
+    // and not a history of all changes.
+    private void maybeBackup() {
+        long now = System.currentTimeMillis();
+        if (now - lastBackupTime < BACKUP_INTERVAL) {
             return;
         }
 
-        long ts = System.currentTimeMillis();
-        File tempFile = null;
-        FileOutputStream fileOutputStream = null;
+        FileUtil.rollingBackup(dir, fileName, source.getNumMaxBackupFiles());
+        lastBackupTime = now;
+        metrics.onBackup();
+    }
 
-        try {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // StoreWrite implementations
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private class FileWrite implements PersistenceScheduler.StoreWrite {
+        private final protobuf.PersistableEnvelope serialized;
+        private final long requestTime;
+        private File tempFile;
+        private FileOutputStream fileOutputStream;
+        private long bytesWritten;
+
+        FileWrite(protobuf.PersistableEnvelope serialized, long requestTime) {
+            this.serialized = serialized;
+            this.requestTime = requestTime;
+        }
+
+        @Override
+        public long write() throws IOException {
             // Before we write we backup existing file
-            FileUtil.rollingBackup(dir, fileName, source.getNumMaxBackupFiles());
+            maybeBackup();
 
             if (!dir.exists() && !dir.mkdir())
                 log.warn("make dir failed {}", fileName);
@@ -456,58 +631,102 @@ public class PersistenceManager<T extends PersistableEnvelope> {
             tempFile.deleteOnExit();
 
             fileOutputStream = new FileOutputStream(tempFile);
-
             serialized.writeDelimitedTo(fileOutputStream);
+            fileOutputStream.flush();
+            bytesWritten = fileOutputStream.getChannel().size();
+            return bytesWritten;
+        }
 
+        @Override
+        public void sync() throws IOException {
             // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
             // to not write through to physical media for at least a few seconds, but this is the best we can do.
-            fileOutputStream.flush();
             fileOutputStream.getFD().sync();
 
             // Close resources before replacing file with temp file because otherwise it causes problems on windows
             // when rename temp file
             fileOutputStream.close();
+        }
 
+        @Override
+        public void commit() throws IOException {
             FileUtil.renameFile(tempFile, storageFile);
             usedTempFilePath = tempFile.toPath();
-        } catch (Throwable t) {
+        }
+
+        @Override
+        public void abort() {
             // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
             usedTempFilePath = null;
-            log.error("Error at saveToFile, storageFile={}", fileName, t);
-        } finally {
-            if (tempFile != null && tempFile.exists()) {
-                log.warn("Temp file still exists after failed save. We will delete it now. storageFile={}", fileName);
-                if (!tempFile.delete()) {
-                    log.error("Cannot delete temp file.");
-                }
-            }
-
+            log.error("Error at saveToFile, storageFile={}", fileName);
             try {
                 if (fileOutputStream != null) {
                     fileOutputStream.close();
                 }
             } catch (IOException e) {
                 // We swallow that
-                e.printStackTrace();
                 log.error("Cannot close resources." + e.getMessage());
             }
-            long duration = System.currentTimeMillis() - ts;
-            if (duration > 100) {
-                log.info("Writing the serialized {} completed in {} msec", fileName, duration);
-            }
-            persistenceRequested = false;
-            if (completeHandler != null) {
-                UserThread.execute(completeHandler);
+            if (tempFile != null && tempFile.exists()) {
+                log.warn("Temp file still exists after failed save. We will delete it now. storageFile={}", fileName);
+                if (!tempFile.delete()) {
+                    log.error("Cannot delete temp file.");
+                }
             }
         }
+
+        @Override
+        public void onCompleted(boolean success) {
+            onWritten(success, bytesWritten, requestTime);
+        }
     }
 
-    private ExecutorService getWriteToDiskExecutor() {
-        if (writeToDiskExecutor == null) {
-            String name = "Write-" + fileName + "_to-disk";
-            writeToDiskExecutor = Utilities.getSingleThreadExecutor(name);
+    // The records are written with their own fsync per record by the RecordStore, so they do not take part in the
+    // group commit. Usually only a few records have changed.
+    private class RecordsWrite implements PersistenceScheduler.StoreWrite {
+        private final RecordStore recordStore;
+        private final Map<String, byte[]> records;
+        private final long requestTime;
+        private long bytesWritten;
+
+        RecordsWrite(RecordStore recordStore, Map<String, byte[]> records, long requestTime) {
+            this.recordStore = recordStore;
+            this.records = records;
+            this.requestTime = requestTime;
+        }
+
+        @Override
+        public long write() throws IOException {
+            if (!dir.exists() && !dir.mkdir())
+                log.warn("make dir failed {}", fileName);
+
+            boolean isMigration = !recordStore.exists();
+            int numWritten = recordStore.write(records);
+            bytesWritten = recordStore.getLastBytesWritten();
+            log.debug("Wrote {} of {} records of {}", numWritten, records.size(), fileName);
+            if (isMigration) {
+                backupMigratedStorageFile();
+            }
+            return bytesWritten;
+        }
+
+        @Override
+        public void sync() {
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void abort() {
+            log.error("Error at writing records of {}", fileName);
+        }
+
+        @Override
+        public void onCompleted(boolean success) {
+            onWritten(success, bytesWritten, requestTime);
         }
-        return writeToDiskExecutor;
     }
 
     @Override
@@ -520,6 +739,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 ",\n     source=" + source +
                 ",\n     usedTempFilePath=" + usedTempFilePath +
                 ",\n     persistenceRequested=" + persistenceRequested +
+                ",\n     useRecordStorage=" + (recordStore != null) +
                 "\n}";
     }
 }
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import lombok.Getter;
+
+/**
+ * Write metrics of a store. Serialization happens on the user thread and the write on the write thread, so all
+ * methods are synchronized.
+ */
+@Getter
+public class PersistenceMetrics {
+    private long numWrites;
+    private long numFailedWrites;
+    private long numBackups;
+    private long lastSerializeTime;
+    private long maxSerializeTime;
+    private long totalSerializeTime;
+    private long lastBytesWritten;
+    private long totalBytesWritten;
+    // Time from the first persistence request (or the persistNow call) until the data was written
+    private long lastFlushLatency;
+    private long maxFlushLatency;
+
+    synchronized void onSerialized(long serializeTime) {
+        lastSerializeTime = serializeTime;
+        maxSerializeTime = Math.max(maxSerializeTime, serializeTime);
+        totalSerializeTime += serializeTime;
+    }
+
+    synchronized void onBackup() {
+        numBackups++;
+    }
+
+    synchronized void onWritten(long bytesWritten, long flushLatency) {
+        numWrites++;
+        lastBytesWritten = bytesWritten;
+        totalBytesWritten += bytesWritten;
+        lastFlushLatency = flushLatency;
+        maxFlushLatency = Math.max(maxFlushLatency, flushLatency);
+    }
+
+    synchronized void onWriteFailed() {
+        numFailedWrites++;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "PersistenceMetrics{" +
+                "\n     numWrites=" + numWrites +
+                ",\n     numFailedWrites=" + numFailedWrites +
+                ",\n     numBackups=" + numBackups +
+                ",\n     lastSerializeTime=" + lastSerializeTime +
+                ",\n     maxSerializeTime=" + maxSerializeTime +
+                ",\n     totalSerializeTime=" + totalSerializeTime +
+                ",\n     lastBytesWritten=" + lastBytesWritten +
+                ",\n     totalBytesWritten=" + totalBytesWritten +
+                ",\n     lastFlushLatency=" + lastFlushLatency +
+                ",\n     maxFlushLatency=" + maxFlushLatency +
+                "\n}";
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+import bisq.common.util.Utilities;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Schedules the writes of all PersistenceManager instances, so stores which become due at about the same time get
+ * written together instead of each store running its own timer and write thread.
+ * <p>
+ * A store which requested persistence is due after the delay of its {@link PersistenceManager.Source}. When the
+ * first store is due we also flush all stores which are due within {@link #FLUSH_WINDOW} ms. The stores are
+ * serialized on the user thread (see {@link PersistenceManager#persistNow}) and written on a single write thread in
+ * three phases: all temp files are written, then all of them are forced to disk back to back, then all are renamed.
+ * Forcing the files without other writes in between lets the file system commit them with few journal commits
+ * instead of an fsync storm of independent writes.
+ * <p>
+ * Stores are serialized and the complete handlers are called on the user thread. As requestPersistence might be
+ * called from other threads the due times are guarded by the instance lock.
+ */
+@Slf4j
+class PersistenceScheduler {
+    // Stores which are due within that window after the first due store are written in the same batch.
+    static final long FLUSH_WINDOW = 1000;
+
+    /**
+     * A serialized store which is ready to be written. The methods are called on the write thread in that order:
+     * {@link #write}, {@link #sync}, {@link #commit}. If any of them fails we call {@link #abort} instead of the
+     * remaining ones. {@link #onCompleted} is called in any case.
+     */
+    interface StoreWrite {
+        // Writes the data without forcing it to the storage device. Returns the number of bytes written.
+        long write() throws IOException;
+
+        void sync() throws IOException;
+
+        // Makes the written data the persisted data, e.g. by renaming the temp file to the storage file.
+        void commit() throws IOException;
+
+        void abort();
+
+        void onCompleted(boolean success);
+    }
+
+    private final Map<PersistenceManager<?>, Long> dueTimeByPersistenceManager = new HashMap<>();
+    @Nullable
+    private Timer timer;
+    private long timerDueTime;
+    @Nullable
+    private ExecutorService writeExecutor;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void schedule(PersistenceManager<?> persistenceManager, long delay) {
+        long dueTime = System.currentTimeMillis() + delay;
+        Long scheduledDueTime = dueTimeByPersistenceManager.get(persistenceManager);
+        if (scheduledDueTime != null && scheduledDueTime <= dueTime) {
+            return;
+        }
+
+        dueTimeByPersistenceManager.put(persistenceManager, dueTime);
+        if (timer == null || dueTime < timerDueTime) {
+            startTimer(dueTime);
+        }
+    }
+
+    synchronized void cancel(PersistenceManager<?> persistenceManager) {
+        dueTimeByPersistenceManager.remove(persistenceManager);
+    }
+
+    /**
+     * Serializes the given stores and writes them in one batch.
+     *
+     * @param completeHandlers  The stores to write with an optional handler which is called on the user thread
+     *                          once the store was written.
+     */
+    void flush(Map<PersistenceManager<?>, Runnable> completeHandlers) {
+        List<StoreWrite> writes = new ArrayList<>();
+        List<Runnable> handlers = new ArrayList<>();
+        completeHandlers.forEach((persistenceManager, completeHandler) -> {
+            cancel(persistenceManager);
+            try {
+                StoreWrite write = persistenceManager.prepareWrite();
+                if (write != null) {
+                    writes.add(write);
+                }
+            } catch (Throwable t) {
+                log.error("Serializing {} failed", persistenceManager.getFileName(), t);
+            }
+            if (completeHandler != null) {
+                handlers.add(completeHandler);
+            }
+        });
+
+        if (writes.isEmpty()) {
+            handlers.forEach(UserThread::execute);
+            return;
+        }
+
+        getWriteExecutor().execute(() -> {
+            writeBatch(writes);
+            handlers.forEach(UserThread::execute);
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void startTimer(long dueTime) {
+        if (timer != null) {
+            timer.stop();
+        }
+        timerDueTime = dueTime;
+        timer = UserThread.runAfter(this::onTimer,
+                Math.max(0, dueTime - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private void onTimer() {
+        Map<PersistenceManager<?>, Runnable> dueStores = new HashMap<>();
+        synchronized (this) {
+            timer = null;
+            long flushUntil = System.currentTimeMillis() + FLUSH_WINDOW;
+            Iterator<Map.Entry<PersistenceManager<?>, Long>> iterator =
+                    dueTimeByPersistenceManager.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<PersistenceManager<?>, Long> entry = iterator.next();
+                if (entry.getValue() <= flushUntil) {
+                    dueStores.put(entry.getKey(), null);
+                    iterator.remove();
+                }
+            }
+
+            dueTimeByPersistenceManager.values().stream()
+                    .min(Long::compare)
+                    .ifPresent(this::startTimer);
+        }
+
+        flush(dueStores);
+    }
+
+    // Write thread
+    @VisibleForTesting
+    static void writeBatch(List<StoreWrite> writes) {
+        long ts = System.currentTimeMillis();
+        List<StoreWrite> pending = new ArrayList<>(writes);
+        long bytes = 0;
+        for (Iterator<StoreWrite> iterator = pending.iterator(); iterator.hasNext(); ) {
+            StoreWrite write = iterator.next();
+            try {
+                bytes += write.write();
+            } catch (Throwable t) {
+                log.error("Writing store failed", t);
+                write.abort();
+                iterator.remove();
+            }
+        }
+
+        // We force all files to disk back to back (group commit)
+        for (Iterator<StoreWrite> iterator = pending.iterator(); iterator.hasNext(); ) {
+            StoreWrite write = iterator.next();
+            try {
+                write.sync();
+            } catch (Throwable t) {
+                log.error("Forcing store to disk failed", t);
+                write.abort();
+                iterator.remove();
+            }
+        }
+
+        for (Iterator<StoreWrite> iterator = pending.iterator(); iterator.hasNext(); ) {
+            StoreWrite write = iterator.next();
+            try {
+                write.commit();
+            } catch (Throwable t) {
+                log.error("Committing store failed", t);
+                write.abort();
+                iterator.remove();
+            }
+        }
+
+        writes.forEach(write -> write.onCompleted(pending.contains(write)));
+
+        long duration = System.currentTimeMillis() - ts;
+        if (duration > 100) {
+            log.info("Writing {} stores with {} bytes completed in {} msec", writes.size(), bytes, duration);
+        }
+    }
+
+    private ExecutorService getWriteExecutor() {
+        if (writeExecutor == null) {
+            writeExecutor = Utilities.getSingleThreadExecutor("PersistenceScheduler-write");
+        }
+        return writeExecutor;
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.crypto.Hash;
+import bisq.common.file.FileUtil;
+import bisq.common.util.Utilities;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the records of a {@link bisq.common.proto.persistable.PersistableRecordEnvelope} as one file per record in
+ * a directory.
+ * <p>
+ * The file name of a record is the hex encoded hash of its key, so keys which are derived from data we received from
+ * peers cannot be used to write outside of the directory. At a write only records which have changed since the last
+ * write are written and the files of records which are not contained anymore get deleted. A record which is passed
+ * as the same array as at the last write is not even hashed. The cost of a write therefore depends on the number of
+ * changed records and not on the number of records.
+ * <p>
+ * The order of the records is kept in an order file listing the file names of the records. It is only written if
+ * records got added, removed or reordered. Records missing in the order file (e.g. due a crash before it got written)
+ * are read after the ordered records.
+ * <p>
+ * A record is written to a temp file which gets renamed to the record file. The previous version of the record is
+ * renamed to a backup file before. If we crash after the previous version was renamed to the backup file but before
+ * the new version was renamed to the record file we restore the backup at the next read. After the renames the
+ * directory is synced, so the renames survive a power loss, and the backups get deleted. The directory is created at
+ * the first write with all records written to a temp directory, so we never read a partially written store.
+ * <p>
+ * Not thread safe. The PersistenceManager accesses it only from its write thread (or before the first write from the
+ * read thread).
+ */
+@Slf4j
+public class RecordStore {
+    static final String BACKUP_FILE_EXTENSION = ".bak";
+    static final String TEMP_FILE_EXTENSION = ".tmp";
+    static final String ORDER_FILE_NAME = "order";
+
+    private final File dir;
+    private final File tempDir;
+    // Hashes of the written records by file name. Null until we have read or written the store.
+    @Nullable
+    private Map<String, byte[]> writtenHashes;
+    // File names of the records in the order of the order file. Null until we have read or written the store.
+    @Nullable
+    private List<String> writtenOrder;
+    // Records of the last write by file name. Used to skip hashing records which are passed as the same array again.
+    private Map<String, byte[]> writtenRecords = new HashMap<>();
+    private long lastBytesWritten;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public RecordStore(File dir) {
+        this.dir = dir;
+        this.tempDir = new File(dir.getParentFile(), dir.getName() + TEMP_FILE_EXTENSION);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean exists() {
+        return dir.isDirectory();
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    /**
+     * @return The number of bytes written at the last write.
+     */
+    public long getLastBytesWritten() {
+        return lastBytesWritten;
+    }
+
+    /**
+     * @return The serialized records in the order of the last write.
+     */
+    public List<byte[]> readAll() throws IOException {
+        restoreBackups();
+
+        List<byte[]> records = new ArrayList<>();
+        Map<String, byte[]> hashes = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        for (File file : listRecordFilesInOrder()) {
+            byte[] record = Files.readAllBytes(file.toPath());
+            records.add(record);
+            hashes.put(file.getName(), Hash.getSha256Hash(record));
+            order.add(file.getName());
+        }
+        writtenHashes = hashes;
+        writtenOrder = order;
+        return records;
+    }
+
+    /**
+     * Writes the changed records and deletes the records which are not contained in the given records.
+     *
+     * @param records   All records of the store by their key in the order in which they are read.
+     * @return The number of written records.
+     */
+    public int write(Map<String, byte[]> records) throws IOException {
+        if (!exists())
+            return writeNewStore(records);
+
+        if (writtenHashes == null)
+            readAll();
+
+        Map<String, byte[]> hashes = new LinkedHashMap<>();
+        Map<String, byte[]> written = new HashMap<>();
+        List<String> backups = new ArrayList<>();
+        int numWritten = 0;
+        lastBytesWritten = 0;
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            String fileName = toFileName(entry.getKey());
+            byte[] record = entry.getValue();
+            written.put(fileName, record);
+            if (record == writtenRecords.get(fileName) && writtenHashes.containsKey(fileName)) {
+                hashes.put(fileName, writtenHashes.get(fileName));
+                continue;
+            }
+
+            byte[] hash = Hash.getSha256Hash(record);
+            hashes.put(fileName, hash);
+            if (!Arrays.equals(hash, writtenHashes.get(fileName))) {
+                if (writeRecord(fileName, record))
+                    backups.add(fileName);
+                numWritten++;
+                lastBytesWritten += record.length;
+            }
+        }
+
+        Set<String> removed = new HashSet<>(writtenHashes.keySet());
+        removed.removeAll(hashes.keySet());
+        for (String fileName : removed)
+            deleteRecord(fileName);
+
+        // We write the order after the records, so a record is never listed before it exists.
+        List<String> order = new ArrayList<>(hashes.keySet());
+        boolean orderChanged = !order.equals(writtenOrder);
+        if (orderChanged)
+            writeOrder(dir, order);
+
+        if (numWritten > 0 || !removed.isEmpty() || orderChanged) {
+            syncDirectory(dir);
+            // The new versions are durable now, we do not need the backups anymore.
+            for (String fileName : backups)
+                deleteFile(new File(dir, fileName + BACKUP_FILE_EXTENSION));
+        }
+
+        writtenHashes = hashes;
+        writtenRecords = written;
+        writtenOrder = order;
+        return numWritten;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private int writeNewStore(Map<String, byte[]> records) throws IOException {
+        if (tempDir.exists())
+            FileUtil.deleteDirectory(tempDir);
+        if (!tempDir.mkdirs())
+            throw new IOException("Could not create " + tempDir);
+
+        Map<String, byte[]> hashes = new LinkedHashMap<>();
+        Map<String, byte[]> written = new HashMap<>();
+        lastBytesWritten = 0;
+        for (Map.Entry<String, byte[]> entry : records.entrySet()) {
+            String fileName = toFileName(entry.getKey());
+            writeFile(new File(tempDir, fileName), entry.getValue());
+            lastBytesWritten += entry.getValue().length;
+            hashes.put(fileName, Hash.getSha256Hash(entry.getValue()));
+            written.put(fileName, entry.getValue());
+        }
+        List<String> order = new ArrayList<>(hashes.keySet());
+        writeOrder(tempDir, order);
+        syncDirectory(tempDir);
+        FileUtil.renameFile(tempDir, dir);
+        syncDirectory(dir.getParentFile());
+
+        writtenHashes = hashes;
+        writtenRecords = written;
+        writtenOrder = order;
+        return records.size();
+    }
+
+    // Returns true if the previous version was renamed to the backup file
+    private boolean writeRecord(String fileName, byte[] record) throws IOException {
+        File tempFile = new File(dir, fileName + TEMP_FILE_EXTENSION);
+        File file = new File(dir, fileName);
+        writeFile(tempFile, record);
+        boolean hasBackup = file.exists();
+        if (hasBackup)
+            FileUtil.renameFile(file, new File(dir, fileName + BACKUP_FILE_EXTENSION));
+        FileUtil.renameFile(tempFile, file);
+        return hasBackup;
+    }
+
+    private void deleteRecord(String fileName) throws IOException {
+        // We delete the backup first, otherwise a crash in between would restore the removed record.
+        File backupFile = new File(dir, fileName + BACKUP_FILE_EXTENSION);
+        if (backupFile.exists() && !backupFile.delete())
+            throw new IOException("Could not delete " + backupFile);
+        File file = new File(dir, fileName);
+        if (file.exists() && !file.delete())
+            throw new IOException("Could not delete " + file);
+    }
+
+    private void restoreBackups() throws IOException {
+        File[] files = Objects.requireNonNull(dir.listFiles(), "Could not list " + dir);
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TEMP_FILE_EXTENSION)) {
+                // Leftover of an interrupted write. The record file or its backup is still intact.
+                if (!file.delete())
+                    log.warn("Could not delete {}", file);
+            } else if (name.endsWith(BACKUP_FILE_EXTENSION)) {
+                File recordFile = new File(dir, name.substring(0, name.length() - BACKUP_FILE_EXTENSION.length()));
+                if (!recordFile.exists()) {
+                    log.warn("Record {} is missing, probably due an interrupted write. We restore its backup.",
+                            recordFile);
+                    FileUtil.renameFile(file, recordFile);
+                } else {
+                    // The new version was written, we got interrupted before the backup was deleted.
+                    deleteFile(file);
+                }
+            }
+        }
+    }
+
+    private void writeOrder(File dir, List<String> order) throws IOException {
+        File tempFile = new File(dir, ORDER_FILE_NAME + TEMP_FILE_EXTENSION);
+        writeFile(tempFile, String.join("\n", order).getBytes(StandardCharsets.UTF_8));
+        FileUtil.renameFile(tempFile, new File(dir, ORDER_FILE_NAME));
+    }
+
+    // Records listed in the order file first, then the records missing in the order file sorted by file name.
+    private List<File> listRecordFilesInOrder() throws IOException {
+        File[] files = Objects.requireNonNull(dir.listFiles(), "Could not list " + dir);
+        Map<String, File> recordFiles = new TreeMap<>();
+        for (File file : files) {
+            String name = file.getName();
+            if (file.isFile() && !name.equals(ORDER_FILE_NAME) && !name.endsWith(BACKUP_FILE_EXTENSION) &&
+                    !name.endsWith(TEMP_FILE_EXTENSION))
+                recordFiles.put(name, file);
+        }
+
+        List<File> result = new ArrayList<>();
+        File orderFile = new File(dir, ORDER_FILE_NAME);
+        if (orderFile.exists()) {
+            for (String name : Files.readAllLines(orderFile.toPath(), StandardCharsets.UTF_8)) {
+                File file = recordFiles.remove(name);
+                if (file != null)
+                    result.add(file);
+            }
+        }
+        result.addAll(recordFiles.values());
+        return result;
+    }
+
+    private static void deleteFile(File file) {
+        if (!file.delete())
+            log.warn("Could not delete {}", file);
+    }
+
+    // Makes the renames and deletions in the directory durable. Directories cannot be opened on Windows, NTFS
+    // journals the metadata changes anyway.
+    private static void syncDirectory(File dir) throws IOException {
+        if (Utilities.isWindows())
+            return;
+
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private static void writeFile(File file, byte[] data) throws IOException {
+        try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+            fileOutputStream.write(data);
+            fileOutputStream.flush();
+            fileOutputStream.getFD().sync();
+        }
+    }
+
+    static String toFileName(String key) {
+        return Utilities.bytesAsHexString(Hash.getSha256Hash(key));
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto.persistable;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A PersistableEnvelope which consists of independent records. If record storage is enabled the PersistenceManager
+ * stores each record in its own file, so a change of a single record does not require rewriting all records. Records
+ * which have not been marked as changed are not serialized again either.
+ */
+public interface PersistableRecordEnvelope extends PersistableEnvelope {
+
+    /**
+     * @return The serializers of the records in the order of the records, by a key which is unique within the
+     * envelope and does not change over the lifetime of the record. A record is only serialized if it has changed.
+     */
+    Map<String, Supplier<? extends Message>> getRecords();
+
+    /**
+     * Builds the envelope from the serialized records as they have been returned by {@link #getRecords()}.
+     */
+    protobuf.PersistableEnvelope toProtoEnvelope(List<byte[]> records) throws InvalidProtocolBufferException;
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Starts 20000 timers with random delays of 1 to 5 sec. like the broadcast timers at a seed node, stops half of them
+ * and waits until the others have fired. Logs the time for starting and stopping the timers and the time the timers
+ * used on the user thread (including the frames or ticks without expiring timers) with the {@link FrameRateTimer}
+ * and the {@link TimingWheelTimer}.
+ * Not run with the regular tests as it is a benchmark and takes a few seconds.
+ */
+@Ignore
+public class TimerBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(TimerBenchmark.class);
+    private static final int NUM_TIMERS = 20_000;
+
+    @Test
+    public void frameRateTimer() throws InterruptedException {
+        run(FrameRateTimer.class);
+    }
+
+    @Test
+    public void timingWheelTimer() throws InterruptedException {
+        run(TimingWheelTimer.class);
+    }
+
+    private void run(Class<? extends Timer> timerClass) throws InterruptedException {
+        Executor executor = UserThread.getExecutor();
+        AtomicLong userThreadNanos = new AtomicLong();
+        UserThread.setExecutor(command -> {
+            long ts = System.nanoTime();
+            command.run();
+            userThreadNanos.addAndGet(System.nanoTime() - ts);
+        });
+        UserThread.setTimerClass(timerClass);
+        try {
+            Random random = new Random(1);
+            CountDownLatch firedLatch = new CountDownLatch(NUM_TIMERS / 2);
+            List<Timer> timers = new ArrayList<>();
+
+            long ts = System.nanoTime();
+            for (int i = 0; i < NUM_TIMERS; i++)
+                timers.add(UserThread.runAfter(firedLatch::countDown, 1000 + random.nextInt(4000), TimeUnit.MILLISECONDS));
+            long startNanos = System.nanoTime() - ts;
+
+            ts = System.nanoTime();
+            for (int i = 0; i < NUM_TIMERS; i += 2)
+                timers.get(i).stop();
+            long stopNanos = System.nanoTime() - ts;
+
+            assertTrue(firedLatch.await(10, TimeUnit.SECONDS));
+
+            log.info("{} timers with {}: start {} ms, stop of half of them {} ms, user thread {} ms",
+                    NUM_TIMERS,
+                    timerClass.getSimpleName(),
+                    TimeUnit.NANOSECONDS.toMillis(startNanos),
+                    TimeUnit.NANOSECONDS.toMillis(stopNanos),
+                    TimeUnit.NANOSECONDS.toMillis(userThreadNanos.get()));
+        } finally {
+            UserThread.setExecutor(executor);
+            UserThread.setTimerClass(FrameRateTimer.class);
+        }
+    }
+}
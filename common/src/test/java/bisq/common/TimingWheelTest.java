@@ -0,0 +1,142 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimingWheelTest {
+    private static final long TICK = 100;
+    private static final int WHEEL_SIZE = 8;
+
+    private final List<TimingWheel.Entry> expired = new ArrayList<>();
+
+    @Test
+    public void expireAtDeadline() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000);
+        TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+        });
+        Assert.assertTrue(wheel.add(entry, 1250));
+
+        wheel.advance(1299, expired::add);
+        Assert.assertTrue(expired.isEmpty());
+
+        // Never before the deadline, so at the tick after it
+        wheel.advance(1300, expired::add);
+        Assert.assertEquals(List.of(entry), expired);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void passedDeadlineIsNotScheduled() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000);
+        Assert.assertFalse(wheel.add(new TimingWheel.Entry(() -> {
+        }), 1000));
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void addAtNextTick() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 1000);
+        TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+        });
+        wheel.addAtNextTick(entry);
+        Assert.assertEquals(1, wheel.size());
+
+        wheel.advance(1100, expired::add);
+        Assert.assertEquals(List.of(entry), expired);
+    }
+
+    @Test
+    public void removeEntry() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 0);
+        TimingWheel.Entry entry1 = new TimingWheel.Entry(() -> {
+        });
+        TimingWheel.Entry entry2 = new TimingWheel.Entry(() -> {
+        });
+        wheel.add(entry1, 500);
+        wheel.add(entry2, 500);
+        wheel.remove(entry1);
+        Assert.assertFalse(entry1.isScheduled());
+        Assert.assertEquals(1, wheel.size());
+
+        wheel.advance(500, expired::add);
+        Assert.assertEquals(List.of(entry2), expired);
+    }
+
+    @Test
+    public void cascadeFromHigherLevels() {
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 0);
+        // Beyond the range of the first two levels (800 and 6400 ms)
+        TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+        });
+        wheel.add(entry, 10_050);
+
+        wheel.advance(10_099, expired::add);
+        Assert.assertTrue(expired.isEmpty());
+        Assert.assertTrue(entry.isScheduled());
+
+        wheel.advance(10_100, expired::add);
+        Assert.assertEquals(List.of(entry), expired);
+    }
+
+    @Test
+    public void randomDeadlines() {
+        Random random = new Random(1);
+        TimingWheel wheel = new TimingWheel(TICK, WHEEL_SIZE, 0);
+        Map<TimingWheel.Entry, Long> deadlines = new HashMap<>();
+        Map<TimingWheel.Entry, Long> expirationTimes = new HashMap<>();
+        long now = 0;
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 10; i++) {
+                long deadline = now + 1 + random.nextInt(20_000);
+                TimingWheel.Entry entry = new TimingWheel.Entry(() -> {
+                });
+                deadlines.put(entry, deadline);
+                Assert.assertTrue(wheel.add(entry, deadline));
+            }
+            now += random.nextInt(300);
+            advance(wheel, now, deadlines, expirationTimes);
+        }
+        advance(wheel, now + 30_000, deadlines, expirationTimes);
+
+        Assert.assertEquals(deadlines.keySet(), expirationTimes.keySet());
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    // Checks that entries expire at the first advance after the tick of their deadline
+    private static void advance(TimingWheel wheel,
+                                long now,
+                                Map<TimingWheel.Entry, Long> deadlines,
+                                Map<TimingWheel.Entry, Long> expirationTimes) {
+        wheel.advance(now, entry -> {
+            Assert.assertTrue(deadlines.get(entry) <= now);
+            Assert.assertNull(expirationTimes.put(entry, now));
+        });
+        deadlines.forEach((entry, deadline) -> {
+            if (deadline + TICK <= now)
+                Assert.assertTrue(expirationTimes.containsKey(entry));
+        });
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistenceSchedulerTest {
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void writeBatchInPhases() {
+        PersistenceScheduler.writeBatch(List.of(new FakeWrite("a", null), new FakeWrite("b", null)));
+
+        Assert.assertEquals(List.of(
+                "write a", "write b",
+                "sync a", "sync b",
+                "commit a", "commit b",
+                "completed a true", "completed b true"), calls);
+    }
+
+    @Test
+    public void failedWriteDoesNotAffectOtherStores() {
+        PersistenceScheduler.writeBatch(List.of(new FakeWrite("a", "sync"), new FakeWrite("b", null)));
+
+        Assert.assertEquals(List.of(
+                "write a", "write b",
+                "sync a", "abort a", "sync b",
+                "commit b",
+                "completed a false", "completed b true"), calls);
+    }
+
+    private class FakeWrite implements PersistenceScheduler.StoreWrite {
+        private final String name;
+        private final String failingPhase;
+
+        FakeWrite(String name, String failingPhase) {
+            this.name = name;
+            this.failingPhase = failingPhase;
+        }
+
+        @Override
+        public long write() throws IOException {
+            call("write");
+            return 1;
+        }
+
+        @Override
+        public void sync() throws IOException {
+            call("sync");
+        }
+
+        @Override
+        public void commit() throws IOException {
+            call("commit");
+        }
+
+        @Override
+        public void abort() {
+            calls.add("abort " + name);
+        }
+
+        @Override
+        public void onCompleted(boolean success) {
+            calls.add("completed " + name + " " + success);
+        }
+
+        private void call(String phase) throws IOException {
+            calls.add(phase + " " + name);
+            if (phase.equals(failingPhase))
+                throw new IOException(phase + " failed");
+        }
+    }
+}
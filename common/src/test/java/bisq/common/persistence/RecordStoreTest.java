@@ -0,0 +1,181 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.file.FileUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RecordStoreTest {
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("record_store_test", "");
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.deleteDirectory(dir);
+    }
+
+    @Test
+    public void writeAndRead() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        Assert.assertFalse(recordStore.exists());
+        Assert.assertEquals(2, recordStore.write(records("a", "1", "b", "2")));
+        Assert.assertTrue(recordStore.exists());
+        Assert.assertFalse(new File(dir.getParentFile(), dir.getName() + RecordStore.TEMP_FILE_EXTENSION).exists());
+
+        Assert.assertEquals(Set.of("1", "2"), read(new RecordStore(dir)));
+    }
+
+    @Test
+    public void writeOnlyChangedRecords() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        recordStore.write(records("a", "1", "b", "2", "c", "3"));
+
+        Assert.assertEquals(0, recordStore.write(records("a", "1", "b", "2", "c", "3")));
+        Assert.assertEquals(1, recordStore.write(records("a", "1", "b", "4", "c", "3")));
+        Assert.assertEquals(Set.of("1", "4", "3"), read(new RecordStore(dir)));
+    }
+
+    @Test
+    public void deleteRemovedRecords() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        recordStore.write(records("a", "1", "b", "2"));
+        recordStore.write(records("a", "1", "b", "3"));
+
+        Assert.assertEquals(0, recordStore.write(records("a", "1")));
+        Assert.assertEquals(Set.of("1"), read(new RecordStore(dir)));
+    }
+
+    @Test
+    public void reopenDoesNotRewriteUnchangedRecords() throws IOException {
+        new RecordStore(dir).write(records("a", "1", "b", "2"));
+
+        RecordStore recordStore = new RecordStore(dir);
+        Assert.assertEquals(2, recordStore.write(records("a", "1", "b", "3", "c", "4")));
+        Assert.assertEquals(Set.of("1", "3", "4"), read(new RecordStore(dir)));
+    }
+
+    @Test
+    public void restoreBackupOfInterruptedWrite() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        recordStore.write(records("a", "1"));
+        recordStore.write(records("a", "2"));
+
+        // Simulate a crash after the record was renamed to its backup but before the new version was renamed
+        File recordFile = new File(dir, RecordStore.toFileName("a"));
+        FileUtil.renameFile(recordFile, new File(dir, recordFile.getName() + RecordStore.BACKUP_FILE_EXTENSION));
+        Assert.assertTrue(new File(dir, recordFile.getName() + RecordStore.TEMP_FILE_EXTENSION).createNewFile());
+
+        Assert.assertEquals(Set.of("2"), read(new RecordStore(dir)));
+        Assert.assertEquals(Set.of(recordFile.getName(), RecordStore.ORDER_FILE_NAME),
+                Arrays.stream(Objects.requireNonNull(dir.listFiles())).map(File::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void deleteBackupsAfterWrite() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        recordStore.write(records("a", "1", "b", "2"));
+        recordStore.write(records("a", "3", "b", "2"));
+
+        Assert.assertEquals(Set.of(RecordStore.toFileName("a"), RecordStore.toFileName("b"), RecordStore.ORDER_FILE_NAME),
+                Arrays.stream(Objects.requireNonNull(dir.listFiles())).map(File::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void skipUnchangedRecordInstances() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        Map<String, byte[]> records = records("a", "1", "b", "2");
+        recordStore.write(records);
+
+        // The same array is not hashed again, a changed array is
+        records.put("b", "4".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(1, recordStore.write(records));
+        Assert.assertEquals(0, recordStore.write(records));
+        Assert.assertEquals(Set.of("1", "4"), read(new RecordStore(dir)));
+    }
+
+    @Test
+    public void keepOrder() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        recordStore.write(records("c", "3", "a", "1", "b", "2"));
+        Assert.assertEquals(List.of("3", "1", "2"), readInOrder(new RecordStore(dir)));
+
+        recordStore.write(records("c", "3", "b", "2", "d", "4"));
+        Assert.assertEquals(List.of("3", "2", "4"), readInOrder(new RecordStore(dir)));
+
+        // Only changed records
+        recordStore.write(records("d", "4", "c", "3", "b", "5"));
+        Assert.assertEquals(List.of("4", "3", "5"), readInOrder(new RecordStore(dir)));
+    }
+
+    @Test
+    public void readRecordsMissingInOrderFile() throws IOException {
+        RecordStore recordStore = new RecordStore(dir);
+        recordStore.write(records("b", "2", "a", "1"));
+
+        // Simulate a crash after a new record was written but before the order file was written
+        File orderFile = new File(dir, RecordStore.ORDER_FILE_NAME);
+        byte[] order = Files.readAllBytes(orderFile.toPath());
+        recordStore.write(records("b", "2", "a", "1", "c", "3"));
+        Files.write(orderFile.toPath(), order);
+
+        Assert.assertEquals(List.of("2", "1", "3"), readInOrder(new RecordStore(dir)));
+    }
+
+    private static Map<String, byte[]> records(String... keysAndValues) {
+        Map<String, byte[]> records = new LinkedHashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2)
+            records.put(keysAndValues[i], keysAndValues[i + 1].getBytes(StandardCharsets.UTF_8));
+        return records;
+    }
+
+    private static Set<String> read(RecordStore recordStore) throws IOException {
+        return new HashSet<>(readInOrder(recordStore));
+    }
+
+    private static List<String> readInOrder(RecordStore recordStore) throws IOException {
+        List<byte[]> records = recordStore.readAll();
+        return records.stream()
+                .map(record -> new String(record, StandardCharsets.UTF_8))
+                .collect(Collectors.toList());
+    }
+}
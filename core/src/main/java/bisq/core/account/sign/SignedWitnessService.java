@@ -76,6 +76,7 @@ public class SignedWitnessService {
     private final SignedWitnessStorageService signedWitnessStorageService;
     private final User user;
     private final FilterManager filterManager;
+    private final SignedWitnessVerificationCache signedWitnessVerificationCache;
 
     private final Map<P2PDataStorage.ByteArray, SignedWitness> signedWitnessMap = new HashMap<>();
 
@@ -88,11 +89,8 @@ public class SignedWitnessService {
     // access to the set of SignedWitness which match the ownerPubKey.
     private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByOwnerPubKey = new HashMap<>();
 
-    // The signature verification calls are rather expensive and called at filtering the offer book many times,
-    // so we cache the results using the hash as key. The hash is created from the accountAgeWitnessHash and the
-    // signature.
-    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithDSAKeyResultCache = new HashMap<>();
-    private final Map<P2PDataStorage.ByteArray, Boolean> verifySignatureWithECKeyResultCache = new HashMap<>();
+    // Keeps the trust chains of all SignedWitnesses, so we don't have to walk all possible chains at each check.
+    private final SignedWitnessTrustGraph trustGraph = new SignedWitnessTrustGraph(SIGNER_AGE, this::verifySignature);
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -106,13 +104,15 @@ public class SignedWitnessService {
                                 SignedWitnessStorageService signedWitnessStorageService,
                                 AppendOnlyDataStoreService appendOnlyDataStoreService,
                                 User user,
-                                FilterManager filterManager) {
+                                FilterManager filterManager,
+                                SignedWitnessVerificationCache signedWitnessVerificationCache) {
         this.keyRing = keyRing;
         this.p2PService = p2PService;
         this.arbitratorManager = arbitratorManager;
         this.signedWitnessStorageService = signedWitnessStorageService;
         this.user = user;
         this.filterManager = filterManager;
+        this.signedWitnessVerificationCache = signedWitnessVerificationCache;
 
         // We need to add that early (before onAllServicesInitialized) as it will be used at startup.
         appendOnlyDataStoreService.addService(signedWitnessStorageService);
@@ -150,6 +150,7 @@ public class SignedWitnessService {
     }
 
     private void onBootstrapComplete() {
+        log.info(signedWitnessVerificationCache.getStatistics());
         if (user.getRegisteredArbitrator() != null) {
             UserThread.runAfter(this::doRepublishAllSignedWitnesses, 60);
         }
@@ -335,47 +336,43 @@ public class SignedWitnessService {
     }
 
     private boolean verifySignatureWithECKey(SignedWitness signedWitness) {
-        P2PDataStorage.ByteArray hash = new P2PDataStorage.ByteArray(signedWitness.getHash());
-        if (verifySignatureWithECKeyResultCache.containsKey(hash)) {
-            return verifySignatureWithECKeyResultCache.get(hash);
+        ECKey key = ECKey.fromPublicOnly(signedWitness.getSignerPubKey());
+        // The list of arbitrators can change, so only the result of the signature check gets cached. As the check
+        // is called very often we log at debug level.
+        if (!arbitratorManager.isPublicKeyInList(Utilities.encodeToHex(key.getPubKey()))) {
+            log.debug("Provided EC key is not in list of valid arbitrators.");
+            return false;
         }
-        try {
-            String message = Utilities.encodeToHex(signedWitness.getAccountAgeWitnessHash());
-            String signatureBase64 = new String(signedWitness.getSignature(), Charsets.UTF_8);
-            ECKey key = ECKey.fromPublicOnly(signedWitness.getSignerPubKey());
-            if (arbitratorManager.isPublicKeyInList(Utilities.encodeToHex(key.getPubKey()))) {
+
+        return signedWitnessVerificationCache.isSignatureValid(signedWitness.getHashAsByteArray(), () -> {
+            try {
+                String message = Utilities.encodeToHex(signedWitness.getAccountAgeWitnessHash());
+                String signatureBase64 = new String(signedWitness.getSignature(), Charsets.UTF_8);
                 key.verifyMessage(message, signatureBase64);
-                verifySignatureWithECKeyResultCache.put(hash, true);
                 return true;
-            } else {
-                log.warn("Provided EC key is not in list of valid arbitrators.");
-                verifySignatureWithECKeyResultCache.put(hash, false);
+            } catch (SignatureException e) {
+                log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
+                log.warn("Caused by ", e);
                 return false;
             }
-        } catch (SignatureException e) {
-            log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
-            log.warn("Caused by ", e);
-            verifySignatureWithECKeyResultCache.put(hash, false);
-            return false;
-        }
+        });
     }
 
     private boolean verifySignatureWithDSAKey(SignedWitness signedWitness) {
-        P2PDataStorage.ByteArray hash = new P2PDataStorage.ByteArray(signedWitness.getHash());
-        if (verifySignatureWithDSAKeyResultCache.containsKey(hash)) {
-            return verifySignatureWithDSAKeyResultCache.get(hash);
-        }
-        try {
-            PublicKey signaturePubKey = Sig.getPublicKeyFromBytes(signedWitness.getSignerPubKey());
-            Sig.verify(signaturePubKey, signedWitness.getAccountAgeWitnessHash(), signedWitness.getSignature());
-            verifySignatureWithDSAKeyResultCache.put(hash, true);
-            return true;
-        } catch (CryptoException e) {
-            log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
-            log.warn("Caused by ", e);
-            verifySignatureWithDSAKeyResultCache.put(hash, false);
-            return false;
-        }
+        return signedWitnessVerificationCache.isSignatureValid(signedWitness.getHashAsByteArray(), () -> {
+            try {
+                PublicKey signaturePubKey = Sig.getPublicKeyFromBytes(signedWitness.getSignerPubKey());
+                if (!Sig.verify(signaturePubKey, signedWitness.getAccountAgeWitnessHash(), signedWitness.getSignature())) {
+                    log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
+                    return false;
+                }
+                return true;
+            } catch (CryptoException e) {
+                log.warn("verifySignature signedWitness failed. signedWitness={}", signedWitness);
+                log.warn("Caused by ", e);
+                return false;
+            }
+        });
     }
 
     public Set<SignedWitness> getSignedWitnessSet(AccountAgeWitness accountAgeWitness) {
@@ -444,7 +441,7 @@ public class SignedWitnessService {
 
     private boolean verifySigner(SignedWitness signedWitness) {
         return getSignedWitnessSetByOwnerPubKey(signedWitness.getWitnessOwnerPubKey(), new Stack<>()).stream()
-                .anyMatch(w -> isValidSignerWitnessInternal(w, signedWitness.getDate(), new Stack<>()));
+                .anyMatch(w -> isValidSignerWitness(w, signedWitness.getDate()));
     }
 
     /**
@@ -456,10 +453,9 @@ public class SignedWitnessService {
      * @return true if accountAgeWitness is allowed to sign at time, false otherwise.
      */
     private boolean isSignerAccountAgeWitness(AccountAgeWitness accountAgeWitness, long time) {
-        Stack<P2PDataStorage.ByteArray> excludedPubKeys = new Stack<>();
         Set<SignedWitness> signedWitnessSet = getSignedWitnessSet(accountAgeWitness);
         for (SignedWitness signedWitness : signedWitnessSet) {
-            if (isValidSignerWitnessInternal(signedWitness, time, excludedPubKeys)) {
+            if (isValidSignerWitness(signedWitness, time)) {
                 return true;
             }
         }
@@ -467,6 +463,49 @@ public class SignedWitnessService {
         return false;
     }
 
+    /**
+     * Checks the shortest trust chain of the trust graph. Only if that chain contains a banned key or a key loop
+     * we have to search all chains with isValidSignerWitnessInternal.
+     *
+     * @param signedWitness                the signedWitness to validate
+     * @param childSignedWitnessDateMillis the date the child SignedWitness was signed or current time if it is a leaf.
+     * @return true if signedWitness is valid, false otherwise.
+     */
+    private boolean isValidSignerWitness(SignedWitness signedWitness, long childSignedWitnessDateMillis) {
+        if (!signedWitness.isSignedByArbitrator() && !verifyDate(signedWitness, childSignedWitnessDateMillis)) {
+            return false;
+        }
+        List<SignedWitness> trustChain = trustGraph.getTrustChain(signedWitness);
+        if (trustChain == null) {
+            // There is no chain to an arbitrator at all.
+            return false;
+        }
+        if (isValidTrustChain(trustChain)) {
+            return true;
+        }
+        return isValidSignerWitnessInternal(signedWitness, childSignedWitnessDateMillis, new Stack<>());
+    }
+
+    // Applies the same rules as isValidSignerWitnessInternal to a single chain. Signatures, dates and the length of
+    // the chain are checked by the trust graph already.
+    private boolean isValidTrustChain(List<SignedWitness> trustChain) {
+        Set<P2PDataStorage.ByteArray> excludedPubKeys = new HashSet<>();
+        for (SignedWitness signedWitness : trustChain) {
+            if (excludedPubKeys.contains(new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()))) {
+                return false;
+            }
+            if (filterManager.isWitnessSignerPubKeyBanned(Utils.HEX.encode(signedWitness.getWitnessOwnerPubKey()))) {
+                return false;
+            }
+            if (signedWitness.isSignedByArbitrator()) {
+                return true;
+            }
+            excludedPubKeys.add(new P2PDataStorage.ByteArray(signedWitness.getSignerPubKey()));
+            excludedPubKeys.add(new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey()));
+        }
+        return false;
+    }
+
     /**
      * Helper to isValidAccountAgeWitness(accountAgeWitness)
      *
@@ -500,7 +539,9 @@ public class SignedWitnessService {
             // Iterate over signedWitness signers
             Set<SignedWitness> signerSignedWitnessSet = getSignedWitnessSetByOwnerPubKey(signedWitness.getSignerPubKey(), excludedPubKeys);
             for (SignedWitness signerSignedWitness : signerSignedWitnessSet) {
-                if (isValidSignerWitnessInternal(signerSignedWitness, signedWitness.getDate(), excludedPubKeys)) {
+                // Witnesses without any chain to an arbitrator can be skipped.
+                if (trustGraph.isTrusted(signerSignedWitness) &&
+                        isValidSignerWitnessInternal(signerSignedWitness, signedWitness.getDate(), excludedPubKeys)) {
                     return true;
                 }
             }
@@ -533,6 +574,8 @@ public class SignedWitnessService {
         P2PDataStorage.ByteArray ownerPubKey = new P2PDataStorage.ByteArray(signedWitness.getWitnessOwnerPubKey());
         signedWitnessSetByOwnerPubKey.putIfAbsent(ownerPubKey, new HashSet<>());
         signedWitnessSetByOwnerPubKey.get(ownerPubKey).add(signedWitness);
+
+        trustGraph.add(signedWitness);
     }
 
     private void publishSignedWitness(SignedWitness signedWitness) {
@@ -570,6 +613,8 @@ public class SignedWitnessService {
                 signedWitnessSetByOwnerPubKey.remove(ownerPubKey);
             }
         }
+
+        trustGraph.remove(signedWitness);
     }
 
     // Remove SignedWitnesses that are signed by TRADE that also have an ARBITRATOR signature
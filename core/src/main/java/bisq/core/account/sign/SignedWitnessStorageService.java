@@ -19,10 +19,11 @@ package bisq.core.account.sign;
 
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
-import bisq.network.p2p.storage.persistence.MapStoreService;
+import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStoreService;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkProtoResolver;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -34,7 +35,7 @@ import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public class SignedWitnessStorageService extends MapStoreService<SignedWitnessStore, PersistableNetworkPayload> {
+public class SignedWitnessStorageService extends PersistableNetworkPayloadStoreService<SignedWitnessStore> {
     private static final String FILE_NAME = "SignedWitnessStore";
 
 
@@ -44,8 +45,10 @@ public class SignedWitnessStorageService extends MapStoreService<SignedWitnessSt
 
     @Inject
     public SignedWitnessStorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                       PersistenceManager<SignedWitnessStore> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                       PersistenceManager<SignedWitnessStore> persistenceManager,
+                                       NetworkProtoResolver networkProtoResolver,
+                                       @Named(Config.USE_PAYLOAD_LOG_STORAGE) boolean usePayloadLogStorage) {
+        super(storageDir, persistenceManager, networkProtoResolver, usePayloadLogStorage);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
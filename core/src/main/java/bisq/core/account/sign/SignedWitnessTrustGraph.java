@@ -0,0 +1,245 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Graph of the trust chains of the SignedWitnesses (witness -> signer's witness -> ... -> arbitrator signed witness).
+ * <p>
+ * A SignedWitness signed by an arbitrator with a valid signature is trusted. A SignedWitness signed by a peer is
+ * trusted if it has a valid signature and the signer owns a trusted SignedWitness which was signed at least the
+ * signer age before. For each trusted SignedWitness we keep the parent of the shortest chain, so looking up the
+ * trust of a SignedWitness does not need to walk the chains.
+ * <p>
+ * New SignedWitnesses are added incrementally: only the added SignedWitness and the SignedWitnesses signed by its
+ * owner get updated. Removing a SignedWitness can break chains, so the graph gets rebuilt at the next lookup.
+ * <p>
+ * The graph does not consider banned keys or key loops in a chain as those depend on the whole chain. The shortest
+ * chain gets checked for those by the SignedWitnessService. So the graph is an exact pre-check: if a SignedWitness
+ * is not trusted here there is no valid chain at all.
+ */
+@Slf4j
+class SignedWitnessTrustGraph {
+    // The former recursive check stopped at a stack of 2000 keys with 2 keys per level.
+    static final int MAX_DEPTH = 1000;
+
+    private final long signerAge;
+    private final Predicate<SignedWitness> signatureVerifier;
+
+    // Lookup of the SignedWitnesses signed by a key
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetBySignerPubKey = new HashMap<>();
+    // Lookup of the SignedWitnesses owned by a key
+    private final Map<P2PDataStorage.ByteArray, Set<SignedWitness>> signedWitnessSetByOwnerPubKey = new HashMap<>();
+    private final Set<SignedWitness> arbitratorSignedWitnesses = new HashSet<>();
+    private final Map<SignedWitness, Trust> trustBySignedWitness = new HashMap<>();
+    private boolean built;
+
+    private static class Trust {
+        private final int depth;
+        @Nullable
+        private final SignedWitness parent;
+
+        private Trust(int depth, @Nullable SignedWitness parent) {
+            this.depth = depth;
+            this.parent = parent;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    SignedWitnessTrustGraph(long signerAge, Predicate<SignedWitness> signatureVerifier) {
+        this.signerAge = signerAge;
+        this.signatureVerifier = signatureVerifier;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void add(SignedWitness signedWitness) {
+        if (!getSet(signedWitnessSetByOwnerPubKey, signedWitness.getWitnessOwnerPubKey()).add(signedWitness))
+            return;
+
+        getSet(signedWitnessSetBySignerPubKey, signedWitness.getSignerPubKey()).add(signedWitness);
+        if (signedWitness.isSignedByArbitrator())
+            arbitratorSignedWitnesses.add(signedWitness);
+
+        // Until the first lookup we only collect the SignedWitnesses.
+        if (!built)
+            return;
+
+        Trust trust = signedWitness.isSignedByArbitrator() ? getRootTrust(signedWitness) : findTrust(signedWitness);
+        if (trust != null) {
+            trustBySignedWitness.put(signedWitness, trust);
+            Deque<SignedWitness> queue = new ArrayDeque<>();
+            queue.add(signedWitness);
+            propagate(queue);
+        }
+    }
+
+    void remove(SignedWitness signedWitness) {
+        removeFromSet(signedWitnessSetByOwnerPubKey, signedWitness.getWitnessOwnerPubKey(), signedWitness);
+        removeFromSet(signedWitnessSetBySignerPubKey, signedWitness.getSignerPubKey(), signedWitness);
+        arbitratorSignedWitnesses.remove(signedWitness);
+        built = false;
+    }
+
+    boolean isTrusted(SignedWitness signedWitness) {
+        maybeBuild();
+        return trustBySignedWitness.containsKey(signedWitness);
+    }
+
+    /**
+     * @param signedWitness the SignedWitness to look up
+     * @return the shortest trust chain starting with signedWitness and ending with an arbitrator signed
+     * SignedWitness or null if the SignedWitness is not trusted.
+     */
+    @Nullable
+    List<SignedWitness> getTrustChain(SignedWitness signedWitness) {
+        maybeBuild();
+        Trust trust = trustBySignedWitness.get(signedWitness);
+        if (trust == null)
+            return null;
+
+        List<SignedWitness> chain = new ArrayList<>(trust.depth + 1);
+        chain.add(signedWitness);
+        while (trust.parent != null) {
+            chain.add(trust.parent);
+            trust = trustBySignedWitness.get(trust.parent);
+        }
+        return chain;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void maybeBuild() {
+        if (built)
+            return;
+
+        long ts = System.currentTimeMillis();
+        trustBySignedWitness.clear();
+        // As all roots have depth 0 the breadth first traversal assigns the shortest chains.
+        Deque<SignedWitness> queue = new ArrayDeque<>();
+        arbitratorSignedWitnesses.forEach(signedWitness -> {
+            Trust trust = getRootTrust(signedWitness);
+            if (trust != null) {
+                trustBySignedWitness.put(signedWitness, trust);
+                queue.add(signedWitness);
+            }
+        });
+        propagate(queue);
+        built = true;
+        log.info("Building trust graph of {} signed witnesses took {} ms. {} signed witnesses are trusted.",
+                signedWitnessSetByOwnerPubKey.values().stream().mapToInt(Set::size).sum(),
+                System.currentTimeMillis() - ts,
+                trustBySignedWitness.size());
+    }
+
+    @Nullable
+    private Trust getRootTrust(SignedWitness signedWitness) {
+        return signatureVerifier.test(signedWitness) ? new Trust(0, null) : null;
+    }
+
+    // Finds the shortest chain of a SignedWitness signed by a peer.
+    @Nullable
+    private Trust findTrust(SignedWitness signedWitness) {
+        Trust best = null;
+        for (SignedWitness parent : getSignedWitnessSet(signedWitnessSetByOwnerPubKey, signedWitness.getSignerPubKey())) {
+            Trust parentTrust = trustBySignedWitness.get(parent);
+            if (parentTrust == null ||
+                    parentTrust.depth >= MAX_DEPTH ||
+                    !isValidParent(parent, signedWitness) ||
+                    (best != null && best.depth <= parentTrust.depth + 1)) {
+                continue;
+            }
+            best = new Trust(parentTrust.depth + 1, parent);
+        }
+        return best != null && signatureVerifier.test(signedWitness) ? best : null;
+    }
+
+    // Assigns the shorter chains of the queued SignedWitnesses to the SignedWitnesses signed by their owners.
+    private void propagate(Deque<SignedWitness> queue) {
+        while (!queue.isEmpty()) {
+            SignedWitness parent = queue.poll();
+            int depth = trustBySignedWitness.get(parent).depth + 1;
+            if (depth > MAX_DEPTH)
+                continue;
+
+            for (SignedWitness child : getSignedWitnessSet(signedWitnessSetBySignerPubKey, parent.getWitnessOwnerPubKey())) {
+                if (child.isSignedByArbitrator() || !isValidParent(parent, child))
+                    continue;
+
+                Trust trust = trustBySignedWitness.get(child);
+                if (trust != null ? trust.depth <= depth : !signatureVerifier.test(child))
+                    continue;
+
+                trustBySignedWitness.put(child, new Trust(depth, parent));
+                queue.add(child);
+            }
+        }
+    }
+
+    // The signer of a SignedWitness has to be old enough at the time of signing, except if signed by an arbitrator.
+    private boolean isValidParent(SignedWitness parent, SignedWitness child) {
+        return parent.isSignedByArbitrator() || parent.getDate() <= child.getDate() - signerAge;
+    }
+
+    private static Set<SignedWitness> getSet(Map<P2PDataStorage.ByteArray, Set<SignedWitness>> map, byte[] pubKey) {
+        return map.computeIfAbsent(new P2PDataStorage.ByteArray(pubKey), key -> new HashSet<>());
+    }
+
+    private static Set<SignedWitness> getSignedWitnessSet(Map<P2PDataStorage.ByteArray, Set<SignedWitness>> map,
+                                                          byte[] pubKey) {
+        return map.getOrDefault(new P2PDataStorage.ByteArray(pubKey), Collections.emptySet());
+    }
+
+    private static void removeFromSet(Map<P2PDataStorage.ByteArray, Set<SignedWitness>> map,
+                                      byte[] pubKey,
+                                      SignedWitness signedWitness) {
+        P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(pubKey);
+        Set<SignedWitness> set = map.get(key);
+        if (set != null) {
+            set.remove(signedWitness);
+            if (set.isEmpty())
+                map.remove(key);
+        }
+    }
+}
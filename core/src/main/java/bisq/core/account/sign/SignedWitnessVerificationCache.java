@@ -0,0 +1,110 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistedDataHost;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the results of the signature verification of SignedWitnesses. The signature verification is rather
+ * expensive and called at filtering the offer book many times. Valid results are persisted, so after a restart
+ * the signatures of known SignedWitnesses do not get verified again.
+ */
+@Slf4j
+@Singleton
+public class SignedWitnessVerificationCache implements PersistedDataHost {
+    private final PersistenceManager<SignedWitnessVerificationResults> persistenceManager;
+    private final SignedWitnessVerificationResults verificationResults = new SignedWitnessVerificationResults();
+
+    private final AtomicLong numHits = new AtomicLong();
+    private final AtomicLong numMisses = new AtomicLong();
+    private final AtomicLong verificationNanos = new AtomicLong();
+
+    @Inject
+    public SignedWitnessVerificationCache(PersistenceManager<SignedWitnessVerificationResults> persistenceManager) {
+        this.persistenceManager = persistenceManager;
+        this.persistenceManager.initialize(verificationResults, PersistenceManager.Source.PRIVATE_LOW_PRIO);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PersistedDataHost
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void readPersisted(Runnable completeHandler) {
+        persistenceManager.readPersisted(persisted -> {
+                    verificationResults.putAll(persisted);
+                    log.info("Read {} verified signed witnesses", persisted.size());
+                    completeHandler.run();
+                },
+                completeHandler);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param signedWitnessHash hash of the SignedWitness
+     * @param verification      verifies the signature of the SignedWitness. Only called if we have no result for the
+     *                          hash yet.
+     * @return true if the signature is valid
+     */
+    public boolean isSignatureValid(P2PDataStorage.ByteArray signedWitnessHash, BooleanSupplier verification) {
+        Boolean cachedResult = verificationResults.get(signedWitnessHash);
+        if (cachedResult != null) {
+            numHits.incrementAndGet();
+            return cachedResult;
+        }
+
+        numMisses.incrementAndGet();
+        long ts = System.nanoTime();
+        boolean result = verification.getAsBoolean();
+        verificationNanos.addAndGet(System.nanoTime() - ts);
+        verificationResults.put(signedWitnessHash, result);
+        if (result)
+            persistenceManager.requestPersistence();
+        return result;
+    }
+
+    public String getStatistics() {
+        long hits = numHits.get();
+        long misses = numMisses.get();
+        long total = hits + misses;
+        return String.format("SignedWitness verification cache: %d results, %d hits, %d misses (hit rate %.1f%%), " +
+                        "%d ms spent on verification",
+                verificationResults.size(),
+                hits,
+                misses,
+                total == 0 ? 0 : 100d * hits / total,
+                TimeUnit.NANOSECONDS.toMillis(verificationNanos.get()));
+    }
+}
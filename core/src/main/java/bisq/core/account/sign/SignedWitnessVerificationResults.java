@@ -0,0 +1,102 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.proto.persistable.PersistableEnvelope;
+
+import com.google.protobuf.ByteString;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Results of the signature verification of SignedWitnesses by the hash of the SignedWitness. Only valid results are
+ * persisted. The number of results is limited, the least recently used results get removed first.
+ */
+@Slf4j
+public class SignedWitnessVerificationResults implements PersistableEnvelope {
+    static final int MAX_SIZE = 100_000;
+
+    // Access ordered, so the eldest entry is the least recently used one
+    private final Map<P2PDataStorage.ByteArray, Boolean> resultByHash = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<P2PDataStorage.ByteArray, Boolean> eldest) {
+            return size() > MAX_SIZE;
+        }
+    };
+
+    public SignedWitnessVerificationResults() {
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private SignedWitnessVerificationResults(List<ByteString> validSignedWitnessHashes) {
+        validSignedWitnessHashes.forEach(hash -> resultByHash.put(new P2PDataStorage.ByteArray(hash.toByteArray()), true));
+    }
+
+    @Override
+    public synchronized protobuf.PersistableEnvelope toProtoMessage() {
+        List<ByteString> validSignedWitnessHashes = resultByHash.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(e -> ByteString.copyFrom(e.getKey().bytes))
+                .collect(Collectors.toList());
+        return protobuf.PersistableEnvelope.newBuilder()
+                .setSignedWitnessVerificationResults(protobuf.SignedWitnessVerificationResults.newBuilder()
+                        .addAllValidSignedWitnessHashes(validSignedWitnessHashes))
+                .build();
+    }
+
+    public static SignedWitnessVerificationResults fromProto(protobuf.SignedWitnessVerificationResults proto) {
+        return new SignedWitnessVerificationResults(proto.getValidSignedWitnessHashesList());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    public synchronized Boolean get(P2PDataStorage.ByteArray hash) {
+        return resultByHash.get(hash);
+    }
+
+    public synchronized void put(P2PDataStorage.ByteArray hash, boolean isValid) {
+        resultByHash.put(hash, isValid);
+    }
+
+    public synchronized void putAll(SignedWitnessVerificationResults results) {
+        synchronized (results) {
+            resultByHash.putAll(results.resultByHash);
+        }
+    }
+
+    public synchronized int size() {
+        return resultByHash.size();
+    }
+}
@@ -22,6 +22,7 @@ import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkProtoResolver;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -41,8 +42,10 @@ public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<
 
     @Inject
     public AccountAgeWitnessStorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                           PersistenceManager<AccountAgeWitnessStore> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                           PersistenceManager<AccountAgeWitnessStore> persistenceManager,
+                                           NetworkProtoResolver networkProtoResolver,
+                                           @Named(Config.USE_PAYLOAD_LOG_STORAGE) boolean usePayloadLogStorage) {
+        super(storageDir, persistenceManager, networkProtoResolver, usePayloadLogStorage);
     }
 
 
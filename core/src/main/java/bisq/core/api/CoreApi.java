@@ -19,6 +19,7 @@ package bisq.core.api;
 
 import bisq.core.api.model.AddressBalanceInfo;
 import bisq.core.api.model.BalancesInfo;
+import bisq.core.api.model.CandleInfo;
 import bisq.core.api.model.MarketDepthInfo;
 import bisq.core.api.model.MarketPriceInfo;
 import bisq.core.api.model.TxFeeRateInfo;
@@ -35,6 +36,8 @@ import bisq.core.support.dispute.DisputeResult;
 import bisq.core.support.messages.ChatMessage;
 import bisq.core.trade.Trade;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandleService;
+import bisq.core.trade.statistics.TradeStatisticsCandles;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.xmr.MoneroNodeSettings;
 
@@ -60,10 +63,12 @@ import java.io.InputStream;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.NonNull;
@@ -95,6 +100,7 @@ public class CoreApi {
     private final CoreTradesService coreTradesService;
     private final CoreWalletsService walletsService;
     private final TradeStatisticsManager tradeStatisticsManager;
+    private final TradeStatisticsCandleService tradeStatisticsCandleService;
     private final CoreNotificationService notificationService;
     private final CoreMoneroConnectionsService coreMoneroConnectionsService;
     private final CoreMoneroNodeService coreMoneroNodeService;
@@ -112,6 +118,7 @@ public class CoreApi {
                    CoreTradesService coreTradesService,
                    CoreWalletsService walletsService,
                    TradeStatisticsManager tradeStatisticsManager,
+                   TradeStatisticsCandleService tradeStatisticsCandleService,
                    CoreNotificationService notificationService,
                    CoreMoneroConnectionsService coreMoneroConnectionsService,
                    CoreMoneroNodeService coreMoneroNodeService) {
@@ -127,6 +134,7 @@ public class CoreApi {
         this.corePriceService = corePriceService;
         this.walletsService = walletsService;
         this.tradeStatisticsManager = tradeStatisticsManager;
+        this.tradeStatisticsCandleService = tradeStatisticsCandleService;
         this.notificationService = notificationService;
         this.coreMoneroConnectionsService = coreMoneroConnectionsService;
         this.coreMoneroNodeService = coreMoneroNodeService;
@@ -347,6 +355,33 @@ public class CoreApi {
         return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
     }
 
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode,
+                                                     long fromDate,
+                                                     long toDate,
+                                                     String cursor,
+                                                     int limit) {
+        // Empty strings and 0 mean no filter
+        return tradeStatisticsManager.getTradeStatistics(currencyCode.isEmpty() ? null : currencyCode.toUpperCase(),
+                fromDate,
+                toDate == 0 ? Long.MAX_VALUE : toDate,
+                cursor.isEmpty() ? null : cursor,
+                limit == 0 ? Integer.MAX_VALUE : limit);
+    }
+
+    public List<CandleInfo> getTradeStatisticsCandles(String currencyCode, String interval, long fromDate, long toDate) {
+        TradeStatisticsCandles.Interval candleInterval;
+        try {
+            candleInterval = TradeStatisticsCandles.Interval.valueOf(interval.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid candle interval: " + interval);
+        }
+        // A toDate of 0 means no upper limit
+        long toTime = toDate == 0 ? Long.MAX_VALUE : toDate;
+        return tradeStatisticsCandleService.getCandles(currencyCode.toUpperCase(), candleInterval, fromDate, toTime).stream()
+                .map(CandleInfo::toCandleInfo)
+                .collect(Collectors.toList());
+    }
+
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
         return walletsService.getNumConfirmationsForMostRecentTransaction(addressString);
     }
@@ -435,6 +470,32 @@ public class CoreApi {
                                    long triggerPrice,
                                    String paymentAccountId,
                                    Consumer<Offer> resultHandler) {
+        createAnPlaceOffer(currencyCode,
+                directionAsString,
+                priceAsString,
+                useMarketBasedPrice,
+                marketPriceMargin,
+                amountAsLong,
+                minAmountAsLong,
+                buyerSecurityDeposit,
+                triggerPrice,
+                paymentAccountId,
+                resultHandler,
+                log::error);
+    }
+
+    public void createAnPlaceOffer(String currencyCode,
+                                   String directionAsString,
+                                   String priceAsString,
+                                   boolean useMarketBasedPrice,
+                                   double marketPriceMargin,
+                                   long amountAsLong,
+                                   long minAmountAsLong,
+                                   double buyerSecurityDeposit,
+                                   long triggerPrice,
+                                   String paymentAccountId,
+                                   Consumer<Offer> resultHandler,
+                                   ErrorMessageHandler errorMessageHandler) {
         coreOffersService.createAndPlaceOffer(currencyCode,
                 directionAsString,
                 priceAsString,
@@ -445,7 +506,8 @@ public class CoreApi {
                 buyerSecurityDeposit,
                 triggerPrice,
                 paymentAccountId,
-                resultHandler);
+                resultHandler,
+                errorMessageHandler);
     }
 
     public Offer editOffer(String offerId,
@@ -474,6 +536,10 @@ public class CoreApi {
         coreOffersService.cancelOffer(id);
     }
 
+    public Map<String, String> cancelOffers(List<String> ids) {
+        return coreOffersService.cancelOffers(ids);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PaymentAccounts
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -533,7 +599,7 @@ public class CoreApi {
                           Consumer<Trade> resultHandler,
                           ErrorMessageHandler errorMessageHandler) {
         try {
-            Offer offer = coreOffersService.getOffer(offerId);
+            Offer offer = coreOffersService.getOfferToTake(offerId);
             coreTradesService.takeOffer(offer,
                     paymentAccountId,
                     resultHandler,
@@ -32,23 +32,26 @@ import bisq.core.payment.PaymentAccount;
 import bisq.core.user.User;
 
 import bisq.common.crypto.KeyRing;
+import bisq.common.handlers.ErrorMessageHandler;
 
 import org.bitcoinj.core.Coin;
 import org.bitcoinj.core.Transaction;
 import org.bitcoinj.utils.Fiat;
 
+import com.google.common.collect.Lists;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -62,15 +65,11 @@ import static bisq.core.offer.OfferPayload.Direction;
 import static bisq.core.offer.OfferPayload.Direction.BUY;
 import static bisq.core.payment.PaymentAccountUtil.isPaymentAccountValidForOffer;
 import static java.lang.String.format;
-import static java.util.Comparator.comparing;
 
 @Singleton
 @Slf4j
 class CoreOffersService {
 
-    private final Supplier<Comparator<Offer>> priceComparator = () -> comparing(Offer::getPrice);
-    private final Supplier<Comparator<Offer>> reversePriceComparator = () -> comparing(Offer::getPrice).reversed();
-
     private final CoreContext coreContext;
     private final KeyRing keyRing;
     // Dependencies on core api services in this package must be kept to an absolute
@@ -107,36 +106,38 @@ class CoreOffersService {
     }
 
     Offer getOffer(String id) {
-        return offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
-                .filter(o -> !o.isMyOffer(keyRing))
+        return offerBookService.getOfferById(id)
+                .filter(o -> !offerBookService.isMyOffer(o.getId()))
                 .filter(o -> {
                     Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
                     return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
                 })
-                .findAny().orElseThrow(() ->
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
+    // The take offer protocol changes the state of the offer, so it must not use the shared offer of the offer book.
+    Offer getOfferToTake(String id) {
+        return offerBookService.copyOf(getOffer(id));
+    }
+
     Offer getMyOffer(String id) {
-        Offer offer = offerBookService.getOffers().stream()
-                .filter(o -> o.getId().equals(id))
-                .filter(o -> o.isMyOffer(keyRing))
-                .findAny().orElseThrow(() ->
+        Offer offer = offerBookService.getOfferById(id)
+                .filter(o -> offerBookService.isMyOffer(o.getId()))
+                .map(offerBookService::copyOf)
+                .orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
         setOpenOfferState(offer);
         return offer;
     }
 
     List<Offer> getOffers(String direction, String currencyCode) {
-        List<Offer> offers = offerBookService.getOffers().stream()
-                .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
+        List<Offer> offers = sortedByPrice(offerBookService.getOffersByCurrency(direction, currencyCode), direction).stream()
+                .filter(o -> !offerBookService.isMyOffer(o.getId()))
                 .filter(o -> {
                     Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
                     return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
                 })
-                .sorted(priceComparator(direction))
                 .collect(Collectors.toList());
         offers.removeAll(getUnreservedOffers(offers));
         return offers;
@@ -145,11 +146,7 @@ class CoreOffersService {
     List<Offer> getMyOffers(String direction, String currencyCode) {
 
         // get my offers posted to books
-        List<Offer> offers = offerBookService.getOffers().stream()
-                .filter(o -> o.isMyOffer(keyRing))
-                .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
-                .sorted(priceComparator(direction))
-                .collect(Collectors.toList());
+        List<Offer> offers = new ArrayList<>(sortedByPrice(offerBookService.getMyOffersByCurrency(direction, currencyCode), direction));
 
         // remove unreserved offers
         Set<Offer> unreservedOffers = getUnreservedOffers(offers); // TODO (woodser): optimize performance, probably don't call here
@@ -162,7 +159,8 @@ class CoreOffersService {
         }
         openOfferManager.removeOpenOffers(unreservedOpenOffers, null);
 
-        // set offer states
+        // set offer states on copies, the offers of the offer book are shared
+        offers.replaceAll(offerBookService::copyOf);
         for (Offer offer : offers) setOpenOfferState(offer);
 
         return offers;
@@ -216,7 +214,8 @@ class CoreOffersService {
                              double buyerSecurityDeposit,
                              long triggerPrice,
                              String paymentAccountId,
-                             Consumer<Offer> resultHandler) {
+                             Consumer<Offer> resultHandler,
+                             ErrorMessageHandler errorMessageHandler) {
         coreWalletsService.verifyWalletsAreAvailable();
         coreWalletsService.verifyEncryptedWalletIsUnlocked();
 
@@ -252,7 +251,8 @@ class CoreOffersService {
                 buyerSecurityDeposit,
                 triggerPrice,
                 useSavingsWallet,
-                transaction -> resultHandler.accept(offer));
+                transaction -> resultHandler.accept(offer),
+                errorMessageHandler);
     }
 
     // Edit a placed offer.
@@ -290,6 +290,21 @@ class CoreOffersService {
                 });
     }
 
+    // Returns the error messages of the offers which could not be canceled by offer id.
+    Map<String, String> cancelOffers(List<String> ids) {
+        Map<String, String> errorMessages = new LinkedHashMap<>();
+        List<Offer> offers = new ArrayList<>();
+        for (String id : ids) {
+            try {
+                offers.add(getMyOffer(id));
+            } catch (IllegalStateException e) {
+                errorMessages.put(id, e.getMessage());
+            }
+        }
+        errorMessages.putAll(openOfferManager.removeOffers(offers));
+        return errorMessages;
+    }
+
     private void verifyPaymentAccountIsValidForNewOffer(Offer offer, PaymentAccount paymentAccount) {
         if (!isPaymentAccountValidForOffer(offer, paymentAccount)) {
             String error = format("cannot create %s offer with payment account %s",
@@ -303,38 +318,34 @@ class CoreOffersService {
                             double buyerSecurityDeposit,
                             long triggerPrice,
                             boolean useSavingsWallet,
-                            Consumer<Transaction> resultHandler) {
+                            Consumer<Transaction> resultHandler,
+                            ErrorMessageHandler errorMessageHandler) {
         openOfferManager.placeOffer(offer,
                 buyerSecurityDeposit,
                 useSavingsWallet,
                 triggerPrice,
                 resultHandler::accept,
-                log::error);
+                errorMessage -> {
+                    log.error(errorMessage);
+                    errorMessageHandler.handleErrorMessage(errorMessage);
+                });
 
         if (offer.getErrorMessage() != null)
             throw new IllegalStateException(offer.getErrorMessage());
     }
 
-    private boolean offerMatchesDirectionAndCurrency(Offer offer,
-                                                     String direction,
-                                                     String currencyCode) {
-        var offerOfWantedDirection = offer.getDirection().name().equalsIgnoreCase(direction);
-        var counterAssetCode = isCryptoCurrency(currencyCode) ? offer.getOfferPayload().getBaseCurrencyCode() : offer.getOfferPayload().getCounterCurrencyCode(); // TODO: crypto pairs invert base and counter currencies
-        var offerInWantedCurrency = counterAssetCode.equalsIgnoreCase(currencyCode);
-        return offerOfWantedDirection && offerInWantedCurrency;
-    }
-
     private void setOpenOfferState(Offer offer) {
         Optional<OpenOffer> openOffer = openOfferManager.getOpenOfferById(offer.getId());
         if (openOffer.isPresent()) offer.setState(openOffer.get().getState() == OpenOffer.State.AVAILABLE ? Offer.State.AVAILABLE : Offer.State.NOT_AVAILABLE);
     }
 
-    private Comparator<Offer> priceComparator(String direction) {
+    private List<Offer> sortedByPrice(List<Offer> ascendingByPrice, String direction) {
+        // The offer book partitions are sorted in price ascending order.
         // A buyer probably wants to see sell orders in price ascending order.
         // A seller probably wants to see buy orders in price descending order.
         return direction.equalsIgnoreCase(BUY.name())
-                ? reversePriceComparator.get()
-                : priceComparator.get();
+                ? Lists.reverse(ascendingByPrice)
+                : ascendingByPrice;
     }
 
     private long priceStringToLong(String priceAsString, String currencyCode) {
@@ -24,16 +24,23 @@ import bisq.core.monetary.Price;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OfferBookService;
 import bisq.core.offer.OfferPayload.Direction;
+import bisq.core.provider.price.MarketPrice;
 import bisq.core.provider.price.PriceFeedService;
+import bisq.core.trade.statistics.TradeStatisticsManager;
+
+import bisq.common.util.MathUtils;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.google.common.collect.Lists;
 import com.google.common.math.LongMath;
 
 import java.util.List;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
@@ -47,18 +54,22 @@ class CorePriceService {
 
     private final PriceFeedService priceFeedService;
     private final OfferBookService offerBookService;
+    private final TradeStatisticsManager tradeStatisticsManager;
 
     @Inject
-    public CorePriceService(PriceFeedService priceFeedService, OfferBookService offerBookService) {
+    public CorePriceService(PriceFeedService priceFeedService,
+                            OfferBookService offerBookService,
+                            TradeStatisticsManager tradeStatisticsManager) {
         this.priceFeedService = priceFeedService;
         this.offerBookService = offerBookService;
+        this.tradeStatisticsManager = tradeStatisticsManager;
     }
 
     /**
      * @return Price per 1 XMR in the given currency (fiat or crypto)
      */
     public double getMarketPrice(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException {
-        var marketPrice = priceFeedService.requestAllPrices().get(currencyCode);
+        var marketPrice = requestAllPrices().get(currencyCode);
         if (marketPrice == null) {
             throw new IllegalArgumentException("Currency not found: " + currencyCode); // message sent to client
         }
@@ -69,7 +80,7 @@ class CorePriceService {
      * @return Price per 1 XMR in all supported currencies (fiat & crypto)
      */
     public List<MarketPriceInfo> getMarketPrices() throws ExecutionException, InterruptedException, TimeoutException {
-        return priceFeedService.requestAllPrices().values().stream()
+        return requestAllPrices().values().stream()
                 .map(marketPrice -> {
                     double mappedPrice = mapPriceFeedServicePrice(marketPrice.getPrice(), marketPrice.getCurrencyCode());
                     return new MarketPriceInfo(marketPrice.getCurrencyCode(), mappedPrice);
@@ -81,29 +92,21 @@ class CorePriceService {
      * @return Data for market depth chart
      */
      public MarketDepthInfo getMarketDepth(String currencyCode) throws ExecutionException, InterruptedException, TimeoutException, IllegalArgumentException  {
-        if (priceFeedService.requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
+        if (requestAllPrices().get(currencyCode.toUpperCase()) == null) throw new IllegalArgumentException("Currency not found: " + currencyCode) ;
 
-        // Offer price can be null (if price feed unavailable), thus a null-tolerant comparator is used.
-        Comparator<Offer> offerPriceComparator = Comparator.comparing(Offer::getPrice, Comparator.nullsLast(Comparator.naturalOrder()));
+        // The offer book partitions are sorted by ascending price. Offers without price get skipped below. The order
+        // of offers with the same price does not matter, as we accumulate the depth per price.
+        List<Offer> ascendingBuyOffers = offerBookService.getOffersByCurrency(Direction.BUY.name(), currencyCode);
+        List<Offer> ascendingSellOffers = offerBookService.getOffersByCurrency(Direction.SELL.name(), currencyCode);
 
+        // Buy offers, as opposed to sell offers, are sorted from high price to low.
         // Trading btc-fiat is considered as buying/selling BTC, but trading btc-altcoin is
         // considered as buying/selling Altcoin. Because of this, when viewing a btc-altcoin pair,
         // the buy column is actually the sell column and vice versa. To maintain the expected
-        // ordering, we have to reverse the price comparator.
+        // ordering, we have to reverse the price order.
         boolean isCrypto = CurrencyUtil.isCryptoCurrency(currencyCode);
-        if (isCrypto) offerPriceComparator = offerPriceComparator.reversed();
-
-        // Offer amounts are used for the secondary sort. They are sorted from high to low.
-        Comparator<Offer> offerAmountComparator = Comparator.comparing(Offer::getAmount).reversed();
-
-        var buyOfferSortComparator =
-                offerPriceComparator.reversed() // Buy offers, as opposed to sell offers, are primarily sorted from high price to low.
-                        .thenComparing(offerAmountComparator);
-        var sellOfferSortComparator =
-                offerPriceComparator
-                        .thenComparing(offerAmountComparator);
-        List<Offer> buyOffers = offerBookService.getOffersByCurrency(Direction.BUY.name(), currencyCode).stream().sorted(buyOfferSortComparator).collect(Collectors.toList());
-        List<Offer> sellOffers = offerBookService.getOffersByCurrency(Direction.SELL.name(), currencyCode).stream().sorted(sellOfferSortComparator).collect(Collectors.toList());
+        List<Offer> buyOffers = isCrypto ? ascendingBuyOffers : Lists.reverse(ascendingBuyOffers);
+        List<Offer> sellOffers = isCrypto ? Lists.reverse(ascendingSellOffers) : ascendingSellOffers;
 
         // Create buyer hashmap {key:price, value:count}, uses LinkedHashMap to maintain insertion order
         double accumulatedAmount = 0;
@@ -142,6 +145,28 @@ class CorePriceService {
         return new MarketDepthInfo(currencyCode, buyPrices, buyDepth, sellPrices, sellDepth);
     }
     
+    /**
+     * If the price node is unreachable we fall back to the prices of the trade statistics.
+     */
+    private Map<String, MarketPrice> requestAllPrices() throws InterruptedException {
+        try {
+            return priceFeedService.requestAllPrices();
+        } catch (ExecutionException | TimeoutException | CancellationException e) {
+            log.warn("Requesting prices from price node failed, we use the prices of the trade statistics. {}", e.toString());
+            Map<String, MarketPrice> networkPrices = new HashMap<>();
+            for (String currencyCode : tradeStatisticsManager.getNetworkPriceCurrencyCodes()) {
+                Price price = tradeStatisticsManager.getNetworkPrice(currencyCode);
+                if (price != null) {
+                    networkPrices.put(currencyCode, new MarketPrice(currencyCode,
+                            MathUtils.scaleDownByPowerOf10(price.getValue(), CurrencyUtil.isCryptoCurrency(currencyCode) ? 8 : 4),
+                            0,
+                            false));
+                }
+            }
+            return networkPrices;
+        }
+    }
+
     /**
      * PriceProvider returns different values for crypto and fiat,
      * e.g. 1 XMR = X USD
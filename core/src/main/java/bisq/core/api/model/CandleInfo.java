@@ -0,0 +1,89 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api.model;
+
+import bisq.core.trade.statistics.TradeStatisticsCandles;
+
+import bisq.common.Payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@ToString
+@Getter
+@AllArgsConstructor
+public class CandleInfo implements Payload {
+
+    private final String currencyCode;
+    private final long startTime;
+    private final long open;
+    private final long close;
+    private final long high;
+    private final long low;
+    private final long average;
+    private final long accumulatedAmount;
+    private final long accumulatedVolume;
+    private final int numTrades;
+
+    public static CandleInfo toCandleInfo(TradeStatisticsCandles.Candle candle) {
+        return new CandleInfo(candle.getCurrencyCode(),
+                candle.getStartTime(),
+                candle.getOpen(),
+                candle.getClose(),
+                candle.getHigh(),
+                candle.getLow(),
+                candle.getAveragePrice(),
+                candle.getAccumulatedAmount(),
+                candle.getAccumulatedVolume(),
+                candle.getNumTrades());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public bisq.proto.grpc.CandleInfo toProtoMessage() {
+        return bisq.proto.grpc.CandleInfo.newBuilder()
+                .setCurrencyCode(currencyCode)
+                .setStartTime(startTime)
+                .setOpen(open)
+                .setClose(close)
+                .setHigh(high)
+                .setLow(low)
+                .setAverage(average)
+                .setAccumulatedAmount(accumulatedAmount)
+                .setAccumulatedVolume(accumulatedVolume)
+                .setNumTrades(numTrades)
+                .build();
+    }
+
+    public static CandleInfo fromProto(bisq.proto.grpc.CandleInfo proto) {
+        return new CandleInfo(proto.getCurrencyCode(),
+                proto.getStartTime(),
+                proto.getOpen(),
+                proto.getClose(),
+                proto.getHigh(),
+                proto.getLow(),
+                proto.getAverage(),
+                proto.getAccumulatedAmount(),
+                proto.getAccumulatedVolume(),
+                proto.getNumTrades());
+    }
+}
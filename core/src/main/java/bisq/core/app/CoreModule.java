@@ -80,6 +80,7 @@ public class CoreModule extends AppModule {
         bindConstant().annotatedWith(named(USE_DEV_MODE)).to(config.useDevMode);
         bindConstant().annotatedWith(named(USE_DEV_MODE_HEADER)).to(config.useDevModeHeader);
         bindConstant().annotatedWith(named(REFERRAL_ID)).to(config.referralId);
+        bindConstant().annotatedWith(named(USE_RECORD_STORAGE)).to(config.useRecordStorage);
 
         // ordering is used for shut down sequence
         install(new TradeModule(config));
@@ -17,6 +17,7 @@
 
 package bisq.core.app;
 
+import bisq.common.TimingWheelTimer;
 import bisq.common.UserThread;
 import bisq.common.app.AppModule;
 import bisq.common.app.Version;
@@ -64,6 +65,10 @@ public class HavenoHeadlessAppMain extends HavenoExecutable {
                 .setDaemon(true)
                 .build();
         UserThread.setExecutor(Executors.newSingleThreadExecutor(threadFactory));
+        // The desktop app uses the UITimer, so the timing wheel is only an option for headless apps
+        if (config.useTimingWheelTimer) {
+            UserThread.setTimerClass(TimingWheelTimer.class);
+        }
     }
 
     @Override
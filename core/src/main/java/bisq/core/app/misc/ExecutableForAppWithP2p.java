@@ -28,6 +28,7 @@ import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.P2PService;
 import bisq.network.p2p.seed.SeedNodeRepository;
 
+import bisq.common.TimingWheelTimer;
 import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.config.Config;
@@ -71,6 +72,10 @@ public abstract class ExecutableForAppWithP2p extends HavenoExecutable {
                 .setDaemon(true)
                 .build();
         UserThread.setExecutor(Executors.newSingleThreadExecutor(threadFactory));
+        // The desktop app uses the UITimer, so the timing wheel is only an option for headless apps
+        if (config.useTimingWheelTimer) {
+            UserThread.setTimerClass(TimingWheelTimer.class);
+        }
     }
 
     @Override
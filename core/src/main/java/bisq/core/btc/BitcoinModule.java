@@ -43,6 +43,8 @@ import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 
+import static bisq.common.config.Config.MAX_CONCURRENT_WALLET_OPENS;
+import static bisq.common.config.Config.MAX_CONCURRENT_WALLET_SYNCS;
 import static bisq.common.config.Config.PROVIDERS;
 import static bisq.common.config.Config.WALLET_DIR;
 import static bisq.common.config.Config.WALLET_RPC_BIND_PORT;
@@ -74,6 +76,8 @@ public class BitcoinModule extends AppModule {
 
         bind(File.class).annotatedWith(named(WALLET_DIR)).toInstance(config.walletDir);
         bind(int.class).annotatedWith(named(WALLET_RPC_BIND_PORT)).toInstance(config.walletRpcBindPort);
+        bind(int.class).annotatedWith(named(MAX_CONCURRENT_WALLET_OPENS)).toInstance(config.maxConcurrentWalletOpens);
+        bind(int.class).annotatedWith(named(MAX_CONCURRENT_WALLET_SYNCS)).toInstance(config.maxConcurrentWalletSyncs);
 
         bindConstant().annotatedWith(named(Config.BTC_NODES)).to(config.btcNodes);
         bindConstant().annotatedWith(named(Config.USER_AGENT)).to(config.userAgent);
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+import monero.daemon.MoneroDaemon;
+import monero.wallet.MoneroWallet;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Syncs all registered multisig wallets from a single poll of the daemon instead of letting every
+ * monero-wallet-rpc process poll the daemon by itself.
+ * <p>
+ * The daemon height and the tx pool are polled every {@link #POLL_PERIOD_MS}. A wallet is synced if a new block
+ * arrived or a new tx in the pool is relevant for it, but not more often than the min. sync interval of its
+ * {@link SyncPolicy}. The policy is requested again at each poll, so it can depend on the state of the trade.
+ * At most maxConcurrentSyncs wallets are synced at the same time.
+ */
+@Slf4j
+public class MultisigWalletSyncScheduler {
+    public static final long POLL_PERIOD_MS = 5000;
+
+    @Value
+    public static class SyncPolicy {
+        // Min. time between 2 syncs. Syncs triggered in the meantime are delayed.
+        long minSyncInterval;
+        // Max. time between 2 syncs even if no new block or relevant tx has arrived
+        long maxSyncInterval;
+        Predicate<String> relevantPoolTxFilter;
+    }
+
+    private static class Entry {
+        private final MoneroWallet wallet;
+        private final Supplier<SyncPolicy> syncPolicySupplier;
+        private long lastSyncTime = -1; // not synced yet
+        private boolean syncRequested = true;
+        private boolean syncing;
+
+        Entry(MoneroWallet wallet, Supplier<SyncPolicy> syncPolicySupplier) {
+            this.wallet = wallet;
+            this.syncPolicySupplier = syncPolicySupplier;
+        }
+    }
+
+    private final Supplier<MoneroDaemon> daemonSupplier;
+    private final Executor syncExecutor;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private long lastHeight = -1;
+    private Set<String> lastPoolTxHashes = new HashSet<>();
+    @Nullable
+    private ScheduledExecutorService pollExecutor;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public MultisigWalletSyncScheduler(Supplier<MoneroDaemon> daemonSupplier, int maxConcurrentSyncs) {
+        this(daemonSupplier, createSyncExecutor(maxConcurrentSyncs));
+    }
+
+    MultisigWalletSyncScheduler(Supplier<MoneroDaemon> daemonSupplier, Executor syncExecutor) {
+        this.daemonSupplier = daemonSupplier;
+        this.syncExecutor = syncExecutor;
+    }
+
+    private static Executor createSyncExecutor(int maxConcurrentSyncs) {
+        checkArgument(maxConcurrentSyncs > 0, "maxConcurrentSyncs must be positive");
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxConcurrentSyncs, maxConcurrentSyncs, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("MultisigWalletSync-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Registers a wallet which gets synced at the next poll. The polling is started with the first registered wallet.
+     */
+    public synchronized void register(String id, MoneroWallet wallet, Supplier<SyncPolicy> syncPolicySupplier) {
+        entries.put(id, new Entry(wallet, syncPolicySupplier));
+        if (pollExecutor == null) {
+            pollExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("MultisigWalletSyncPoll").setDaemon(true).build());
+            pollExecutor.scheduleWithFixedDelay(this::poll, 0, POLL_PERIOD_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public synchronized void unregister(String id) {
+        entries.remove(id);
+    }
+
+    public synchronized void unregisterAll() {
+        entries.clear();
+    }
+
+    public synchronized void requestSync(String id) {
+        Entry entry = entries.get(id);
+        if (entry != null)
+            entry.syncRequested = true;
+    }
+
+    /**
+     * Syncs the wallet on the calling thread, e.g. if the latest state of the wallet is needed right now.
+     * If the wallet is getting synced already we wait until that sync is completed, as a wallet must not be synced
+     * twice at the same time. The running sync might have started before the state we need, so we sync again.
+     */
+    public void syncNow(String id) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(id);
+            try {
+                while (entry != null && entry.syncing) {
+                    wait();
+                    entry = entries.get(id);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the sync of multisig wallet " + id, e);
+            }
+            if (entry == null)
+                return;
+            entry.syncRequested = false;
+            entry.syncing = true;
+        }
+        long ts = System.currentTimeMillis();
+        try {
+            entry.wallet.sync();
+            synchronized (this) {
+                entry.lastSyncTime = ts;
+            }
+        } finally {
+            onSyncCompleted(entry);
+        }
+    }
+
+    public int getNumWallets() {
+        return entries.size();
+    }
+
+    public synchronized void shutDown() {
+        if (pollExecutor != null) {
+            pollExecutor.shutdownNow();
+            pollExecutor = null;
+        }
+        entries.clear();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Package scope for tests
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void onDaemonState(long height, Collection<String> poolTxHashes, long now) {
+        boolean isNewBlock = height != lastHeight;
+        Set<String> newPoolTxHashes = new HashSet<>(poolTxHashes);
+        newPoolTxHashes.removeAll(lastPoolTxHashes);
+        lastHeight = height;
+        lastPoolTxHashes = new HashSet<>(poolTxHashes);
+
+        entries.forEach((id, entry) -> {
+            if (entry.syncing)
+                return;
+
+            SyncPolicy syncPolicy = entry.syncPolicySupplier.get();
+            long elapsed = entry.lastSyncTime < 0 ? Long.MAX_VALUE : now - entry.lastSyncTime;
+            if (isNewBlock ||
+                    elapsed >= syncPolicy.getMaxSyncInterval() ||
+                    newPoolTxHashes.stream().anyMatch(syncPolicy.getRelevantPoolTxFilter())) {
+                entry.syncRequested = true;
+            }
+
+            if (entry.syncRequested && elapsed >= syncPolicy.getMinSyncInterval())
+                sync(id, entry, now);
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void poll() {
+        try {
+            MoneroDaemon daemon = daemonSupplier.get();
+            if (daemon == null || entries.isEmpty())
+                return;
+
+            onDaemonState(daemon.getHeight(), daemon.getTxPoolHashes(), System.currentTimeMillis());
+        } catch (Throwable t) {
+            log.warn("Polling the daemon for syncing multisig wallets failed: {}", t.toString());
+        }
+    }
+
+    private void sync(String id, Entry entry, long now) {
+        entry.syncing = true;
+        entry.syncRequested = false;
+        entry.lastSyncTime = now;
+        syncExecutor.execute(() -> {
+            long ts = System.currentTimeMillis();
+            try {
+                entry.wallet.sync();
+                log.debug("Synced multisig wallet {} in {} ms", id, System.currentTimeMillis() - ts);
+            } catch (Throwable t) {
+                log.warn("Syncing multisig wallet {} failed: {}", id, t.toString());
+                synchronized (this) {
+                    entry.syncRequested = true;
+                }
+            } finally {
+                onSyncCompleted(entry);
+            }
+        });
+    }
+
+    private synchronized void onSyncCompleted(Entry entry) {
+        entry.syncing = false;
+        // Wakes up syncNow calls which wait for the sync
+        notifyAll();
+    }
+}
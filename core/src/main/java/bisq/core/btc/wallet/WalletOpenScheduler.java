@@ -0,0 +1,135 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Runs tasks which open (and sync) wallets with a bounded number of threads. Each wallet runs in its own
+ * monero-wallet-rpc process, so opening many wallets at once would start too many processes in parallel.
+ * <p>
+ * Queued tasks are executed by priority (lower values first, e.g. the deadline of a trade) and in the order
+ * they were scheduled if the priority is the same.
+ */
+@Slf4j
+public class WalletOpenScheduler {
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public WalletOpenScheduler(String name, int maxConcurrentOpens) {
+        checkArgument(maxConcurrentOpens > 0, "maxConcurrentOpens must be positive");
+        executor = new ThreadPoolExecutor(maxConcurrentOpens, maxConcurrentOpens, 60, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat(name + "-%d").setDaemon(true).build());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param description   Used for logging the time the task waited in the queue and the time it took to run
+     * @param priority      Tasks with a lower value are run first
+     * @param task          The task to run
+     * @return A future completed with the result of the task
+     */
+    public <T> CompletableFuture<T> schedule(String description, long priority, Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(new PrioritizedTask<>(description, priority, sequence.getAndIncrement(), task, future));
+        return future;
+    }
+
+    public CompletableFuture<Void> schedule(String description, long priority, Runnable task) {
+        return schedule(description, priority, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PrioritizedTask
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class PrioritizedTask<T> implements Runnable, Comparable<PrioritizedTask<?>> {
+        private final String description;
+        private final long priority;
+        private final long sequence;
+        private final Supplier<T> task;
+        private final CompletableFuture<T> future;
+        private final long scheduleTime = System.currentTimeMillis();
+
+        PrioritizedTask(String description,
+                        long priority,
+                        long sequence,
+                        Supplier<T> task,
+                        CompletableFuture<T> future) {
+            this.description = description;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.task = task;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            long startTime = System.currentTimeMillis();
+            try {
+                T result = task.get();
+                log.info("{} completed in {} ms (waited {} ms)",
+                        description, System.currentTimeMillis() - startTime, startTime - scheduleTime);
+                future.complete(result);
+            } catch (Throwable t) {
+                log.error("{} failed after {} ms: {}", description, System.currentTimeMillis() - startTime, t.toString());
+                future.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public int compareTo(PrioritizedTask<?> other) {
+            int result = Long.compare(priority, other.priority);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import java.math.BigInteger;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroSubaddress;
+import monero.wallet.model.MoneroTxQuery;
+import monero.wallet.model.MoneroTxWallet;
+
+/**
+ * Caches the subaddress balances and the txs of the main wallet of an account. Each view is loaded with one
+ * bulk query at the first read after it was invalidated by a wallet event, all other reads are served from memory.
+ * The txs are also invalidated at each new block, as their number of confirmations changes.
+ */
+class XmrWalletCache {
+    private static final int ACCOUNT_INDEX = 0;
+
+    private final MoneroWallet wallet;
+    private final AtomicLong version = new AtomicLong();
+    @Nullable
+    private volatile Map<Integer, MoneroSubaddress> subaddresses;
+    @Nullable
+    private volatile List<MoneroTxWallet> txs;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    XmrWalletCache(MoneroWallet wallet) {
+        this.wallet = wallet;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized void invalidate() {
+        version.incrementAndGet();
+        subaddresses = null;
+        txs = null;
+    }
+
+    // The number of confirmations of the txs changes with each block
+    synchronized void invalidateTxs() {
+        version.incrementAndGet();
+        txs = null;
+    }
+
+    BigInteger getBalance(int subaddressIndex) {
+        MoneroSubaddress subaddress = getSubaddresses().get(subaddressIndex);
+        return subaddress == null ? BigInteger.ZERO : subaddress.getBalance();
+    }
+
+    BigInteger getUnlockedBalance(int subaddressIndex) {
+        MoneroSubaddress subaddress = getSubaddresses().get(subaddressIndex);
+        return subaddress == null ? BigInteger.ZERO : subaddress.getUnlockedBalance();
+    }
+
+    BigInteger getBalance() {
+        return getSubaddresses().values().stream()
+                .map(MoneroSubaddress::getBalance)
+                .reduce(BigInteger.ZERO, BigInteger::add);
+    }
+
+    BigInteger getUnlockedBalance() {
+        return getSubaddresses().values().stream()
+                .map(MoneroSubaddress::getUnlockedBalance)
+                .reduce(BigInteger.ZERO, BigInteger::add);
+    }
+
+    List<MoneroTxWallet> getTxs(boolean includeFailed) {
+        List<MoneroTxWallet> txs = getTxs();
+        return includeFailed ? txs : txs.stream()
+                .filter(tx -> !Boolean.TRUE.equals(tx.isFailed()))
+                .collect(Collectors.toList());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // A view loaded while the cache was invalidated is returned but not cached
+    private Map<Integer, MoneroSubaddress> getSubaddresses() {
+        Map<Integer, MoneroSubaddress> result = subaddresses;
+        if (result != null)
+            return result;
+
+        long version = this.version.get();
+        Map<Integer, MoneroSubaddress> map = new HashMap<>();
+        wallet.getSubaddresses(ACCOUNT_INDEX).forEach(subaddress -> map.put(subaddress.getIndex(), subaddress));
+        synchronized (this) {
+            if (this.version.get() == version)
+                subaddresses = map;
+        }
+        return map;
+    }
+
+    private List<MoneroTxWallet> getTxs() {
+        List<MoneroTxWallet> result = txs;
+        if (result != null)
+            return result;
+
+        long version = this.version.get();
+        result = List.copyOf(wallet.getTxs(new MoneroTxQuery()));
+        synchronized (this) {
+            if (this.version.get() == version)
+                txs = result;
+        }
+        return result;
+    }
+}
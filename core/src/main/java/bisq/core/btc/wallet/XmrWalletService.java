@@ -21,11 +21,13 @@ import java.io.File;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -42,7 +44,6 @@ import monero.wallet.model.MoneroDestination;
 import monero.wallet.model.MoneroOutputWallet;
 import monero.wallet.model.MoneroSubaddress;
 import monero.wallet.model.MoneroTxConfig;
-import monero.wallet.model.MoneroTxQuery;
 import monero.wallet.model.MoneroTxWallet;
 import monero.wallet.model.MoneroWalletConfig;
 import monero.wallet.model.MoneroWalletListener;
@@ -65,6 +66,13 @@ public class XmrWalletService {
     private static final String MONERO_WALLET_NAME = "haveno_XMR";
     private static final long MONERO_WALLET_SYNC_RATE = 5000l;
 
+    // multisig wallets are synced more often in trade phases in which txs are expected. as the hash of the expected
+    // tx is not known, any new pool tx triggers a sync, so a min. interval is needed to not sync at each poll.
+    private static final MultisigWalletSyncScheduler.SyncPolicy SYNC_POLICY_TX_EXPECTED = new MultisigWalletSyncScheduler.SyncPolicy(TimeUnit.SECONDS.toMillis(30), TimeUnit.MINUTES.toMillis(1), txHash -> true);
+    private static final MultisigWalletSyncScheduler.SyncPolicy SYNC_POLICY_DEPOSITS_UNLOCKING = new MultisigWalletSyncScheduler.SyncPolicy(0, TimeUnit.MINUTES.toMillis(2), txHash -> false);
+    private static final MultisigWalletSyncScheduler.SyncPolicy SYNC_POLICY_DEPOSITS_UNLOCKED = new MultisigWalletSyncScheduler.SyncPolicy(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(10), txHash -> false);
+    private static final MultisigWalletSyncScheduler.SyncPolicy SYNC_POLICY_PAID_OUT = new MultisigWalletSyncScheduler.SyncPolicy(TimeUnit.MINUTES.toMillis(10), TimeUnit.HOURS.toMillis(1), txHash -> false);
+
     private final CoreAccountService accountService;
     private final CoreMoneroConnectionsService connectionsService;
     private final XmrAddressEntryList xmrAddressEntryList;
@@ -77,7 +85,11 @@ public class XmrWalletService {
 
     private TradeManager tradeManager;
     private MoneroWalletRpc wallet;
-    private Map<String, MoneroWallet> multisigWallets;
+    private volatile XmrWalletCache walletCache;
+    private final Map<String, MoneroWallet> multisigWallets = new ConcurrentHashMap<>();
+    private final Map<String, Object> multisigWalletLocks = new ConcurrentHashMap<>();
+    private final WalletOpenScheduler walletOpenScheduler;
+    private final MultisigWalletSyncScheduler walletSyncScheduler;
 
     @Inject
     XmrWalletService(CoreAccountService accountService,
@@ -85,12 +97,15 @@ public class XmrWalletService {
                      WalletsSetup walletsSetup,
                      XmrAddressEntryList xmrAddressEntryList,
                      @Named(Config.WALLET_DIR) File walletDir,
-                     @Named(Config.WALLET_RPC_BIND_PORT) int rpcBindPort) {
+                     @Named(Config.WALLET_RPC_BIND_PORT) int rpcBindPort,
+                     @Named(Config.MAX_CONCURRENT_WALLET_OPENS) int maxConcurrentWalletOpens,
+                     @Named(Config.MAX_CONCURRENT_WALLET_SYNCS) int maxConcurrentWalletSyncs) {
         this.accountService = accountService;
         this.connectionsService = connectionsService;
         this.walletsSetup = walletsSetup;
         this.xmrAddressEntryList = xmrAddressEntryList;
-        this.multisigWallets = new HashMap<String, MoneroWallet>();
+        this.walletOpenScheduler = new WalletOpenScheduler("WalletOpenScheduler", maxConcurrentWalletOpens);
+        this.walletSyncScheduler = new MultisigWalletSyncScheduler(connectionsService::getDaemon, maxConcurrentWalletSyncs);
         this.walletDir = walletDir;
         this.rpcBindPort = rpcBindPort;
         this.xmrWalletFile = new File(walletDir, MONERO_WALLET_NAME);
@@ -180,34 +195,71 @@ public class XmrWalletService {
         if (multisigWallets.containsKey(tradeId)) return multisigWallets.get(tradeId);
         String path = "xmr_multisig_trade_" + tradeId;
         MoneroWallet multisigWallet = null;
-        multisigWallet = createWallet(new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), null); // auto-assign port
+        multisigWallet = createWallet(new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), null, false); // auto-assign port
         multisigWallets.put(tradeId, multisigWallet);
-        multisigWallet.startSyncing(5000l);
+        registerMultisigWallet(tradeId, multisigWallet);
         return multisigWallet;
     }
 
-    public MoneroWallet getMultisigWallet(String tradeId) { // TODO (woodser): synchronize per wallet id
-        log.info("{}.getMultisigWallet({})", getClass(), tradeId);
-        if (multisigWallets.containsKey(tradeId)) return multisigWallets.get(tradeId);
-        String path = "xmr_multisig_trade_" + tradeId;
-        if (!walletExists(path)) return null;
-        MoneroWallet multisigWallet = openWallet(new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), null);
-        multisigWallets.put(tradeId, multisigWallet);
-        multisigWallet.startSyncing(5000l); // TODO (woodser): use sync period from config. apps stall if too many multisig wallets and too short sync period
-        return multisigWallet;
+    // opens the multisig wallet on first access
+    public MoneroWallet getMultisigWallet(String tradeId) {
+        MoneroWallet multisigWallet = multisigWallets.get(tradeId);
+        if (multisigWallet != null) return multisigWallet;
+        synchronized (getMultisigWalletLock(tradeId)) {
+            multisigWallet = multisigWallets.get(tradeId);
+            if (multisigWallet != null) return multisigWallet;
+            String path = "xmr_multisig_trade_" + tradeId;
+            if (!walletExists(path)) return null;
+            long ts = System.currentTimeMillis();
+            multisigWallet = openWallet(new MoneroWalletConfig().setPath(path).setPassword(getWalletPassword()), null, false);
+            log.info("Opened multisig wallet of trade {} in {} ms", tradeId, System.currentTimeMillis() - ts);
+            multisigWallets.put(tradeId, multisigWallet);
+            registerMultisigWallet(tradeId, multisigWallet);
+            return multisigWallet;
+        }
+    }
+
+    public boolean isMultisigWalletOpen(String tradeId) {
+        return multisigWallets.containsKey(tradeId);
+    }
+
+    /**
+     * Opens and syncs the multisig wallet of a trade on the wallet open scheduler, so only a limited number of
+     * wallets are opened in parallel.
+     *
+     * @param tradeId   The id of the trade
+     * @param priority  Wallets with a lower value are opened first (e.g. the deadline of the trade)
+     * @return A future completed with the opened wallet or with null if the trade has no multisig wallet
+     */
+    public CompletableFuture<MoneroWallet> openMultisigWalletAsync(String tradeId, long priority) {
+        return walletOpenScheduler.schedule("Opening multisig wallet of trade " + tradeId, priority, () -> {
+            MoneroWallet multisigWallet = getMultisigWallet(tradeId);
+            if (multisigWallet != null) {
+                long ts = System.currentTimeMillis();
+                walletSyncScheduler.syncNow(tradeId);
+                log.info("Synced multisig wallet of trade {} in {} ms", tradeId, System.currentTimeMillis() - ts);
+            }
+            return multisigWallet;
+        });
     }
 
     public synchronized boolean deleteMultisigWallet(String tradeId) {
         log.info("{}.deleteMultisigWallet({})", getClass(), tradeId);
         String walletName = "xmr_multisig_trade_" + tradeId;
         if (!walletExists(walletName)) return false;
-        try {
-            closeWallet(getMultisigWallet(tradeId), false);
-        } catch (Exception err) {
-            // multisig wallet may not be open
+        synchronized (getMultisigWalletLock(tradeId)) {
+            MoneroWallet multisigWallet = multisigWallets.remove(tradeId);
+            walletSyncScheduler.unregister(tradeId);
+            if (multisigWallet != null) {
+                try {
+                    closeWallet(multisigWallet, false);
+                } catch (Exception err) {
+                    log.warn("Error closing multisig wallet of trade {}: {}", tradeId, err.toString());
+                }
+            }
+            deleteWallet(walletName);
         }
-        deleteWallet(walletName);
-        multisigWallets.remove(tradeId);
+        multisigWalletLocks.remove(tradeId);
         return true;
     }
 
@@ -222,6 +274,8 @@ public class XmrWalletService {
     }
 
     public void shutDown() {
+        walletOpenScheduler.shutDown();
+        walletSyncScheduler.shutDown();
         closeAllWallets();
     }
 
@@ -244,9 +298,9 @@ public class XmrWalletService {
     private void tryInitMainWallet() {
         MoneroWalletConfig walletConfig = new MoneroWalletConfig().setPath(MONERO_WALLET_NAME).setPassword(getWalletPassword());
         if (MoneroUtils.walletExists(xmrWalletFile.getPath())) {
-            wallet = openWallet(walletConfig, rpcBindPort);
+            wallet = openWallet(walletConfig, rpcBindPort, true);
         } else if (connectionsService.getConnection() != null && Boolean.TRUE.equals(connectionsService.getConnection().isConnected())) {
-            wallet = createWallet(walletConfig, rpcBindPort); // wallet requires connection to daemon to correctly set height
+            wallet = createWallet(walletConfig, rpcBindPort, true); // wallet requires connection to daemon to correctly set height
         }
 
         // wallet is not initialized until connected to a daemon
@@ -266,17 +320,35 @@ public class XmrWalletService {
             System.out.println("Monero wallet balance: " + wallet.getBalance(0));
             System.out.println("Monero wallet unlocked balance: " + wallet.getUnlockedBalance(0));
 
-            // notify on balance changes
+            // balances and txs are read from the cache which is invalidated on wallet changes
+            XmrWalletCache walletCache = new XmrWalletCache(wallet);
+            this.walletCache = walletCache;
             wallet.addListener(new MoneroWalletListener() {
+                @Override
+                public void onNewBlock(long height) {
+                    walletCache.invalidateTxs();
+                }
+
                 @Override
                 public void onBalancesChanged(BigInteger newBalance, BigInteger newUnlockedBalance) {
+                    walletCache.invalidate();
                     notifyBalanceListeners();
                 }
+
+                @Override
+                public void onOutputReceived(MoneroOutputWallet output) {
+                    walletCache.invalidate();
+                }
+
+                @Override
+                public void onOutputSpent(MoneroOutputWallet output) {
+                    walletCache.invalidate();
+                }
             });
         }
     }
 
-    private MoneroWalletRpc createWallet(MoneroWalletConfig config, Integer port) {
+    private MoneroWalletRpc createWallet(MoneroWalletConfig config, Integer port, boolean startSyncing) {
 
         // start monero-wallet-rpc instance
         MoneroWalletRpc walletRpc = startWalletRpcInstance(port);
@@ -288,7 +360,7 @@ public class XmrWalletService {
         // create wallet
         try {
             walletRpc.createWallet(config);
-            walletRpc.startSyncing(MONERO_WALLET_SYNC_RATE);
+            if (startSyncing) walletRpc.startSyncing(MONERO_WALLET_SYNC_RATE);
             return walletRpc;
         } catch (Exception e) {
             e.printStackTrace();
@@ -297,7 +369,7 @@ public class XmrWalletService {
         }
     }
 
-    private MoneroWalletRpc openWallet(MoneroWalletConfig config, Integer port) {
+    private MoneroWalletRpc openWallet(MoneroWalletConfig config, Integer port, boolean startSyncing) {
 
         // start monero-wallet-rpc instance
         MoneroWalletRpc walletRpc = startWalletRpcInstance(port);
@@ -305,7 +377,7 @@ public class XmrWalletService {
         // open wallet
         try {
             walletRpc.openWallet(config);
-            walletRpc.startSyncing(MONERO_WALLET_SYNC_RATE);
+            if (startSyncing) walletRpc.startSyncing(MONERO_WALLET_SYNC_RATE);
             return walletRpc;
         } catch (Exception e) {
             e.printStackTrace();
@@ -342,6 +414,32 @@ public class XmrWalletService {
         return MONERO_WALLET_RPC_MANAGER.startInstance(cmd);
     }
 
+    // multisig wallets do not sync by themselves but are synced by the shared sync scheduler
+    private void registerMultisigWallet(String tradeId, MoneroWallet multisigWallet) {
+        multisigWallet.stopSyncing();
+        walletSyncScheduler.register(tradeId, multisigWallet, () -> getSyncPolicy(tradeId));
+    }
+
+    private MultisigWalletSyncScheduler.SyncPolicy getSyncPolicy(String tradeId) {
+        Optional<Trade> trade = tradeManager == null ? Optional.empty() : tradeManager.getTradeById(tradeId);
+        if (!trade.isPresent()) return SYNC_POLICY_TX_EXPECTED;
+        switch (trade.get().getPhase()) {
+            case DEPOSIT_PUBLISHED:
+                return SYNC_POLICY_DEPOSITS_UNLOCKING;
+            case DEPOSIT_CONFIRMED:
+                return SYNC_POLICY_DEPOSITS_UNLOCKED;
+            case PAYOUT_PUBLISHED:
+            case WITHDRAWN:
+                return SYNC_POLICY_PAID_OUT;
+            default:
+                return SYNC_POLICY_TX_EXPECTED; // the hash of the next deposit or payout tx is not known yet
+        }
+    }
+
+    private Object getMultisigWalletLock(String tradeId) {
+        return multisigWalletLocks.computeIfAbsent(tradeId, id -> new Object());
+    }
+
     private void backupWallets() {
         FileUtil.rollingBackup(walletDir, xmrWalletFile.getName(), 20);
         FileUtil.rollingBackup(walletDir, xmrWalletFile.getName() + ".keys", 20);
@@ -352,7 +450,10 @@ public class XmrWalletService {
         log.info("Setting wallet daemon connections: " + (connection == null ? null : connection.getUri()));
         if (wallet == null) tryInitMainWallet();
         if (wallet != null) wallet.setDaemonConnection(connection);
-        for (MoneroWallet multisigWallet : multisigWallets.values()) multisigWallet.setDaemonConnection(connection);
+        for (Map.Entry<String, MoneroWallet> entry : multisigWallets.entrySet()) {
+            entry.getValue().setDaemonConnection(connection);
+            walletSyncScheduler.requestSync(entry.getKey());
+        }
     }
 
     private void notifyBalanceListeners() {
@@ -370,37 +471,38 @@ public class XmrWalletService {
     }
 
     private void changeWalletPasswords(String oldPassword, String newPassword) {
-        List<String> tradeIds = tradeManager.getTrades().stream().map(Trade::getId).collect(Collectors.toList());
-        ExecutorService pool = Executors.newFixedThreadPool(Math.min(10, 1 + tradeIds.size()));
-        pool.submit(new Runnable() {
-            @Override
-            public void run() {
-                try {
-                    wallet.changePassword(oldPassword, newPassword);
-                    wallet.save();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    throw e;
-                }
-            }
-        });
-        for (String tradeId : tradeIds) {
-            pool.submit(new Runnable() {
-                @Override
-                public void run() {
-                    MoneroWallet multisigWallet = getMultisigWallet(tradeId); // TODO (woodser): this unnecessarily connects and syncs unopen wallets and leaves open
-                    if (multisigWallet == null) return;
-                    multisigWallet.changePassword(oldPassword, newPassword);
-                    multisigWallet.save();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        futures.add(walletOpenScheduler.schedule("Changing password of main wallet", Long.MIN_VALUE, () -> {
+            wallet.changePassword(oldPassword, newPassword);
+            wallet.save();
+        }));
+
+        // wallets which are not open are only opened to change the password and closed again
+        for (Trade trade : tradeManager.getTrades()) {
+            String tradeId = trade.getId();
+            futures.add(walletOpenScheduler.schedule("Changing password of multisig wallet of trade " + tradeId, 0, () -> {
+                synchronized (getMultisigWalletLock(tradeId)) {
+                    MoneroWallet multisigWallet = multisigWallets.get(tradeId);
+                    if (multisigWallet != null) {
+                        multisigWallet.changePassword(oldPassword, newPassword);
+                        multisigWallet.save();
+                        return;
+                    }
+                    String path = "xmr_multisig_trade_" + tradeId;
+                    if (!walletExists(path)) return;
+                    String password = oldPassword == null ? MONERO_WALLET_RPC_DEFAULT_PASSWORD : oldPassword;
+                    MoneroWalletRpc walletRpc = openWallet(new MoneroWalletConfig().setPath(path).setPassword(password), null, false);
+                    try {
+                        walletRpc.changePassword(oldPassword, newPassword);
+                    } finally {
+                        closeWallet(walletRpc, true);
+                    }
                 }
-            });
+            }));
         }
-        pool.shutdown();
         try {
-            if (!pool.awaitTermination(60000, TimeUnit.SECONDS)) pool.shutdownNow();
-        } catch (InterruptedException e) {
-            try { pool.shutdownNow(); }
-            catch (Exception e2) { }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException(e);
         }
     }
@@ -441,7 +543,9 @@ public class XmrWalletService {
 
         // clear wallets
         wallet = null;
+        walletCache = null;
         multisigWallets.clear();
+        walletSyncScheduler.unregisterAll();
     }
     
     // ----------------------------- LEGACY APP -------------------------------
@@ -545,7 +649,9 @@ public class XmrWalletService {
     public Coin getBalanceForSubaddress(int subaddressIndex) {
 
         // get subaddress balance
-        BigInteger balance = wallet.getBalance(0, subaddressIndex);
+        XmrWalletCache walletCache = this.walletCache;
+        if (walletCache == null) return Coin.ZERO;
+        BigInteger balance = walletCache.getBalance(subaddressIndex);
 
 //    // balance from xmr wallet does not include unconfirmed funds, so add them  // TODO: support lower in stack?
 //    for (MoneroTxWallet unconfirmedTx : wallet.getTxs(new MoneroTxQuery().setIsConfirmed(false))) {
@@ -556,17 +662,17 @@ public class XmrWalletService {
 //      }
 //    }
 
-        System.out.println("Returning balance for subaddress " + subaddressIndex + ": " + balance.longValueExact());
-
         return Coin.valueOf(balance.longValueExact());
     }
 
     public Coin getAvailableConfirmedBalance() {
-        return wallet != null ? Coin.valueOf(wallet.getUnlockedBalance(0).longValueExact()) : Coin.ZERO;
+        XmrWalletCache walletCache = this.walletCache;
+        return walletCache != null ? Coin.valueOf(walletCache.getUnlockedBalance().longValueExact()) : Coin.ZERO;
     }
 
     public Coin getSavingWalletBalance() {
-        return wallet != null ? Coin.valueOf(wallet.getBalance(0).longValueExact()) : Coin.ZERO;
+        XmrWalletCache walletCache = this.walletCache;
+        return walletCache != null ? Coin.valueOf(walletCache.getBalance().longValueExact()) : Coin.ZERO;
     }
 
     public Stream<XmrAddressEntry> getAddressEntriesForAvailableBalanceStream() {
@@ -590,7 +696,8 @@ public class XmrWalletService {
     }
 
     public List<MoneroTxWallet> getTransactions(boolean includeDead) {
-        return wallet.getTxs(new MoneroTxQuery().setIsFailed(includeDead ? null : false));
+        XmrWalletCache walletCache = this.walletCache;
+        return walletCache != null ? walletCache.getTxs(includeDead) : new ArrayList<>();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
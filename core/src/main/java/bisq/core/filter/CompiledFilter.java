@@ -0,0 +1,171 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.filter;
+
+import bisq.core.payment.payload.PaymentAccountPayload;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.lang.reflect.Method;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * The ban lists of a {@link Filter} compiled to hash sets, so the ban checks of the {@link FilterManager} do not
+ * depend on the size of the lists. The banned payment accounts are grouped by payment method and getter method, so
+ * we only invoke the getters which are relevant for the payment method of the account.
+ * <p>
+ * Immutable apart from the cache of the resolved getter methods. A new instance is created when the filter changes.
+ */
+@Slf4j
+final class CompiledFilter {
+    static final CompiledFilter EMPTY = new CompiledFilter(null);
+
+    private final Set<String> bannedOfferIds;
+    private final Set<String> nodeAddressesBannedFromTrading;
+    private final Set<String> nodeAddressesBannedFromNetwork;
+    private final Set<String> bannedCurrencies;
+    private final Set<String> bannedPaymentMethods;
+    private final Set<String> bannedAutoConfExplorers;
+    private final Set<String> bannedAccountWitnessSignerPubKeys;
+    private final Set<String> bannedPrivilegedDevPubKeys;
+    // Lower case banned values by getter method name by payment method id
+    private final Map<String, Map<String, Set<String>>> bannedPaymentAccounts;
+    // Resolved getter methods by payload class and method name
+    private final Map<String, Optional<Method>> getterMethods = new ConcurrentHashMap<>();
+
+    CompiledFilter(@Nullable Filter filter) {
+        if (filter == null) {
+            bannedOfferIds = Set.of();
+            nodeAddressesBannedFromTrading = Set.of();
+            nodeAddressesBannedFromNetwork = Set.of();
+            bannedCurrencies = Set.of();
+            bannedPaymentMethods = Set.of();
+            bannedAutoConfExplorers = Set.of();
+            bannedAccountWitnessSignerPubKeys = Set.of();
+            bannedPrivilegedDevPubKeys = Set.of();
+            bannedPaymentAccounts = Map.of();
+            return;
+        }
+
+        bannedOfferIds = toSet(filter.getBannedOfferIds());
+        nodeAddressesBannedFromTrading = toSet(filter.getNodeAddressesBannedFromTrading());
+        nodeAddressesBannedFromNetwork = toSet(filter.getNodeAddressesBannedFromNetwork());
+        bannedCurrencies = toSet(filter.getBannedCurrencies());
+        bannedPaymentMethods = toSet(filter.getBannedPaymentMethods());
+        bannedAutoConfExplorers = toSet(filter.getBannedAutoConfExplorers());
+        bannedAccountWitnessSignerPubKeys = toSet(filter.getBannedAccountWitnessSignerPubKeys());
+        bannedPrivilegedDevPubKeys = toSet(filter.getBannedPrivilegedDevPubKeys());
+
+        Map<String, Map<String, Set<String>>> bannedPaymentAccounts = new HashMap<>();
+        if (filter.getBannedPaymentAccounts() != null) {
+            filter.getBannedPaymentAccounts().forEach(paymentAccountFilter ->
+                    bannedPaymentAccounts.computeIfAbsent(paymentAccountFilter.getPaymentMethodId(), k -> new HashMap<>())
+                            .computeIfAbsent(paymentAccountFilter.getGetMethodName(), k -> new HashSet<>())
+                            .add(toLowerCase(paymentAccountFilter.getValue())));
+        }
+        this.bannedPaymentAccounts = bannedPaymentAccounts;
+    }
+
+    boolean isOfferIdBanned(String offerId) {
+        return bannedOfferIds.contains(offerId);
+    }
+
+    boolean isNodeAddressBannedFromTrading(String fullAddress) {
+        return nodeAddressesBannedFromTrading.contains(fullAddress);
+    }
+
+    boolean isNodeAddressBannedFromNetwork(String fullAddress) {
+        return nodeAddressesBannedFromNetwork.contains(fullAddress);
+    }
+
+    boolean isCurrencyBanned(String currencyCode) {
+        return bannedCurrencies.contains(currencyCode);
+    }
+
+    boolean isPaymentMethodBanned(String paymentMethodId) {
+        return bannedPaymentMethods.contains(paymentMethodId);
+    }
+
+    boolean isAutoConfExplorerBanned(String address) {
+        return bannedAutoConfExplorers.contains(address);
+    }
+
+    boolean isWitnessSignerPubKeyBanned(String witnessSignerPubKeyAsHex) {
+        return bannedAccountWitnessSignerPubKeys.contains(witnessSignerPubKeyAsHex);
+    }
+
+    boolean isPrivilegedDevPubKeyBanned(String pubKeyAsHex) {
+        return bannedPrivilegedDevPubKeys.contains(pubKeyAsHex);
+    }
+
+    boolean isPaymentAccountBanned(PaymentAccountPayload paymentAccountPayload) {
+        Map<String, Set<String>> bannedValuesByGetter = bannedPaymentAccounts.get(paymentAccountPayload.getPaymentMethodId());
+        if (bannedValuesByGetter == null) {
+            return false;
+        }
+
+        for (Map.Entry<String, Set<String>> entry : bannedValuesByGetter.entrySet()) {
+            Optional<Method> method = getGetterMethod(paymentAccountPayload.getClass(), entry.getKey());
+            if (!method.isPresent()) {
+                continue;
+            }
+            try {
+                // We invoke getter methods (no args), e.g. getHolderName
+                String valueFromInvoke = (String) method.get().invoke(paymentAccountPayload);
+                if (valueFromInvoke != null && entry.getValue().contains(toLowerCase(valueFromInvoke))) {
+                    return true;
+                }
+            } catch (Throwable e) {
+                log.error(e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private Optional<Method> getGetterMethod(Class<?> payloadClass, String methodName) {
+        return getterMethods.computeIfAbsent(payloadClass.getName() + "." + methodName, key -> {
+            try {
+                return Optional.of(payloadClass.getMethod(methodName));
+            } catch (NoSuchMethodException e) {
+                log.error("Method {} of banned payment account filter not found at {}", methodName,
+                        payloadClass.getSimpleName());
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static Set<String> toSet(@Nullable Collection<String> collection) {
+        return collection == null ? Set.of() : Set.copyOf(collection);
+    }
+
+    // The filter values have been compared with equalsIgnoreCase. Lower casing both sides matches that for all but a
+    // few special characters.
+    private static String toLowerCase(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maintains the offers of the offer book indexed by offer id and partitioned by market
+ * (currency code and direction), with a separate partition for our own offers.
+ * It is updated incrementally from the add/remove callbacks of the P2P data storage so
+ * that readers do not need to scan the whole data map.
+ * <p>
+ * Partitions are returned as immutable lists sorted by ascending price. The sorted
+ * snapshots are cached and only rebuilt after a change in the partition or after
+ * {@link #invalidateSortedPartitions()} was called (e.g. when market prices got updated,
+ * as that changes the price of market based offers).
+ */
+class OfferBookIndex {
+    // Offer price can be null (if price feed unavailable), thus a null-tolerant comparator is used.
+    static final Comparator<Offer> PRICE_COMPARATOR = Comparator.comparing(Offer::getPrice,
+            Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final Predicate<Offer> isMyOffer;
+
+    private final Map<String, Offer> offersById = new HashMap<>();
+    private final Map<String, Partition> partitions = new HashMap<>();
+    private final Map<String, Partition> myOfferPartitions = new HashMap<>();
+    private final Partition myOffers = new Partition();
+    @Nullable
+    private List<Offer> allOffers;
+
+    OfferBookIndex(Predicate<Offer> isMyOffer) {
+        this.isMyOffer = isMyOffer;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Update
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds the offer to the index, replacing a previous offer with the same id.
+     */
+    synchronized void add(Offer offer) {
+        Offer previous = offersById.put(offer.getId(), offer);
+        if (previous != null)
+            removeFromPartitions(previous);
+
+        String key = getPartitionKey(offer.getCurrencyCode(), offer.getDirection());
+        partitions.computeIfAbsent(key, k -> new Partition()).put(offer);
+        if (isMyOffer.test(offer)) {
+            myOfferPartitions.computeIfAbsent(key, k -> new Partition()).put(offer);
+            myOffers.put(offer);
+        }
+        allOffers = null;
+    }
+
+    /**
+     * @return The removed offer or null if no offer with that id was indexed.
+     */
+    @Nullable
+    synchronized Offer remove(String offerId) {
+        Offer removed = offersById.remove(offerId);
+        if (removed != null) {
+            removeFromPartitions(removed);
+            allOffers = null;
+        }
+        return removed;
+    }
+
+    synchronized void invalidateSortedPartitions() {
+        partitions.values().forEach(Partition::invalidate);
+        myOfferPartitions.values().forEach(Partition::invalidate);
+        myOffers.invalidate();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Read
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized Optional<Offer> getOfferById(String offerId) {
+        return Optional.ofNullable(offersById.get(offerId));
+    }
+
+    synchronized boolean isMyOffer(String offerId) {
+        return myOffers.contains(offerId);
+    }
+
+    synchronized List<Offer> getOffers() {
+        if (allOffers == null)
+            allOffers = ImmutableList.copyOf(offersById.values());
+        return allOffers;
+    }
+
+    /**
+     * @return All offers (including our own) for the given currency code and direction,
+     * sorted by ascending price.
+     */
+    synchronized List<Offer> getOffers(String currencyCode, OfferPayload.Direction direction) {
+        Partition partition = partitions.get(getPartitionKey(currencyCode, direction));
+        return partition != null ? partition.getSorted() : ImmutableList.of();
+    }
+
+    /**
+     * @return Our own offers sorted by ascending price.
+     */
+    synchronized List<Offer> getMyOffers() {
+        return myOffers.getSorted();
+    }
+
+    /**
+     * @return Our own offers for the given currency code and direction, sorted by ascending price.
+     */
+    synchronized List<Offer> getMyOffers(String currencyCode, OfferPayload.Direction direction) {
+        Partition partition = myOfferPartitions.get(getPartitionKey(currencyCode, direction));
+        return partition != null ? partition.getSorted() : ImmutableList.of();
+    }
+
+    synchronized int size() {
+        return offersById.size();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void removeFromPartitions(Offer offer) {
+        String key = getPartitionKey(offer.getCurrencyCode(), offer.getDirection());
+        removeFromPartition(partitions, key, offer.getId());
+        removeFromPartition(myOfferPartitions, key, offer.getId());
+        myOffers.remove(offer.getId());
+    }
+
+    private static void removeFromPartition(Map<String, Partition> partitionMap, String key, String offerId) {
+        Partition partition = partitionMap.get(key);
+        if (partition != null) {
+            partition.remove(offerId);
+            if (partition.isEmpty())
+                partitionMap.remove(key);
+        }
+    }
+
+    private static String getPartitionKey(String currencyCode, OfferPayload.Direction direction) {
+        return currencyCode.toUpperCase() + "_" + direction.name();
+    }
+
+    private static class Partition {
+        private final Map<String, Offer> offersById = new LinkedHashMap<>();
+        @Nullable
+        private List<Offer> sorted;
+
+        void put(Offer offer) {
+            offersById.put(offer.getId(), offer);
+            sorted = null;
+        }
+
+        void remove(String offerId) {
+            if (offersById.remove(offerId) != null)
+                sorted = null;
+        }
+
+        boolean contains(String offerId) {
+            return offersById.containsKey(offerId);
+        }
+
+        boolean isEmpty() {
+            return offersById.isEmpty();
+        }
+
+        void invalidate() {
+            sorted = null;
+        }
+
+        List<Offer> getSorted() {
+            if (sorted == null)
+                sorted = ImmutableList.sortedCopyOf(PRICE_COMPARATOR, offersById.values());
+            return sorted;
+        }
+    }
+}
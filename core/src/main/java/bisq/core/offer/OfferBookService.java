@@ -28,6 +28,7 @@ import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.UserThread;
 import bisq.common.config.Config;
+import bisq.common.crypto.KeyRing;
 import bisq.common.file.JsonFileManager;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
@@ -42,6 +43,7 @@ import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -49,9 +51,14 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 
+import static java.lang.String.format;
+
 /**
  * Handles storage and retrieval of offers.
- * Uses an invalidation flag to only request the full offer map in case there was a change (anyone has added or removed an offer).
+ * Offers are kept in an {@link OfferBookIndex} which is updated incrementally when offers get added to or removed
+ * from the P2P network storage, so lookups by id or market do not need to scan the full data map.
+ * The offers of the index are shared by all clients and must not be changed. Clients which change the state of an
+ * offer (e.g. the take offer view or the availability protocol) use a copy from {@link #copyOf(Offer)}.
  */
 public class OfferBookService {
     private static final Logger log = LoggerFactory.getLogger(OfferBookService.class);
@@ -67,6 +74,7 @@ public class OfferBookService {
     private final List<OfferBookChangedListener> offerBookChangedListeners = new LinkedList<>();
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
+    private final OfferBookIndex offerBookIndex;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -77,39 +85,52 @@ public class OfferBookService {
     public OfferBookService(P2PService p2PService,
                             PriceFeedService priceFeedService,
                             FilterManager filterManager,
+                            KeyRing keyRing,
                             @Named(Config.STORAGE_DIR) File storageDir,
                             @Named(Config.DUMP_STATISTICS) boolean dumpStatistics) {
         this.p2PService = p2PService;
         this.priceFeedService = priceFeedService;
         this.filterManager = filterManager;
         jsonFileManager = new JsonFileManager(storageDir);
+        offerBookIndex = new OfferBookIndex(offer -> offer.isMyOffer(keyRing));
+
+        // Offers which are already in the data map at construction time.
+        p2PService.getDataMap().values().forEach(protectedStorageEntry -> {
+            if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload)
+                offerBookIndex.add(toOffer((OfferPayload) protectedStorageEntry.getProtectedStoragePayload()));
+        });
 
         p2PService.addHashSetChangedListener(new HashMapChangedListener() {
             @Override
             public void onAdded(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
                         OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
-                        Offer offer = new Offer(offerPayload);
-                        offer.setPriceFeedService(priceFeedService);
-                        listener.onAdded(offer);
+                        Offer offer = toOffer(offerPayload);
+                        offerBookIndex.add(offer);
+                        offerBookChangedListeners.forEach(listener -> listener.onAdded(offer));
                     }
-                }));
+                });
             }
 
             @Override
             public void onRemoved(Collection<ProtectedStorageEntry> protectedStorageEntries) {
-                protectedStorageEntries.forEach(protectedStorageEntry -> offerBookChangedListeners.forEach(listener -> {
+                protectedStorageEntries.forEach(protectedStorageEntry -> {
                     if (protectedStorageEntry.getProtectedStoragePayload() instanceof OfferPayload) {
                         OfferPayload offerPayload = (OfferPayload) protectedStorageEntry.getProtectedStoragePayload();
-                        Offer offer = new Offer(offerPayload);
-                        offer.setPriceFeedService(priceFeedService);
-                        listener.onRemoved(offer);
+                        Offer removed = offerBookIndex.remove(offerPayload.getId());
+                        Offer offer = removed != null ? removed : toOffer(offerPayload);
+                        offerBookChangedListeners.forEach(listener -> listener.onRemoved(offer));
                     }
-                }));
+                });
             }
         });
 
+        // Market based offers change their price with the market price, so the price sorted partitions
+        // of the index need to be re-sorted at the next read.
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) ->
+                offerBookIndex.invalidateSortedPartitions());
+
         if (dumpStatistics) {
             p2PService.addP2PServiceListener(new BootstrapListener() {
                 @Override
@@ -166,6 +187,26 @@ public class OfferBookService {
         }
     }
 
+    public void refreshTTL(List<OfferPayload> offerPayloads,
+                           ResultHandler resultHandler,
+                           ErrorMessageHandler errorMessageHandler) {
+        if (filterManager.requireUpdateToNewVersionForTrading()) {
+            errorMessageHandler.handleErrorMessage(Res.get("popup.warning.mandatoryUpdate.trading"));
+            return;
+        }
+
+        boolean result = p2PService.refreshTTL(offerPayloads);
+        if (result) {
+            resultHandler.handleResult();
+        } else {
+            errorMessageHandler.handleErrorMessage("Bulk refresh TTL failed.");
+        }
+    }
+
+    public boolean isBulkRefreshTTLSupported() {
+        return p2PService.isBulkRefreshTTLSupported();
+    }
+
     public void activateOffer(Offer offer,
                               @Nullable ResultHandler resultHandler,
                               @Nullable ErrorMessageHandler errorMessageHandler) {
@@ -190,22 +231,48 @@ public class OfferBookService {
         }
     }
 
+    /**
+     * @return Unmodifiable list of all offers. The offers must not be changed.
+     */
     public List<Offer> getOffers() {
-        return p2PService.getDataMap().values().stream()
-                .filter(data -> data.getProtectedStoragePayload() instanceof OfferPayload)
-                .map(data -> {
-                    OfferPayload offerPayload = (OfferPayload) data.getProtectedStoragePayload();
-                    Offer offer = new Offer(offerPayload);
-                    offer.setPriceFeedService(priceFeedService);
-                    return offer;
-                })
-                .collect(Collectors.toList());
+        return offerBookIndex.getOffers();
+    }
+
+    public Optional<Offer> getOfferById(String offerId) {
+        return offerBookIndex.getOfferById(offerId);
+    }
+
+    /**
+     * @return A new offer of the same offer payload, for clients which change the state of the offer.
+     */
+    public Offer copyOf(Offer offer) {
+        return toOffer(offer.getOfferPayload());
+    }
+
+    public boolean isMyOffer(String offerId) {
+        return offerBookIndex.isMyOffer(offerId);
     }
 
+    /**
+     * @return Unmodifiable list of all offers (including our own) of the given direction and currency code sorted by
+     * ascending price.
+     */
     public List<Offer> getOffersByCurrency(String direction, String currencyCode) {
-        return getOffers().stream()
-                .filter(o -> o.getOfferPayload().getBaseCurrencyCode().equalsIgnoreCase(currencyCode) && o.getDirection().name() == direction)
-                .collect(Collectors.toList());
+        return offerBookIndex.getOffers(currencyCode, toDirection(direction));
+    }
+
+    /**
+     * @return Unmodifiable list of our own offers sorted by ascending price.
+     */
+    public List<Offer> getMyOffers() {
+        return offerBookIndex.getMyOffers();
+    }
+
+    /**
+     * @return Unmodifiable list of our own offers of the given direction and currency code sorted by ascending price.
+     */
+    public List<Offer> getMyOffersByCurrency(String direction, String currencyCode) {
+        return offerBookIndex.getMyOffers(currencyCode, toDirection(direction));
     }
 
     public void removeOfferAtShutDown(OfferPayload offerPayload) {
@@ -225,6 +292,22 @@ public class OfferBookService {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private Offer toOffer(OfferPayload offerPayload) {
+        Offer offer = new Offer(offerPayload);
+        offer.setPriceFeedService(priceFeedService);
+        return offer;
+    }
+
+    private static OfferPayload.Direction toDirection(String direction) {
+        if (direction != null) {
+            for (OfferPayload.Direction value : OfferPayload.Direction.values()) {
+                if (value.name().equalsIgnoreCase(direction))
+                    return value;
+            }
+        }
+        throw new IllegalArgumentException(format("invalid direction '%s', must be 'buy' or 'sell'", direction));
+    }
+
     private void doDumpStatistics() {
         // We filter the case that it is a MarketBasedPrice but the price is not available
         // That should only be possible if the price feed provider is not available
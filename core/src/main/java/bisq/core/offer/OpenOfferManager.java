@@ -56,6 +56,7 @@ import bisq.network.p2p.P2PService;
 import bisq.network.p2p.SendDirectMessageListener;
 import bisq.network.p2p.peers.Broadcaster;
 import bisq.network.p2p.peers.PeerManager;
+import bisq.network.p2p.storage.messages.BulkRefreshOfferMessage;
 import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.app.Capabilities;
@@ -73,6 +74,8 @@ import bisq.common.util.Tuple2;
 import bisq.common.util.Utilities;
 import org.bitcoinj.core.Coin;
 
+import com.google.common.collect.Lists;
+
 import javax.inject.Inject;
 
 import javafx.collections.FXCollections;
@@ -80,6 +83,7 @@ import javafx.collections.ObservableList;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -448,6 +452,21 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         }
     }
 
+    /**
+     * Removes several offers from the offer book. The removals are sent out in one bundled broadcast right away.
+     *
+     * @return The error messages of the offers which could not be removed by offer id
+     */
+    public Map<String, String> removeOffers(List<Offer> offers) {
+        Map<String, String> errorMessages = new LinkedHashMap<>();
+        offers.forEach(offer -> removeOffer(offer,
+                () -> {
+                },
+                errorMessage -> errorMessages.put(offer.getId(), errorMessage)));
+        broadcaster.flush();
+        return errorMessages;
+    }
+
     public void activateOpenOffer(OpenOffer openOffer,
                                   ResultHandler resultHandler,
                                   ErrorMessageHandler errorMessageHandler) {
@@ -1136,7 +1155,9 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
         // refresh sufficiently before offer would expire
         if (periodicRefreshOffersTimer == null)
             periodicRefreshOffersTimer = UserThread.runPeriodically(() -> {
-                        if (!stopped) {
+                        if (!stopped && offerBookService.isBulkRefreshTTLSupported()) {
+                            refreshOffersInBulk();
+                        } else if (!stopped) {
                             int size = openOffers.size();
                             //we clone our list as openOffers might change during our delayed call
                             final ArrayList<OpenOffer> openOffersList = new ArrayList<>(openOffers.getList());
@@ -1164,6 +1185,26 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
             log.trace("periodicRefreshOffersTimer already stated");
     }
 
+    // The bulk refresh is enabled for the network and all our peers support the BulkRefreshOfferMessage, so we
+    // refresh our offers with one signature and one broadcast per chunk of offers instead of one per offer.
+    private void refreshOffersInBulk() {
+        List<OfferPayload> offerPayloads = openOffers.getList().stream()
+                .filter(openOffer -> !openOffer.isDeactivated())
+                .map(openOffer -> openOffer.getOffer().getOfferPayload())
+                .collect(Collectors.toList());
+        List<List<OfferPayload>> chunks = Lists.partition(offerPayloads, BulkRefreshOfferMessage.MAX_ENTRIES);
+        for (int i = 0; i < chunks.size(); i++) {
+            List<OfferPayload> chunk = new ArrayList<>(chunks.get(i));
+            UserThread.runAfter(() -> {
+                if (!stopped) {
+                    offerBookService.refreshTTL(chunk,
+                            () -> log.debug("Successful refreshed TTL for {} offers", chunk.size()),
+                            log::warn);
+                }
+            }, (i + 1) * 300L, TimeUnit.MILLISECONDS);
+        }
+    }
+
     private void refreshOffer(OpenOffer openOffer) {
         offerBookService.refreshTTL(openOffer.getOffer().getOfferPayload(),
                 () -> log.debug("Successful refreshed TTL for offer"),
@@ -18,6 +18,7 @@
 package bisq.core.proto.persistable;
 
 import bisq.core.account.sign.SignedWitnessStore;
+import bisq.core.account.sign.SignedWitnessVerificationResults;
 import bisq.core.account.witness.AccountAgeWitnessStore;
 import bisq.core.btc.model.AddressEntryList;
 import bisq.core.btc.model.EncryptedConnectionList;
@@ -117,6 +118,8 @@ public class CorePersistenceProtoResolver extends CoreProtoResolver implements P
                     return IgnoredMailboxMap.fromProto(proto.getIgnoredMailboxMap());
                 case REMOVED_PAYLOADS_MAP:
                     return RemovedPayloadsMap.fromProto(proto.getRemovedPayloadsMap());
+                case SIGNED_WITNESS_VERIFICATION_RESULTS:
+                    return SignedWitnessVerificationResults.fromProto(proto.getSignedWitnessVerificationResults());
                 default:
                     throw new ProtobufferRuntimeException("Unknown proto message case(PB.PersistableEnvelope). " +
                             "messageCase=" + proto.getMessageCase() + "; proto raw data=" + proto.toString());
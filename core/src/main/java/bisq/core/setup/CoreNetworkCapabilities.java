@@ -40,7 +40,10 @@ public class CoreNetworkCapabilities {
                 Capability.REFUND_AGENT,
                 Capability.TRADE_STATISTICS_HASH_UPDATE,
                 Capability.NO_ADDRESS_PRE_FIX,
-                Capability.TRADE_STATISTICS_3
+                Capability.TRADE_STATISTICS_3,
+                Capability.KNOWN_KEYS_SKETCH,
+                Capability.GET_DATA_RESPONSE_PAGES,
+                Capability.BULK_REFRESH_OFFERS
         );
 
         log.info(Capabilities.app.prettyPrint());
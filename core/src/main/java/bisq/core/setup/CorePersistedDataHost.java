@@ -17,6 +17,7 @@
 
 package bisq.core.setup;
 
+import bisq.core.account.sign.SignedWitnessVerificationCache;
 import bisq.core.btc.model.AddressEntryList;
 import bisq.core.btc.model.EncryptedConnectionList;
 import bisq.core.btc.model.XmrAddressEntryList;
@@ -67,6 +68,7 @@ public class CorePersistedDataHost {
         persistedDataHosts.add(injector.getInstance(MailboxMessageService.class));
         persistedDataHosts.add(injector.getInstance(IgnoredMailboxService.class));
         persistedDataHosts.add(injector.getInstance(RemovedPayloadsService.class));
+        persistedDataHosts.add(injector.getInstance(SignedWitnessVerificationCache.class));
 
         return persistedDataHosts;
     }
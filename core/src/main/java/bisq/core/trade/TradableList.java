@@ -24,17 +24,23 @@ import bisq.core.proto.CoreProtoResolver;
 import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.ProtobufferRuntimeException;
 import bisq.common.proto.persistable.PersistableListAsObservable;
+import bisq.common.proto.persistable.PersistableRecordEnvelope;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
-public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> {
+public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T>
+        implements PersistableRecordEnvelope {
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -60,6 +66,34 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
                 .build();
     }
 
+    // With record storage each tradable is stored as its own record, so a state change of a trade only serializes and
+    // writes that trade. The id is not unique across tradable types (a trade has the id of its offer), so we add the
+    // type.
+    @Override
+    public Map<String, Supplier<? extends Message>> getRecords() {
+        Map<String, Supplier<? extends Message>> records = new LinkedHashMap<>();
+        for (T tradable : getList()) {
+            String key = getRecordKey(tradable);
+            if (records.putIfAbsent(key, tradable::toProtoMessage) != null) {
+                log.warn("Tradable {} is contained multiple times. We store it only once.", key);
+            }
+        }
+        return records;
+    }
+
+    public static String getRecordKey(Tradable tradable) {
+        return tradable.getClass().getSimpleName() + "_" + tradable.getId();
+    }
+
+    @Override
+    public protobuf.PersistableEnvelope toProtoEnvelope(List<byte[]> records) throws InvalidProtocolBufferException {
+        protobuf.TradableList.Builder builder = protobuf.TradableList.newBuilder();
+        for (byte[] record : records) {
+            builder.addTradable(protobuf.Tradable.parseFrom(record));
+        }
+        return protobuf.PersistableEnvelope.newBuilder().setTradableList(builder).build();
+    }
+
     public static TradableList<Tradable> fromProto(protobuf.TradableList proto,
                                                    CoreProtoResolver coreProtoResolver,
                                                    XmrWalletService xmrWalletService) {
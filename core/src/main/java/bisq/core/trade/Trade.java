@@ -1040,11 +1040,18 @@ public abstract class Trade implements Tradable, Model {
         return new Date(getTradeStartTime() + getMaxTradePeriod());
     }
 
-    private long getMaxTradePeriod() {
+    long getMaxTradePeriod() {
         return getOffer().getPaymentMethod().getMaxTradePeriod();
     }
 
     private long getTradeStartTime() {
+        Long confirmedTradeStartTime = getConfirmedTradeStartTime();
+        return confirmedTradeStartTime != null ? confirmedTradeStartTime : System.currentTimeMillis();
+    }
+
+    // Returns null as long as the deposit txs are not confirmed, as the trade period does not start before.
+    @Nullable
+    Long getConfirmedTradeStartTime() {
         long now = System.currentTimeMillis();
         long startTime;
         final MoneroTxWallet takerDepositTx = getTakerDepositTx();
@@ -1071,10 +1078,10 @@ public abstract class Trade implements Tradable, Model {
                         new Date(startTime), new Date(tradeTime), new Date(blockTime));
             } else {
                 log.debug("depositTx not confirmed yet. We don't start counting remaining trade period yet. makerTxId={}, takerTxId={}", makerDepositTx.getHash(), takerDepositTx.getHash());
-                startTime = now;
+                return null;
             }
         } else {
-            startTime = now;
+            return null;
         }
         return startTime;
     }
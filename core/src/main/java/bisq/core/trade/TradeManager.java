@@ -66,8 +66,8 @@ import bisq.network.p2p.DecryptedMessageWithPubKey;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.P2PService;
 import bisq.network.p2p.network.TorNetworkNode;
-import com.google.common.collect.ImmutableList;
 import bisq.common.ClockWatcher;
+import bisq.common.UserThread;
 import bisq.common.config.Config;
 import bisq.common.crypto.KeyRing;
 import bisq.common.handlers.ErrorMessageHandler;
@@ -92,7 +92,6 @@ import javafx.collections.ObservableList;
 
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.fxmisc.easybind.EasyBind;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -100,9 +99,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -147,6 +144,7 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     private final Map<String, TradeProtocol> tradeProtocolByTradeId = new HashMap<>();
     private final PersistenceManager<TradableList<Trade>> persistenceManager;
     private final TradableList<Trade> tradableList = new TradableList<>();
+    private final TradeRegistry tradeRegistry = new TradeRegistry(tradableList.getObservableList());
     @Getter
     private final BooleanProperty persistedTradesInitialized = new SimpleBooleanProperty();
     @Setter
@@ -312,28 +310,25 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void initPersistedTrades() {
-        
-        // open trades in parallel since each may open a multisig wallet
         List<Trade> trades = tradableList.getList();
-        if (!trades.isEmpty()) {
-            ExecutorService pool = Executors.newFixedThreadPool(Math.min(10, trades.size()));
-            for (Trade trade : trades) {
-                pool.submit(new Runnable() {
-                    @Override
-                    public void run() {
-                        initPersistedTrade(trade);
-                    }
-                });
-            }
-            pool.shutdown();
-            try {
-                if (!pool.awaitTermination(60000, TimeUnit.SECONDS)) pool.shutdownNow();
-            } catch (InterruptedException e) {
-                pool.shutdownNow();
-                throw new RuntimeException(e);
-            }
-        }
-        
+        trades.forEach(trade -> initTradeAndProtocol(trade, getTradeProtocol(trade)));
+
+        // Only the multisig wallets of trades between deposit and payout are opened at startup, the trades with the
+        // earliest deadline first. All other multisig wallets are opened on first access.
+        List<CompletableFuture<Void>> futures = trades.stream()
+                .filter(TradeManager::isMultisigWalletRequiredAtStartup)
+                .map(trade -> xmrWalletService.openMultisigWalletAsync(trade.getId(), getEstimatedDeadline(trade))
+                        .thenRun(() -> {
+                            trade.updateDepositTxFromWallet();
+                            requestPersistence();
+                        }))
+                .collect(Collectors.toList());
+        log.info("Opening {} of {} multisig wallets of pending trades at startup", futures.size(), trades.size());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .whenComplete((result, throwable) -> UserThread.execute(this::onPersistedTradesInitialized));
+    }
+
+    private void onPersistedTradesInitialized() {
         persistedTradesInitialized.set(true);
 
         // We do not include failed trades as they should not be counted anyway in the trade statistics
@@ -344,9 +339,21 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
         tradeStatisticsManager.maybeRepublishTradeStatistics(allTrades, referralId, isTorNetworkNode);
     }
 
+    private static boolean isMultisigWalletRequiredAtStartup(Trade trade) {
+        return trade.getPhase().ordinal() >= Phase.DEPOSIT_PUBLISHED.ordinal() &&
+                trade.getPhase().ordinal() < Phase.PAYOUT_PUBLISHED.ordinal();
+    }
+
+    // The trade period starts with the confirmation of the deposit txs which we only know once the wallet is open,
+    // so we use the take offer date instead.
+    private static long getEstimatedDeadline(Trade trade) {
+        return trade.getTakeOfferDate() == null ? Long.MAX_VALUE :
+                trade.getTakeOfferDate().getTime() + trade.getMaxTradePeriod();
+    }
+
     private void initPersistedTrade(Trade trade) {
         initTradeAndProtocol(trade, getTradeProtocol(trade));
-        trade.updateDepositTxFromWallet(); // TODO (woodser): this re-opens all multisig wallets. only open active wallets
+        trade.updateDepositTxFromWallet();
         requestPersistence();
     }
 
@@ -360,6 +367,11 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
         persistenceManager.requestPersistence();
     }
 
+    // Use if only the given trade has changed, so only that trade gets serialized at the next write
+    public void requestPersistence(Trade trade) {
+        persistenceManager.requestPersistence(TradableList.getRecordKey(trade));
+    }
+
     private void handleInitTradeRequest(InitTradeRequest request, NodeAddress sender) {
       log.info("Received InitTradeRequest from {} with tradeId {} and uid {}", sender, request.getTradeId(), request.getUid());
 
@@ -382,13 +394,8 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
               return;
           }
 
-          // get offer associated with trade
-          Offer offer = null;
-          for (Offer anOffer : offerBookService.getOffers()) {
-              if (anOffer.getId().equals(request.getTradeId())) {
-                  offer = anOffer;
-              }
-          }
+          // get offer associated with trade, the trade gets its own copy as the offer book's offers are shared
+          Offer offer = offerBookService.getOfferById(request.getTradeId()).map(offerBookService::copyOf).orElse(null);
           if (offer == null) {
               log.warn("Ignoring InitTradeRequest from {} with tradeId {} because no offer is on the books", sender, request.getTradeId());
               return;
@@ -840,22 +847,9 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     private void updateTradePeriodState() {
-        getObservableList().forEach(trade -> {
-            if (!trade.isPayoutPublished()) {
-                Date maxTradePeriodDate = trade.getMaxTradePeriodDate();
-                Date halfTradePeriodDate = trade.getHalfTradePeriodDate();
-                if (maxTradePeriodDate != null && halfTradePeriodDate != null) {
-                    Date now = new Date();
-                    if (now.after(maxTradePeriodDate)) {
-                        trade.setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
-                        requestPersistence();
-                    } else if (now.after(halfTradePeriodDate)) {
-                        trade.setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
-                        requestPersistence();
-                    }
-                }
-            }
-        });
+        if (tradeRegistry.updateTradePeriodStates(System.currentTimeMillis())) {
+            requestPersistence();
+        }
     }
 
 
@@ -993,14 +987,15 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public Optional<Trade> getTradeById(String tradeId) {
-        return tradableList.stream().filter(e -> e.getId().equals(tradeId)).findFirst();
+        return tradeRegistry.getTradeById(tradeId);
     }
 
     public List<Trade> getTrades() {
-        return ImmutableList.copyOf(getObservableList().stream()
-                .filter(e -> e instanceof Trade)
-                .map(e -> e)
-                .collect(Collectors.toList()));
+        return tradeRegistry.getTrades();
+    }
+
+    public Set<Trade> getTradesByPhase(Trade.Phase phase) {
+        return tradeRegistry.getTradesByPhase(phase);
     }
 
     private void removeTrade(Trade trade) {
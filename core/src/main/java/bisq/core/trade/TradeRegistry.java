@@ -0,0 +1,187 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import com.google.common.collect.ImmutableList;
+
+import javafx.beans.value.ChangeListener;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Index of the pending trades of the TradeManager. It follows the changes of the observable trade list and provides
+ * lookups by trade id and by phase which can be used from any thread. The transitions of the trade period state are
+ * scheduled in a deadline queue, so only the trades whose deadline has passed are touched at the clock ticks.
+ */
+@Slf4j
+class TradeRegistry {
+    // Phases in which the deposit txs are published but the payout is not
+    private static final Set<Trade.Phase> TRADE_PERIOD_PHASES = EnumSet.of(Trade.Phase.DEPOSIT_PUBLISHED,
+            Trade.Phase.DEPOSIT_CONFIRMED,
+            Trade.Phase.FIAT_SENT,
+            Trade.Phase.FIAT_RECEIVED);
+
+    @Value
+    private static class Deadline {
+        long time;
+        Trade trade;
+        Trade.TradePeriodState tradePeriodState;
+    }
+
+    private final Map<String, Trade> tradeById = new ConcurrentHashMap<>();
+    private final Map<Trade.Phase, Set<Trade>> tradesByPhase = new EnumMap<>(Trade.Phase.class);
+    private final Map<Trade, ChangeListener<Trade.Phase>> phaseListenerByTrade = new ConcurrentHashMap<>();
+    private final Set<Trade> scheduledTrades = ConcurrentHashMap.newKeySet();
+    private final PriorityQueue<Deadline> deadlines = new PriorityQueue<>(Comparator.comparingLong(Deadline::getTime));
+    private final ObservableList<Trade> trades;
+    @Nullable
+    private volatile List<Trade> tradesSnapshot;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    TradeRegistry(ObservableList<Trade> trades) {
+        this.trades = trades;
+        for (Trade.Phase phase : Trade.Phase.values()) {
+            tradesByPhase.put(phase, ConcurrentHashMap.newKeySet());
+        }
+
+        trades.addListener((ListChangeListener<Trade>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(this::unregister);
+                change.getAddedSubList().forEach(this::register);
+            }
+            tradesSnapshot = null;
+        });
+        trades.forEach(this::register);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    Optional<Trade> getTradeById(String tradeId) {
+        return Optional.ofNullable(tradeById.get(tradeId));
+    }
+
+    // The snapshot is only copied again after the trade list has changed.
+    List<Trade> getTrades() {
+        List<Trade> snapshot = tradesSnapshot;
+        if (snapshot == null) {
+            snapshot = ImmutableList.copyOf(trades);
+            tradesSnapshot = snapshot;
+        }
+        return snapshot;
+    }
+
+    Set<Trade> getTradesByPhase(Trade.Phase phase) {
+        return Collections.unmodifiableSet(tradesByPhase.get(phase));
+    }
+
+    /**
+     * Schedules the trade period deadlines of trades whose deposit txs got confirmed and applies the trade period
+     * states of all deadlines which have passed.
+     *
+     * @return true if the trade period state of a trade has changed
+     */
+    synchronized boolean updateTradePeriodStates(long now) {
+        for (Trade.Phase phase : TRADE_PERIOD_PHASES) {
+            for (Trade trade : tradesByPhase.get(phase)) {
+                if (!scheduledTrades.contains(trade)) {
+                    schedule(trade);
+                }
+            }
+        }
+
+        boolean changed = false;
+        while (!deadlines.isEmpty() && deadlines.peek().getTime() < now) {
+            Deadline deadline = deadlines.poll();
+            Trade trade = deadline.getTrade();
+            if (tradeById.get(trade.getId()) != trade || trade.isPayoutPublished()) {
+                continue;
+            }
+            if (deadline.getTradePeriodState().ordinal() > trade.getTradePeriodState().ordinal()) {
+                trade.setTradePeriodState(deadline.getTradePeriodState());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void schedule(Trade trade) {
+        Long startTime = trade.getConfirmedTradeStartTime();
+        if (startTime == null) {
+            return;
+        }
+
+        long maxTradePeriod = trade.getMaxTradePeriod();
+        deadlines.add(new Deadline(startTime + maxTradePeriod / 2, trade, Trade.TradePeriodState.SECOND_HALF));
+        deadlines.add(new Deadline(startTime + maxTradePeriod, trade, Trade.TradePeriodState.TRADE_PERIOD_OVER));
+        scheduledTrades.add(trade);
+    }
+
+    private void register(Trade trade) {
+        tradeById.put(trade.getId(), trade);
+        tradesByPhase.get(trade.getPhase()).add(trade);
+        ChangeListener<Trade.Phase> phaseListener = (observable, oldValue, newValue) -> {
+            if (oldValue != null) {
+                tradesByPhase.get(oldValue).remove(trade);
+            }
+            if (newValue != null && tradeById.get(trade.getId()) == trade) {
+                tradesByPhase.get(newValue).add(trade);
+            }
+        };
+        phaseListenerByTrade.put(trade, phaseListener);
+        trade.statePhaseProperty().addListener(phaseListener);
+    }
+
+    private void unregister(Trade trade) {
+        tradeById.remove(trade.getId(), trade);
+        tradesByPhase.values().forEach(set -> set.remove(trade));
+        scheduledTrades.remove(trade);
+        ChangeListener<Trade.Phase> phaseListener = phaseListenerByTrade.remove(trade);
+        if (phaseListener != null) {
+            trade.statePhaseProperty().removeListener(phaseListener);
+        }
+    }
+}
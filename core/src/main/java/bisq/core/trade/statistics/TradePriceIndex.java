@@ -0,0 +1,131 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.monetary.Altcoin;
+
+import bisq.common.util.MathUtils;
+
+import org.bitcoinj.core.Coin;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Keeps the latest trade and the volume weighted average price of the recent trades per currency. Both are updated
+ * with each new trade statistics, so the network derived prices do not require to scan all trade statistics.
+ */
+public class TradePriceIndex {
+    public static final long VOLUME_WEIGHTED_PRICE_WINDOW_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static class CurrencyEntry {
+        @Nullable
+        private TradeStatistics3 latest;
+        // Amount and volume of the trades within the window by date. Trades with the same date are summed up.
+        private final NavigableMap<Long, long[]> amountAndVolumeByDate = new TreeMap<>();
+        private long accumulatedAmount;
+        private long accumulatedVolume;
+
+        private void evict(long minDate) {
+            Iterator<Map.Entry<Long, long[]>> iterator = amountAndVolumeByDate.headMap(minDate, false).entrySet().iterator();
+            while (iterator.hasNext()) {
+                long[] amountAndVolume = iterator.next().getValue();
+                accumulatedAmount -= amountAndVolume[0];
+                accumulatedVolume -= amountAndVolume[1];
+                iterator.remove();
+            }
+        }
+    }
+
+    private final Map<String, CurrencyEntry> entryByCurrency = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * The caller has to make sure a trade statistics is only added once.
+     *
+     * @return true if the trade statistics is the latest trade of its currency
+     */
+    public synchronized boolean add(TradeStatistics3 tradeStatistics, long now) {
+        CurrencyEntry entry = entryByCurrency.computeIfAbsent(tradeStatistics.getCurrency(), currency -> new CurrencyEntry());
+        long date = tradeStatistics.getDateAsLong();
+        long minDate = now - VOLUME_WEIGHTED_PRICE_WINDOW_MS;
+        entry.evict(minDate);
+        if (date >= minDate) {
+            long amount = tradeStatistics.getAmount();
+            long volume = tradeStatistics.getTradeVolume().getValue();
+            long[] amountAndVolume = entry.amountAndVolumeByDate.computeIfAbsent(date, d -> new long[2]);
+            amountAndVolume[0] += amount;
+            amountAndVolume[1] += volume;
+            entry.accumulatedAmount += amount;
+            entry.accumulatedVolume += volume;
+        }
+
+        if (entry.latest == null || date >= entry.latest.getDateAsLong()) {
+            entry.latest = tradeStatistics;
+            return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    public synchronized TradeStatistics3 getLatest(String currencyCode) {
+        CurrencyEntry entry = entryByCurrency.get(currencyCode);
+        return entry != null ? entry.latest : null;
+    }
+
+    /**
+     * @return the volume weighted average price of the trades within the window before now or 0 if there are none
+     */
+    public synchronized long getVolumeWeightedPrice(String currencyCode, long now) {
+        CurrencyEntry entry = entryByCurrency.get(currencyCode);
+        if (entry == null) {
+            return 0;
+        }
+        entry.evict(now - VOLUME_WEIGHTED_PRICE_WINDOW_MS);
+        return getAveragePrice(currencyCode, entry.accumulatedAmount, entry.accumulatedVolume);
+    }
+
+    public synchronized Set<String> getCurrencyCodes() {
+        return Set.copyOf(entryByCurrency.keySet());
+    }
+
+    public static long getAveragePrice(String currencyCode, long accumulatedAmount, long accumulatedVolume) {
+        if (accumulatedAmount == 0 || accumulatedVolume == 0)
+            return 0;
+
+        if (CurrencyUtil.isCryptoCurrency(currencyCode)) {
+            double accumulatedAmountAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedAmount, Altcoin.SMALLEST_UNIT_EXPONENT);
+            return MathUtils.roundDoubleToLong(accumulatedAmountAsDouble / (double) accumulatedVolume);
+        } else {
+            double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedVolume, Coin.SMALLEST_UNIT_EXPONENT);
+            return MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / (double) accumulatedAmount);
+        }
+    }
+}
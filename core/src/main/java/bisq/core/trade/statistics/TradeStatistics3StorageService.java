@@ -22,6 +22,7 @@ import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
 
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkProtoResolver;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -43,8 +44,10 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
 
     @Inject
     public TradeStatistics3StorageService(@Named(Config.STORAGE_DIR) File storageDir,
-                                          PersistenceManager<TradeStatistics3Store> persistenceManager) {
-        super(storageDir, persistenceManager);
+                                          PersistenceManager<TradeStatistics3Store> persistenceManager,
+                                          NetworkProtoResolver networkProtoResolver,
+                                          @Named(Config.USE_PAYLOAD_LOG_STORAGE) boolean usePayloadLogStorage) {
+        super(storageDir, persistenceManager, networkProtoResolver, usePayloadLogStorage);
     }
 
 
@@ -76,9 +79,4 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
     protected TradeStatistics3Store createStore() {
         return new TradeStatistics3Store();
     }
-
-    public void persistNow() {
-        persistenceManager.persistNow(() -> {
-        });
-    }
 }
@@ -0,0 +1,63 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import javafx.collections.SetChangeListener;
+
+import java.time.ZoneOffset;
+
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the UTC based OHLCV candles of all trade statistics for the API. The candles are updated as new trade
+ * statistics arrive and can be requested from any thread.
+ */
+@Singleton
+@Slf4j
+public class TradeStatisticsCandleService {
+    private final TradeStatisticsCandles candles = new TradeStatisticsCandles(ZoneOffset.UTC);
+
+    @Inject
+    public TradeStatisticsCandleService(TradeStatisticsManager tradeStatisticsManager) {
+        // The set only grows, entries are never removed.
+        tradeStatisticsManager.getObservableTradeStatisticsSet().addListener((SetChangeListener<TradeStatistics3>) change -> {
+            if (change.wasAdded()) {
+                synchronized (candles) {
+                    candles.add(change.getElementAdded());
+                }
+            }
+        });
+        synchronized (candles) {
+            candles.addAll(tradeStatisticsManager.getObservableTradeStatisticsSet());
+        }
+    }
+
+    public List<TradeStatisticsCandles.Candle> getCandles(String currencyCode,
+                                                          TradeStatisticsCandles.Interval interval,
+                                                          long fromTime,
+                                                          long toTime) {
+        synchronized (candles) {
+            return candles.getCandles(currencyCode, interval, fromTime, toTime);
+        }
+    }
+}
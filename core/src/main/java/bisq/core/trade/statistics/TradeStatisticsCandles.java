@@ -0,0 +1,217 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.annotation.Nullable;
+
+/**
+ * OHLCV candles of the trade statistics per currency and interval. The candles are updated incrementally when trade
+ * statistics are added, so a chart of k candles is looked up in O(log n + k) instead of being recomputed from all
+ * trade statistics.
+ * <p>
+ * The interval boundaries are calculated in the given time zone. Not thread safe.
+ */
+public class TradeStatisticsCandles {
+
+    public enum Interval {
+        MINUTE,
+        MINUTE_10,
+        HOUR,
+        DAY,
+        WEEK,
+        MONTH,
+        YEAR;
+
+        public long getStartTime(long time, ZoneId zoneId) {
+            LocalDateTime localDateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), zoneId).withSecond(0).withNano(0);
+            switch (this) {
+                case MINUTE:
+                    break;
+                case MINUTE_10:
+                    localDateTime = localDateTime.withMinute(localDateTime.getMinute() - localDateTime.getMinute() % 10);
+                    break;
+                case HOUR:
+                    localDateTime = localDateTime.withMinute(0);
+                    break;
+                case DAY:
+                    localDateTime = localDateTime.withHour(0).withMinute(0);
+                    break;
+                case WEEK:
+                    int dayOfWeek = localDateTime.getDayOfWeek().getValue();
+                    localDateTime = ChronoUnit.DAYS.addTo(localDateTime, 1 - dayOfWeek).withHour(0).withMinute(0);
+                    break;
+                case MONTH:
+                    localDateTime = localDateTime.withDayOfMonth(1).withHour(0).withMinute(0);
+                    break;
+                case YEAR:
+                    localDateTime = localDateTime.withDayOfYear(1).withHour(0).withMinute(0);
+                    break;
+            }
+            return localDateTime.atZone(zoneId).toInstant().toEpochMilli();
+        }
+    }
+
+    @ToString
+    public static final class Candle {
+        @Getter
+        private final String currencyCode;
+        @Getter
+        private final long startTime;
+        @Getter
+        private long open;
+        @Getter
+        private long close;
+        @Getter
+        private long high;
+        @Getter
+        private long low;
+        @Getter
+        private long accumulatedAmount;
+        @Getter
+        private long accumulatedVolume;
+        @Getter
+        private int numTrades;
+        private long openDate = Long.MAX_VALUE;
+        private long closeDate = Long.MIN_VALUE;
+
+        private Candle(String currencyCode, long startTime) {
+            this.currencyCode = currencyCode;
+            this.startTime = startTime;
+        }
+
+        private Candle(Candle candle) {
+            this(candle.currencyCode, candle.startTime);
+            open = candle.open;
+            close = candle.close;
+            high = candle.high;
+            low = candle.low;
+            accumulatedAmount = candle.accumulatedAmount;
+            accumulatedVolume = candle.accumulatedVolume;
+            numTrades = candle.numTrades;
+            openDate = candle.openDate;
+            closeDate = candle.closeDate;
+        }
+
+        private void add(TradeStatistics3 tradeStatistics) {
+            long price = tradeStatistics.getPrice();
+            long date = tradeStatistics.getDateAsLong();
+            // Trade statistics do not arrive in order, so we keep the dates of the open and close trades.
+            if (date < openDate) {
+                openDate = date;
+                open = price;
+            }
+            if (date >= closeDate) {
+                closeDate = date;
+                close = price;
+            }
+            high = numTrades == 0 ? price : Math.max(high, price);
+            low = numTrades == 0 ? price : Math.min(low, price);
+            accumulatedAmount += tradeStatistics.getAmount();
+            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
+            numTrades++;
+        }
+
+        public long getAveragePrice() {
+            return TradePriceIndex.getAveragePrice(currencyCode, accumulatedAmount, accumulatedVolume);
+        }
+    }
+
+    private final ZoneId zoneId;
+    private final Map<String, Map<Interval, NavigableMap<Long, Candle>>> candlesByCurrency = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public TradeStatisticsCandles(ZoneId zoneId) {
+        this.zoneId = zoneId;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The caller has to make sure a trade statistics is only added once.
+    public void add(TradeStatistics3 tradeStatistics) {
+        Map<Interval, NavigableMap<Long, Candle>> candlesByInterval = candlesByCurrency.computeIfAbsent(
+                tradeStatistics.getCurrency(), currencyCode -> new EnumMap<>(Interval.class));
+        long date = tradeStatistics.getDateAsLong();
+        for (Interval interval : Interval.values()) {
+            long startTime = interval.getStartTime(date, zoneId);
+            candlesByInterval.computeIfAbsent(interval, e -> new TreeMap<>())
+                    .computeIfAbsent(startTime, e -> new Candle(tradeStatistics.getCurrency(), startTime))
+                    .add(tradeStatistics);
+        }
+    }
+
+    public void addAll(Collection<TradeStatistics3> tradeStatisticsCollection) {
+        tradeStatisticsCollection.forEach(this::add);
+    }
+
+    /**
+     * @return Copies of the candles of the intervals which overlap with the time range [fromTime, toTime), ordered
+     * by time. Intervals without trades have no candle.
+     */
+    public List<Candle> getCandles(String currencyCode, Interval interval, long fromTime, long toTime) {
+        NavigableMap<Long, Candle> candles = getCandles(currencyCode, interval);
+        if (candles == null || fromTime >= toTime)
+            return new ArrayList<>();
+
+        return candles.subMap(interval.getStartTime(fromTime, zoneId), true, toTime, false).values().stream()
+                .map(Candle::new)
+                .collect(Collectors.toList());
+    }
+
+    @Nullable
+    public Candle getCandle(String currencyCode, Interval interval, long startTime) {
+        NavigableMap<Long, Candle> candles = getCandles(currencyCode, interval);
+        Candle candle = candles != null ? candles.get(startTime) : null;
+        return candle != null ? new Candle(candle) : null;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    private NavigableMap<Long, Candle> getCandles(String currencyCode, Interval interval) {
+        Map<Interval, NavigableMap<Long, Candle>> candlesByInterval = candlesByCurrency.get(currencyCode);
+        return candlesByInterval != null ? candlesByInterval.get(interval) : null;
+    }
+}
@@ -20,6 +20,7 @@ package bisq.core.trade.statistics;
 import bisq.core.locale.CurrencyTuple;
 import bisq.core.locale.CurrencyUtil;
 import bisq.core.locale.Res;
+import bisq.core.monetary.Price;
 import bisq.core.provider.price.PriceFeedService;
 import bisq.core.trade.BuyerTrade;
 import bisq.core.trade.Trade;
@@ -34,6 +35,8 @@ import bisq.common.util.Utilities;
 
 import com.google.inject.Inject;
 
+import com.google.common.primitives.UnsignedBytes;
+
 import javax.inject.Named;
 import javax.inject.Singleton;
 
@@ -45,8 +48,14 @@ import java.time.Instant;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -54,6 +63,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 @Singleton
 @Slf4j
 public class TradeStatisticsManager {
@@ -64,6 +75,10 @@ public class TradeStatisticsManager {
     private final File storageDir;
     private final boolean dumpStatistics;
     private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    private final TradePriceIndex tradePriceIndex = new TradePriceIndex();
+    // Date sorted indexes for paged requests. They are updated on the user thread and read from API threads.
+    private final NavigableMap<IndexKey, TradeStatistics3> tradeStatisticsByDate = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableMap<IndexKey, TradeStatistics3>> tradeStatisticsByCurrencyAndDate = new ConcurrentHashMap<>();
     private JsonFileManager jsonFileManager;
 
     @Inject
@@ -99,8 +114,12 @@ public class TradeStatisticsManager {
                 if (!tradeStatistics.isValid()) {
                     return;
                 }
-                observableTradeStatisticsSet.add(tradeStatistics);
-                priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                if (observableTradeStatisticsSet.add(tradeStatistics)) {
+                    addToIndex(tradeStatistics);
+                    if (tradePriceIndex.add(tradeStatistics, System.currentTimeMillis())) {
+                        priceFeedService.applyLatestBisqMarketPrice(tradeStatistics);
+                    }
+                }
                 maybeDumpStatistics();
             }
         });
@@ -111,7 +130,13 @@ public class TradeStatisticsManager {
                 .filter(TradeStatistics3::isValid)
                 .collect(Collectors.toSet());
         observableTradeStatisticsSet.addAll(set);
-        priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+        long now = System.currentTimeMillis();
+        observableTradeStatisticsSet.forEach(tradeStatistics -> {
+            addToIndex(tradeStatistics);
+            tradePriceIndex.add(tradeStatistics, now);
+        });
+        tradePriceIndex.getCurrencyCodes().forEach(currencyCode ->
+                priceFeedService.applyLatestBisqMarketPrice(tradePriceIndex.getLatest(currencyCode)));
         maybeDumpStatistics();
     }
 
@@ -119,6 +144,73 @@ public class TradeStatisticsManager {
         return observableTradeStatisticsSet;
     }
 
+    /**
+     * @param currencyCode the currency code or null for all currencies
+     * @param fromDate     the inclusive start of the date range
+     * @param toDate       the exclusive end of the date range
+     * @param cursor       the cursor of the last trade statistics received by the client to resume after it or null
+     * @param limit        the max. number of trade statistics to return
+     * @return the trade statistics within the date range sorted by date
+     */
+    public List<TradeStatistics3> getTradeStatistics(@Nullable String currencyCode,
+                                                     long fromDate,
+                                                     long toDate,
+                                                     @Nullable String cursor,
+                                                     int limit) {
+        checkArgument(limit > 0, "limit must be positive");
+        NavigableMap<IndexKey, TradeStatistics3> index = currencyCode == null ?
+                tradeStatisticsByDate :
+                tradeStatisticsByCurrencyAndDate.get(currencyCode);
+        if (index == null || fromDate >= toDate) {
+            return new ArrayList<>();
+        }
+
+        // An empty hash is sorted before all hashes of the same date
+        IndexKey fromKey = new IndexKey(fromDate, new byte[0]);
+        IndexKey cursorKey = cursor != null ? IndexKey.fromCursor(cursor) : null;
+        NavigableMap<IndexKey, TradeStatistics3> tailMap = cursorKey != null && cursorKey.compareTo(fromKey) >= 0 ?
+                index.tailMap(cursorKey, false) :
+                index.tailMap(fromKey, true);
+
+        List<TradeStatistics3> result = new ArrayList<>();
+        for (Map.Entry<IndexKey, TradeStatistics3> entry : tailMap.entrySet()) {
+            if (entry.getKey().date >= toDate || result.size() >= limit) {
+                break;
+            }
+            result.add(entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * @return the price of the trades of the last 24 hours weighted by volume or else the price of the latest trade,
+     * or null if there was no trade in that currency
+     */
+    @Nullable
+    public Price getNetworkPrice(String currencyCode) {
+        long volumeWeightedPrice = tradePriceIndex.getVolumeWeightedPrice(currencyCode, System.currentTimeMillis());
+        if (volumeWeightedPrice > 0) {
+            return Price.valueOf(currencyCode, volumeWeightedPrice);
+        }
+        TradeStatistics3 latest = tradePriceIndex.getLatest(currencyCode);
+        return latest != null ? latest.getTradePrice() : null;
+    }
+
+    public Set<String> getNetworkPriceCurrencyCodes() {
+        return tradePriceIndex.getCurrencyCodes();
+    }
+
+    public static String getCursor(TradeStatistics3 tradeStatistics) {
+        return new IndexKey(tradeStatistics).toCursor();
+    }
+
+    private void addToIndex(TradeStatistics3 tradeStatistics) {
+        IndexKey key = new IndexKey(tradeStatistics);
+        tradeStatisticsByDate.put(key, tradeStatistics);
+        tradeStatisticsByCurrencyAndDate.computeIfAbsent(tradeStatistics.getCurrency(), currency -> new ConcurrentSkipListMap<>())
+                .put(key, tradeStatistics);
+    }
+
     private void maybeDumpStatistics() {
         if (!dumpStatistics) {
             return;
@@ -210,4 +302,54 @@ public class TradeStatisticsManager {
         log.info("maybeRepublishTradeStatistics took {} ms. Number of tradeStatistics: {}. Number of own trades: {}",
                 System.currentTimeMillis() - ts, hashes.size(), trades.size());
     }
+
+
+    private static final class IndexKey implements Comparable<IndexKey> {
+        private static final Comparator<byte[]> HASH_COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+        private final long date;
+        private final byte[] hash;
+
+        IndexKey(TradeStatistics3 tradeStatistics) {
+            this(tradeStatistics.getDateAsLong(), tradeStatistics.getHash());
+        }
+
+        IndexKey(long date, byte[] hash) {
+            this.date = date;
+            this.hash = hash;
+        }
+
+        static IndexKey fromCursor(String cursor) {
+            String[] tokens = cursor.split(":");
+            try {
+                checkArgument(tokens.length == 2);
+                return new IndexKey(Long.parseLong(tokens[0]), Utilities.decodeFromHex(tokens[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        String toCursor() {
+            return date + ":" + Utilities.encodeToHex(hash);
+        }
+
+        @Override
+        public int compareTo(IndexKey other) {
+            int result = Long.compare(date, other.date);
+            return result != 0 ? result : HASH_COMPARATOR.compare(hash, other.hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof IndexKey)) return false;
+            IndexKey other = (IndexKey) o;
+            return date == other.date && Arrays.equals(hash, other.hash);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(date) + Arrays.hashCode(hash);
+        }
+    }
 }
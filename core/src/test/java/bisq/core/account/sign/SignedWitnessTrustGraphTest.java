@@ -0,0 +1,150 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static bisq.core.account.sign.SignedWitness.VerificationMethod.ARBITRATOR;
+import static bisq.core.account.sign.SignedWitness.VerificationMethod.TRADE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SignedWitnessTrustGraphTest {
+    private static final long SIGNER_AGE = TimeUnit.DAYS.toMillis(30);
+    private static final long NOW = System.currentTimeMillis();
+
+    private Set<SignedWitness> invalidSignatures;
+    private SignedWitnessTrustGraph trustGraph;
+
+    @Before
+    public void setup() {
+        invalidSignatures = new HashSet<>();
+        trustGraph = new SignedWitnessTrustGraph(SIGNER_AGE, signedWitness -> !invalidSignatures.contains(signedWitness));
+    }
+
+    @Test
+    public void chainIsIndependentOfOrderOfAdding() {
+        SignedWitness sw1 = signedWitness(ARBITRATOR, 0, 1, 100);
+        SignedWitness sw2 = signedWitness(TRADE, 1, 2, 60);
+        SignedWitness sw3 = signedWitness(TRADE, 2, 3, 20);
+
+        trustGraph.add(sw3);
+        assertFalse(trustGraph.isTrusted(sw3));
+        trustGraph.add(sw2);
+        assertFalse(trustGraph.isTrusted(sw3));
+        trustGraph.add(sw1);
+
+        assertTrue(trustGraph.isTrusted(sw1));
+        assertTrue(trustGraph.isTrusted(sw2));
+        assertEquals(Arrays.asList(sw3, sw2, sw1), trustGraph.getTrustChain(sw3));
+    }
+
+    @Test
+    public void signerMustBeOldEnough() {
+        SignedWitness sw1 = signedWitness(ARBITRATOR, 0, 1, 100);
+        SignedWitness sw2 = signedWitness(TRADE, 1, 2, 60);
+        SignedWitness sw3 = signedWitness(TRADE, 2, 3, 40);
+        trustGraph.add(sw1);
+        trustGraph.add(sw2);
+        trustGraph.add(sw3);
+
+        // Signed by the arbitrator within the signer age is fine
+        assertTrue(trustGraph.isTrusted(sw2));
+        assertFalse(trustGraph.isTrusted(sw3));
+    }
+
+    @Test
+    public void invalidSignatureBreaksChain() {
+        SignedWitness sw1 = signedWitness(ARBITRATOR, 0, 1, 100);
+        SignedWitness sw2 = signedWitness(TRADE, 1, 2, 60);
+        SignedWitness sw3 = signedWitness(TRADE, 2, 3, 20);
+        invalidSignatures.add(sw2);
+        trustGraph.add(sw1);
+        trustGraph.add(sw2);
+        trustGraph.add(sw3);
+
+        assertFalse(trustGraph.isTrusted(sw2));
+        assertNull(trustGraph.getTrustChain(sw3));
+    }
+
+    @Test
+    public void keepsShortestChain() {
+        SignedWitness sw1 = signedWitness(ARBITRATOR, 0, 1, 200);
+        SignedWitness sw2 = signedWitness(TRADE, 1, 2, 160);
+        SignedWitness sw3 = signedWitness(TRADE, 2, 3, 120);
+        SignedWitness sw4 = signedWitness(TRADE, 3, 4, 80);
+        trustGraph.add(sw1);
+        trustGraph.add(sw2);
+        trustGraph.add(sw3);
+        trustGraph.add(sw4);
+        assertEquals(4, trustGraph.getTrustChain(sw4).size());
+
+        // Key 3 gets also signed by an arbitrator
+        SignedWitness sw3a = signedWitness(ARBITRATOR, 0, 3, 150);
+        trustGraph.add(sw3a);
+        assertEquals(Arrays.asList(sw4, sw3a), trustGraph.getTrustChain(sw4));
+
+        trustGraph.remove(sw3a);
+        assertEquals(Arrays.asList(sw4, sw3, sw2, sw1), trustGraph.getTrustChain(sw4));
+
+        trustGraph.remove(sw2);
+        assertFalse(trustGraph.isTrusted(sw3));
+        assertFalse(trustGraph.isTrusted(sw4));
+    }
+
+    @Test
+    public void chainLengthIsLimited() {
+        int numTradeWitnesses = SignedWitnessTrustGraph.MAX_DEPTH + 1;
+        SignedWitness last = signedWitness(ARBITRATOR, 0, 1, 40 * (numTradeWitnesses + 1));
+        trustGraph.add(last);
+        SignedWitness secondLast = null;
+        for (int i = 1; i <= numTradeWitnesses; i++) {
+            secondLast = last;
+            last = signedWitness(TRADE, i, i + 1, 40 * (numTradeWitnesses + 1 - i));
+            trustGraph.add(last);
+        }
+
+        List<SignedWitness> chain = trustGraph.getTrustChain(secondLast);
+        assertEquals(SignedWitnessTrustGraph.MAX_DEPTH + 1, chain.size());
+        assertFalse(trustGraph.isTrusted(last));
+    }
+
+    // Keys are represented by a single byte, key 0 is the arbitrator.
+    private static SignedWitness signedWitness(SignedWitness.VerificationMethod verificationMethod,
+                                               int signer,
+                                               int owner,
+                                               int daysAgo) {
+        byte[] accountAgeWitnessHash = {(byte) (owner >> 8), (byte) owner, (byte) daysAgo};
+        return new SignedWitness(verificationMethod,
+                accountAgeWitnessHash,
+                new byte[]{(byte) (signer >> 8), (byte) signer},
+                new byte[]{(byte) (signer >> 8), (byte) signer},
+                new byte[]{(byte) (owner >> 8), (byte) owner},
+                NOW - TimeUnit.DAYS.toMillis(daysAgo),
+                0);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.account.sign;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import bisq.common.persistence.PersistenceManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class SignedWitnessVerificationCacheTest {
+    private PersistenceManager<SignedWitnessVerificationResults> persistenceManager;
+    private SignedWitnessVerificationCache cache;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setup() {
+        persistenceManager = mock(PersistenceManager.class);
+        cache = new SignedWitnessVerificationCache(persistenceManager);
+    }
+
+    @Test
+    public void verifiesOnlyOnce() {
+        AtomicInteger numVerifications = new AtomicInteger();
+        P2PDataStorage.ByteArray validHash = new P2PDataStorage.ByteArray(new byte[]{1});
+        P2PDataStorage.ByteArray invalidHash = new P2PDataStorage.ByteArray(new byte[]{2});
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cache.isSignatureValid(validHash, () -> numVerifications.incrementAndGet() > 0));
+            assertFalse(cache.isSignatureValid(invalidHash, () -> numVerifications.incrementAndGet() < 0));
+        }
+
+        assertEquals(2, numVerifications.get());
+        // Only valid results get persisted
+        verify(persistenceManager, times(1)).requestPersistence();
+    }
+
+    @Test
+    public void persistsOnlyValidResults() {
+        SignedWitnessVerificationResults results = new SignedWitnessVerificationResults();
+        P2PDataStorage.ByteArray validHash = new P2PDataStorage.ByteArray(new byte[]{1});
+        P2PDataStorage.ByteArray invalidHash = new P2PDataStorage.ByteArray(new byte[]{2});
+        results.put(validHash, true);
+        results.put(invalidHash, false);
+
+        SignedWitnessVerificationResults fromProto = SignedWitnessVerificationResults.fromProto(
+                results.toProtoMessage().getSignedWitnessVerificationResults());
+        assertEquals(1, fromProto.size());
+        assertTrue(fromProto.get(validHash));
+        assertNull(fromProto.get(invalidHash));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        SignedWitnessVerificationResults results = new SignedWitnessVerificationResults();
+        P2PDataStorage.ByteArray first = hash(0);
+        P2PDataStorage.ByteArray second = hash(1);
+        results.put(first, true);
+        results.put(second, true);
+        // Access the first one, so the second one is the least recently used
+        results.get(first);
+
+        for (int i = 2; i <= SignedWitnessVerificationResults.MAX_SIZE; i++)
+            results.put(hash(i), true);
+
+        assertEquals(SignedWitnessVerificationResults.MAX_SIZE, results.size());
+        assertTrue(results.get(first));
+        assertNull(results.get(second));
+    }
+
+    private static P2PDataStorage.ByteArray hash(int i) {
+        return new P2PDataStorage.ByteArray(new byte[]{(byte) (i >> 16), (byte) (i >> 8), (byte) i});
+    }
+}
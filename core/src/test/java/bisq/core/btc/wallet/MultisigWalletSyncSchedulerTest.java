@@ -0,0 +1,172 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import monero.wallet.MoneroWallet;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MultisigWalletSyncSchedulerTest {
+    private static final MultisigWalletSyncScheduler.SyncPolicy EVERY_BLOCK =
+            new MultisigWalletSyncScheduler.SyncPolicy(0, 600_000, txHash -> false);
+    private static final MultisigWalletSyncScheduler.SyncPolicy POOL_TX =
+            new MultisigWalletSyncScheduler.SyncPolicy(0, 600_000, "tx1"::equals);
+    private static final MultisigWalletSyncScheduler.SyncPolicy SLOW =
+            new MultisigWalletSyncScheduler.SyncPolicy(60_000, 600_000, txHash -> false);
+
+    private MultisigWalletSyncScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new MultisigWalletSyncScheduler(() -> null, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutDown();
+    }
+
+    @Test
+    public void syncsRegisteredWalletAtFirstPoll() {
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        scheduler.register("1", wallet, () -> SLOW);
+        scheduler.onDaemonState(100, List.of(), 1000);
+        scheduler.onDaemonState(100, List.of(), 2000);
+
+        verify(wallet, times(1)).sync();
+    }
+
+    @Test
+    public void syncsOnlyOnNewBlock() {
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        scheduler.register("1", wallet, () -> EVERY_BLOCK);
+        scheduler.onDaemonState(100, List.of(), 1000);
+        scheduler.onDaemonState(100, List.of("tx1"), 6000);
+        scheduler.onDaemonState(100, List.of("tx1"), 11000);
+        verify(wallet, times(1)).sync();
+
+        scheduler.onDaemonState(101, List.of(), 16000);
+        verify(wallet, times(2)).sync();
+    }
+
+    @Test
+    public void syncsOnRelevantPoolTx() {
+        MoneroWallet relevant = mock(MoneroWallet.class);
+        MoneroWallet other = mock(MoneroWallet.class);
+        scheduler.register("1", relevant, () -> POOL_TX);
+        scheduler.register("2", other, () -> EVERY_BLOCK);
+        scheduler.onDaemonState(100, List.of("tx0"), 1000);
+
+        scheduler.onDaemonState(100, List.of("tx0", "tx1"), 6000);
+        verify(relevant, times(2)).sync();
+        verify(other, times(1)).sync();
+
+        // The same tx does not trigger another sync
+        scheduler.onDaemonState(100, List.of("tx0", "tx1"), 11000);
+        verify(relevant, times(2)).sync();
+    }
+
+    @Test
+    public void delaysSyncUntilMinIntervalElapsed() {
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        scheduler.register("1", wallet, () -> SLOW);
+        scheduler.onDaemonState(100, List.of(), 0);
+        scheduler.onDaemonState(101, List.of(), 30_000);
+        verify(wallet, times(1)).sync();
+
+        // The new block is remembered until the min. interval has elapsed
+        scheduler.onDaemonState(101, List.of(), 60_000);
+        verify(wallet, times(2)).sync();
+    }
+
+    @Test
+    public void syncsAfterMaxInterval() {
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        scheduler.register("1", wallet, () -> SLOW);
+        scheduler.onDaemonState(100, List.of(), 0);
+        scheduler.onDaemonState(100, List.of(), 599_000);
+        verify(wallet, times(1)).sync();
+
+        scheduler.onDaemonState(100, List.of(), 600_000);
+        verify(wallet, times(2)).sync();
+    }
+
+    @Test
+    public void unregisteredWalletIsNotSynced() {
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        scheduler.register("1", wallet, () -> EVERY_BLOCK);
+        scheduler.unregister("1");
+        scheduler.onDaemonState(100, List.of(), 1000);
+
+        verify(wallet, never()).sync();
+    }
+
+    @Test
+    public void syncNowWaitsForRunningSync() throws Exception {
+        CountDownLatch syncStarted = new CountDownLatch(1);
+        CountDownLatch releaseSync = new CountDownLatch(1);
+        AtomicInteger numRunningSyncs = new AtomicInteger();
+        AtomicInteger maxRunningSyncs = new AtomicInteger();
+        MoneroWallet wallet = mock(MoneroWallet.class);
+        when(wallet.sync()).thenAnswer(invocation -> {
+            maxRunningSyncs.accumulateAndGet(numRunningSyncs.incrementAndGet(), Math::max);
+            syncStarted.countDown();
+            releaseSync.await(10, TimeUnit.SECONDS);
+            numRunningSyncs.decrementAndGet();
+            return null;
+        });
+
+        ExecutorService syncExecutor = Executors.newSingleThreadExecutor();
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            scheduler = new MultisigWalletSyncScheduler(() -> null, syncExecutor);
+            scheduler.register("1", wallet, () -> EVERY_BLOCK);
+            scheduler.onDaemonState(100, List.of(), 1000);
+            Assert.assertTrue(syncStarted.await(10, TimeUnit.SECONDS));
+
+            caller.submit(() -> scheduler.syncNow("1"));
+            Thread.sleep(100);
+            verify(wallet, times(1)).sync();
+
+            releaseSync.countDown();
+            caller.shutdown();
+            Assert.assertTrue(caller.awaitTermination(10, TimeUnit.SECONDS));
+            verify(wallet, times(2)).sync();
+            Assert.assertEquals(1, maxRunningSyncs.get());
+        } finally {
+            syncExecutor.shutdownNow();
+            caller.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WalletOpenSchedulerTest {
+    private WalletOpenScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        scheduler.shutDown();
+    }
+
+    @Test
+    public void runsQueuedTasksByPriority() throws Exception {
+        scheduler = new WalletOpenScheduler("test", 1);
+        CountDownLatch blocker = new CountDownLatch(1);
+        scheduler.schedule("blocker", 0, () -> await(blocker));
+
+        List<String> executed = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> f1 = scheduler.schedule("late", 300, () -> {
+            executed.add("late");
+        });
+        CompletableFuture<Void> f2 = scheduler.schedule("early", 100, () -> {
+            executed.add("early");
+        });
+        CompletableFuture<Void> f3 = scheduler.schedule("early2", 100, () -> {
+            executed.add("early2");
+        });
+        CompletableFuture<Void> f4 = scheduler.schedule("middle", 200, () -> {
+            executed.add("middle");
+        });
+        blocker.countDown();
+        CompletableFuture.allOf(f1, f2, f3, f4).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("early", "early2", "middle", "late"), executed);
+    }
+
+    @Test
+    public void limitsConcurrentTasks() throws Exception {
+        scheduler = new WalletOpenScheduler("test", 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CompletableFuture<?>[] futures = new CompletableFuture[20];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = scheduler.schedule("task " + i, i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(10);
+                running.decrementAndGet();
+            });
+        }
+        CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+
+        assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void completesWithResultOrException() throws Exception {
+        scheduler = new WalletOpenScheduler("test", 2);
+        assertEquals("wallet", scheduler.schedule("result", 0, () -> "wallet").get(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Object> failed = scheduler.schedule("failure", 0, () -> {
+            throw new IllegalStateException("wallet does not open");
+        });
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            return;
+        }
+        throw new AssertionError("Expected an ExecutionException");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
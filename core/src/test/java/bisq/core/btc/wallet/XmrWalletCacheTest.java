@@ -0,0 +1,106 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import java.math.BigInteger;
+
+import java.util.List;
+
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroSubaddress;
+import monero.wallet.model.MoneroTxQuery;
+import monero.wallet.model.MoneroTxWallet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class XmrWalletCacheTest {
+    private MoneroWallet wallet;
+    private XmrWalletCache cache;
+
+    @Before
+    public void setUp() {
+        wallet = mock(MoneroWallet.class);
+        when(wallet.getSubaddresses(0)).thenReturn(List.of(subaddress(0, 5, 5), subaddress(1, 10, 4), subaddress(2, 7, 0)));
+        cache = new XmrWalletCache(wallet);
+    }
+
+    @Test
+    public void readsBalancesWithOneQuery() {
+        assertEquals(BigInteger.valueOf(10), cache.getBalance(1));
+        assertEquals(BigInteger.valueOf(4), cache.getUnlockedBalance(1));
+        assertEquals(BigInteger.ZERO, cache.getBalance(3));
+        assertEquals(BigInteger.valueOf(22), cache.getBalance());
+        assertEquals(BigInteger.valueOf(9), cache.getUnlockedBalance());
+
+        verify(wallet, times(1)).getSubaddresses(0);
+    }
+
+    @Test
+    public void reloadsAfterInvalidate() {
+        cache.getBalance(1);
+        when(wallet.getSubaddresses(0)).thenReturn(List.of(subaddress(1, 3, 3)));
+        assertEquals(BigInteger.valueOf(10), cache.getBalance(1));
+
+        cache.invalidate();
+        assertEquals(BigInteger.valueOf(3), cache.getBalance(1));
+        verify(wallet, times(2)).getSubaddresses(0);
+    }
+
+    @Test
+    public void filtersFailedTxs() {
+        MoneroTxWallet tx = new MoneroTxWallet();
+        tx.setIsFailed(false);
+        MoneroTxWallet failedTx = new MoneroTxWallet();
+        failedTx.setIsFailed(true);
+        when(wallet.getTxs(any(MoneroTxQuery.class))).thenReturn(List.of(tx, failedTx));
+
+        assertEquals(List.of(tx, failedTx), cache.getTxs(true));
+        assertEquals(List.of(tx), cache.getTxs(false));
+        verify(wallet, times(1)).getTxs(any(MoneroTxQuery.class));
+    }
+
+    @Test
+    public void reloadsTxsAfterNewBlock() {
+        MoneroTxWallet tx = new MoneroTxWallet();
+        when(wallet.getTxs(any(MoneroTxQuery.class))).thenReturn(List.of(tx));
+        cache.getBalance();
+        cache.getTxs(true);
+
+        cache.invalidateTxs();
+        cache.getBalance();
+        cache.getTxs(true);
+        verify(wallet, times(2)).getTxs(any(MoneroTxQuery.class));
+        verify(wallet, times(1)).getSubaddresses(0);
+    }
+
+    private static MoneroSubaddress subaddress(int index, long balance, long unlockedBalance) {
+        MoneroSubaddress subaddress = new MoneroSubaddress();
+        subaddress.setIndex(index);
+        subaddress.setBalance(BigInteger.valueOf(balance));
+        subaddress.setUnlockedBalance(BigInteger.valueOf(unlockedBalance));
+        return subaddress;
+    }
+}
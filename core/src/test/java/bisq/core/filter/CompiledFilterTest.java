@@ -0,0 +1,104 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.filter;
+
+import bisq.core.payment.payload.ClearXchangeAccountPayload;
+import bisq.core.payment.payload.PaymentMethod;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledFilterTest {
+
+    @Test
+    public void emptyFilter() {
+        assertFalse(CompiledFilter.EMPTY.isOfferIdBanned("offerId"));
+        assertFalse(CompiledFilter.EMPTY.isNodeAddressBannedFromNetwork("node.onion:9999"));
+        assertFalse(CompiledFilter.EMPTY.isPaymentAccountBanned(getPayload("holder")));
+    }
+
+    @Test
+    public void banLists() {
+        CompiledFilter compiledFilter = new CompiledFilter(getFilter(List.of()));
+
+        assertTrue(compiledFilter.isOfferIdBanned("offerId"));
+        assertFalse(compiledFilter.isOfferIdBanned("otherOfferId"));
+        assertTrue(compiledFilter.isNodeAddressBannedFromTrading("trader.onion:9999"));
+        assertFalse(compiledFilter.isNodeAddressBannedFromNetwork("trader.onion:9999"));
+        assertTrue(compiledFilter.isNodeAddressBannedFromNetwork("node.onion:9999"));
+        assertTrue(compiledFilter.isCurrencyBanned("EUR"));
+        assertTrue(compiledFilter.isPaymentMethodBanned(PaymentMethod.CLEAR_X_CHANGE_ID));
+        assertTrue(compiledFilter.isWitnessSignerPubKeyBanned("signerPubKey"));
+        // Not set in the filter
+        assertFalse(compiledFilter.isPrivilegedDevPubKeyBanned("devPubKey"));
+    }
+
+    @Test
+    public void paymentAccounts() {
+        CompiledFilter compiledFilter = new CompiledFilter(getFilter(List.of(
+                new PaymentAccountFilter(PaymentMethod.CLEAR_X_CHANGE_ID, "getHolderName", "Banned Holder"),
+                new PaymentAccountFilter(PaymentMethod.CLEAR_X_CHANGE_ID, "getUnknownField", "value"),
+                new PaymentAccountFilter(PaymentMethod.SEPA_ID, "getHolderName", "Other Holder"))));
+
+        assertTrue(compiledFilter.isPaymentAccountBanned(getPayload("banned holder")));
+        assertFalse(compiledFilter.isPaymentAccountBanned(getPayload("Other Holder")));
+        assertFalse(compiledFilter.isPaymentAccountBanned(getPayload("Holder")));
+    }
+
+    private static ClearXchangeAccountPayload getPayload(String holderName) {
+        ClearXchangeAccountPayload payload = new ClearXchangeAccountPayload(PaymentMethod.CLEAR_X_CHANGE_ID, "id");
+        payload.setHolderName(holderName);
+        return payload;
+    }
+
+    private static Filter getFilter(List<PaymentAccountFilter> bannedPaymentAccounts) {
+        return new Filter(Lists.newArrayList("offerId"),
+                Lists.newArrayList("trader.onion:9999"),
+                bannedPaymentAccounts,
+                Lists.newArrayList("EUR"),
+                Lists.newArrayList(PaymentMethod.CLEAR_X_CHANGE_ID),
+                Lists.newArrayList(),
+                Lists.newArrayList(),
+                Lists.newArrayList(),
+                false,
+                Lists.newArrayList(),
+                null,
+                Lists.newArrayList(),
+                Lists.newArrayList(),
+                Lists.newArrayList("signerPubKey"),
+                Lists.newArrayList(),
+                null,
+                0,
+                null,
+                null,
+                null,
+                null,
+                false,
+                Lists.newArrayList(),
+                Set.of("node.onion:9999"),
+                false,
+                false);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.offer;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OfferBookIndexTest {
+    private OfferBookIndex index;
+
+    @Before
+    public void setUp() {
+        index = new OfferBookIndex(offer -> offer.getId().startsWith("my-"));
+    }
+
+    @Test
+    public void testLookupById() {
+        Offer offer = offer("1", OfferPayload.Direction.BUY, "USD", 100000L);
+        index.add(offer);
+
+        assertSame(offer, index.getOfferById("1").get());
+        assertFalse(index.getOfferById("2").isPresent());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testPartitionsAreSortedByPrice() {
+        Offer expensive = offer("1", OfferPayload.Direction.SELL, "USD", 300000L);
+        Offer cheap = offer("2", OfferPayload.Direction.SELL, "USD", 100000L);
+        Offer medium = offer("3", OfferPayload.Direction.SELL, "USD", 200000L);
+        index.add(expensive);
+        index.add(cheap);
+        index.add(medium);
+        index.add(offer("4", OfferPayload.Direction.BUY, "USD", 150000L));
+        index.add(offer("5", OfferPayload.Direction.SELL, "EUR", 150000L));
+
+        List<Offer> offers = index.getOffers("usd", OfferPayload.Direction.SELL);
+        assertEquals(3, offers.size());
+        assertSame(cheap, offers.get(0));
+        assertSame(medium, offers.get(1));
+        assertSame(expensive, offers.get(2));
+        assertEquals(1, index.getOffers("USD", OfferPayload.Direction.BUY).size());
+        assertEquals(1, index.getOffers("EUR", OfferPayload.Direction.SELL).size());
+        assertTrue(index.getOffers("EUR", OfferPayload.Direction.BUY).isEmpty());
+    }
+
+    @Test
+    public void testSortedPartitionIsCachedUntilChanged() {
+        index.add(offer("1", OfferPayload.Direction.SELL, "USD", 100000L));
+        List<Offer> first = index.getOffers("USD", OfferPayload.Direction.SELL);
+        assertSame(first, index.getOffers("USD", OfferPayload.Direction.SELL));
+
+        index.add(offer("2", OfferPayload.Direction.SELL, "USD", 50000L));
+        List<Offer> second = index.getOffers("USD", OfferPayload.Direction.SELL);
+        assertEquals(2, second.size());
+        assertEquals("2", second.get(0).getId());
+    }
+
+    @Test
+    public void testMyOffersPartition() {
+        index.add(offer("my-1", OfferPayload.Direction.BUY, "USD", 100000L));
+        index.add(offer("2", OfferPayload.Direction.BUY, "USD", 100000L));
+
+        assertTrue(index.isMyOffer("my-1"));
+        assertFalse(index.isMyOffer("2"));
+        assertEquals(1, index.getMyOffers().size());
+        assertEquals(1, index.getMyOffers("USD", OfferPayload.Direction.BUY).size());
+        assertEquals(2, index.getOffers("USD", OfferPayload.Direction.BUY).size());
+    }
+
+    @Test
+    public void testRemove() {
+        index.add(offer("my-1", OfferPayload.Direction.BUY, "USD", 100000L));
+        index.add(offer("2", OfferPayload.Direction.BUY, "USD", 100000L));
+
+        assertEquals("my-1", index.remove("my-1").getId());
+        assertNull(index.remove("my-1"));
+        assertFalse(index.isMyOffer("my-1"));
+        assertTrue(index.getMyOffers().isEmpty());
+        assertEquals(1, index.getOffers().size());
+        assertEquals(1, index.getOffers("USD", OfferPayload.Direction.BUY).size());
+    }
+
+    @Test
+    public void testReAddReplacesPartition() {
+        index.add(offer("1", OfferPayload.Direction.BUY, "USD", 100000L));
+        index.add(offer("1", OfferPayload.Direction.SELL, "USD", 100000L));
+
+        assertEquals(1, index.size());
+        assertTrue(index.getOffers("USD", OfferPayload.Direction.BUY).isEmpty());
+        assertEquals(1, index.getOffers("USD", OfferPayload.Direction.SELL).size());
+    }
+
+    private static Offer offer(String id, OfferPayload.Direction direction, String currencyCode, long price) {
+        return make(btcUsdOffer.but(with(OfferMaker.id, id),
+                with(OfferMaker.direction, direction),
+                with(OfferMaker.counterCurrencyCode, currencyCode),
+                with(OfferMaker.price, price)));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import javafx.beans.property.SimpleObjectProperty;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TradeRegistryTest {
+    private static final long START_TIME = 1600000000000L;
+    private static final long MAX_TRADE_PERIOD = TimeUnit.DAYS.toMillis(2);
+
+    private ObservableList<Trade> trades;
+    private TradeRegistry tradeRegistry;
+
+    @Before
+    public void setUp() {
+        trades = FXCollections.observableArrayList();
+        trades.add(createTrade("1", Trade.Phase.INIT, null));
+        tradeRegistry = new TradeRegistry(trades);
+    }
+
+    @Test
+    public void testLookups() {
+        Trade trade = createTrade("2", Trade.Phase.INIT, null);
+        trades.add(trade);
+
+        assertSame(trade, tradeRegistry.getTradeById("2").get());
+        assertTrue(tradeRegistry.getTradeById("1").isPresent());
+        assertEquals(2, tradeRegistry.getTradesByPhase(Trade.Phase.INIT).size());
+
+        // The phase partition follows the phase changes
+        ((SimpleObjectProperty<Trade.Phase>) trade.statePhaseProperty()).set(Trade.Phase.DEPOSIT_PUBLISHED);
+        assertEquals(1, tradeRegistry.getTradesByPhase(Trade.Phase.INIT).size());
+        assertTrue(tradeRegistry.getTradesByPhase(Trade.Phase.DEPOSIT_PUBLISHED).contains(trade));
+
+        trades.remove(trade);
+        assertFalse(tradeRegistry.getTradeById("2").isPresent());
+        assertTrue(tradeRegistry.getTradesByPhase(Trade.Phase.DEPOSIT_PUBLISHED).isEmpty());
+    }
+
+    @Test
+    public void testTradesSnapshot() {
+        List<Trade> snapshot = tradeRegistry.getTrades();
+        assertSame(snapshot, tradeRegistry.getTrades());
+
+        trades.add(createTrade("2", Trade.Phase.INIT, null));
+        assertEquals(1, snapshot.size());
+        assertEquals(2, tradeRegistry.getTrades().size());
+    }
+
+    @Test
+    public void testUpdateTradePeriodStates() {
+        Trade confirmedTrade = createTrade("2", Trade.Phase.DEPOSIT_CONFIRMED, START_TIME);
+        Trade unconfirmedTrade = createTrade("3", Trade.Phase.DEPOSIT_PUBLISHED, null);
+        trades.add(confirmedTrade);
+        trades.add(unconfirmedTrade);
+
+        assertFalse(tradeRegistry.updateTradePeriodStates(START_TIME + MAX_TRADE_PERIOD / 2 - 1));
+        verify(confirmedTrade, never()).setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
+
+        assertTrue(tradeRegistry.updateTradePeriodStates(START_TIME + MAX_TRADE_PERIOD / 2 + 1));
+        verify(confirmedTrade).setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
+        when(confirmedTrade.getTradePeriodState()).thenReturn(Trade.TradePeriodState.SECOND_HALF);
+
+        // The trade period of the unconfirmed trade has not started, so its state does not change
+        assertTrue(tradeRegistry.updateTradePeriodStates(START_TIME + MAX_TRADE_PERIOD + 1));
+        verify(confirmedTrade).setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
+        verify(unconfirmedTrade, never()).setTradePeriodState(Trade.TradePeriodState.SECOND_HALF);
+        verify(unconfirmedTrade, never()).setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
+    }
+
+    @Test
+    public void testRemovedTradeIsNotUpdated() {
+        Trade trade = createTrade("2", Trade.Phase.DEPOSIT_CONFIRMED, START_TIME);
+        trades.add(trade);
+        assertFalse(tradeRegistry.updateTradePeriodStates(START_TIME));
+
+        trades.remove(trade);
+        assertFalse(tradeRegistry.updateTradePeriodStates(START_TIME + MAX_TRADE_PERIOD + 1));
+        verify(trade, never()).setTradePeriodState(Trade.TradePeriodState.TRADE_PERIOD_OVER);
+    }
+
+    private static Trade createTrade(String id, Trade.Phase phase, Long confirmedTradeStartTime) {
+        Trade trade = mock(Trade.class);
+        when(trade.getId()).thenReturn(id);
+        when(trade.getPhase()).thenReturn(phase);
+        when(trade.statePhaseProperty()).thenReturn(new SimpleObjectProperty<>(phase));
+        when(trade.getTradePeriodState()).thenReturn(Trade.TradePeriodState.FIRST_HALF);
+        when(trade.getConfirmedTradeStartTime()).thenReturn(confirmedTradeStartTime);
+        when(trade.getMaxTradePeriod()).thenReturn(MAX_TRADE_PERIOD);
+        return trade;
+    }
+}
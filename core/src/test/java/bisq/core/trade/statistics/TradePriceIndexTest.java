@@ -0,0 +1,86 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.utils.Fiat;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TradePriceIndexTest {
+    private static final long NOW = 1600000000000L;
+
+    private TradePriceIndex tradePriceIndex;
+
+    @Before
+    public void setUp() {
+        tradePriceIndex = new TradePriceIndex();
+    }
+
+    @Test
+    public void testLatest() {
+        TradeStatistics3 latest = createTradeStatistics("EUR", "500", "1", NOW - 10);
+        assertTrue(tradePriceIndex.add(createTradeStatistics("EUR", "480", "1", NOW - 20), NOW));
+        assertTrue(tradePriceIndex.add(latest, NOW));
+        // An older trade arriving later does not replace the latest one
+        assertFalse(tradePriceIndex.add(createTradeStatistics("EUR", "490", "1", NOW - 15), NOW));
+
+        assertEquals(latest, tradePriceIndex.getLatest("EUR"));
+        assertNull(tradePriceIndex.getLatest("USD"));
+        assertEquals(Set.of("EUR"), tradePriceIndex.getCurrencyCodes());
+    }
+
+    @Test
+    public void testVolumeWeightedPrice() {
+        tradePriceIndex.add(createTradeStatistics("EUR", "500", "3", NOW - 10), NOW);
+        tradePriceIndex.add(createTradeStatistics("EUR", "600", "1", NOW - 10), NOW);
+        // Outside of the window
+        tradePriceIndex.add(createTradeStatistics("EUR", "1000", "1", NOW - TradePriceIndex.VOLUME_WEIGHTED_PRICE_WINDOW_MS - 1), NOW);
+
+        assertEquals(Fiat.parseFiat("EUR", "525").value, tradePriceIndex.getVolumeWeightedPrice("EUR", NOW));
+        assertEquals(0, tradePriceIndex.getVolumeWeightedPrice("USD", NOW));
+
+        // Once the trades left the window there is no volume weighted price anymore
+        long later = NOW + TradePriceIndex.VOLUME_WEIGHTED_PRICE_WINDOW_MS + TimeUnit.MINUTES.toMillis(1);
+        assertEquals(0, tradePriceIndex.getVolumeWeightedPrice("EUR", later));
+        assertEquals(Price.parse("EUR", "600").getValue(), tradePriceIndex.getLatest("EUR").getPrice());
+    }
+
+    private static TradeStatistics3 createTradeStatistics(String currencyCode, String price, String amount, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin(amount).getValue(),
+                PaymentMethod.SEPA_ID,
+                date,
+                null,
+                null,
+                null);
+    }
+}
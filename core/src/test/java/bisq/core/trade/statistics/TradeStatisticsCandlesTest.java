@@ -0,0 +1,122 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+
+import org.bitcoinj.core.Coin;
+import org.bitcoinj.utils.Fiat;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatisticsCandlesTest {
+    private static final long DAY_START = LocalDateTime.of(2021, 3, 10, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+    private static final long HOUR = 3600 * 1000;
+
+    private TradeStatisticsCandles candles;
+
+    @Before
+    public void setUp() {
+        candles = new TradeStatisticsCandles(ZoneOffset.UTC);
+    }
+
+    @Test
+    public void testCandleOutOfOrder() {
+        // Added in a different order than traded
+        candles.add(createTradeStatistics("EUR", "580", DAY_START + 4 * HOUR));
+        candles.add(createTradeStatistics("EUR", "520", DAY_START + HOUR));
+        candles.add(createTradeStatistics("EUR", "600", DAY_START + 3 * HOUR));
+        candles.add(createTradeStatistics("EUR", "500", DAY_START + 2 * HOUR));
+
+        TradeStatisticsCandles.Candle candle = candles.getCandle("EUR", TradeStatisticsCandles.Interval.DAY, DAY_START);
+        assertEquals(Fiat.parseFiat("EUR", "520").value, candle.getOpen());
+        assertEquals(Fiat.parseFiat("EUR", "580").value, candle.getClose());
+        assertEquals(Fiat.parseFiat("EUR", "600").value, candle.getHigh());
+        assertEquals(Fiat.parseFiat("EUR", "500").value, candle.getLow());
+        assertEquals(Fiat.parseFiat("EUR", "550").value, candle.getAveragePrice());
+        assertEquals(Coin.parseCoin("4").value, candle.getAccumulatedAmount());
+        assertEquals(Fiat.parseFiat("EUR", "2200").value, candle.getAccumulatedVolume());
+        assertEquals(4, candle.getNumTrades());
+    }
+
+    @Test
+    public void testGetCandlesInRange() {
+        candles.add(createTradeStatistics("EUR", "500", DAY_START + HOUR + 10));
+        candles.add(createTradeStatistics("EUR", "510", DAY_START + HOUR + 20));
+        candles.add(createTradeStatistics("EUR", "520", DAY_START + 3 * HOUR));
+        candles.add(createTradeStatistics("EUR", "530", DAY_START + 5 * HOUR));
+        candles.add(createTradeStatistics("USD", "600", DAY_START + 3 * HOUR));
+
+        // The range starts within the first hour with a trade, so that candle is included
+        List<TradeStatisticsCandles.Candle> hourCandles = candles.getCandles("EUR",
+                TradeStatisticsCandles.Interval.HOUR,
+                DAY_START + HOUR + 15,
+                DAY_START + 5 * HOUR);
+        assertEquals(2, hourCandles.size());
+        assertEquals(DAY_START + HOUR, hourCandles.get(0).getStartTime());
+        assertEquals(2, hourCandles.get(0).getNumTrades());
+        assertEquals(DAY_START + 3 * HOUR, hourCandles.get(1).getStartTime());
+
+        List<TradeStatisticsCandles.Candle> dayCandles = candles.getCandles("EUR",
+                TradeStatisticsCandles.Interval.DAY,
+                0,
+                Long.MAX_VALUE);
+        assertEquals(1, dayCandles.size());
+        assertEquals(4, dayCandles.get(0).getNumTrades());
+
+        assertTrue(candles.getCandles("GBP", TradeStatisticsCandles.Interval.DAY, 0, Long.MAX_VALUE).isEmpty());
+        assertNull(candles.getCandle("EUR", TradeStatisticsCandles.Interval.HOUR, DAY_START + 2 * HOUR));
+    }
+
+    @Test
+    public void testIntervalStartTime() {
+        // 2021-03-10 is a Wednesday
+        long time = DAY_START + 13 * HOUR + 37 * 60 * 1000 + 12345;
+        assertEquals(DAY_START + 13 * HOUR + 37 * 60 * 1000, TradeStatisticsCandles.Interval.MINUTE.getStartTime(time, ZoneOffset.UTC));
+        assertEquals(DAY_START + 13 * HOUR + 30 * 60 * 1000, TradeStatisticsCandles.Interval.MINUTE_10.getStartTime(time, ZoneOffset.UTC));
+        assertEquals(DAY_START + 13 * HOUR, TradeStatisticsCandles.Interval.HOUR.getStartTime(time, ZoneOffset.UTC));
+        assertEquals(DAY_START, TradeStatisticsCandles.Interval.DAY.getStartTime(time, ZoneOffset.UTC));
+        assertEquals(DAY_START - 48 * HOUR, TradeStatisticsCandles.Interval.WEEK.getStartTime(time, ZoneOffset.UTC));
+        assertEquals(LocalDateTime.of(2021, 3, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli(),
+                TradeStatisticsCandles.Interval.MONTH.getStartTime(time, ZoneOffset.UTC));
+        assertEquals(LocalDateTime.of(2021, 1, 1, 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli(),
+                TradeStatisticsCandles.Interval.YEAR.getStartTime(time, ZoneOffset.UTC));
+    }
+
+    private static TradeStatistics3 createTradeStatistics(String currencyCode, String price, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin("1").getValue(),
+                PaymentMethod.SEPA_ID,
+                date,
+                null,
+                null,
+                null);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+import bisq.core.provider.price.PriceFeedService;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import org.bitcoinj.core.Coin;
+
+import java.io.File;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TradeStatisticsManagerTest {
+    private static final long DATE = 1600000000000L;
+
+    private TradeStatisticsManager tradeStatisticsManager;
+
+    @Before
+    public void setUp() {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            // Two trade statistics per date
+            TradeStatistics3 tradeStatistics = createTradeStatistics(i % 2 == 0 ? "EUR" : "USD", 500 + i, DATE + i / 2);
+            map.put(new P2PDataStorage.ByteArray(tradeStatistics.getHash()), tradeStatistics);
+        }
+
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getP2PDataStorage()).thenReturn(mock(P2PDataStorage.class));
+        TradeStatistics3StorageService storageService = mock(TradeStatistics3StorageService.class);
+        when(storageService.getMapOfAllData()).thenReturn(map);
+        tradeStatisticsManager = new TradeStatisticsManager(p2PService,
+                mock(PriceFeedService.class),
+                storageService,
+                mock(AppendOnlyDataStoreService.class),
+                mock(TradeStatisticsConverter.class),
+                new File(""),
+                false);
+        tradeStatisticsManager.onAllServicesInitialized();
+    }
+
+    @Test
+    public void testGetTradeStatisticsSortedByDate() {
+        List<TradeStatistics3> result = tradeStatisticsManager.getTradeStatistics(null, 0, Long.MAX_VALUE, null, 100);
+        assertEquals(10, result.size());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1).getDateAsLong() <= result.get(i).getDateAsLong());
+        }
+    }
+
+    @Test
+    public void testGetTradeStatisticsFiltered() {
+        List<TradeStatistics3> result = tradeStatisticsManager.getTradeStatistics("EUR", DATE + 1, DATE + 4, null, 100);
+        assertEquals(3, result.size());
+        result.forEach(tradeStatistics -> assertEquals("EUR", tradeStatistics.getCurrency()));
+        assertEquals(DATE + 1, result.get(0).getDateAsLong());
+        assertEquals(DATE + 3, result.get(2).getDateAsLong());
+
+        assertTrue(tradeStatisticsManager.getTradeStatistics("GBP", 0, Long.MAX_VALUE, null, 100).isEmpty());
+    }
+
+    @Test
+    public void testGetTradeStatisticsWithCursor() {
+        List<TradeStatistics3> all = tradeStatisticsManager.getTradeStatistics(null, 0, Long.MAX_VALUE, null, 100);
+
+        // Page through with a limit that splits trade statistics of the same date
+        String cursor = null;
+        int index = 0;
+        List<TradeStatistics3> page;
+        do {
+            page = tradeStatisticsManager.getTradeStatistics(null, 0, Long.MAX_VALUE, cursor, 3);
+            for (TradeStatistics3 tradeStatistics : page) {
+                assertEquals(all.get(index++), tradeStatistics);
+            }
+            if (!page.isEmpty()) {
+                cursor = TradeStatisticsManager.getCursor(page.get(page.size() - 1));
+            }
+        } while (page.size() == 3);
+        assertEquals(all.size(), index);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        tradeStatisticsManager.getTradeStatistics(null, 0, Long.MAX_VALUE, "invalid", 100);
+    }
+
+    private static TradeStatistics3 createTradeStatistics(String currencyCode, long price, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, String.valueOf(price)).getValue(),
+                Coin.parseCoin("1").getValue(),
+                PaymentMethod.SEPA_ID,
+                date,
+                null,
+                null,
+                null);
+    }
+}
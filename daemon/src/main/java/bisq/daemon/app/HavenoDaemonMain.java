@@ -22,6 +22,7 @@ import bisq.core.app.HavenoSetup;
 import bisq.core.api.AccountServiceListener;
 import bisq.core.app.CoreModule;
 
+import bisq.common.TimingWheelTimer;
 import bisq.common.UserThread;
 import bisq.common.app.AppModule;
 import bisq.common.crypto.IncorrectPasswordException;
@@ -59,6 +60,10 @@ public class HavenoDaemonMain extends HavenoHeadlessAppMain implements HavenoSet
                 .setDaemon(true)
                 .build();
         UserThread.setExecutor(Executors.newSingleThreadExecutor(threadFactory));
+        // The desktop app uses the UITimer, so the timing wheel is only an option for headless apps
+        if (config.useTimingWheelTimer) {
+            UserThread.setTimerClass(TimingWheelTimer.class);
+        }
     }
 
     @Override
@@ -1,17 +1,23 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.model.CandleInfo;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsManager;
 
+import bisq.proto.grpc.GetTradeStatisticsCandlesReply;
+import bisq.proto.grpc.GetTradeStatisticsCandlesRequest;
 import bisq.proto.grpc.GetTradeStatisticsReply;
 import bisq.proto.grpc.GetTradeStatisticsRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -19,7 +25,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.GetTradeStatisticsImplBase;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsCandlesMethod;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsMethod;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsStreamMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -30,6 +38,8 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 @Slf4j
 class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
 
+    private static final int STREAM_CHUNK_SIZE = 1000;
+
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
 
@@ -43,11 +53,41 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
     public void getTradeStatistics(GetTradeStatisticsRequest req,
                                    StreamObserver<GetTradeStatisticsReply> responseObserver) {
         try {
-            var tradeStatistics = coreApi.getTradeStatistics().stream()
-                    .map(TradeStatistics3::toProtoTradeStatistics3)
+            int limit = getLimit(req);
+            var tradeStatistics = coreApi.getTradeStatistics(req.getCurrencyCode(),
+                    req.getFromDate(),
+                    req.getToDate(),
+                    req.getCursor(),
+                    limit);
+            boolean mightHaveMore = limit > 0 && tradeStatistics.size() == limit;
+            responseObserver.onNext(toReply(tradeStatistics, mightHaveMore));
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void getTradeStatisticsStream(GetTradeStatisticsRequest req,
+                                         StreamObserver<GetTradeStatisticsReply> responseObserver) {
+        var serverCallStreamObserver = (ServerCallStreamObserver<GetTradeStatisticsReply>) responseObserver;
+        var streamer = new TradeStatisticsStreamer(req, serverCallStreamObserver);
+        serverCallStreamObserver.setOnCancelHandler(streamer::cancel);
+        serverCallStreamObserver.setOnReadyHandler(streamer);
+    }
+
+    @Override
+    public void getTradeStatisticsCandles(GetTradeStatisticsCandlesRequest req,
+                                          StreamObserver<GetTradeStatisticsCandlesReply> responseObserver) {
+        try {
+            var candles = coreApi.getTradeStatisticsCandles(req.getCurrencyCode(),
+                    req.getInterval(),
+                    req.getFromDate(),
+                    req.getToDate()).stream()
+                    .map(CandleInfo::toProtoMessage)
                     .collect(Collectors.toList());
 
-            var reply = GetTradeStatisticsReply.newBuilder().addAllTradeStatistics(tradeStatistics).build();
+            var reply = GetTradeStatisticsCandlesReply.newBuilder().addAllCandles(candles).build();
             responseObserver.onNext(reply);
             responseObserver.onCompleted();
         } catch (Throwable cause) {
@@ -55,6 +95,76 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
         }
     }
 
+    private GetTradeStatisticsReply toReply(List<TradeStatistics3> tradeStatistics, boolean mightHaveMore) {
+        var builder = GetTradeStatisticsReply.newBuilder()
+                .addAllTradeStatistics(tradeStatistics.stream()
+                        .map(TradeStatistics3::toProtoTradeStatistics3)
+                        .collect(Collectors.toList()));
+        if (mightHaveMore && !tradeStatistics.isEmpty()) {
+            builder.setNextCursor(TradeStatisticsManager.getCursor(tradeStatistics.get(tradeStatistics.size() - 1)));
+        }
+        return builder.build();
+    }
+
+    // The limit is an uint32, values above Integer.MAX_VALUE are negative as int.
+    private static int getLimit(GetTradeStatisticsRequest req) {
+        return (int) Math.min(Integer.toUnsignedLong(req.getLimit()), Integer.MAX_VALUE);
+    }
+
+    // Sends the next chunk whenever the transport is ready to accept more data, so we never buffer more than one
+    // chunk of the result. Each chunk carries the cursor to resume after it. gRPC does not run the handlers
+    // concurrently.
+    private class TradeStatisticsStreamer implements Runnable {
+        private final GetTradeStatisticsRequest req;
+        private final ServerCallStreamObserver<GetTradeStatisticsReply> responseObserver;
+        private long remaining;
+        private String cursor;
+        private boolean done;
+
+        TradeStatisticsStreamer(GetTradeStatisticsRequest req,
+                                ServerCallStreamObserver<GetTradeStatisticsReply> responseObserver) {
+            this.req = req;
+            this.responseObserver = responseObserver;
+            this.remaining = req.getLimit() != 0 ? Integer.toUnsignedLong(req.getLimit()) : Long.MAX_VALUE;
+            this.cursor = req.getCursor();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!done && responseObserver.isReady()) {
+                    sendNextChunk();
+                }
+            } catch (Throwable cause) {
+                done = true;
+                exceptionHandler.handleException(log, cause, responseObserver);
+            }
+        }
+
+        void cancel() {
+            done = true;
+        }
+
+        private void sendNextChunk() {
+            int chunkSize = (int) Math.min(STREAM_CHUNK_SIZE, remaining);
+            var chunk = coreApi.getTradeStatistics(req.getCurrencyCode(),
+                    req.getFromDate(),
+                    req.getToDate(),
+                    cursor,
+                    chunkSize);
+            boolean mightHaveMore = chunk.size() == chunkSize;
+            if (!chunk.isEmpty()) {
+                responseObserver.onNext(toReply(chunk, mightHaveMore));
+                remaining -= chunk.size();
+                cursor = TradeStatisticsManager.getCursor(chunk.get(chunk.size() - 1));
+            }
+            if (!mightHaveMore || remaining == 0) {
+                done = true;
+                responseObserver.onCompleted();
+            }
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -66,6 +176,8 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
                             put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            put(getGetTradeStatisticsCandlesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getGetTradeStatisticsStreamMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                         }}
                 )));
     }
@@ -24,8 +24,14 @@ import bisq.core.offer.OpenOffer;
 import bisq.core.util.ParsingUtils;
 import bisq.proto.grpc.CancelOfferReply;
 import bisq.proto.grpc.CancelOfferRequest;
+import bisq.proto.grpc.CancelOfferResult;
+import bisq.proto.grpc.CancelOffersReply;
+import bisq.proto.grpc.CancelOffersRequest;
 import bisq.proto.grpc.CreateOfferReply;
 import bisq.proto.grpc.CreateOfferRequest;
+import bisq.proto.grpc.CreateOfferResult;
+import bisq.proto.grpc.CreateOffersReply;
+import bisq.proto.grpc.CreateOffersRequest;
 import bisq.proto.grpc.GetMyOfferReply;
 import bisq.proto.grpc.GetMyOfferRequest;
 import bisq.proto.grpc.GetMyOffersReply;
@@ -42,7 +48,11 @@ import javax.inject.Inject;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -181,6 +191,87 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    // All offers are created and their placement is started before we wait for the results, so the offers wait
+    // for the signatures of the arbitrators in parallel.
+    @Override
+    public void createOffers(CreateOffersRequest req,
+                             StreamObserver<CreateOffersReply> responseObserver) {
+        try {
+            int numOffers = req.getOffersCount();
+            AtomicReferenceArray<CreateOfferResult> results = new AtomicReferenceArray<>(numOffers);
+            AtomicInteger numPending = new AtomicInteger(numOffers);
+            Runnable onAllCompleted = () -> {
+                CreateOffersReply.Builder reply = CreateOffersReply.newBuilder();
+                for (int i = 0; i < numOffers; i++)
+                    reply.addResults(results.get(i));
+                responseObserver.onNext(reply.build());
+                responseObserver.onCompleted();
+            };
+            if (numOffers == 0) {
+                onAllCompleted.run();
+                return;
+            }
+
+            for (int i = 0; i < numOffers; i++) {
+                int index = i;
+                // The error handler might be called after the offer has failed already, so we only count the first result.
+                Consumer<CreateOfferResult> resultHandler = result -> {
+                    if (results.compareAndSet(index, null, result) && numPending.decrementAndGet() == 0)
+                        onAllCompleted.run();
+                };
+                CreateOfferRequest offerReq = req.getOffers(i);
+                try {
+                    coreApi.createAnPlaceOffer(
+                            offerReq.getCurrencyCode(),
+                            offerReq.getDirection(),
+                            offerReq.getPrice(),
+                            offerReq.getUseMarketBasedPrice(),
+                            offerReq.getMarketPriceMargin(),
+                            ParsingUtils.atomicUnitsToCentineros(offerReq.getAmount()),
+                            ParsingUtils.atomicUnitsToCentineros(offerReq.getMinAmount()),
+                            offerReq.getBuyerSecurityDeposit(),
+                            offerReq.getTriggerPrice(),
+                            offerReq.getPaymentAccountId(),
+                            offer -> resultHandler.accept(CreateOfferResult.newBuilder()
+                                    .setOffer(toOfferInfo(offer).toProtoMessage())
+                                    .build()),
+                            errorMessage -> resultHandler.accept(toCreateOfferResult(errorMessage)));
+                } catch (Throwable cause) {
+                    log.warn("Could not create offer {} of {}: {}", index + 1, numOffers, cause.getMessage());
+                    resultHandler.accept(toCreateOfferResult(cause.getMessage()));
+                }
+            }
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void cancelOffers(CancelOffersRequest req,
+                             StreamObserver<CancelOffersReply> responseObserver) {
+        try {
+            Map<String, String> errorMessages = coreApi.cancelOffers(req.getIdsList());
+            var reply = CancelOffersReply.newBuilder()
+                    .addAllResults(req.getIdsList().stream()
+                            .map(id -> CancelOfferResult.newBuilder()
+                                    .setId(id)
+                                    .setErrorMessage(errorMessages.getOrDefault(id, ""))
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private static CreateOfferResult toCreateOfferResult(String errorMessage) {
+        return CreateOfferResult.newBuilder()
+                .setErrorMessage(errorMessage == null ? "unknown error" : errorMessage)
+                .build();
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -197,6 +288,8 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(20, SECONDS));
                             put(getCreateOfferMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getCreateOffersMethod().getFullMethodName(), new GrpcCallRateMeter(2, SECONDS));
+                            put(getCancelOffersMethod().getFullMethodName(), new GrpcCallRateMeter(2, SECONDS));
                         }}
                 )));
     }
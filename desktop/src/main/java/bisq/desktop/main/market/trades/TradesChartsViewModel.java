@@ -35,6 +35,7 @@ import bisq.core.locale.TradeCurrency;
 import bisq.core.monetary.Altcoin;
 import bisq.core.provider.price.PriceFeedService;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandles;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 import bisq.core.user.Preferences;
 
@@ -116,7 +117,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
     TickUnit tickUnit;
     final int maxTicks = 90;
     private int selectedTabIndex;
-    final Map<TickUnit, Map<Long, Long>> usdPriceMapsPerTickUnit = new HashMap<>();
+    // Only used for the USD prices. We keep it as the trade statistics only get added.
+    private TradeStatisticsCandles usdCandles;
     private boolean fillTradeCurrenciesOnActivateCalled;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -132,6 +134,8 @@ class TradesChartsViewModel extends ActivatableViewModel {
         this.navigation = navigation;
 
         setChangeListener = change -> {
+            if (usdCandles != null && change.wasAdded() && change.getElementAdded().getCurrency().equals("USD"))
+                usdCandles.add(change.getElementAdded());
             updateSelectedTradeStatistics(getCurrencyCode());
             updateChartData();
             fillTradeCurrencies();
@@ -253,41 +257,12 @@ class TradesChartsViewModel extends ActivatableViewModel {
     }
 
     private void buildUsdPricesPerDay() {
-        if (usdPriceMapsPerTickUnit.isEmpty()) {
-            Map<TickUnit, Map<Long, List<TradeStatistics3>>> dateMapsPerTickUnit = new HashMap<>();
-            for (TickUnit tick : TickUnit.values()) {
-                dateMapsPerTickUnit.put(tick, new HashMap<>());
-            }
-
-            tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
+        if (usdCandles == null) {
+            usdCandles = new TradeStatisticsCandles(ZONE_ID);
+            usdCandles.addAll(tradeStatisticsManager.getObservableTradeStatisticsSet().stream()
                     .filter(e -> e.getCurrency().equals("USD"))
-                    .forEach(tradeStatistics -> {
-                        for (TickUnit tick : TickUnit.values()) {
-                            long time = roundToTick(tradeStatistics.getLocalDateTime(), tick).getTime();
-                            Map<Long, List<TradeStatistics3>> map = dateMapsPerTickUnit.get(tick);
-                            map.putIfAbsent(time, new ArrayList<>());
-                            map.get(time).add(tradeStatistics);
-                        }
-                    });
-
-            dateMapsPerTickUnit.forEach((tick, map) -> {
-                HashMap<Long, Long> priceMap = new HashMap<>();
-                map.forEach((date, tradeStatisticsList) -> priceMap.put(date, getAveragePrice(tradeStatisticsList)));
-                usdPriceMapsPerTickUnit.put(tick, priceMap);
-            });
-        }
-    }
-
-    private long getAveragePrice(List<TradeStatistics3> tradeStatisticsList) {
-        long accumulatedAmount = 0;
-        long accumulatedVolume = 0;
-        for (TradeStatistics3 tradeStatistics : tradeStatisticsList) {
-            accumulatedAmount += tradeStatistics.getAmount();
-            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
+                    .collect(Collectors.toList()));
         }
-
-        double accumulatedVolumeAsDouble = MathUtils.scaleUpByPowerOf10((double) accumulatedVolume, Coin.SMALLEST_UNIT_EXPONENT);
-        return MathUtils.roundDoubleToLong(accumulatedVolumeAsDouble / (double) accumulatedAmount);
     }
 
     private void updateChartData() {
@@ -313,7 +288,7 @@ class TradesChartsViewModel extends ActivatableViewModel {
             }
         });
 
-        Map<Long, Long> map = usdPriceMapsPerTickUnit.get(tickUnit);
+        TradeStatisticsCandles.Interval usdInterval = TradeStatisticsCandles.Interval.valueOf(tickUnit.name());
         AtomicLong averageUsdPrice = new AtomicLong(0);
 
         // create CandleData for defined time interval
@@ -322,8 +297,11 @@ class TradesChartsViewModel extends ActivatableViewModel {
                 .map(entry -> {
                     long tickStartDate = entry.getValue().getKey().getTime();
                     // If we don't have a price we take the previous one
-                    if (map.containsKey(tickStartDate)) {
-                        averageUsdPrice.set(map.get(tickStartDate));
+                    TradeStatisticsCandles.Candle usdCandle = usdCandles != null ?
+                            usdCandles.getCandle("USD", usdInterval, tickStartDate) :
+                            null;
+                    if (usdCandle != null) {
+                        averageUsdPrice.set(usdCandle.getAveragePrice());
                     }
                     return getCandleData(entry.getKey(), entry.getValue().getValue(), averageUsdPrice.get());
                 })
@@ -78,7 +78,8 @@ public class OfferBook {
                 boolean hasSameOffer = offerBookListItems.stream()
                         .anyMatch(item -> item.getOffer().equals(offer));
                 if (!hasSameOffer) {
-                    OfferBookListItem offerBookListItem = new OfferBookListItem(offer);
+                    // The take offer screen changes the state of the offer, so we use a copy of the shared offer.
+                    OfferBookListItem offerBookListItem = new OfferBookListItem(offerBookService.copyOf(offer));
                     // We don't use the contains method as the equals method in Offer takes state and errorMessage into account.
                     // If we have an offer with same ID we remove it and add the new offer as it might have a changed state.
                     Optional<OfferBookListItem> candidateWithSameId = offerBookListItems.stream()
@@ -98,7 +99,12 @@ public class OfferBook {
 
             @Override
             public void onRemoved(Offer offer) {
-                removeOffer(offer, tradeManager);
+                // We update the state of our copy of the offer, the offer we get is shared.
+                Optional<Offer> listedOffer = offerBookListItems.stream()
+                        .map(OfferBookListItem::getOffer)
+                        .filter(o -> o.getId().equals(offer.getId()))
+                        .findAny();
+                removeOffer(listedOffer.orElseGet(() -> offerBookService.copyOf(offer)), tradeManager);
             }
         });
     }
@@ -126,6 +132,7 @@ public class OfferBook {
             offerBookListItems.clear();
             offerBookListItems.addAll(offerBookService.getOffers().stream()
                     .filter(o -> !filterManager.isOfferIdBanned(o.getId()))
+                    .map(offerBookService::copyOf)
                     .map(OfferBookListItem::new)
                     .collect(Collectors.toList()));
 
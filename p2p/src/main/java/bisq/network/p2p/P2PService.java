@@ -33,6 +33,7 @@ import bisq.network.p2p.peers.keepalive.KeepAliveManager;
 import bisq.network.p2p.peers.peerexchange.PeerExchangeManager;
 import bisq.network.p2p.storage.HashMapChangedListener;
 import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.BulkRefreshOfferMessage;
 import bisq.network.p2p.storage.messages.RefreshOfferMessage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
@@ -41,6 +42,8 @@ import bisq.network.utils.CapabilityUtils;
 
 import bisq.common.UserThread;
 import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.config.Config;
 import bisq.common.crypto.CryptoException;
 import bisq.common.crypto.KeyRing;
 import bisq.common.crypto.PubKeyRing;
@@ -49,6 +52,8 @@ import bisq.common.proto.network.NetworkEnvelope;
 
 import com.google.inject.Inject;
 
+import javax.inject.Named;
+
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -65,6 +70,7 @@ import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -110,6 +116,7 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
 
     private final Subscription networkReadySubscription;
     private boolean isBootstrapped;
+    private boolean bulkRefreshOffers;
     private final KeepAliveManager keepAliveManager;
     private final Socks5ProxyProvider socks5ProxyProvider;
 
@@ -160,6 +167,11 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         });
     }
 
+    @Inject(optional = true)
+    public void setBulkRefreshOffers(@Named(Config.BULK_REFRESH_OFFERS) boolean bulkRefreshOffers) {
+        this.bulkRefreshOffers = bulkRefreshOffers;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
@@ -495,6 +507,36 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         }
     }
 
+    // A BulkRefreshOfferMessage is only sent to peers with the BULK_REFRESH_OFFERS capability, and relaying nodes
+    // do not forward it to peers without it. Nodes without the capability would not get any refresh and would drop
+    // our offers once the TTL is reached, so we only use it if it got enabled for the whole network.
+    public boolean isBulkRefreshTTLSupported() {
+        Set<Connection> confirmedConnections = networkNode.getConfirmedConnections();
+        return bulkRefreshOffers &&
+                Capabilities.app.contains(Capability.BULK_REFRESH_OFFERS) &&
+                !confirmedConnections.isEmpty() &&
+                confirmedConnections.stream()
+                        .allMatch(connection -> connection.getCapabilities().contains(Capability.BULK_REFRESH_OFFERS));
+    }
+
+    // Refreshes the TTL of all payloads with one signature and one broadcast. The payloads must have the same owner.
+    public boolean refreshTTL(Collection<? extends ProtectedStoragePayload> protectedStoragePayloads) {
+        checkArgument(protectedStoragePayloads.size() <= BulkRefreshOfferMessage.MAX_ENTRIES,
+                "Too many payloads for a bulk refresh");
+        if (isBootstrapped()) {
+            try {
+                BulkRefreshOfferMessage bulkRefreshOfferMessage = p2PDataStorage.getBulkRefreshTTLMessage(protectedStoragePayloads,
+                        keyRing.getSignatureKeyPair());
+                return p2PDataStorage.refreshTTL(bulkRefreshOfferMessage, networkNode.getNodeAddress());
+            } catch (CryptoException e) {
+                log.error("Signing at getBulkRefreshTTLMessage failed. That should never happen.");
+                return false;
+            }
+        } else {
+            throw new NetworkNotReadyException();
+        }
+    }
+
     public boolean removeData(ProtectedStoragePayload protectedStoragePayload) {
         if (isBootstrapped()) {
             try {
@@ -26,10 +26,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 /**
- * We persist failed attempts to decrypt mailbox messages (expected if mailbox message was not addressed to us).
- * This improves performance at processing mailbox messages.
- * On a fast 4 core machine 1000 mailbox messages take about 1.5 second. At second start-up using the persisted data
- * it only takes about 30 ms.
+ * We persist failed attempts to decrypt mailbox messages which were addressed to our key, so we do not try again at
+ * the next start-up. Mailbox messages addressed to other keys are skipped without a decryption attempt and are
+ * not persisted here.
  */
 @Singleton
 public class IgnoredMailboxService implements PersistedDataHost {
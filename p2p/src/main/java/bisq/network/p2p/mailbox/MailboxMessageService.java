@@ -53,6 +53,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -67,6 +68,7 @@ import java.time.Clock;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
@@ -74,10 +76,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -112,6 +116,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 @Slf4j
 public class MailboxMessageService implements HashMapChangedListener, PersistedDataHost {
     private static final long REPUBLISH_DELAY_SEC = TimeUnit.MINUTES.toSeconds(2);
+    private static final int MAX_DECRYPTION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
@@ -128,6 +133,8 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     private final Map<String, MailboxItem> mailboxItemsByUid = new HashMap<>();
 
     private boolean isBootstrapped;
+    @Nullable
+    private ListeningExecutorService decryptionExecutor;
 
     @Inject
     public MailboxMessageService(NetworkNode networkNode,
@@ -392,21 +399,36 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
     }
 
     // We run the batch processing of all mailbox messages we have received at startup in a thread to not block the UI.
-    // For about 1000 messages decryption takes about 1 sec.
+    // Only entries addressed to our signature pubKey get decrypted (about 1 ms per entry). Those are decrypted in
+    // parallel on the decryption pool. All other entries are skipped without any crypto operation.
     private void threadedBatchProcessMailboxEntries(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
-        ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("processMailboxEntry-" + new Random().nextInt(1000));
         long ts = System.currentTimeMillis();
-        ListenableFuture<Set<MailboxItem>> future = executor.submit(() -> {
-            var mailboxItems = getMailboxItems(protectedMailboxStorageEntries);
-            log.info("Batch processing of {} mailbox entries took {} ms",
-                    protectedMailboxStorageEntries.size(),
-                    System.currentTimeMillis() - ts);
-            return mailboxItems;
+        byte[] mySignaturePubKeyBytes = keyRing.getPubKeyRing().getSignaturePubKeyBytes();
+        Set<MailboxItem> mailboxItems = new HashSet<>();
+        Map<String, Long> failedDecryptions = new ConcurrentHashMap<>();
+        List<ListenableFuture<MailboxItem>> futures = new ArrayList<>();
+        ListeningExecutorService executor = getDecryptionExecutor();
+        protectedMailboxStorageEntries.forEach(protectedMailboxStorageEntry -> {
+            if (isDecryptionCandidate(protectedMailboxStorageEntry, mySignaturePubKeyBytes)) {
+                futures.add(executor.submit(() ->
+                        tryDecryptProtectedMailboxStorageEntry(protectedMailboxStorageEntry, failedDecryptions)));
+            } else {
+                mailboxItems.add(new MailboxItem(protectedMailboxStorageEntry, null));
+            }
         });
 
-        Futures.addCallback(future, new FutureCallback<>() {
-            public void onSuccess(Set<MailboxItem> decryptedMailboxMessageWithEntries) {
-                UserThread.execute(() -> decryptedMailboxMessageWithEntries.forEach(e -> handleMailboxItem(e)));
+        // A failed future must not drop the other entries, the result of a failed future is null.
+        Futures.addCallback(Futures.successfulAsList(futures), new FutureCallback<>() {
+            public void onSuccess(List<MailboxItem> decryptedMailboxItems) {
+                log.info("Batch processing of {} mailbox entries with {} decryption candidates took {} ms",
+                        protectedMailboxStorageEntries.size(),
+                        futures.size(),
+                        System.currentTimeMillis() - ts);
+                UserThread.execute(() -> {
+                    failedDecryptions.forEach(ignoredMailboxService::ignore);
+                    decryptedMailboxItems.stream().filter(Objects::nonNull).forEach(mailboxItems::add);
+                    mailboxItems.forEach(e -> handleMailboxItem(e));
+                });
             }
 
             public void onFailure(@NotNull Throwable throwable) {
@@ -415,39 +437,73 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         }, MoreExecutors.directExecutor());
     }
 
-    private Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
+    @VisibleForTesting
+    Set<MailboxItem> getMailboxItems(Collection<ProtectedMailboxStorageEntry> protectedMailboxStorageEntries) {
+        byte[] mySignaturePubKeyBytes = keyRing.getPubKeyRing().getSignaturePubKeyBytes();
+        Map<String, Long> failedDecryptions = new HashMap<>();
         Set<MailboxItem> mailboxItems = new HashSet<>();
         protectedMailboxStorageEntries.stream()
-                .map(this::tryDecryptProtectedMailboxStorageEntry)
+                .map(e -> isDecryptionCandidate(e, mySignaturePubKeyBytes) ?
+                        tryDecryptProtectedMailboxStorageEntry(e, failedDecryptions) :
+                        new MailboxItem(e, null))
                 .forEach(mailboxItems::add);
+        failedDecryptions.forEach(ignoredMailboxService::ignore);
         return mailboxItems;
     }
 
-    private MailboxItem tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+    // The sender uses our signature pubKey as receiversPubKey of the entry as it is required for the removal of the
+    // entry by the receiver. So we can tell by comparing the bytes if an entry is addressed to us. If a sender used
+    // another key we could not remove the entry anyway.
+    private boolean isDecryptionCandidate(ProtectedMailboxStorageEntry protectedMailboxStorageEntry,
+                                          byte[] mySignaturePubKeyBytes) {
+        if (!Arrays.equals(protectedMailboxStorageEntry.getReceiversPubKeyBytes(), mySignaturePubKeyBytes)) {
+            return false;
+        }
+
+        // We had persisted a past failed decryption attempt on that message so we don't try again
+        String uid = protectedMailboxStorageEntry.getMailboxStoragePayload().getPrefixedSealedAndSignedMessage().getUid();
+        return !ignoredMailboxService.isIgnored(uid);
+    }
+
+    // Might be called from the decryption pool. Failed decryptions are collected in failedDecryptions and are applied
+    // to the ignoredMailboxService by the caller on the user thread.
+    private MailboxItem tryDecryptProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry,
+                                                               Map<String, Long> failedDecryptions) {
         PrefixedSealedAndSignedMessage prefixedSealedAndSignedMessage = protectedMailboxStorageEntry
                 .getMailboxStoragePayload()
                 .getPrefixedSealedAndSignedMessage();
         SealedAndSigned sealedAndSigned = prefixedSealedAndSignedMessage.getSealedAndSigned();
         String uid = prefixedSealedAndSignedMessage.getUid();
-        if (ignoredMailboxService.isIgnored(uid)) {
-            // We had persisted a past failed decryption attempt on that message so we don't try again and return early
-            return new MailboxItem(protectedMailboxStorageEntry, null);
-        }
         try {
             DecryptedMessageWithPubKey decryptedMessageWithPubKey = encryptionService.decryptAndVerify(sealedAndSigned);
             checkArgument(decryptedMessageWithPubKey.getNetworkEnvelope() instanceof MailboxMessage);
             return new MailboxItem(protectedMailboxStorageEntry, decryptedMessageWithPubKey);
         } catch (CryptoException ignore) {
-            // Expected if message was not intended for us
+            // Not expected as the entry was addressed to us, but the sender might have used an outdated key.
             // We persist those entries so at the next startup we do not need to try to decrypt it anymore
-            ignoredMailboxService.ignore(uid, protectedMailboxStorageEntry.getCreationTimeStamp());
+            failedDecryptions.put(uid, protectedMailboxStorageEntry.getCreationTimeStamp());
         } catch (ProtobufferException e) {
             log.error(e.toString());
             e.getStackTrace();
+        } catch (RuntimeException e) {
+            // E.g. the decrypted message is not a MailboxMessage. We treat the entry as not ours.
+            log.warn("Processing mailbox entry with uid {} failed. {}", uid, e.toString());
         }
         return new MailboxItem(protectedMailboxStorageEntry, null);
     }
 
+    private ListeningExecutorService getDecryptionExecutor() {
+        if (decryptionExecutor == null) {
+            // We use an unbounded queue as no entry must get rejected. Idle threads time out.
+            decryptionExecutor = Utilities.getListeningExecutorService("MailboxDecryption-%d",
+                    MAX_DECRYPTION_THREADS,
+                    MAX_DECRYPTION_THREADS,
+                    60,
+                    new LinkedBlockingQueue<>());
+        }
+        return decryptionExecutor;
+    }
+
     private void handleMailboxItem(MailboxItem mailboxItem) {
         String uid = mailboxItem.getUid();
         if (!mailboxItemsByUid.containsKey(uid)) {
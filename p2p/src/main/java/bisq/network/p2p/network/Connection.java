@@ -47,7 +47,9 @@ import com.google.protobuf.InvalidProtocolBufferException;
 
 import javax.inject.Inject;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.common.util.concurrent.Uninterruptibles;
 
 import javafx.beans.property.ObjectProperty;
@@ -76,8 +78,10 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -106,6 +110,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     @Inject
     @Nullable
     private static Config config;
+    @Inject
+    @Nullable
+    private static MessageDispatcher messageDispatcher;
 
     // Leaving some constants package-private for tests to know limits.
     private static final int PERMITTED_MESSAGE_SIZE = 200 * 1024;                       // 200 kb
@@ -113,10 +120,32 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     //TODO decrease limits again after testing
     private static final int SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(180);
 
+    // Used instead of the executors per connection if the sharedConnectionThreads option is set.
+    // The read loop is blocking (Tor only provides blocking sockets), so an open connection still occupies one thread
+    // of the input handler pool, but threads are reused when connections close and bundles are sent without a
+    // dedicated thread per connection. The bundle scheduler hands the blocking write over to the input handler pool
+    // so a slow peer cannot delay the bundles of other peers.
+    private static final ExecutorService SHARED_INPUT_HANDLER_EXECUTOR = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Connection-SharedExecutor-%d")
+                    .setDaemon(true)
+                    .build());
+    private static final ScheduledExecutorService SHARED_BUNDLE_SCHEDULER =
+            Utilities.getScheduledThreadPoolExecutor("Connection-BundleScheduler", 1, 1, 60);
+
     public static int getPermittedMessageSize() {
         return PERMITTED_MESSAGE_SIZE;
     }
 
+    @VisibleForTesting
+    static void setConfig(@Nullable Config config) {
+        Connection.config = config;
+    }
+
+    private static boolean useSharedThreads() {
+        return config != null && config.sharedConnectionThreads;
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Class fields
@@ -129,7 +158,13 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final NetworkFilter networkFilter;
     @Getter
     private final String uid;
-    private final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "Connection.java executor-service"));
+    // Both are null if we use the shared executors
+    @Nullable
+    private final ExecutorService singleThreadExecutor;
+    @Nullable
+    private final ScheduledExecutorService bundleSender;
+    @Nullable
+    private Future<?> inputHandlerFuture;
     // holder of state shared between InputHandler and Connection
     @Getter
     private final Statistic statistic;
@@ -161,6 +196,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final ConcurrentHashMap<RuleViolation, Integer> ruleViolations = new ConcurrentHashMap<>();
 
     private final Capabilities capabilities = new Capabilities();
+    // Created at the first received message if the message dispatcher is enabled
+    @Nullable
+    private volatile Executor dispatcherExecutor;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -178,6 +216,13 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         this.networkFilter = networkFilter;
         uid = UUID.randomUUID().toString();
         statistic = new Statistic();
+        if (useSharedThreads()) {
+            singleThreadExecutor = null;
+            bundleSender = null;
+        } else {
+            singleThreadExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "Connection.java executor-service"));
+            bundleSender = Executors.newSingleThreadScheduledExecutor();
+        }
 
         addMessageListener(messageListener);
 
@@ -198,7 +243,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
             protoInputStream = socket.getInputStream();
             // We create a thread for handling inputStream data
-            singleThreadExecutor.submit(this);
+            inputHandlerFuture = singleThreadExecutor != null ?
+                    singleThreadExecutor.submit(this) :
+                    SHARED_INPUT_HANDLER_EXECUTOR.submit(this);
 
             if (peersNodeAddress != null) {
                 setPeersNodeAddress(peersNodeAddress);
@@ -223,10 +270,18 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     private final Object lock = new Object();
     private final Queue<BundleOfEnvelopes> queueOfBundles = new ConcurrentLinkedQueue<>();
-    private final ScheduledExecutorService bundleSender = Executors.newSingleThreadScheduledExecutor();
 
     // Called from various threads
     public void sendMessage(NetworkEnvelope networkEnvelope) {
+        sendMessage(networkEnvelope, new EncodedEnvelope(networkEnvelope));
+    }
+
+    // The encodedEnvelope can be shared with other connections, it gets only encoded once.
+    public void sendMessage(EncodedEnvelope encodedEnvelope) {
+        sendMessage(encodedEnvelope.getNetworkEnvelope(), encodedEnvelope);
+    }
+
+    private void sendMessage(NetworkEnvelope networkEnvelope, EncodedEnvelope encodedEnvelope) {
         long ts = System.currentTimeMillis();
         log.debug(">> Send networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
 
@@ -246,7 +301,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
-        int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
+        int networkEnvelopeSize = encodedEnvelope.getSerializedSize();
         try {
             // Throttle outbound network_messages
             long now = System.currentTimeMillis();
@@ -271,7 +326,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                             // - and schedule it for sending
                             lastSendTimeStamp += getSendMsgThrottleSleep();
 
-                            bundleSender.schedule(() -> {
+                            scheduleBundleSending(() -> {
                                 if (!stopped) {
                                     synchronized (lock) {
                                         BundleOfEnvelopes bundle = queueOfBundles.poll();
@@ -300,7 +355,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                                         }
                                     }
                                 }
-                            }, lastSendTimeStamp - now, TimeUnit.MILLISECONDS);
+                            }, lastSendTimeStamp - now);
                         }
 
                         // - yes? add to bucket
@@ -315,7 +370,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             lastSendTimeStamp = now;
 
             if (!stopped) {
-                protoOutputStream.writeEnvelope(networkEnvelope);
+                protoOutputStream.writeEnvelope(encodedEnvelope);
                 UserThread.execute(() -> messageListeners.forEach(e -> e.onMessageSent(networkEnvelope, this)));
                 UserThread.execute(() -> connectionStatistics.addSendMsgMetrics(System.currentTimeMillis() - ts, networkEnvelopeSize));
             }
@@ -324,6 +379,15 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         }
     }
 
+    private void scheduleBundleSending(Runnable task, long delayInMs) {
+        if (bundleSender != null) {
+            bundleSender.schedule(task, delayInMs, TimeUnit.MILLISECONDS);
+        } else {
+            SHARED_BUNDLE_SCHEDULER.schedule(() -> SHARED_INPUT_HANDLER_EXECUTOR.execute(task),
+                    delayInMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
     // TODO: If msg is BundleOfEnvelopes we should check each individual message for capability and filter out those
     //  which fail.
     public boolean noCapabilityRequiredOrCapabilityIsSupported(Proto msg) {
@@ -433,7 +497,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         if (networkEnvelope instanceof BundleOfEnvelopes) {
             onBundleOfEnvelopes((BundleOfEnvelopes) networkEnvelope, connection);
         } else {
-            UserThread.execute(() -> messageListeners.forEach(e -> e.onMessage(networkEnvelope, connection)));
+            dispatchToMessageListeners(networkEnvelope);
         }
     }
 
@@ -466,8 +530,25 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 envelopesToProcess.add(networkEnvelope);
             }
         }
-        envelopesToProcess.forEach(envelope -> UserThread.execute(() ->
-                messageListeners.forEach(listener -> listener.onMessage(envelope, connection))));
+        envelopesToProcess.forEach(this::dispatchToMessageListeners);
+    }
+
+    private void dispatchToMessageListeners(NetworkEnvelope networkEnvelope) {
+        Runnable handler = () -> messageListeners.forEach(listener -> listener.onMessage(networkEnvelope, this));
+        if (messageDispatcher == null || !messageDispatcher.isEnabled()) {
+            UserThread.execute(handler);
+            return;
+        }
+
+        // Only called from the InputHandler thread
+        if (dispatcherExecutor == null)
+            dispatcherExecutor = messageDispatcher.newConnectionExecutor();
+        messageDispatcher.dispatch(dispatcherExecutor, networkEnvelope,
+                () -> messageListeners.forEach(listener -> {
+                    if (listener instanceof MessagePreProcessor)
+                        ((MessagePreProcessor) listener).preProcess(networkEnvelope, this);
+                }),
+                handler);
     }
 
 
@@ -574,10 +655,15 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                 e.printStackTrace();
             }
 
-            //noinspection UnstableApiUsage
-            MoreExecutors.shutdownAndAwaitTermination(singleThreadExecutor, 500, TimeUnit.MILLISECONDS);
-            //noinspection UnstableApiUsage
-            MoreExecutors.shutdownAndAwaitTermination(bundleSender, 500, TimeUnit.MILLISECONDS);
+            if (singleThreadExecutor != null && bundleSender != null) {
+                //noinspection UnstableApiUsage
+                MoreExecutors.shutdownAndAwaitTermination(singleThreadExecutor, 500, TimeUnit.MILLISECONDS);
+                //noinspection UnstableApiUsage
+                MoreExecutors.shutdownAndAwaitTermination(bundleSender, 500, TimeUnit.MILLISECONDS);
+            } else if (inputHandlerFuture != null) {
+                // The shared threads must not get shut down, we only interrupt our read loop.
+                inputHandlerFuture.cancel(true);
+            }
 
             log.debug("Connection shutdown complete {}", this.toString());
             // Use UserThread.execute as its not clear if that is called from a non-UserThread
@@ -749,6 +835,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
 
     @Override
     public void run() {
+        String originalThreadName = Thread.currentThread().getName();
         try {
             Thread.currentThread().setName("InputHandler");
             while (!stopped && !Thread.currentThread().isInterrupted()) {
@@ -896,6 +983,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             }
         } catch (Throwable t) {
             handleException(t);
+        } finally {
+            // Threads of the shared executor get reused by other connections
+            Thread.currentThread().setName(originalThreadName);
         }
     }
 
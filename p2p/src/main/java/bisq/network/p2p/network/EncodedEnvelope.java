@@ -0,0 +1,85 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.protobuf.CodedOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import lombok.Getter;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A NetworkEnvelope with its length delimited protobuf encoding, as written to the socket. The envelope gets
+ * encoded once at the first write, so sending the same envelope to many peers (e.g. at a broadcast) does not need
+ * to create and serialize the protobuf message for each peer.
+ * The NetworkEnvelope must not be changed after the EncodedEnvelope got created.
+ */
+@ThreadSafe
+public final class EncodedEnvelope {
+    @Getter
+    private final NetworkEnvelope networkEnvelope;
+    @Nullable
+    private volatile byte[] bytes;
+    // Size of the protobuf message without the length prefix
+    private volatile int serializedSize;
+
+    public EncodedEnvelope(NetworkEnvelope networkEnvelope) {
+        this.networkEnvelope = networkEnvelope;
+    }
+
+    public int getSerializedSize() {
+        encode();
+        return serializedSize;
+    }
+
+    void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(encode());
+    }
+
+    private byte[] encode() {
+        byte[] result = bytes;
+        if (result != null)
+            return result;
+
+        synchronized (this) {
+            if (bytes == null) {
+                protobuf.NetworkEnvelope proto = networkEnvelope.toProtoNetworkEnvelope();
+                int size = proto.getSerializedSize();
+                byte[] encoded = new byte[CodedOutputStream.computeUInt32SizeNoTag(size) + size];
+                CodedOutputStream codedOutputStream = CodedOutputStream.newInstance(encoded);
+                try {
+                    codedOutputStream.writeUInt32NoTag(size);
+                    proto.writeTo(codedOutputStream);
+                    codedOutputStream.checkNoSpaceLeft();
+                } catch (IOException e) {
+                    // Cannot happen when writing to a byte array of the correct size
+                    throw new IllegalStateException("Failed to encode " + networkEnvelope.getClass().getSimpleName(), e);
+                }
+                serializedSize = size;
+                bytes = encoded;
+            }
+            return bytes;
+        }
+    }
+}
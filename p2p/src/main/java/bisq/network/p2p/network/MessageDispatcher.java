@@ -0,0 +1,213 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.UserThread;
+import bisq.common.config.Config;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Delivers received messages to the message listeners. By default (messageDispatcherThreads=0) messages are passed
+ * directly to the user thread. If enabled, messages are first passed to a bounded thread pool where the
+ * {@link MessagePreProcessor}s run, and only then the message listeners are called on the user thread, where the state
+ * gets changed. Messages of one connection are processed sequentially, so they are delivered in the order they have
+ * been received. If the queue is full the connection thread does the pre-processing itself, which stops reading from
+ * that peer until the queue has space again.
+ * <p>
+ * Currently the only pre-processing is the signature verification of the storage entries of add and remove data
+ * messages by the P2PDataStorage. Everything else, e.g. the decryption of mailbox messages and the routing of the
+ * messages to the listeners, still happens on the user thread.
+ * <p>
+ * Queue depth and the latencies per message type are logged periodically.
+ */
+@Slf4j
+@Singleton
+public class MessageDispatcher {
+    private static final int MAX_QUEUE_SIZE = 10_000;
+    private static final long LOG_STATISTICS_INTERVAL_SEC = 60;
+
+    @Nullable
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final AtomicInteger maxQueueSize = new AtomicInteger();
+    private final Map<String, MessageTypeStatistic> statisticByMessageType = new ConcurrentHashMap<>();
+    private final AtomicBoolean statisticsTimerStarted = new AtomicBoolean();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public MessageDispatcher(Config config) {
+        this(config.messageDispatcherThreads);
+    }
+
+    MessageDispatcher(int numThreads) {
+        if (numThreads > 0) {
+            executor = new ThreadPoolExecutor(numThreads, numThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(MAX_QUEUE_SIZE),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat("MessageDispatcher-%d")
+                            .setDaemon(true)
+                            .build(),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        } else {
+            executor = null;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    // Each connection uses its own sequential executor to keep the order of its messages
+    Executor newConnectionExecutor() {
+        return MoreExecutors.newSequentialExecutor(checkNotNull(executor, "executor must not be null"));
+    }
+
+    void dispatch(Executor connectionExecutor,
+                  NetworkEnvelope networkEnvelope,
+                  Runnable preProcessor,
+                  Runnable handler) {
+        if (executor == null) {
+            UserThread.execute(handler);
+            return;
+        }
+
+        // We start the timer at the first message as the user thread might not be set up at construction time
+        if (statisticsTimerStarted.compareAndSet(false, true))
+            UserThread.execute(() -> UserThread.runPeriodically(this::logStatistics, LOG_STATISTICS_INTERVAL_SEC));
+
+        MessageTypeStatistic statistic = statisticByMessageType.computeIfAbsent(
+                networkEnvelope.getClass().getSimpleName(), key -> new MessageTypeStatistic());
+        maxQueueSize.accumulateAndGet(queueSize.incrementAndGet(), Math::max);
+        long queuedAt = System.nanoTime();
+        connectionExecutor.execute(() -> {
+            queueSize.decrementAndGet();
+            long preProcessingStartedAt = System.nanoTime();
+            try {
+                preProcessor.run();
+            } catch (Throwable t) {
+                // The message listener will handle the message anyway, so we only log the error
+                log.error("Pre-processing of {} failed", networkEnvelope.getClass().getSimpleName(), t);
+            }
+            long handlerQueuedAt = System.nanoTime();
+            UserThread.execute(() -> {
+                long handlerStartedAt = System.nanoTime();
+                handler.run();
+                statistic.add(preProcessingStartedAt - queuedAt,
+                        handlerQueuedAt - preProcessingStartedAt,
+                        handlerStartedAt - handlerQueuedAt,
+                        System.nanoTime() - handlerStartedAt);
+            });
+        });
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void logStatistics() {
+        if (statisticByMessageType.isEmpty())
+            return;
+
+        StringBuilder sb = new StringBuilder("\n\n----------------------------------------------------------------------------------------------------")
+                .append("\nMessageDispatcher statistics: queue size=").append(queueSize.get())
+                .append(", max. queue size=").append(maxQueueSize.getAndSet(queueSize.get()))
+                .append("\nAverage latencies in ms (queue / pre-processing / user thread queue / handler):");
+        new TreeMap<>(statisticByMessageType).forEach((messageType, statistic) ->
+                sb.append("\n").append(messageType).append(": ").append(statistic.getAndReset()));
+        sb.append("\n----------------------------------------------------------------------------------------------------\n");
+        log.info(sb.toString());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // MessageTypeStatistic
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static class MessageTypeStatistic {
+        private long numMessages;
+        private long queueNanos;
+        private long preProcessingNanos;
+        private long userThreadQueueNanos;
+        private long handlerNanos;
+
+        synchronized void add(long queueNanos, long preProcessingNanos, long userThreadQueueNanos, long handlerNanos) {
+            numMessages++;
+            this.queueNanos += queueNanos;
+            this.preProcessingNanos += preProcessingNanos;
+            this.userThreadQueueNanos += userThreadQueueNanos;
+            this.handlerNanos += handlerNanos;
+        }
+
+        synchronized String getAndReset() {
+            String result = numMessages == 0 ? "no messages" :
+                    String.format("%d messages, %.2f / %.2f / %.2f / %.2f",
+                            numMessages,
+                            toAverageMillis(queueNanos),
+                            toAverageMillis(preProcessingNanos),
+                            toAverageMillis(userThreadQueueNanos),
+                            toAverageMillis(handlerNanos));
+            numMessages = 0;
+            queueNanos = 0;
+            preProcessingNanos = 0;
+            userThreadQueueNanos = 0;
+            handlerNanos = 0;
+            return result;
+        }
+
+        private double toAverageMillis(long nanos) {
+            return nanos / 1_000_000d / numMessages;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.proto.network.NetworkEnvelope;
+
+/**
+ * Implemented by message listeners which do expensive work for a message that does not depend on any state. The
+ * P2PDataStorage verifies the signatures of storage entries. If the MessageDispatcher is enabled preProcess is called from a dispatcher thread before
+ * onMessage gets called on the user thread, otherwise it is not called at all.
+ * Messages of one connection are pre-processed in the order they have been received.
+ */
+public interface MessagePreProcessor {
+    void preProcess(NetworkEnvelope networkEnvelope, Connection connection);
+}
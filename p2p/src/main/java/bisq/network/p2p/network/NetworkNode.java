@@ -63,7 +63,7 @@ import org.jetbrains.annotations.Nullable;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 // Run in UserThread
-public abstract class NetworkNode implements MessageListener {
+public abstract class NetworkNode implements MessageListener, MessagePreProcessor {
     private static final Logger log = LoggerFactory.getLogger(NetworkNode.class);
     private static final int CREATE_SOCKET_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(120);
 
@@ -279,11 +279,16 @@ public abstract class NetworkNode implements MessageListener {
 
 
     public SettableFuture<Connection> sendMessage(Connection connection, NetworkEnvelope networkEnvelope) {
+        return sendMessage(connection, new EncodedEnvelope(networkEnvelope));
+    }
+
+    // Used for sending the same envelope to multiple connections. It gets encoded only once.
+    public SettableFuture<Connection> sendMessage(Connection connection, EncodedEnvelope encodedEnvelope) {
         // connection.sendMessage might take a bit (compression, write to stream), so we use a thread to not block
         ListenableFuture<Connection> future = executorService.submit(() -> {
             String id = connection.getPeersNodeAddressOptional().isPresent() ? connection.getPeersNodeAddressOptional().get().getFullAddress() : connection.getUid();
             Thread.currentThread().setName("NetworkNode:SendMessage-to-" + id);
-            connection.sendMessage(networkEnvelope);
+            connection.sendMessage(encodedEnvelope);
             return connection;
         });
         final SettableFuture<Connection> resultFuture = SettableFuture.create();
@@ -393,6 +398,19 @@ public abstract class NetworkNode implements MessageListener {
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // MessagePreProcessor implementation
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public void preProcess(NetworkEnvelope networkEnvelope, Connection connection) {
+        messageListeners.forEach(e -> {
+            if (e instanceof MessagePreProcessor)
+                ((MessagePreProcessor) e).preProcess(networkEnvelope, connection);
+        });
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Listeners
     ///////////////////////////////////////////////////////////////////////////////////////////
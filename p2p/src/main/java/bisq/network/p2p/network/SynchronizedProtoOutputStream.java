@@ -17,8 +17,6 @@
 
 package bisq.network.p2p.network;
 
-import bisq.common.proto.network.NetworkEnvelope;
-
 import java.io.OutputStream;
 
 import java.util.concurrent.ExecutionException;
@@ -43,7 +41,7 @@ class SynchronizedProtoOutputStream extends ProtoOutputStream {
     }
 
     @Override
-    void writeEnvelope(NetworkEnvelope envelope) {
+    void writeEnvelope(EncodedEnvelope envelope) {
         Future<?> future = executorService.submit(() -> super.writeEnvelope(envelope));
         try {
             future.get();
@@ -20,11 +20,13 @@ package bisq.network.p2p.peers;
 import bisq.network.p2p.BundleOfEnvelopes;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.network.Connection;
+import bisq.network.p2p.network.EncodedEnvelope;
 import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.storage.messages.BroadcastMessage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capabilities;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -32,8 +34,12 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -75,6 +81,12 @@ public class BroadcastHandler implements PeerManager.Listener {
     private int numOfCompletedBroadcasts, numOfFailedBroadcasts, numPeersForBroadcast;
     private Timer timeoutTimer;
 
+    // Peers with the same capabilities support the same broadcastRequests, so we check the capabilities only once
+    // per set of capabilities. The BitSets contain the indices of the supported broadcastRequests.
+    private final Map<List<Integer>, BitSet> supportedRequestsByCapabilities = new HashMap<>();
+    // Peers which get the same broadcastRequests share the same message, so it gets encoded only once.
+    private final Map<BitSet, EncodedEnvelope> encodedEnvelopeByRequests = new HashMap<>();
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -131,10 +143,10 @@ public class BroadcastHandler implements PeerManager.Listener {
                 // We use broadcastRequests which have excluded the requests for messages the connection has
                 // originated to avoid sending back the message we received. We also remove messages not satisfying
                 // capability checks.
-                List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection = getBroadcastRequestsForConnection(connection, broadcastRequests);
+                BitSet requestIndices = getBroadcastRequestsForConnection(connection, broadcastRequests);
 
                 // Could be empty list...
-                if (broadcastRequestsForConnection.isEmpty()) {
+                if (requestIndices.isEmpty()) {
                     // We decrease numPeers in that case for making completion checks correct.
                     if (numPeersForBroadcast > 0) {
                         numPeersForBroadcast--;
@@ -153,7 +165,7 @@ public class BroadcastHandler implements PeerManager.Listener {
                     return;
                 }
 
-                sendToPeer(connection, broadcastRequestsForConnection);
+                sendToPeer(connection, broadcastRequests, requestIndices);
             }, minDelay, maxDelay, TimeUnit.MILLISECONDS);
         }
     }
@@ -226,19 +238,41 @@ public class BroadcastHandler implements PeerManager.Listener {
 
     // We exclude the requests containing a message we received from that connection
     // Also we filter out messages which requires a capability but peer does not support it.
-    private List<Broadcaster.BroadcastRequest> getBroadcastRequestsForConnection(Connection connection,
-                                                                                 List<Broadcaster.BroadcastRequest> broadcastRequests) {
-        return broadcastRequests.stream()
-                .filter(broadcastRequest -> !connection.getPeersNodeAddressOptional().isPresent() ||
-                        !connection.getPeersNodeAddressOptional().get().equals(broadcastRequest.getSender()))
-                .filter(broadcastRequest -> connection.noCapabilityRequiredOrCapabilityIsSupported(broadcastRequest.getMessage()))
-                .collect(Collectors.toList());
+    // Returns the indices of the broadcastRequests for that connection.
+    private BitSet getBroadcastRequestsForConnection(Connection connection,
+                                                     List<Broadcaster.BroadcastRequest> broadcastRequests) {
+        List<Integer> capabilities = Capabilities.toIntList(connection.getCapabilities());
+        BitSet requestIndices = (BitSet) supportedRequestsByCapabilities.computeIfAbsent(capabilities, key -> {
+            BitSet supported = new BitSet(broadcastRequests.size());
+            for (int i = 0; i < broadcastRequests.size(); i++) {
+                if (connection.noCapabilityRequiredOrCapabilityIsSupported(broadcastRequests.get(i).getMessage())) {
+                    supported.set(i);
+                }
+            }
+            return supported;
+        }).clone();
+
+        Optional<NodeAddress> peersNodeAddressOptional = connection.getPeersNodeAddressOptional();
+        if (peersNodeAddressOptional.isPresent()) {
+            for (int i = requestIndices.nextSetBit(0); i >= 0; i = requestIndices.nextSetBit(i + 1)) {
+                if (peersNodeAddressOptional.get().equals(broadcastRequests.get(i).getSender())) {
+                    requestIndices.clear(i);
+                }
+            }
+        }
+        return requestIndices;
     }
 
-    private void sendToPeer(Connection connection, List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection) {
-        // Can be BundleOfEnvelopes or a single BroadcastMessage
-        BroadcastMessage broadcastMessage = getMessage(broadcastRequestsForConnection);
-        SettableFuture<Connection> future = networkNode.sendMessage(connection, broadcastMessage);
+    private void sendToPeer(Connection connection,
+                            List<Broadcaster.BroadcastRequest> broadcastRequests,
+                            BitSet requestIndices) {
+        List<Broadcaster.BroadcastRequest> broadcastRequestsForConnection = requestIndices.stream()
+                .mapToObj(broadcastRequests::get)
+                .collect(Collectors.toList());
+        // Can be BundleOfEnvelopes or a single BroadcastMessage. The encoding is done at the first send.
+        EncodedEnvelope encodedEnvelope = encodedEnvelopeByRequests.computeIfAbsent(requestIndices,
+                key -> new EncodedEnvelope(getMessage(broadcastRequestsForConnection)));
+        SettableFuture<Connection> future = networkNode.sendMessage(connection, encodedEnvelope);
 
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
@@ -26,6 +26,7 @@ import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capability;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -45,6 +46,10 @@ public class GetDataRequestHandler {
 
     private static final int MAX_ENTRIES = 10000;
 
+    // Used if the peer supports receiving the response in pages
+    private static final int MAX_ENTRIES_WITH_PAGES = 200000;
+    private static final int MAX_ENTRIES_PER_PAGE = 1000;
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Listener
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -88,11 +93,15 @@ public class GetDataRequestHandler {
                 .map(e -> "node address " + e.getFullAddress())
                 .orElseGet(() -> "connection UID " + connection.getUid());
 
+        // If the peer supports pages we don't need to truncate to what fits into one message.
+        boolean usePages = connection.getCapabilities().contains(Capability.GET_DATA_RESPONSE_PAGES);
+        int maxEntries = usePages ? MAX_ENTRIES_WITH_PAGES : MAX_ENTRIES;
         AtomicBoolean wasPersistableNetworkPayloadsTruncated = new AtomicBoolean(false);
         AtomicBoolean wasProtectedStorageEntriesTruncated = new AtomicBoolean(false);
-        GetDataResponse getDataResponse = dataStorage.buildGetDataResponse(
+        GetDataResponsePages pages = dataStorage.buildGetDataResponsePages(
                 getDataRequest,
-                MAX_ENTRIES,
+                maxEntries,
+                usePages ? MAX_ENTRIES_PER_PAGE : Integer.MAX_VALUE,
                 wasPersistableNetworkPayloadsTruncated,
                 wasProtectedStorageEntriesTruncated,
                 connection.getCapabilities());
@@ -100,28 +109,48 @@ public class GetDataRequestHandler {
         if (wasPersistableNetworkPayloadsTruncated.get()) {
             log.warn("The getData request from peer with {} caused too much PersistableNetworkPayload " +
                             "entries to get delivered. We limited the entries for the response to {} entries",
-                    connectionInfo, MAX_ENTRIES);
+                    connectionInfo, maxEntries);
         }
 
         if (wasProtectedStorageEntriesTruncated.get()) {
             log.warn("The getData request from peer with {} caused too much ProtectedStorageEntry " +
                             "entries to get delivered. We limited the entries for the response to {} entries",
-                    connectionInfo, MAX_ENTRIES);
+                    connectionInfo, maxEntries);
         }
 
-        log.info("The getDataResponse to peer with {} contains {} ProtectedStorageEntries and {} PersistableNetworkPayloads",
+        log.info("The getDataResponse to peer with {} contains {} ProtectedStorageEntries and {} PersistableNetworkPayloads " +
+                        "in {} page(s)",
                 connectionInfo,
-                getDataResponse.getDataSet().size(),
-                getDataResponse.getPersistableNetworkPayloadSet().size());
-
-        if (timeoutTimer == null) {
-            timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                        String errorMessage = "A timeout occurred for getDataResponse " +
-                                " on connection:" + connection;
-                        handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
-                    },
-                    TIMEOUT, TimeUnit.SECONDS);
+                pages.getNumProtectedStorageEntries(),
+                pages.getNumPersistableNetworkPayloads(),
+                pages.getNumPages());
+
+        sendNextPage(pages, connection);
+        log.info("handle GetDataRequest took {} ms", System.currentTimeMillis() - ts);
+    }
+
+    public void stop() {
+        cleanup();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // We build and send the next page only after the previous one was sent, so only the page which is currently sent
+    // is held in memory. Each page gets its own timeout as the requester restarts its timeout at each page.
+    private void sendNextPage(GetDataResponsePages pages, Connection connection) {
+        GetDataResponse getDataResponse = pages.next();
+        if (timeoutTimer != null) {
+            timeoutTimer.stop();
         }
+        timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
+                    String errorMessage = "A timeout occurred for getDataResponse page " +
+                            getDataResponse.getPageIndex() + " on connection:" + connection;
+                    handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
+                },
+                TIMEOUT, TimeUnit.SECONDS);
 
         SettableFuture<Connection> future = networkNode.sendMessage(connection, getDataResponse);
         Futures.addCallback(future, new FutureCallback<>() {
@@ -130,8 +159,12 @@ public class GetDataRequestHandler {
                 if (!stopped) {
                     log.trace("Send DataResponse to {} succeeded. getDataResponse={}",
                             connection.getPeersNodeAddressOptional(), getDataResponse);
-                    cleanup();
-                    listener.onComplete();
+                    if (pages.hasNext()) {
+                        sendNextPage(pages, connection);
+                    } else {
+                        cleanup();
+                        listener.onComplete();
+                    }
                 } else {
                     log.trace("We have stopped already. We ignore that networkNode.sendMessage.onSuccess call.");
                 }
@@ -149,18 +182,8 @@ public class GetDataRequestHandler {
                 }
             }
         }, MoreExecutors.directExecutor());
-        log.info("handle GetDataRequest took {} ms", System.currentTimeMillis() - ts);
     }
 
-    public void stop() {
-        cleanup();
-    }
-
-
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // Private
-    ///////////////////////////////////////////////////////////////////////////////////////////
-
     private void handleFault(String errorMessage, CloseConnectionReason closeConnectionReason, Connection connection) {
         if (!stopped) {
             log.info(errorMessage + "\n\tcloseConnectionReason=" + closeConnectionReason);
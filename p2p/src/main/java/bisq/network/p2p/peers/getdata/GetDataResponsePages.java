@@ -0,0 +1,155 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata;
+
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * The pages of a response to a GetDataRequest. Only the keys of the entries to send are held. A page is built from
+ * the current data when it is requested, so only the pages which are currently sent are held in memory. Entries
+ * which have been removed in the meantime are skipped. There is at least one page.
+ */
+public class GetDataResponsePages implements Iterator<GetDataResponse> {
+    private final Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> protectedStorageEntries;
+    private final List<P2PDataStorage.ByteArray> protectedStorageEntryKeys;
+    private final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> persistableNetworkPayloads;
+    private final List<P2PDataStorage.ByteArray> persistableNetworkPayloadKeys;
+    private final int requestNonce;
+    private final boolean isGetUpdatedDataResponse;
+    private final boolean knownKeysSketchDecodeFailed;
+    private final int maxEntriesPerPage;
+    @Getter
+    private final int numPages;
+    private int pageIndex;
+
+    public static GetDataResponsePages knownKeysSketchDecodeFailed(int requestNonce, boolean isGetUpdatedDataResponse) {
+        return new GetDataResponsePages(Collections.emptyMap(),
+                Collections.emptyList(),
+                Collections.emptyMap(),
+                Collections.emptyList(),
+                requestNonce,
+                isGetUpdatedDataResponse,
+                true,
+                Integer.MAX_VALUE);
+    }
+
+    public GetDataResponsePages(Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> protectedStorageEntries,
+                                List<P2PDataStorage.ByteArray> protectedStorageEntryKeys,
+                                Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> persistableNetworkPayloads,
+                                List<P2PDataStorage.ByteArray> persistableNetworkPayloadKeys,
+                                int requestNonce,
+                                boolean isGetUpdatedDataResponse,
+                                int maxEntriesPerPage) {
+        this(protectedStorageEntries,
+                protectedStorageEntryKeys,
+                persistableNetworkPayloads,
+                persistableNetworkPayloadKeys,
+                requestNonce,
+                isGetUpdatedDataResponse,
+                false,
+                maxEntriesPerPage);
+    }
+
+    private GetDataResponsePages(Map<P2PDataStorage.ByteArray, ProtectedStorageEntry> protectedStorageEntries,
+                                 List<P2PDataStorage.ByteArray> protectedStorageEntryKeys,
+                                 Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> persistableNetworkPayloads,
+                                 List<P2PDataStorage.ByteArray> persistableNetworkPayloadKeys,
+                                 int requestNonce,
+                                 boolean isGetUpdatedDataResponse,
+                                 boolean knownKeysSketchDecodeFailed,
+                                 int maxEntriesPerPage) {
+        this.protectedStorageEntries = protectedStorageEntries;
+        this.protectedStorageEntryKeys = protectedStorageEntryKeys;
+        this.persistableNetworkPayloads = persistableNetworkPayloads;
+        this.persistableNetworkPayloadKeys = persistableNetworkPayloadKeys;
+        this.requestNonce = requestNonce;
+        this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
+        this.knownKeysSketchDecodeFailed = knownKeysSketchDecodeFailed;
+        this.maxEntriesPerPage = maxEntriesPerPage;
+        numPages = Math.max(1, Math.max(getNumPages(protectedStorageEntryKeys.size(), maxEntriesPerPage),
+                getNumPages(persistableNetworkPayloadKeys.size(), maxEntriesPerPage)));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public int getNumProtectedStorageEntries() {
+        return protectedStorageEntryKeys.size();
+    }
+
+    public int getNumPersistableNetworkPayloads() {
+        return persistableNetworkPayloadKeys.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return pageIndex < numPages;
+    }
+
+    @Override
+    public GetDataResponse next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        GetDataResponse page = new GetDataResponse(getPage(protectedStorageEntries, protectedStorageEntryKeys),
+                getPage(persistableNetworkPayloads, persistableNetworkPayloadKeys),
+                requestNonce,
+                isGetUpdatedDataResponse,
+                knownKeysSketchDecodeFailed,
+                pageIndex,
+                pageIndex < numPages - 1);
+        pageIndex++;
+        return page;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private <T> Set<T> getPage(Map<P2PDataStorage.ByteArray, T> map, List<P2PDataStorage.ByteArray> keys) {
+        Set<T> page = new HashSet<>();
+        long fromIndex = (long) pageIndex * maxEntriesPerPage;
+        long toIndex = Math.min(keys.size(), fromIndex + maxEntriesPerPage);
+        for (long i = fromIndex; i < toIndex; i++) {
+            T value = map.get(keys.get((int) i));
+            if (value != null)
+                page.add(value);
+        }
+        return page;
+    }
+
+    private static int getNumPages(int numEntries, int maxEntriesPerPage) {
+        return (int) ((numEntries + (long) maxEntriesPerPage - 1) / maxEntriesPerPage);
+    }
+}
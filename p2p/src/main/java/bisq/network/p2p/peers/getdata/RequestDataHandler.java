@@ -31,6 +31,8 @@ import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
 import bisq.common.proto.network.NetworkEnvelope;
 import bisq.common.proto.network.NetworkPayload;
 import bisq.common.util.Tuple2;
@@ -46,6 +48,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -58,6 +61,11 @@ class RequestDataHandler implements MessageListener {
 
     private NodeAddress peersNodeAddress;
     private String getDataRequestType;
+    private boolean isPreliminaryDataRequest;
+    // Set to false if the peer could not decode our KnownKeysSketch, so we repeat the request with the excluded keys.
+    private boolean useKnownKeysSketch = true;
+    // If the peer splits the response into pages we process each page when it arrives.
+    private int expectedPageIndex;
     /*
      */
 
@@ -118,28 +126,24 @@ class RequestDataHandler implements MessageListener {
 
     void requestData(NodeAddress nodeAddress, boolean isPreliminaryDataRequest) {
         peersNodeAddress = nodeAddress;
+        this.isPreliminaryDataRequest = isPreliminaryDataRequest;
         if (!stopped) {
             GetDataRequest getDataRequest;
 
+            // We only send a sketch of our known keys if we know that the peer supports it. Old peers would
+            // interpret the missing excluded keys as if we have no data.
+            boolean sendKnownKeysSketch = useKnownKeysSketch &&
+                    Capabilities.app.contains(Capability.KNOWN_KEYS_SKETCH) &&
+                    peerManager.peerHasCapability(nodeAddress, Capability.KNOWN_KEYS_SKETCH);
             if (isPreliminaryDataRequest)
-                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce);
+                getDataRequest = dataStorage.buildPreliminaryGetDataRequest(nonce, sendKnownKeysSketch);
             else
-                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce);
-
-            if (timeoutTimer == null) {
-                timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
-                            if (!stopped) {
-                                String errorMessage = "A timeout occurred at sending getDataRequest:" + getDataRequest +
-                                        " on nodeAddress:" + nodeAddress;
-                                log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
-                                handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
-                            } else {
-                                log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
-                                        "Might be caused by a previous networkNode.sendMessage.onFailure.");
-                            }
-                        },
-                        TIMEOUT);
-            }
+                getDataRequest = dataStorage.buildGetUpdatedDataRequest(networkNode.getNodeAddress(), nonce,
+                        sendKnownKeysSketch);
+
+            // setup before sending to avoid race conditions
+            startTimeoutTimer(nodeAddress, () -> "A timeout occurred at sending getDataRequest:" + getDataRequest +
+                    " on nodeAddress:" + nodeAddress);
 
             getDataRequestType = getDataRequest.getClass().getSimpleName();
             log.info("We send a {} to peer {}. ", getDataRequestType, nodeAddress);
@@ -197,9 +201,34 @@ class RequestDataHandler implements MessageListener {
                             return;
                         }
 
+                        if (getDataResponse.isKnownKeysSketchDecodeFailed()) {
+                            log.info("Peer {} could not decode our KnownKeysSketch. We repeat the {} with the " +
+                                    "excluded keys.", peersNodeAddress, getDataRequestType);
+                            useKnownKeysSketch = false;
+                            networkNode.removeMessageListener(this);
+                            requestData(peersNodeAddress, isPreliminaryDataRequest);
+                            return;
+                        }
+
+                        if (getDataResponse.getPageIndex() != expectedPageIndex) {
+                            log.warn("We received page {} but expected page {} from {}",
+                                    getDataResponse.getPageIndex(), expectedPageIndex, peersNodeAddress);
+                        }
+
                         dataStorage.processGetDataResponse(getDataResponse,
                                 connection.getPeersNodeAddressOptional().get());
 
+                        if (getDataResponse.isHasMorePages()) {
+                            // We wait for the next page. The timeout applies to each page.
+                            expectedPageIndex = getDataResponse.getPageIndex() + 1;
+                            int pageIndex = expectedPageIndex;
+                            startTimeoutTimer(peersNodeAddress, () -> "A timeout occurred at waiting for page " +
+                                    pageIndex + " of the GetDataResponse from nodeAddress:" + peersNodeAddress);
+                            log.info("Processing page {} of GetDataResponse took {} ms",
+                                    getDataResponse.getPageIndex(), System.currentTimeMillis() - ts1);
+                            return;
+                        }
+
                         cleanup();
                         listener.onComplete();
                         // firstRequest = false;
@@ -285,6 +314,22 @@ class RequestDataHandler implements MessageListener {
         stopTimeoutTimer();
     }
 
+    private void startTimeoutTimer(NodeAddress nodeAddress, Supplier<String> errorMessageSupplier) {
+        if (timeoutTimer == null) {
+            timeoutTimer = UserThread.runAfter(() -> {
+                        if (!stopped) {
+                            String errorMessage = errorMessageSupplier.get();
+                            log.debug(errorMessage + " / RequestDataHandler=" + RequestDataHandler.this);
+                            handleFault(errorMessage, nodeAddress, CloseConnectionReason.SEND_MSG_TIMEOUT);
+                        } else {
+                            log.trace("We have stopped already. We ignore that timeoutTimer.run call. " +
+                                    "Might be caused by a previous networkNode.sendMessage.onFailure.");
+                        }
+                    },
+                    TIMEOUT);
+        }
+    }
+
     private void stopTimeoutTimer() {
         if (timeoutTimer != null) {
             timeoutTimer.stop();
@@ -44,13 +44,20 @@ public abstract class GetDataRequest extends NetworkEnvelope implements Extended
     @Nullable
     protected final String version;
 
+    // Serialized KnownKeysSketch of the keys the requester has already. If set, excludedKeys is empty.
+    // Only sent to peers with capability KNOWN_KEYS_SKETCH.
+    @Nullable
+    protected final byte[] knownKeysSketch;
+
     public GetDataRequest(String messageVersion,
                           int nonce,
                           Set<byte[]> excludedKeys,
-                          @Nullable String version) {
+                          @Nullable String version,
+                          @Nullable byte[] knownKeysSketch) {
         super(messageVersion);
         this.nonce = nonce;
         this.excludedKeys = excludedKeys;
         this.version = version;
+        this.knownKeysSketch = knownKeysSketch;
     }
 }
@@ -56,6 +56,16 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
     private final boolean isGetUpdatedDataResponse;
     private final Capabilities supportedCapabilities;
 
+    // Set if the request contained a KnownKeysSketch and the difference to our data was too large to decode it.
+    // The data sets are empty in that case and the requester has to repeat the request with the excluded keys.
+    private final boolean knownKeysSketchDecodeFailed;
+
+    // If the requester has the GET_DATA_RESPONSE_PAGES capability the response can be split into several pages which
+    // are sent in sequence. The page index is used as continuation marker, the requester has to wait for further pages
+    // as long as hasMorePages is set.
+    private final int pageIndex;
+    private final boolean hasMorePages;
+
     public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
                            @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
                            int requestNonce,
@@ -64,6 +74,37 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 persistableNetworkPayloadSet,
                 requestNonce,
                 isGetUpdatedDataResponse,
+                false);
+    }
+
+    public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
+                           @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
+                           int requestNonce,
+                           boolean isGetUpdatedDataResponse,
+                           boolean knownKeysSketchDecodeFailed) {
+        this(dataSet,
+                persistableNetworkPayloadSet,
+                requestNonce,
+                isGetUpdatedDataResponse,
+                knownKeysSketchDecodeFailed,
+                0,
+                false);
+    }
+
+    public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
+                           @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
+                           int requestNonce,
+                           boolean isGetUpdatedDataResponse,
+                           boolean knownKeysSketchDecodeFailed,
+                           int pageIndex,
+                           boolean hasMorePages) {
+        this(dataSet,
+                persistableNetworkPayloadSet,
+                requestNonce,
+                isGetUpdatedDataResponse,
+                knownKeysSketchDecodeFailed,
+                pageIndex,
+                hasMorePages,
                 Capabilities.app,
                 Version.getP2PMessageVersion());
     }
@@ -76,6 +117,9 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                             @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
                             int requestNonce,
                             boolean isGetUpdatedDataResponse,
+                            boolean knownKeysSketchDecodeFailed,
+                            int pageIndex,
+                            boolean hasMorePages,
                             @NotNull Capabilities supportedCapabilities,
                             String messageVersion) {
         super(messageVersion);
@@ -84,6 +128,9 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
         this.persistableNetworkPayloadSet = persistableNetworkPayloadSet;
         this.requestNonce = requestNonce;
         this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
+        this.knownKeysSketchDecodeFailed = knownKeysSketchDecodeFailed;
+        this.pageIndex = pageIndex;
+        this.hasMorePages = hasMorePages;
         this.supportedCapabilities = supportedCapabilities;
     }
 
@@ -105,6 +152,9 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                         .collect(Collectors.toList()))
                 .setRequestNonce(requestNonce)
                 .setIsGetUpdatedDataResponse(isGetUpdatedDataResponse)
+                .setKnownKeysSketchDecodeFailed(knownKeysSketchDecodeFailed)
+                .setPageIndex(pageIndex)
+                .setHasMorePages(hasMorePages)
                 .addAllSupportedCapabilities(Capabilities.toIntList(supportedCapabilities));
 
         protobuf.NetworkEnvelope proto = getNetworkEnvelopeBuilder()
@@ -126,6 +176,9 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 persistableNetworkPayloadSet,
                 proto.getRequestNonce(),
                 proto.getIsGetUpdatedDataResponse(),
+                proto.getKnownKeysSketchDecodeFailed(),
+                proto.getPageIndex(),
+                proto.getHasMorePages(),
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
                 messageVersion);
     }
@@ -0,0 +1,692 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import java.nio.ByteOrder;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Open addressing hash map for the payload hashes used as keys in the p2p storage.
+ * <p>
+ * Keys of up to {@link #MAX_PACKED_KEY_LENGTH} bytes (the 20 byte and 32 byte hashes we use) are packed into a
+ * long array together with their cached hash code, so the map does not retain a {@link P2PDataStorage.ByteArray}
+ * wrapper, a byte array and a node object per entry as {@link ConcurrentHashMap} does.
+ * Longer keys are kept in a regular ConcurrentHashMap. Lookups with a raw byte array do not allocate.
+ * <p>
+ * The map is thread safe, so it can replace a ConcurrentHashMap. Writes are exclusive, lookups are optimistic reads
+ * which only take the lock if they raced with a write. Removed entries leave a tombstone, so entries never move
+ * within a table, and a resize creates a new table. Iterators therefore walk the table directly: they are weakly
+ * consistent like the ones of ConcurrentHashMap and never throw a ConcurrentModificationException. Iterating the
+ * values does not allocate, the key of an entry is only created when it is requested. Null keys and values are not
+ * supported.
+ */
+public final class ByteArrayHashMap<V> extends AbstractMap<P2PDataStorage.ByteArray, V> {
+    public static final int MAX_PACKED_KEY_LENGTH = 32;
+
+    private static final int LONGS_PER_KEY = MAX_PACKED_KEY_LENGTH / Long.BYTES;
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    // Key length + 1 is stored for used slots
+    private static final byte EMPTY = 0;
+    private static final byte TOMBSTONE = -1;
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    // A table is only changed as long as it is the current table of the map
+    private static final class Table {
+        private final byte[] lengths;
+        private final long[] keys;
+        private final int[] hashCodes;
+        private final Object[] values;
+        private final int mask;
+
+        private Table(int capacity) {
+            lengths = new byte[capacity];
+            keys = new long[capacity * LONGS_PER_KEY];
+            hashCodes = new int[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return lengths.length;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    // Keys longer than MAX_PACKED_KEY_LENGTH
+    private final Map<P2PDataStorage.ByteArray, V> overflow = new ConcurrentHashMap<>();
+    private Table table;
+    private int threshold;
+    private int packedSize;
+    private int tombstones;
+    @Nullable
+    private Set<Map.Entry<P2PDataStorage.ByteArray, V>> entrySet;
+    @Nullable
+    private Set<P2PDataStorage.ByteArray> keySet;
+    @Nullable
+    private Collection<V> values;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public ByteArrayHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public ByteArrayHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    public ByteArrayHashMap(Map<P2PDataStorage.ByteArray, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Byte array API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    public V get(byte[] key) {
+        return getValue(key, Arrays.hashCode(key));
+    }
+
+    public boolean containsKey(byte[] key) {
+        return getValue(key, Arrays.hashCode(key)) != null;
+    }
+
+    @Nullable
+    public V put(byte[] key, V value) {
+        return putValue(key, Arrays.hashCode(key), value, false);
+    }
+
+    @Nullable
+    public V remove(byte[] key) {
+        return removeValue(key, Arrays.hashCode(key));
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int packedSize = this.packedSize;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                packedSize = this.packedSize;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return packedSize + overflow.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray))
+            return null;
+
+        P2PDataStorage.ByteArray byteArray = (P2PDataStorage.ByteArray) key;
+        return getValue(byteArray.bytes, byteArray.hashCode());
+    }
+
+    @Override
+    public V put(P2PDataStorage.ByteArray key, V value) {
+        return putValue(key.bytes, key.hashCode(), value, false);
+    }
+
+    @Override
+    public V putIfAbsent(P2PDataStorage.ByteArray key, V value) {
+        return putValue(key.bytes, key.hashCode(), value, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray))
+            return null;
+
+        P2PDataStorage.ByteArray byteArray = (P2PDataStorage.ByteArray) key;
+        return removeValue(byteArray.bytes, byteArray.hashCode());
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            allocate(MIN_CAPACITY);
+            packedSize = 0;
+            tombstones = 0;
+            overflow.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<P2PDataStorage.ByteArray, V>> entrySet() {
+        if (entrySet == null)
+            entrySet = new EntrySet();
+        return entrySet;
+    }
+
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        if (keySet == null)
+            keySet = new KeySet();
+        return keySet;
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (values == null)
+            values = new Values();
+        return values;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Nullable
+    private V getValue(byte[] key, int hashCode) {
+        if (key.length > MAX_PACKED_KEY_LENGTH)
+            return overflow.get(new P2PDataStorage.ByteArray(key));
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            // The table might be changed concurrently. Then the result is discarded at the validation.
+            V value = findValue(table, key, hashCode);
+            if (lock.validate(stamp))
+                return value;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return findValue(table, key, hashCode);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Nullable
+    private V putValue(byte[] key, int hashCode, V value, boolean onlyIfAbsent) {
+        checkNotNull(value, "value must not be null");
+        if (key.length > MAX_PACKED_KEY_LENGTH) {
+            return onlyIfAbsent ?
+                    overflow.putIfAbsent(new P2PDataStorage.ByteArray(key), value) :
+                    overflow.put(new P2PDataStorage.ByteArray(key), value);
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            int slot = findSlot(table, key, hashCode);
+            if (slot >= 0) {
+                V previous = valueAt(table, slot);
+                if (!onlyIfAbsent)
+                    table.values[slot] = value;
+                return previous;
+            }
+
+            if (packedSize + tombstones + 1 > threshold) {
+                // Grow if the table is filled with entries, otherwise we only get rid of the tombstones
+                int capacity = table.capacity();
+                resize(packedSize + 1 > threshold / 2 ? capacity * 2 : capacity);
+            }
+            insert(table, key, hashCode, value);
+            packedSize++;
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Nullable
+    private V removeValue(byte[] key, int hashCode) {
+        if (key.length > MAX_PACKED_KEY_LENGTH)
+            return overflow.remove(new P2PDataStorage.ByteArray(key));
+
+        long stamp = lock.writeLock();
+        try {
+            int slot = findSlot(table, key, hashCode);
+            if (slot < 0)
+                return null;
+
+            V previous = valueAt(table, slot);
+            // We leave a tombstone so the entries of the probe sequence stay at their slots
+            table.lengths[slot] = TOMBSTONE;
+            table.values[slot] = null;
+            packedSize--;
+            tombstones++;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Only reads the table and never fails if the table is changed concurrently
+    @Nullable
+    private static <V> V findValue(Table table, byte[] key, int hashCode) {
+        int slot = indexFor(hashCode, table.mask);
+        for (int probes = 0; probes < table.capacity(); probes++) {
+            byte length = table.lengths[slot];
+            if (length == EMPTY)
+                return null;
+            if (length != TOMBSTONE && table.hashCodes[slot] == hashCode && matches(table, slot, key))
+                return valueAt(table, slot);
+            slot = (slot + 1) & table.mask;
+        }
+        return null;
+    }
+
+    // Returns the slot containing the key or -1
+    private static int findSlot(Table table, byte[] key, int hashCode) {
+        int slot = indexFor(hashCode, table.mask);
+        for (int probes = 0; probes < table.capacity(); probes++) {
+            byte length = table.lengths[slot];
+            if (length == EMPTY)
+                return -1;
+            if (length != TOMBSTONE && table.hashCodes[slot] == hashCode && matches(table, slot, key))
+                return slot;
+            slot = (slot + 1) & table.mask;
+        }
+        return -1;
+    }
+
+    // The key must not be in the table
+    private void insert(Table table, byte[] key, int hashCode, Object value) {
+        int slot = indexFor(hashCode, table.mask);
+        while (table.lengths[slot] != EMPTY && table.lengths[slot] != TOMBSTONE)
+            slot = (slot + 1) & table.mask;
+        if (table.lengths[slot] == TOMBSTONE)
+            tombstones--;
+        table.hashCodes[slot] = hashCode;
+        table.values[slot] = value;
+        int offset = slot * LONGS_PER_KEY;
+        for (int i = 0; i < LONGS_PER_KEY; i++)
+            table.keys[offset + i] = pack(key, i * Long.BYTES);
+        table.lengths[slot] = (byte) (key.length + 1);
+    }
+
+    private static boolean matches(Table table, int slot, byte[] key) {
+        if (table.lengths[slot] != key.length + 1)
+            return false;
+
+        // Same length, so the zero padding after the key is the same as well
+        int offset = slot * LONGS_PER_KEY;
+        int longs = (key.length + Long.BYTES - 1) / Long.BYTES;
+        for (int i = 0; i < longs; i++) {
+            if (table.keys[offset + i] != pack(key, i * Long.BYTES))
+                return false;
+        }
+        return true;
+    }
+
+    private static int indexFor(int hashCode, int mask) {
+        // Arrays.hashCode does not distribute well in the low bits, so we mix it (Murmur3 finalizer).
+        int h = hashCode;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    // Copies the entries to a new table. The old table is not changed anymore, so iterators can keep using it.
+    private void resize(int capacity) {
+        Table oldTable = table;
+        Table newTable = new Table(capacity);
+        for (int oldSlot = 0; oldSlot < oldTable.capacity(); oldSlot++) {
+            byte length = oldTable.lengths[oldSlot];
+            if (length == EMPTY || length == TOMBSTONE)
+                continue;
+
+            int slot = indexFor(oldTable.hashCodes[oldSlot], newTable.mask);
+            while (newTable.lengths[slot] != EMPTY)
+                slot = (slot + 1) & newTable.mask;
+            newTable.lengths[slot] = length;
+            newTable.hashCodes[slot] = oldTable.hashCodes[oldSlot];
+            newTable.values[slot] = oldTable.values[oldSlot];
+            System.arraycopy(oldTable.keys, oldSlot * LONGS_PER_KEY, newTable.keys, slot * LONGS_PER_KEY, LONGS_PER_KEY);
+        }
+        table = newTable;
+        threshold = (int) (capacity * LOAD_FACTOR);
+        tombstones = 0;
+    }
+
+    private void allocate(int capacity) {
+        table = new Table(capacity);
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V valueAt(Table table, int slot) {
+        return (V) table.values[slot];
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedSize)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    // Big endian, zero padded
+    private static long pack(byte[] key, int from) {
+        if (from + Long.BYTES <= key.length)
+            return (long) LONG_VIEW.get(key, from);
+
+        long result = 0;
+        int i = from;
+        if (i + Integer.BYTES <= key.length) {
+            result = (int) INT_VIEW.get(key, i) & 0xffffffffL;
+            i += Integer.BYTES;
+        }
+        for (; i < from + Long.BYTES; i++)
+            result = (result << 8) | (i < key.length ? key[i] & 0xff : 0);
+        return result;
+    }
+
+    private static byte[] unpack(long[] keys, int length) {
+        byte[] key = new byte[length];
+        for (int i = 0; i < length; i++)
+            key[i] = (byte) (keys[i / Long.BYTES] >>> (8 * (Long.BYTES - 1 - i % Long.BYTES)));
+        return key;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Views
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private final class EntrySet extends AbstractSet<Map.Entry<P2PDataStorage.ByteArray, V>> {
+        @Override
+        public Iterator<Map.Entry<P2PDataStorage.ByteArray, V>> iterator() {
+            return new TableIterator<>(cursor -> cursor.toEntry());
+        }
+
+        @Override
+        public int size() {
+            return ByteArrayHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ByteArrayHashMap.this.clear();
+        }
+    }
+
+    private final class KeySet extends AbstractSet<P2PDataStorage.ByteArray> {
+        @Override
+        public Iterator<P2PDataStorage.ByteArray> iterator() {
+            return new TableIterator<>(TableIterator::getKey);
+        }
+
+        @Override
+        public int size() {
+            return ByteArrayHashMap.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return ByteArrayHashMap.this.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return ByteArrayHashMap.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            ByteArrayHashMap.this.clear();
+        }
+    }
+
+    private final class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new TableIterator<>(cursor -> cursor.value);
+        }
+
+        @Override
+        public int size() {
+            return ByteArrayHashMap.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ByteArrayHashMap.this.clear();
+        }
+    }
+
+    // Walks the slots of the table which was current when the iterator got created, followed by the overflow
+    // entries. Each slot is read with an optimistic read, so the iterator does not block writers.
+    private final class TableIterator<T> implements Iterator<T> {
+        private final Function<TableIterator<T>, T> mapper;
+        private final Table table;
+        private final Iterator<Map.Entry<P2PDataStorage.ByteArray, V>> overflowIterator;
+        private int slot = -1;
+        // The slot found by advance()
+        private boolean hasNextSlot;
+        private long nextKey0, nextKey1, nextKey2, nextKey3;
+        private int nextLength;
+        private int nextHashCode;
+        private V nextValue;
+        // The entry returned by next(). The key is only created on request.
+        private boolean hasCurrent;
+        private long key0, key1, key2, key3;
+        private int length;
+        private int hashCode;
+        private V value;
+        @Nullable
+        private P2PDataStorage.ByteArray key;
+
+        private TableIterator(Function<TableIterator<T>, T> mapper) {
+            this.mapper = mapper;
+            long stamp = lock.readLock();
+            try {
+                this.table = ByteArrayHashMap.this.table;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            this.overflowIterator = overflow.entrySet().iterator();
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNextSlot || overflowIterator.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (hasNextSlot) {
+                key0 = nextKey0;
+                key1 = nextKey1;
+                key2 = nextKey2;
+                key3 = nextKey3;
+                length = nextLength;
+                hashCode = nextHashCode;
+                value = nextValue;
+                key = null;
+                advance();
+            } else if (overflowIterator.hasNext()) {
+                Map.Entry<P2PDataStorage.ByteArray, V> overflowEntry = overflowIterator.next();
+                key = overflowEntry.getKey();
+                hashCode = key.hashCode();
+                value = overflowEntry.getValue();
+            } else {
+                throw new NoSuchElementException();
+            }
+            hasCurrent = true;
+            return mapper.apply(this);
+        }
+
+        @Override
+        public void remove() {
+            checkState(hasCurrent, "next() has not been called");
+            ByteArrayHashMap.this.remove(getKey());
+            hasCurrent = false;
+        }
+
+        private P2PDataStorage.ByteArray getKey() {
+            if (key == null)
+                key = new P2PDataStorage.ByteArray(unpack(new long[]{key0, key1, key2, key3}, length));
+            return key;
+        }
+
+        private Map.Entry<P2PDataStorage.ByteArray, V> toEntry() {
+            return key != null ?
+                    new Entry(key, value) :
+                    new Entry(key0, key1, key2, key3, length, hashCode, value);
+        }
+
+        private void advance() {
+            hasNextSlot = false;
+            while (++slot < table.capacity()) {
+                long stamp = lock.tryOptimisticRead();
+                boolean found = readSlot();
+                if (!lock.validate(stamp)) {
+                    stamp = lock.readLock();
+                    try {
+                        found = readSlot();
+                    } finally {
+                        lock.unlockRead(stamp);
+                    }
+                }
+                if (found)
+                    return;
+            }
+        }
+
+        private boolean readSlot() {
+            byte slotLength = table.lengths[slot];
+            nextValue = valueAt(table, slot);
+            hasNextSlot = slotLength != EMPTY && slotLength != TOMBSTONE && nextValue != null;
+            if (hasNextSlot) {
+                int offset = slot * LONGS_PER_KEY;
+                nextKey0 = table.keys[offset];
+                nextKey1 = table.keys[offset + 1];
+                nextKey2 = table.keys[offset + 2];
+                nextKey3 = table.keys[offset + 3];
+                nextLength = slotLength - 1;
+                nextHashCode = table.hashCodes[slot];
+            }
+            return hasNextSlot;
+        }
+    }
+
+    // Writes through to the map like the entries of ConcurrentHashMap.
+    private final class Entry implements Map.Entry<P2PDataStorage.ByteArray, V> {
+        private final long key0, key1, key2, key3;
+        private final int length;
+        private final int hashCode;
+        @Nullable
+        private P2PDataStorage.ByteArray key;
+        private V value;
+
+        private Entry(long key0, long key1, long key2, long key3, int length, int hashCode, V value) {
+            this.key0 = key0;
+            this.key1 = key1;
+            this.key2 = key2;
+            this.key3 = key3;
+            this.length = length;
+            this.hashCode = hashCode;
+            this.value = value;
+        }
+
+        private Entry(P2PDataStorage.ByteArray key, V value) {
+            this(0, 0, 0, 0, key.bytes.length, key.hashCode(), value);
+            this.key = key;
+        }
+
+        @Override
+        public P2PDataStorage.ByteArray getKey() {
+            if (key == null)
+                key = new P2PDataStorage.ByteArray(unpack(new long[]{key0, key1, key2, key3}, length));
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = this.value;
+            ByteArrayHashMap.this.put(getKey(), value);
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return getKey().equals(entry.getKey()) && value.equals(entry.getValue());
+        }
+
+        // The hash code of the key is the hash code of its bytes, which we have stored already
+        @Override
+        public int hashCode() {
+            return hashCode ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.nio.ByteBuffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import lombok.Getter;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Invertible bloom lookup table over the payload hashes (keys) a node already knows.
+ * <p>
+ * A requester sends the sketch of its keys instead of the full set of excluded keys. The responder builds the
+ * sketch of its own keys with the same number of cells, subtracts the requester's sketch and decodes the
+ * difference. The size of the sketch only depends on the number of cells, not on the number of keys, and the
+ * difference can be decoded as long as it is not much larger than about 2/3 of the number of cells. If decoding
+ * fails the caller has to fall back to the excluded keys protocol.
+ * <p>
+ * Keys are hashes of up to {@link #MAX_KEY_LENGTH} bytes. Each cell holds a signed count, the XOR of the
+ * (length prefixed and zero padded) keys and the XOR of a checksum of those keys.
+ * The hash functions must never be changed as both peers need to compute the same cell indices.
+ */
+public final class KnownKeysSketch {
+    public static final int MAX_KEY_LENGTH = 32;
+    // Protects against peers sending a huge sketch. 100 000 cells are 4.5 MB.
+    public static final int MAX_NUM_CELLS = 100_000;
+
+    private static final int NUM_HASH_FUNCTIONS = 3;
+    private static final int SLOT_LENGTH = MAX_KEY_LENGTH + 1;
+    private static final int CELL_LENGTH = Integer.BYTES + SLOT_LENGTH + Long.BYTES;
+    private static final long INDEX_SEED = 0x5bd1e9955bd1e995L;
+    private static final long CHECKSUM_SEED = 0x27d4eb2f165667c5L;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    @Getter
+    private final int numCells;
+    private final int[] counts;
+    private final byte[] keySums;
+    private final long[] hashSums;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * @param numCells Number of cells. Gets rounded up to a multiple of the number of hash functions.
+     */
+    public KnownKeysSketch(int numCells) {
+        checkArgument(numCells > 0 && numCells <= MAX_NUM_CELLS, "Invalid numCells " + numCells);
+        this.numCells = (numCells + NUM_HASH_FUNCTIONS - 1) / NUM_HASH_FUNCTIONS * NUM_HASH_FUNCTIONS;
+        this.counts = new int[this.numCells];
+        this.keySums = new byte[this.numCells * SLOT_LENGTH];
+        this.hashSums = new long[this.numCells];
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Serialization
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(numCells * CELL_LENGTH);
+        for (int i = 0; i < numCells; i++) {
+            buffer.putInt(counts[i]);
+            buffer.put(keySums, i * SLOT_LENGTH, SLOT_LENGTH);
+            buffer.putLong(hashSums[i]);
+        }
+        return buffer.array();
+    }
+
+    public static KnownKeysSketch fromBytes(byte[] bytes) {
+        checkArgument(bytes.length > 0 && bytes.length % (CELL_LENGTH * NUM_HASH_FUNCTIONS) == 0,
+                "Invalid sketch length " + bytes.length);
+        KnownKeysSketch sketch = new KnownKeysSketch(bytes.length / CELL_LENGTH);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < sketch.numCells; i++) {
+            sketch.counts[i] = buffer.getInt();
+            buffer.get(sketch.keySums, i * SLOT_LENGTH, SLOT_LENGTH);
+            sketch.hashSums[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public void add(byte[] key) {
+        checkArgument(key.length > 0 && key.length <= MAX_KEY_LENGTH, "Invalid key length " + key.length);
+        byte[] slot = toSlot(key);
+        update(slot, 1);
+    }
+
+    /**
+     * @return The number of keys which have been added to the sketch.
+     */
+    public long getNumKeys() {
+        // Each key increments one cell per hash function.
+        long sum = 0;
+        for (int count : counts)
+            sum += count;
+        return sum / NUM_HASH_FUNCTIONS;
+    }
+
+    /**
+     * Decodes the difference between this and the other sketch. Neither sketch gets modified.
+     *
+     * @param other Sketch with the same number of cells
+     * @return The keys which are only in this sketch and the keys which are only in the other sketch
+     */
+    public Difference decodeDifference(KnownKeysSketch other) {
+        checkArgument(numCells == other.numCells, "Sketches have different number of cells");
+        KnownKeysSketch diff = new KnownKeysSketch(numCells);
+        for (int i = 0; i < numCells; i++) {
+            diff.counts[i] = counts[i] - other.counts[i];
+            diff.hashSums[i] = hashSums[i] ^ other.hashSums[i];
+        }
+        for (int i = 0; i < keySums.length; i++)
+            diff.keySums[i] = (byte) (keySums[i] ^ other.keySums[i]);
+        return diff.peel();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private Difference peel() {
+        List<byte[]> onlyInThis = new ArrayList<>();
+        List<byte[]> onlyInOther = new ArrayList<>();
+        Deque<Integer> pureCells = new ArrayDeque<>();
+        for (int i = 0; i < numCells; i++) {
+            if (isPure(i))
+                pureCells.add(i);
+        }
+
+        while (!pureCells.isEmpty()) {
+            // A valid sketch cannot contain more keys than cells. Protects against crafted sketches.
+            if (onlyInThis.size() + onlyInOther.size() > numCells)
+                return new Difference(onlyInThis, onlyInOther, false);
+
+            int cell = pureCells.poll();
+            if (!isPure(cell))
+                continue;
+
+            int sign = counts[cell];
+            byte[] slot = Arrays.copyOfRange(keySums, cell * SLOT_LENGTH, (cell + 1) * SLOT_LENGTH);
+            byte[] key = Arrays.copyOfRange(slot, 1, 1 + slot[0]);
+            if (sign > 0)
+                onlyInThis.add(key);
+            else
+                onlyInOther.add(key);
+
+            for (int index : getCellIndices(slot)) {
+                apply(index, slot, -sign);
+                if (isPure(index))
+                    pureCells.add(index);
+            }
+        }
+
+        return new Difference(onlyInThis, onlyInOther, isEmpty());
+    }
+
+    private boolean isPure(int cell) {
+        if (counts[cell] != 1 && counts[cell] != -1)
+            return false;
+
+        int offset = cell * SLOT_LENGTH;
+        int keyLength = keySums[offset];
+        if (keyLength <= 0 || keyLength > MAX_KEY_LENGTH)
+            return false;
+
+        byte[] slot = Arrays.copyOfRange(keySums, offset, offset + SLOT_LENGTH);
+        return hash(slot, CHECKSUM_SEED) == hashSums[cell];
+    }
+
+    private boolean isEmpty() {
+        for (int i = 0; i < numCells; i++) {
+            if (counts[i] != 0 || hashSums[i] != 0)
+                return false;
+        }
+        for (byte b : keySums) {
+            if (b != 0)
+                return false;
+        }
+        return true;
+    }
+
+    private void update(byte[] slot, int delta) {
+        for (int index : getCellIndices(slot))
+            apply(index, slot, delta);
+    }
+
+    private void apply(int cell, byte[] slot, int delta) {
+        counts[cell] += delta;
+        int offset = cell * SLOT_LENGTH;
+        for (int i = 0; i < SLOT_LENGTH; i++)
+            keySums[offset + i] ^= slot[i];
+        hashSums[cell] ^= hash(slot, CHECKSUM_SEED);
+    }
+
+    // The cells are split into one sub table per hash function so that a key never maps twice to the same cell.
+    private int[] getCellIndices(byte[] slot) {
+        int subTableSize = numCells / NUM_HASH_FUNCTIONS;
+        long hash = hash(slot, INDEX_SEED);
+        int[] indices = new int[NUM_HASH_FUNCTIONS];
+        for (int i = 0; i < NUM_HASH_FUNCTIONS; i++) {
+            long h = mix(hash + i * GOLDEN_GAMMA);
+            indices[i] = i * subTableSize + (int) Long.remainderUnsigned(h, subTableSize);
+        }
+        return indices;
+    }
+
+    private static byte[] toSlot(byte[] key) {
+        byte[] slot = new byte[SLOT_LENGTH];
+        slot[0] = (byte) key.length;
+        System.arraycopy(key, 0, slot, 1, key.length);
+        return slot;
+    }
+
+    private static long hash(byte[] slot, long seed) {
+        long h = seed;
+        for (int i = 0; i < slot.length; i += Long.BYTES) {
+            long chunk = 0;
+            for (int j = i; j < Math.min(i + Long.BYTES, slot.length); j++)
+                chunk = (chunk << 8) | (slot[j] & 0xff);
+            h = mix(h ^ chunk);
+        }
+        return h;
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Static class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Getter
+    public static final class Difference {
+        private final List<byte[]> onlyInThis;
+        private final List<byte[]> onlyInOther;
+        // False if the difference was too large to get fully decoded. The lists are incomplete in that case.
+        private final boolean complete;
+
+        private Difference(List<byte[]> onlyInThis, List<byte[]> onlyInOther, boolean complete) {
+            this.onlyInThis = onlyInThis;
+            this.onlyInOther = onlyInOther;
+            this.complete = complete;
+        }
+    }
+}
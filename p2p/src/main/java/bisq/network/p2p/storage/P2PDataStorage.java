@@ -22,9 +22,11 @@ import bisq.network.p2p.network.CloseConnectionReason;
 import bisq.network.p2p.network.Connection;
 import bisq.network.p2p.network.ConnectionListener;
 import bisq.network.p2p.network.MessageListener;
+import bisq.network.p2p.network.MessagePreProcessor;
 import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.peers.BroadcastHandler;
 import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.peers.getdata.GetDataResponsePages;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
@@ -33,6 +35,7 @@ import bisq.network.p2p.storage.messages.AddDataMessage;
 import bisq.network.p2p.storage.messages.AddOncePayload;
 import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
 import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.BulkRefreshOfferMessage;
 import bisq.network.p2p.storage.messages.RefreshOfferMessage;
 import bisq.network.p2p.storage.messages.RemoveDataMessage;
 import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
@@ -49,6 +52,7 @@ import bisq.network.p2p.storage.payload.RequiresOwnerIsOnlinePayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreListener;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
+import bisq.network.p2p.storage.persistence.MapUnionView;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
 import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
@@ -100,13 +104,16 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -116,7 +123,7 @@ import lombok.extern.slf4j.Slf4j;
 import javax.annotation.Nullable;
 
 @Slf4j
-public class P2PDataStorage implements MessageListener, ConnectionListener, PersistedDataHost {
+public class P2PDataStorage implements MessageListener, MessagePreProcessor, ConnectionListener, PersistedDataHost {
     /**
      * How many days to keep an entry before it is purged.
      */
@@ -126,6 +133,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // Number of cells of the KnownKeysSketch we send in our GetDataRequests. With 3000 cells the sketch has 135 kB
+    // and a difference of up to about 2000 entries can be decoded by the peer.
+    @VisibleForTesting
+    static final int KNOWN_KEYS_SKETCH_NUM_CELLS = 3000;
+
+    // Below that number of known keys it is cheaper to send the excluded keys than the sketch.
+    @VisibleForTesting
+    static final int MIN_KNOWN_KEYS_FOR_SKETCH = 5000;
+
     private boolean initialRequestApplied = false;
 
     private final Broadcaster broadcaster;
@@ -259,14 +275,48 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce) {
-        return new PreliminaryGetDataRequest(nonce, getKnownPayloadHashes());
+        return buildPreliminaryGetDataRequest(nonce, false);
+    }
+
+    /**
+     * Returns a PreliminaryGetDataRequest that can be sent to a peer node to request missing Payload data.
+     *
+     * @param useKnownKeysSketch If true and we know enough keys, a KnownKeysSketch is sent instead of the excluded
+     *                           keys. Must only be set if the peer has the KNOWN_KEYS_SKETCH capability.
+     */
+    public PreliminaryGetDataRequest buildPreliminaryGetDataRequest(int nonce, boolean useKnownKeysSketch) {
+        Set<byte[]> knownPayloadHashes = getKnownPayloadHashes();
+        if (useKnownKeysSketch && knownPayloadHashes.size() >= MIN_KNOWN_KEYS_FOR_SKETCH)
+            return new PreliminaryGetDataRequest(nonce, new HashSet<>(), buildKnownKeysSketch(knownPayloadHashes));
+        return new PreliminaryGetDataRequest(nonce, knownPayloadHashes);
     }
 
     /**
      * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
      */
     public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress, int nonce) {
-        return new GetUpdatedDataRequest(senderNodeAddress, nonce, getKnownPayloadHashes());
+        return buildGetUpdatedDataRequest(senderNodeAddress, nonce, false);
+    }
+
+    /**
+     * Returns a GetUpdatedDataRequest that can be sent to a peer node to request missing Payload data.
+     *
+     * @param useKnownKeysSketch If true and we know enough keys, a KnownKeysSketch is sent instead of the excluded
+     *                           keys. Must only be set if the peer has the KNOWN_KEYS_SKETCH capability.
+     */
+    public GetUpdatedDataRequest buildGetUpdatedDataRequest(NodeAddress senderNodeAddress,
+                                                            int nonce,
+                                                            boolean useKnownKeysSketch) {
+        Set<byte[]> knownPayloadHashes = getKnownPayloadHashes();
+        if (useKnownKeysSketch && knownPayloadHashes.size() >= MIN_KNOWN_KEYS_FOR_SKETCH)
+            return new GetUpdatedDataRequest(senderNodeAddress, nonce, new HashSet<>(), buildKnownKeysSketch(knownPayloadHashes));
+        return new GetUpdatedDataRequest(senderNodeAddress, nonce, knownPayloadHashes);
+    }
+
+    private byte[] buildKnownKeysSketch(Set<byte[]> knownPayloadHashes) {
+        KnownKeysSketch knownKeysSketch = new KnownKeysSketch(KNOWN_KEYS_SKETCH_NUM_CELLS);
+        knownPayloadHashes.forEach(knownKeysSketch::add);
+        return knownKeysSketch.toBytes();
     }
 
     /**
@@ -278,10 +328,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // an object gets removed in between PreliminaryGetDataRequest and the GetUpdatedDataRequest and we would
         // miss that event if we do not load the full set or use some delta handling.
 
-        Map<ByteArray, PersistableNetworkPayload> mapForDataRequest = getMapForDataRequest();
-        Set<byte[]> excludedKeys = getKeysAsByteSet(mapForDataRequest);
-        log.trace("## getKnownPayloadHashes map of PersistableNetworkPayloads={}, excludedKeys={}",
-                printPersistableNetworkPayloadMap(mapForDataRequest),
+        Set<byte[]> excludedKeys = getKeysForDataRequest();
+        log.trace("## getKnownPayloadHashes excludedKeys of PersistableNetworkPayloads={}",
                 excludedKeys.stream().map(Utilities::encodeToHex).toArray());
 
         Set<byte[]> excludedKeysFromProtectedStorageEntryMap = getKeysAsByteSet(map);
@@ -302,52 +350,137 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             AtomicBoolean wasPersistableNetworkPayloadsTruncated,
             AtomicBoolean wasProtectedStorageEntriesTruncated,
             Capabilities peerCapabilities) {
+        return buildGetDataResponsePages(getDataRequest,
+                maxEntriesPerType,
+                Integer.MAX_VALUE,
+                wasPersistableNetworkPayloadsTruncated,
+                wasProtectedStorageEntriesTruncated,
+                peerCapabilities).next();
+    }
 
-        Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
-                P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
+    /**
+     * Returns the Payloads known locally, but not remotely, as GetDataResponse pages with at most maxEntriesPerPage
+     * entries of each type. Only the keys of the entries to send are collected here, each page is built when it is
+     * requested from the returned GetDataResponsePages. At least one page is returned.
+     */
+    public GetDataResponsePages buildGetDataResponsePages(
+            GetDataRequest getDataRequest,
+            int maxEntriesPerType,
+            int maxEntriesPerPage,
+            AtomicBoolean wasPersistableNetworkPayloadsTruncated,
+            AtomicBoolean wasProtectedStorageEntriesTruncated,
+            Capabilities peerCapabilities) {
+        boolean isGetUpdatedDataRequest = getDataRequest instanceof GetUpdatedDataRequest;
 
         // Pre v 1.4.0 requests do not have set the requesters version field so it is null.
         // The methods in HistoricalDataStoreService will return all historical data in that case.
         // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
         // maps of the remaining appendOnlyDataStoreServices.
         Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
-        Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
+
+        Predicate<ByteArray> isKnownByPeer;
+        if (getDataRequest.getKnownKeysSketch() != null) {
+            Optional<Set<ByteArray>> missingKeys = decodeKeysMissingAtPeer(getDataRequest.getKnownKeysSketch(),
+                    mapForDataResponse);
+            if (!missingKeys.isPresent()) {
+                return GetDataResponsePages.knownKeysSketchDecodeFailed(getDataRequest.getNonce(),
+                        isGetUpdatedDataRequest);
+            }
+            Set<ByteArray> keysMissingAtPeer = missingKeys.get();
+            isKnownByPeer = key -> !keysMissingAtPeer.contains(key);
+        } else {
+            // We don't wrap the excluded keys into ByteArray objects, as there are a lot of them.
+            Set<byte[]> excludedKeys = getDataRequest.getExcludedKeys();
+            ByteArrayHashMap<Boolean> excludedKeysMap = new ByteArrayHashMap<>(excludedKeys.size());
+            excludedKeys.forEach(key -> excludedKeysMap.put(key, Boolean.TRUE));
+            log.info("Num knownHashes {}", excludedKeysMap.size());
+            isKnownByPeer = key -> excludedKeysMap.containsKey(key.bytes);
+        }
+
+        List<ByteArray> filteredPersistableNetworkPayloadKeys =
                 filterKnownHashes(
                         mapForDataResponse,
                         Function.identity(),
-                        excludedKeysAsByteArray,
+                        isKnownByPeer,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasPersistableNetworkPayloadsTruncated);
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
+                filteredPersistableNetworkPayloadKeys.size(), mapForDataResponse.size());
         log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
-                filteredPersistableNetworkPayloads.stream()
-                        .map(e -> Utilities.encodeToHex(e.getHash()))
+                filteredPersistableNetworkPayloadKeys.stream()
+                        .map(ByteArray::getHex)
                         .toArray());
 
-        Set<ProtectedStorageEntry> filteredProtectedStorageEntries =
+        List<ByteArray> filteredProtectedStorageEntryKeys =
                 filterKnownHashes(
                         map,
                         ProtectedStorageEntry::getProtectedStoragePayload,
-                        excludedKeysAsByteArray,
+                        isKnownByPeer,
                         peerCapabilities,
                         maxEntriesPerType,
                         wasProtectedStorageEntriesTruncated);
         log.info("{} ProtectedStorageEntry entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredProtectedStorageEntries.size(), map.size());
+                filteredProtectedStorageEntryKeys.size(), map.size());
         log.trace("## buildGetDataResponse filteredProtectedStorageEntryHashes={}",
-                filteredProtectedStorageEntries.stream()
-                        .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
+                filteredProtectedStorageEntryKeys.stream()
+                        .map(ByteArray::getHex)
                         .toArray());
 
-        return new GetDataResponse(
-                filteredProtectedStorageEntries,
-                filteredPersistableNetworkPayloads,
+        return new GetDataResponsePages(map,
+                filteredProtectedStorageEntryKeys,
+                mapForDataResponse,
+                filteredPersistableNetworkPayloadKeys,
                 getDataRequest.getNonce(),
-                getDataRequest instanceof GetUpdatedDataRequest);
+                isGetUpdatedDataRequest,
+                maxEntriesPerPage);
+    }
+
+
+    /**
+     * Decodes the difference between the peer's KnownKeysSketch and the keys we would deliver in a response.
+     *
+     * @return The keys we have but the peer is missing or empty if the sketch was invalid or the difference was too
+     * large to get decoded.
+     */
+    private Optional<Set<ByteArray>> decodeKeysMissingAtPeer(byte[] serializedKnownKeysSketch,
+                                                             Map<ByteArray, PersistableNetworkPayload> mapForDataResponse) {
+        long ts = System.currentTimeMillis();
+        KnownKeysSketch peersSketch;
+        try {
+            peersSketch = KnownKeysSketch.fromBytes(serializedKnownKeysSketch);
+        } catch (IllegalArgumentException e) {
+            log.warn("Received an invalid KnownKeysSketch. {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        // The difference is at least the difference of the number of keys. If that is already larger than what the
+        // sketch can decode we don't need to build our sketch.
+        long numOwnKeys = mapForDataResponse.size() + map.size();
+        if (Math.abs(numOwnKeys - peersSketch.getNumKeys()) > peersSketch.getNumCells()) {
+            log.info("The difference between our {} keys and the peers {} keys is too large for the KnownKeysSketch",
+                    numOwnKeys, peersSketch.getNumKeys());
+            return Optional.empty();
+        }
+
+        KnownKeysSketch ownSketch = new KnownKeysSketch(peersSketch.getNumCells());
+        mapForDataResponse.keySet().forEach(key -> ownSketch.add(key.bytes));
+        map.keySet().forEach(key -> ownSketch.add(key.bytes));
+        KnownKeysSketch.Difference difference = ownSketch.decodeDifference(peersSketch);
+        if (!difference.isComplete()) {
+            log.info("Decoding the KnownKeysSketch with {} cells failed. Our keys: {}, peers keys: {}",
+                    peersSketch.getNumCells(), numOwnKeys, peersSketch.getNumKeys());
+            return Optional.empty();
+        }
+
+        Set<ByteArray> keysMissingAtPeer = difference.getOnlyInThis().stream()
+                .map(ByteArray::new)
+                .collect(Collectors.toSet());
+        log.info("Decoded KnownKeysSketch in {} ms. Peer is missing {} of our keys and has {} keys we don't have",
+                System.currentTimeMillis() - ts, keysMissingAtPeer.size(), difference.getOnlyInOther().size());
+        return Optional.of(keysMissingAtPeer);
     }
 
 
@@ -355,8 +488,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     // Utils for collecting the exclude hashes
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    private Map<ByteArray, PersistableNetworkPayload> getMapForDataRequest() {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+    // We only collect the keys, so stores which parse their payloads lazily don't need to parse them.
+    private Set<byte[]> getKeysForDataRequest() {
+        Set<byte[]> keys = new HashSet<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
                     Map<ByteArray, PersistableNetworkPayload> serviceMap;
@@ -368,15 +502,16 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     } else {
                         serviceMap = service.getMap();
                     }
-                    map.putAll(serviceMap);
+                    serviceMap.keySet().forEach(key -> keys.add(key.bytes));
                     log.info("We added {} entries from {} to the excluded key set of our request",
                             serviceMap.size(), service.getClass().getSimpleName());
                 });
-        return map;
+        return keys;
     }
 
+    // We return a view of the service maps, so lazily parsed payloads only get parsed if we send them.
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        List<Map<ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
                     Map<ByteArray, PersistableNetworkPayload> serviceMap;
@@ -386,67 +521,66 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     } else {
                         serviceMap = service.getMap();
                     }
-                    map.putAll(serviceMap);
+                    maps.add(serviceMap);
                     log.info("We added {} entries from {} to be filtered by excluded keys",
                             serviceMap.size(), service.getClass().getSimpleName());
                 });
-        return map;
+        return new MapUnionView<>(maps);
     }
 
     /**
      * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
-     * by a given set of keys and peer capabilities.
+     * by a given set of keys and peer capabilities. Returns the keys of the entries to send, so the caller does not
+     * need to hold the payloads.
      */
-    static private <T extends NetworkPayload> Set<T> filterKnownHashes(
+    static private <T extends NetworkPayload> List<ByteArray> filterKnownHashes(
             Map<ByteArray, T> toFilter,
             Function<T, ? extends NetworkPayload> objToPayload,
-            Set<ByteArray> knownHashes,
+            Predicate<ByteArray> isKnownHash,
             Capabilities peerCapabilities,
             int maxEntries,
             AtomicBoolean outTruncated) {
 
-        log.info("Num knownHashes {}", knownHashes.size());
-
         Set<Map.Entry<ByteArray, T>> entries = toFilter.entrySet();
-        List<T> dateSortedTruncatablePayloads = entries.stream()
+        List<Map.Entry<ByteArray, T>> dateSortedTruncatableEntries = entries.stream()
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .filter(entry -> entry.getValue() instanceof DateSortedTruncatablePayload)
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
-                .sorted(Comparator.comparing(payload -> ((DateSortedTruncatablePayload) payload).getDate()))
+                .filter(entry -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(entry.getValue())))
+                .sorted(Comparator.comparing((Map.Entry<ByteArray, T> entry) ->
+                        ((DateSortedTruncatablePayload) entry.getValue()).getDate()))
                 .collect(Collectors.toList());
-        log.info("Num filtered dateSortedTruncatablePayloads {}", dateSortedTruncatablePayloads.size());
-        if (!dateSortedTruncatablePayloads.isEmpty()) {
-            int maxItems = ((DateSortedTruncatablePayload) dateSortedTruncatablePayloads.get(0)).maxItems();
-            if (dateSortedTruncatablePayloads.size() > maxItems) {
-                int fromIndex = dateSortedTruncatablePayloads.size() - maxItems;
-                int toIndex = dateSortedTruncatablePayloads.size();
-                dateSortedTruncatablePayloads = dateSortedTruncatablePayloads.subList(fromIndex, toIndex);
-                log.info("Num truncated dateSortedTruncatablePayloads {}", dateSortedTruncatablePayloads.size());
+        log.info("Num filtered dateSortedTruncatablePayloads {}", dateSortedTruncatableEntries.size());
+        if (!dateSortedTruncatableEntries.isEmpty()) {
+            int maxItems = ((DateSortedTruncatablePayload) dateSortedTruncatableEntries.get(0).getValue()).maxItems();
+            if (dateSortedTruncatableEntries.size() > maxItems) {
+                int fromIndex = dateSortedTruncatableEntries.size() - maxItems;
+                int toIndex = dateSortedTruncatableEntries.size();
+                dateSortedTruncatableEntries = dateSortedTruncatableEntries.subList(fromIndex, toIndex);
+                log.info("Num truncated dateSortedTruncatablePayloads {}", dateSortedTruncatableEntries.size());
             }
         }
 
-        List<T> filteredResults = entries.stream()
+        List<ByteArray> filteredResults = entries.stream()
+                .filter(entry -> !isKnownHash.test(entry.getKey()))
                 .filter(entry -> !(entry.getValue() instanceof DateSortedTruncatablePayload))
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
+                .filter(entry -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(entry.getValue())))
+                .map(Map.Entry::getKey)
                 .collect(Collectors.toList());
         log.info("Num filtered non-dateSortedTruncatablePayloads {}", filteredResults.size());
 
         // The non-dateSortedTruncatablePayloads have higher prio, so we added dateSortedTruncatablePayloads
         // after those so in case we need to truncate we first truncate the dateSortedTruncatablePayloads.
-        filteredResults.addAll(dateSortedTruncatablePayloads);
+        dateSortedTruncatableEntries.forEach(entry -> filteredResults.add(entry.getKey()));
 
         if (filteredResults.size() > maxEntries) {
-            filteredResults = filteredResults.subList(0, maxEntries);
             outTruncated.set(true);
-            log.info("Num truncated filteredResults {}", filteredResults.size());
-        } else {
-            log.info("Num filteredResults {}", filteredResults.size());
+            log.info("Num truncated filteredResults {}", maxEntries);
+            // We copy the sub list to release the truncated keys
+            return new ArrayList<>(filteredResults.subList(0, maxEntries));
         }
 
-        return new HashSet<>(filteredResults);
+        log.info("Num filteredResults {}", filteredResults.size());
+        return filteredResults;
     }
 
 
@@ -489,11 +623,27 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         Set<PersistableNetworkPayload> persistableNetworkPayloadSet = getDataResponse.getPersistableNetworkPayloadSet();
 
         long ts2 = System.currentTimeMillis();
-        dataSet.forEach(e -> {
-            // We don't broadcast here (last param) as we are only connected to the seed node and would be pointless
-            addProtectedStorageEntry(e, sender, null, false);
-
+        // The hashes and signatures are computed in parallel. The user thread waits for the result, so the maps
+        // are not changed in the meantime.
+        List<ProtectedStorageEntry> entries = new ArrayList<>(dataSet);
+        ByteArray[] hashes = new ByteArray[entries.size()];
+        IntStream.range(0, entries.size()).parallel().forEach(i -> {
+            ProtectedStorageEntry entry = entries.get(i);
+            hashes[i] = get32ByteHashAsByteArray(entry.getProtectedStoragePayload());
+            if (mightBeAdded(entry, hashes[i]))
+                entry.verifySignature();
         });
+        log.info("Verifying {} protectedStorageEntries took {} ms.", dataSet.size(), this.clock.millis() - ts2);
+
+        ts2 = this.clock.millis();
+        List<ProtectedStorageEntry> addedEntries = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            // We don't broadcast here as we are only connected to the seed node and would be pointless
+            addProtectedStorageEntry(entries.get(i), hashes[i], sender, null, false, addedEntries);
+        }
+        // We notify the listeners once for all added entries
+        if (!addedEntries.isEmpty())
+            hashMapChangedListeners.forEach(e -> e.onAdded(addedEntries));
         log.info("Processing {} protectedStorageEntries took {} ms.", dataSet.size(), this.clock.millis() - ts2);
 
         ts2 = this.clock.millis();
@@ -520,8 +670,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // We only process PersistableNetworkPayloads implementing ProcessOncePersistableNetworkPayload once. It can cause performance
         // issues and since the data is rarely out of sync it is not worth it to apply them from multiple peers during
-        // startup.
-        initialRequestApplied = true;
+        // startup. If the response is split into pages we apply all pages of the first response.
+        if (!getDataResponse.isHasMorePages())
+            initialRequestApplied = true;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -531,6 +682,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+
+        appendOnlyDataStoreService.shutDown();
     }
 
     @VisibleForTesting
@@ -589,6 +742,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     remove(((RemoveMailboxDataMessage) networkEnvelope).getProtectedMailboxStorageEntry(), peersNodeAddress);
                 } else if (networkEnvelope instanceof RefreshOfferMessage) {
                     refreshTTL((RefreshOfferMessage) networkEnvelope, peersNodeAddress);
+                } else if (networkEnvelope instanceof BulkRefreshOfferMessage) {
+                    refreshTTL((BulkRefreshOfferMessage) networkEnvelope, peersNodeAddress);
                 } else if (networkEnvelope instanceof AddPersistableNetworkPayloadMessage) {
                     addPersistableNetworkPayload(((AddPersistableNetworkPayloadMessage) networkEnvelope).getPersistableNetworkPayload(),
                             peersNodeAddress, true, false, true);
@@ -598,6 +753,23 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // MessagePreProcessor implementation
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The signature verification result is cached in the entry, so it is not repeated on the user thread.
+    @Override
+    public void preProcess(NetworkEnvelope networkEnvelope, Connection connection) {
+        if (networkEnvelope instanceof AddDataMessage) {
+            ((AddDataMessage) networkEnvelope).getProtectedStorageEntry().verifySignature();
+        } else if (networkEnvelope instanceof RemoveDataMessage) {
+            ((RemoveDataMessage) networkEnvelope).getProtectedStorageEntry().verifySignature();
+        } else if (networkEnvelope instanceof RemoveMailboxDataMessage) {
+            ((RemoveMailboxDataMessage) networkEnvelope).getProtectedMailboxStorageEntry().verifySignature();
+        }
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // ConnectionListener implementation
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -739,8 +911,19 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                              @Nullable NodeAddress sender,
                                              @Nullable BroadcastHandler.Listener listener,
                                              boolean allowBroadcast) {
+        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStorageEntry.getProtectedStoragePayload());
+        return addProtectedStorageEntry(protectedStorageEntry, hashOfPayload, sender, listener, allowBroadcast, null);
+    }
+
+    // If batchedEntries is not null the added entry is collected there and the caller notifies the
+    // hashMapChangedListeners.
+    private boolean addProtectedStorageEntry(ProtectedStorageEntry protectedStorageEntry,
+                                             ByteArray hashOfPayload,
+                                             @Nullable NodeAddress sender,
+                                             @Nullable BroadcastHandler.Listener listener,
+                                             boolean allowBroadcast,
+                                             @Nullable List<ProtectedStorageEntry> batchedEntries) {
         ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
 
         log.trace("## call addProtectedStorageEntry hash={}, map={}", hashOfPayload, printMap());
 
@@ -789,7 +972,10 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // This is an updated entry. Record it and signal listeners.
         map.put(hashOfPayload, protectedStorageEntry);
-        hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
+        if (batchedEntries != null)
+            batchedEntries.add(protectedStorageEntry);
+        else
+            hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
 
         // Record the updated sequence number and persist it. Higher delay so we can batch more items.
         sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
@@ -889,6 +1075,90 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return true;
     }
 
+    /**
+     * Updates the TTL of all local entries of a BulkRefreshOfferMessage and broadcasts the message if at least one
+     * entry was refreshed. The signature over all entries is verified only once, before any payload gets hashed.
+     * Entries we don't have, which are owned by another key or which have an outdated sequence number are skipped.
+     * The stored entries keep their sequence number and signature, as those are still valid for the payload. Only
+     * the sequence number map gets the new sequence numbers, so old refresh messages cannot be replayed.
+     *
+     * @param bulkRefreshOfferMessage bulkRefreshOfferMessage containing the updates
+     * @param sender local NodeAddress, if available
+     * @return <code>true</code> if at least one entry was refreshed and the message was broadcast
+     */
+    public boolean refreshTTL(BulkRefreshOfferMessage bulkRefreshOfferMessage,
+                              @Nullable NodeAddress sender) {
+        List<BulkRefreshOfferMessage.RefreshedEntry> entries = bulkRefreshOfferMessage.getEntries();
+        if (entries.isEmpty() || entries.size() > BulkRefreshOfferMessage.MAX_ENTRIES) {
+            log.warn("Invalid number of entries in BulkRefreshOfferMessage: {}", entries.size());
+            return false;
+        }
+
+        // We first apply the cheap checks and verify the signature before we hash the payloads of the entries
+        Map<ByteArray, BulkRefreshOfferMessage.RefreshedEntry> candidateByHash = new HashMap<>();
+        PublicKey ownerPubKey = null;
+        for (BulkRefreshOfferMessage.RefreshedEntry entry : entries) {
+            ByteArray hashOfPayload = new ByteArray(entry.getHashOfPayload());
+            ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
+            if (storedEntry == null ||
+                    storedEntry instanceof ProtectedMailboxStorageEntry ||
+                    !Arrays.equals(storedEntry.getOwnerPubKeyBytes(), bulkRefreshOfferMessage.getOwnerPubKeyBytes()) ||
+                    !hasSequenceNrIncreased(entry.getSequenceNumber(), hashOfPayload)) {
+                continue;
+            }
+
+            candidateByHash.put(hashOfPayload, entry);
+            ownerPubKey = storedEntry.getOwnerPubKey();
+        }
+
+        if (candidateByHash.isEmpty()) {
+            log.debug("We don't have data for any entry of the bulk refresh message in our map. That is expected if we missed the data publishing.");
+            return false;
+        }
+
+        try {
+            if (!Sig.verify(ownerPubKey, BulkRefreshOfferMessage.getHashOfEntries(entries), bulkRefreshOfferMessage.getSignature())) {
+                log.warn("Invalid signature of BulkRefreshOfferMessage");
+                return false;
+            }
+        } catch (CryptoException e) {
+            log.warn("Verifying signature of BulkRefreshOfferMessage failed", e);
+            return false;
+        }
+
+        // The signed hash has to match our payload
+        Map<ByteArray, BulkRefreshOfferMessage.RefreshedEntry> refreshedEntryByHash = new HashMap<>();
+        candidateByHash.forEach((hashOfPayload, entry) -> {
+            byte[] hashOfDataAndSeqNr = get32ByteHash(new DataAndSeqNrPair(map.get(hashOfPayload).getProtectedStoragePayload(),
+                    entry.getSequenceNumber()));
+            if (Arrays.equals(hashOfDataAndSeqNr, entry.getHashOfDataAndSeqNr())) {
+                refreshedEntryByHash.put(hashOfPayload, entry);
+            }
+        });
+
+        if (refreshedEntryByHash.isEmpty()) {
+            log.warn("No entry of the BulkRefreshOfferMessage matches our payload");
+            return false;
+        }
+
+        long now = this.clock.millis();
+        refreshedEntryByHash.forEach((hashOfPayload, entry) -> {
+            ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
+            map.put(hashOfPayload, new ProtectedStorageEntry(storedEntry.getProtectedStoragePayload(),
+                    storedEntry.getOwnerPubKey(),
+                    storedEntry.getSequenceNumber(),
+                    storedEntry.getSignature(),
+                    this.clock));
+            sequenceNumberMap.put(hashOfPayload, new MapValue(entry.getSequenceNumber(), now));
+        });
+        requestPersistence();
+
+        // Always broadcast refreshes
+        broadcaster.broadcast(bulkRefreshOfferMessage, sender);
+
+        return true;
+    }
+
     /**
      * Removes a ProtectedStorageEntry from the local P2P data storage. If it is successful, it will broadcast that
      * change to the P2P network.
@@ -973,6 +1243,25 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return new RefreshOfferMessage(hashOfDataAndSeqNr, signature, hashOfPayload.bytes, sequenceNumber);
     }
 
+    public BulkRefreshOfferMessage getBulkRefreshTTLMessage(Collection<? extends ProtectedStoragePayload> protectedStoragePayloads,
+                                                            KeyPair ownerStoragePubKey)
+            throws CryptoException {
+        List<BulkRefreshOfferMessage.RefreshedEntry> entries = new ArrayList<>();
+        for (ProtectedStoragePayload protectedStoragePayload : protectedStoragePayloads) {
+            ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+            int sequenceNumber;
+            if (sequenceNumberMap.containsKey(hashOfPayload))
+                sequenceNumber = sequenceNumberMap.get(hashOfPayload).sequenceNr + 1;
+            else
+                sequenceNumber = 1;
+
+            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new DataAndSeqNrPair(protectedStoragePayload, sequenceNumber));
+            entries.add(new BulkRefreshOfferMessage.RefreshedEntry(hashOfDataAndSeqNr, hashOfPayload.bytes, sequenceNumber));
+        }
+        byte[] signature = Sig.sign(ownerStoragePubKey.getPrivate(), BulkRefreshOfferMessage.getHashOfEntries(entries));
+        return new BulkRefreshOfferMessage(Sig.getPublicKeyBytes(ownerStoragePubKey.getPublic()), entries, signature);
+    }
+
     public ProtectedMailboxStorageEntry getMailboxDataWithSignedSeqNr(MailboxStoragePayload expirableMailboxStoragePayload,
                                                                       KeyPair storageSignaturePubKey,
                                                                       PublicKey receiversPublicKey)
@@ -1041,6 +1330,18 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         hashMapChangedListeners.forEach(e -> e.onRemoved(removedProtectedStorageEntries));
     }
 
+    // Same sequence number checks as in addProtectedStorageEntry, but without logging, so it can be used to skip
+    // the signature verification of entries which will not be added anyway.
+    private boolean mightBeAdded(ProtectedStorageEntry protectedStorageEntry, ByteArray hashOfPayload) {
+        MapValue sequenceNumberMapValue = sequenceNumberMap.get(hashOfPayload);
+        if (sequenceNumberMapValue == null)
+            return true;
+
+        int sequenceNumber = protectedStorageEntry.getSequenceNumber();
+        return sequenceNumber > sequenceNumberMapValue.sequenceNr ||
+                (sequenceNumber == sequenceNumberMapValue.sequenceNr && !map.containsKey(hashOfPayload));
+    }
+
     private boolean hasSequenceNrIncreased(int newSequenceNumber, ByteArray hashOfData) {
         if (sequenceNumberMap.containsKey(hashOfData)) {
             int storedSequenceNumber = sequenceNumberMap.get(hashOfData).sequenceNr;
@@ -1129,11 +1430,6 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                 e.getValue().getProtectedStoragePayload().getClass().getSimpleName()).toArray());
     }
 
-    private String printPersistableNetworkPayloadMap(Map<ByteArray, PersistableNetworkPayload> map) {
-        return Arrays.toString(map.entrySet().stream().map(e -> Hex.encode(e.getKey().bytes) + ": " +
-                e.getValue().getClass().getSimpleName()).toArray());
-    }
-
     /**
      * @param data Network payload
      * @return Hash of data
@@ -1177,10 +1473,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
      * Used as key object in map for cryptographic hash of stored data as byte[] as primitive data type cannot be
      * used as key
      */
-    @EqualsAndHashCode
     public static final class ByteArray implements PersistablePayload {
         // That object is saved to disc. We need to take care of changes to not break deserialization.
         public final byte[] bytes;
+        // ByteArray is used as key in large hash maps, so we cache the hash code. The bytes must not be changed.
+        private transient int hashCode;
 
         @Override
         public String toString() {
@@ -1193,6 +1490,23 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             this.bytes = bytes;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ByteArray)) return false;
+            return Arrays.equals(bytes, ((ByteArray) o).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hashCode;
+            if (h == 0) {
+                h = Arrays.hashCode(bytes);
+                hashCode = h;
+            }
+            return h;
+        }
+
 
         ///////////////////////////////////////////////////////////////////////////////////////////
         // Protobuffer
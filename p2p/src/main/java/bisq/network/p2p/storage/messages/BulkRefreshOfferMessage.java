@@ -0,0 +1,134 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.messages;
+
+import bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+import bisq.common.app.Version;
+import bisq.common.crypto.Hash;
+import bisq.common.proto.network.NetworkPayload;
+
+import com.google.protobuf.ByteString;
+
+import com.google.common.primitives.Bytes;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+
+/**
+ * Refreshes the TTL of many ProtectedStorageEntries of the same owner (e.g. all offers of a market maker) with a
+ * single signature. The signature covers the hashOfDataAndSeqNr of all entries.
+ * Only sent to peers with the BULK_REFRESH_OFFERS capability.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Value
+public final class BulkRefreshOfferMessage extends BroadcastMessage implements CapabilityRequiringPayload {
+    // Limits the cost of processing a single message. About 75 bytes per entry.
+    public static final int MAX_ENTRIES = 1000;
+
+    private final byte[] ownerPubKeyBytes;
+    private final List<RefreshedEntry> entries;
+    private final byte[] signature;
+
+    @Value
+    public static class RefreshedEntry implements NetworkPayload {
+        private final byte[] hashOfDataAndSeqNr;     // 32 bytes
+        private final byte[] hashOfPayload;          // 32 bytes
+        private final int sequenceNumber;            // 4 bytes
+
+        @Override
+        public protobuf.RefreshedEntry toProtoMessage() {
+            return protobuf.RefreshedEntry.newBuilder()
+                    .setHashOfDataAndSeqNr(ByteString.copyFrom(hashOfDataAndSeqNr))
+                    .setHashOfPayload(ByteString.copyFrom(hashOfPayload))
+                    .setSequenceNumber(sequenceNumber)
+                    .build();
+        }
+
+        public static RefreshedEntry fromProto(protobuf.RefreshedEntry proto) {
+            return new RefreshedEntry(proto.getHashOfDataAndSeqNr().toByteArray(),
+                    proto.getHashOfPayload().toByteArray(),
+                    proto.getSequenceNumber());
+        }
+    }
+
+    public BulkRefreshOfferMessage(byte[] ownerPubKeyBytes, List<RefreshedEntry> entries, byte[] signature) {
+        this(ownerPubKeyBytes, entries, signature, Version.getP2PMessageVersion());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private BulkRefreshOfferMessage(byte[] ownerPubKeyBytes,
+                                    List<RefreshedEntry> entries,
+                                    byte[] signature,
+                                    String messageVersion) {
+        super(messageVersion);
+        this.ownerPubKeyBytes = ownerPubKeyBytes;
+        this.entries = entries;
+        this.signature = signature;
+    }
+
+    @Override
+    public protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+        return getNetworkEnvelopeBuilder()
+                .setBulkRefreshOfferMessage(protobuf.BulkRefreshOfferMessage.newBuilder()
+                        .setOwnerPubKeyBytes(ByteString.copyFrom(ownerPubKeyBytes))
+                        .addAllEntries(entries.stream()
+                                .map(RefreshedEntry::toProtoMessage)
+                                .collect(Collectors.toList()))
+                        .setSignature(ByteString.copyFrom(signature)))
+                .build();
+    }
+
+    public static BulkRefreshOfferMessage fromProto(protobuf.BulkRefreshOfferMessage proto, String messageVersion) {
+        return new BulkRefreshOfferMessage(proto.getOwnerPubKeyBytes().toByteArray(),
+                proto.getEntriesList().stream()
+                        .map(RefreshedEntry::fromProto)
+                        .collect(Collectors.toList()),
+                proto.getSignature().toByteArray(),
+                messageVersion);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public Capabilities getRequiredCapabilities() {
+        return new Capabilities(Capability.BULK_REFRESH_OFFERS);
+    }
+
+    /**
+     * @return the hash of the hashOfDataAndSeqNr of all entries, which gets signed by the owner
+     */
+    public static byte[] getHashOfEntries(List<RefreshedEntry> entries) {
+        byte[][] hashes = entries.stream()
+                .map(RefreshedEntry::getHashOfDataAndSeqNr)
+                .toArray(byte[][]::new);
+        return Hash.getSha256Hash(Bytes.concat(hashes));
+    }
+}
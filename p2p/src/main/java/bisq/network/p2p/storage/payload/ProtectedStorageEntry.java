@@ -20,6 +20,7 @@ package bisq.network.p2p.storage.payload;
 import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Hash;
 import bisq.common.crypto.Sig;
 import bisq.common.proto.network.NetworkPayload;
 import bisq.common.proto.network.NetworkProtoResolver;
@@ -30,27 +31,43 @@ import com.google.protobuf.ByteString;
 import com.google.protobuf.Message;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Bytes;
 
 import java.security.PublicKey;
 
 import java.time.Clock;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 @Getter
 @EqualsAndHashCode
 @Slf4j
 public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload {
+    // Results of the signature verification. We receive the same entry from several peers (broadcasts and
+    // GetDataResponses), so we avoid verifying the same signature again. The key is the hash of everything the result
+    // depends on: the hash of the payload and sequence number, the owner key and the signature.
+    private static final Cache<P2PDataStorage.ByteArray, Boolean> SIGNATURE_VERIFICATION_RESULTS = CacheBuilder.newBuilder()
+            .maximumSize(20_000)
+            .build();
+
     private final ProtectedStoragePayload protectedStoragePayload;
     private final byte[] ownerPubKeyBytes;
     transient private final PublicKey ownerPubKey;
     private final int sequenceNumber;
     private final byte[] signature;
     private long creationTimeStamp;
+    // Cached result of the signature verification. All fields covered by the signature are final.
+    @Getter(AccessLevel.NONE)
+    @Nullable
+    transient private volatile Boolean signatureValid;
 
     public ProtectedStorageEntry(@NotNull ProtectedStoragePayload protectedStoragePayload,
                                  @NotNull PublicKey ownerPubKey,
@@ -199,15 +216,39 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
         return result;
     }
 
+    /*
+     * Verifies the signature and caches the result. Can be called from any thread to do the verification
+     * before the entry gets processed on the user thread.
+     */
+    public void verifySignature() {
+        isSignatureValid();
+    }
+
     /*
      * Returns true if the signature for the Entry is valid for the payload, sequence number, and ownerPubKey
      */
     boolean isSignatureValid() {
+        Boolean signatureValid = this.signatureValid;
+        if (signatureValid == null) {
+            signatureValid = verifySignatureOfDataAndSeqNr();
+            this.signatureValid = signatureValid;
+        }
+        return signatureValid;
+    }
+
+    private boolean verifySignatureOfDataAndSeqNr() {
         try {
             byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
                     new P2PDataStorage.DataAndSeqNrPair(this.protectedStoragePayload, this.sequenceNumber));
 
+            P2PDataStorage.ByteArray cacheKey = new P2PDataStorage.ByteArray(
+                    Hash.getSha256Hash(Bytes.concat(hashOfDataAndSeqNr, this.ownerPubKeyBytes, this.signature)));
+            Boolean cachedResult = SIGNATURE_VERIFICATION_RESULTS.getIfPresent(cacheKey);
+            if (cachedResult != null)
+                return cachedResult;
+
             boolean result = Sig.verify(this.ownerPubKey, hashOfDataAndSeqNr, this.signature);
+            SIGNATURE_VERIFICATION_RESULTS.put(cacheKey, result);
 
             if (!result)
                 log.warn("ProtectedStorageEntry::isSignatureValid() failed.\n{}}", this);
@@ -76,15 +76,19 @@ public class AppendOnlyDataStoreService {
     }
 
 
+    public void shutDown() {
+        services.stream()
+                .filter(service -> service instanceof PersistableNetworkPayloadStoreService)
+                .forEach(service -> ((PersistableNetworkPayloadStoreService<?>) service).shutDown());
+    }
+
+    // Not modifiable view of the maps of all services
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap() {
-        return services.stream()
-                .flatMap(service -> {
-                    Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = service instanceof HistoricalDataStoreService ?
-                            ((HistoricalDataStoreService) service).getMapOfAllData() :
-                            service.getMap();
-                    return map.entrySet().stream();
-                })
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return new MapUnionView<>(services.stream()
+                .map(service -> service instanceof HistoricalDataStoreService ?
+                        ((HistoricalDataStoreService<?>) service).getMapOfAllData() :
+                        service.getMap())
+                .collect(Collectors.toList()));
     }
 
     public void put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
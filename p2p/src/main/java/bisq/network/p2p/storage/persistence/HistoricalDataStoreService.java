@@ -23,12 +23,15 @@ import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
 import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkProtoResolver;
 
 import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,7 +44,7 @@ import lombok.extern.slf4j.Slf4j;
  * request so the responding (seed)node can figure out if we miss any of the historical data.
  */
 @Slf4j
-public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
+public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends PersistableNetworkPayloadStoreService<T> {
     private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
     // Cache to avoid that we have to recreate the historical data at each request
     private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
@@ -55,16 +58,25 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         super(storageDir, persistenceManager);
     }
 
+    public HistoricalDataStoreService(File storageDir,
+                                      PersistenceManager<T> persistenceManager,
+                                      NetworkProtoResolver networkProtoResolver,
+                                      boolean usePayloadLogStorage) {
+        super(storageDir, persistenceManager, networkProtoResolver, usePayloadLogStorage);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // We give back a map of our live map and all historical maps newer than the requested version.
+    // We give back a view of our live map and all historical maps newer than the requested version.
     // If requestersVersion is null we return all historical data.
+    // The view is not modifiable and does not copy the entries, so lazily parsed payloads do not get parsed.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapSinceVersion(String requestersVersion) {
         // We add all our live data
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
+        List<Map<P2PDataStorage.ByteArray, ? extends PersistableNetworkPayload>> maps = new ArrayList<>();
+        maps.add(store.getMap());
 
         // If we have a store with a newer version than the requesters version we will add those as well.
         storesByVersion.entrySet().stream()
@@ -88,8 +100,9 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     return newVersion;
                 })
                 .map(e -> e.getValue().getMap())
-                .forEach(result::putAll);
+                .forEach(maps::add);
 
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new MapUnionView<>(maps);
         log.info("We found {} entries since requesters version {}",
                 result.size(), requestersVersion);
         return result;
@@ -99,10 +112,9 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return store.getMap();
     }
 
+    // Not modifiable view of the live data and the historical data
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
-        return result;
+        return new MapUnionView<>(List.of(getMapOfLiveData(), allHistoricalPayloads));
     }
 
 
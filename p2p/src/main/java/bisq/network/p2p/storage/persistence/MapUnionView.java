@@ -0,0 +1,199 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * Unmodifiable view of the union of several maps. The view is backed by the maps, so changes of the maps are
+ * visible in the view. If a key is contained in several maps the value of the first map is used.
+ * <p>
+ * Values are only accessed when they are requested, so iterating the keys of a {@link PayloadLogMap} does not parse
+ * any payload. Null values are not supported. The size is counted by iterating the keys of all but the first map.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class MapUnionView<K, V> extends AbstractMap<K, V> {
+    private final List<Map<K, ? extends V>> maps;
+    @Nullable
+    private Set<Map.Entry<K, V>> entrySet;
+
+    public MapUnionView(List<? extends Map<K, ? extends V>> maps) {
+        this.maps = new ArrayList<>(maps);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < maps.size(); i++) {
+            if (i == 0) {
+                size += maps.get(i).size();
+                continue;
+            }
+            for (K key : maps.get(i).keySet()) {
+                if (!isContainedInPreviousMap(key, i))
+                    size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return maps.stream().allMatch(Map::isEmpty);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return maps.stream().anyMatch(map -> map.containsKey(key));
+    }
+
+    @Override
+    public V get(Object key) {
+        for (Map<K, ? extends V> map : maps) {
+            V value = map.get(key);
+            if (value != null)
+                return value;
+        }
+        return null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null)
+            entrySet = new EntrySet();
+        return entrySet;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private boolean isContainedInPreviousMap(Object key, int mapIndex) {
+        for (int i = 0; i < mapIndex; i++) {
+            if (maps.get(i).containsKey(key))
+                return true;
+        }
+        return false;
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new Iterator<>() {
+                private int mapIndex = -1;
+                private Iterator<? extends Map.Entry<K, ? extends V>> iterator;
+                @Nullable
+                private Map.Entry<K, ? extends V> next;
+
+                @Override
+                public boolean hasNext() {
+                    while (next == null) {
+                        while (iterator == null || !iterator.hasNext()) {
+                            if (++mapIndex >= maps.size())
+                                return false;
+                            iterator = maps.get(mapIndex).entrySet().iterator();
+                        }
+                        Map.Entry<K, ? extends V> entry = iterator.next();
+                        if (!isContainedInPreviousMap(entry.getKey(), mapIndex))
+                            next = entry;
+                    }
+                    return true;
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+                    Map.Entry<K, ? extends V> entry = next;
+                    next = null;
+                    return new UnmodifiableEntry(entry);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            V value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public int size() {
+            return MapUnionView.this.size();
+        }
+    }
+
+    // Delegates to the entry of the backing map, so the value is only accessed when it is requested.
+    private final class UnmodifiableEntry implements Map.Entry<K, V> {
+        private final Map.Entry<K, ? extends V> entry;
+
+        private UnmodifiableEntry(Map.Entry<K, ? extends V> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
+        }
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.ByteArrayHashMap;
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Append only log of serialized payloads keyed by their hash.
+ * <p>
+ * The log is split into segment files of about {@link #MAX_SEGMENT_SIZE} bytes. Each record consists of
+ * the record length, a CRC32 checksum, the hash and the serialized payload. A record without payload marks the
+ * removal of the hash. Writes only append to the last segment, so the cost of a write does not depend on the size
+ * of the log. Segments are memory mapped for reading.
+ * <p>
+ * At startup the segments are scanned to build the in-memory index from hash to record position. The payloads are
+ * not parsed for that. Only the records of the last segment are verified with their checksum, as that is the only
+ * segment which can contain an incomplete write. An incomplete record at the end of the last segment gets truncated.
+ * <p>
+ * Removed and overwritten records are never reclaimed. That is fine for the append only data we use it for.
+ */
+@Slf4j
+class PayloadLog implements Closeable {
+    static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int MAGIC = 0x504c4f47; // "PLOG"
+    private static final int SEGMENT_HEADER_SIZE = Integer.BYTES;
+    // Record length + CRC32
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final String SEGMENT_FILE_PREFIX = "segment_";
+
+    private final File dir;
+    private final int maxSegmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+    // Position of the record: segment index in the upper 32 bits and offset in the lower 32 bits
+    private final ByteArrayHashMap<Long> index = new ByteArrayHashMap<>();
+    private boolean closed;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    PayloadLog(File dir) throws IOException {
+        this(dir, MAX_SEGMENT_SIZE);
+    }
+
+    @VisibleForTesting
+    PayloadLog(File dir, int maxSegmentSize) throws IOException {
+        this.dir = dir;
+        this.maxSegmentSize = maxSegmentSize;
+        if (!dir.exists() && !dir.mkdirs())
+            throw new IOException("Could not create directory " + dir);
+
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_FILE_PREFIX));
+        checkArgument(files != null, "Could not list files of " + dir);
+        Arrays.sort(files);
+        for (int i = 0; i < files.length; i++) {
+            boolean isLast = i == files.length - 1;
+            Segment segment = new Segment(files[i], isLast);
+            segments.add(segment);
+            scan(i, segment, isLast);
+        }
+        if (segments.isEmpty())
+            addSegment();
+
+        log.info("Opened payload log {} with {} segments and {} entries", dir, segments.size(), index.size());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    synchronized int size() {
+        return index.size();
+    }
+
+    synchronized boolean contains(byte[] hash) {
+        return index.containsKey(hash);
+    }
+
+    /**
+     * @return The serialized payload or null if the hash is not contained in the log.
+     */
+    @Nullable
+    synchronized byte[] read(byte[] hash) throws IOException {
+        Long position = index.get(hash);
+        if (position == null)
+            return null;
+
+        Segment segment = segments.get((int) (position >>> 32));
+        int offset = (int) (long) position;
+        ByteBuffer buffer = segment.getMappedBuffer(offset);
+        int recordLength = buffer.getInt(offset);
+        int hashLength = buffer.get(offset + RECORD_HEADER_SIZE);
+        int payloadOffset = offset + RECORD_HEADER_SIZE + 1 + hashLength;
+        byte[] payload = new byte[offset + Integer.BYTES + recordLength - payloadOffset];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(payloadOffset);
+        duplicate.get(payload);
+        return payload;
+    }
+
+    synchronized void append(byte[] hash, byte[] payload) throws IOException {
+        checkArgument(payload.length > 0, "payload must not be empty");
+        writeRecord(hash, payload);
+    }
+
+    /**
+     * Appends a removal marker for the hash.
+     *
+     * @return True if the hash was contained in the log.
+     */
+    synchronized boolean remove(byte[] hash) throws IOException {
+        if (!index.containsKey(hash))
+            return false;
+
+        writeRecord(hash, new byte[0]);
+        return true;
+    }
+
+    /**
+     * @return Snapshot of the hashes contained in the log.
+     */
+    synchronized List<P2PDataStorage.ByteArray> getHashes() {
+        return new ArrayList<>(index.keySet());
+    }
+
+    /**
+     * Forces the written data to the storage device.
+     */
+    synchronized void force() throws IOException {
+        if (!closed)
+            getLastSegment().channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed)
+            return;
+
+        closed = true;
+        getLastSegment().channel.force(false);
+        for (Segment segment : segments)
+            segment.channel.close();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void scan(int segmentIndex, Segment segment, boolean verifyChecksums) throws IOException {
+        long size = segment.channel.size();
+        if (size < SEGMENT_HEADER_SIZE) {
+            // Crash while creating the segment
+            if (verifyChecksums) {
+                segment.writeHeader();
+                return;
+            }
+            throw new IOException("Invalid segment " + segment.file);
+        }
+
+        ByteBuffer buffer = segment.getMappedBuffer(0);
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException("Invalid segment " + segment.file);
+
+        int offset = SEGMENT_HEADER_SIZE;
+        int truncateOffset = -1;
+        while (offset < size) {
+            Record record = readRecord(buffer, offset, size, verifyChecksums);
+            if (record == null) {
+                if (!verifyChecksums)
+                    throw new IOException("Invalid record in " + segment.file + " at offset " + offset);
+
+                truncateOffset = offset;
+                break;
+            }
+
+            if (record.payloadLength == 0)
+                index.remove(record.hash);
+            else
+                index.put(record.hash, toPosition(segmentIndex, offset));
+            offset += Integer.BYTES + record.recordLength;
+        }
+
+        if (truncateOffset >= 0) {
+            log.warn("Truncating incomplete record in {} at offset {}. Size of segment was {} bytes.",
+                    segment.file, truncateOffset, size);
+            // We must not hold a reference to the mapping when truncating, a mapped file cannot be truncated on
+            // Windows.
+            //noinspection UnusedAssignment
+            buffer = null;
+            segment.truncate(truncateOffset);
+        }
+    }
+
+    @Nullable
+    private static Record readRecord(ByteBuffer buffer, int offset, long size, boolean verifyChecksum) {
+        if (offset + RECORD_HEADER_SIZE + 1 > size)
+            return null;
+
+        int recordLength = buffer.getInt(offset);
+        int hashLength = buffer.get(offset + RECORD_HEADER_SIZE);
+        if (hashLength <= 0 ||
+                recordLength < Integer.BYTES + 1 + hashLength ||
+                offset + (long) Integer.BYTES + recordLength > size)
+            return null;
+
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset + RECORD_HEADER_SIZE + 1);
+        byte[] hash = new byte[hashLength];
+        duplicate.get(hash);
+        int payloadLength = recordLength - Integer.BYTES - 1 - hashLength;
+
+        if (verifyChecksum) {
+            duplicate.position(offset + RECORD_HEADER_SIZE);
+            duplicate.limit(offset + Integer.BYTES + recordLength);
+            CRC32 crc32 = new CRC32();
+            crc32.update(duplicate);
+            if ((int) crc32.getValue() != buffer.getInt(offset + Integer.BYTES))
+                return null;
+        }
+        return new Record(recordLength, hash, payloadLength);
+    }
+
+    private void writeRecord(byte[] hash, byte[] payload) throws IOException {
+        checkArgument(hash.length > 0 && hash.length <= Byte.MAX_VALUE, "Invalid hash length " + hash.length);
+        if (closed)
+            throw new IOException("Payload log " + dir + " is closed");
+
+        int recordLength = Integer.BYTES + 1 + hash.length + payload.length;
+        int totalLength = Integer.BYTES + recordLength;
+        Segment segment = getLastSegment();
+        if (segment.size + totalLength > maxSegmentSize && segment.size > SEGMENT_HEADER_SIZE) {
+            segment.channel.force(false);
+            segment = addSegment();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(totalLength);
+        buffer.putInt(recordLength);
+        buffer.putInt(0);
+        buffer.put((byte) hash.length);
+        buffer.put(hash);
+        buffer.put(payload);
+        CRC32 crc32 = new CRC32();
+        crc32.update(buffer.array(), RECORD_HEADER_SIZE, totalLength - RECORD_HEADER_SIZE);
+        buffer.putInt(Integer.BYTES, (int) crc32.getValue());
+        buffer.flip();
+
+        int offset = (int) segment.size;
+        segment.write(buffer);
+        if (payload.length == 0)
+            index.remove(hash);
+        else
+            index.put(hash, toPosition(segments.size() - 1, offset));
+    }
+
+    private Segment addSegment() throws IOException {
+        String fileName = String.format(Locale.ROOT, "%s%06d", SEGMENT_FILE_PREFIX, segments.size());
+        Segment segment = new Segment(new File(dir, fileName), true);
+        segment.writeHeader();
+        segments.add(segment);
+        return segment;
+    }
+
+    private Segment getLastSegment() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private static long toPosition(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Static classes
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private static final class Record {
+        private final int recordLength;
+        private final byte[] hash;
+        private final int payloadLength;
+
+        private Record(int recordLength, byte[] hash, int payloadLength) {
+            this.recordLength = recordLength;
+            this.hash = hash;
+            this.payloadLength = payloadLength;
+        }
+    }
+
+    private static final class Segment {
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+        // Covers the segment up to the size at the time of mapping. Gets remapped if a record beyond is read.
+        @Nullable
+        private MappedByteBuffer mappedBuffer;
+
+        private Segment(File file, boolean writable) throws IOException {
+            this.file = file;
+            this.channel = writable ?
+                    FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                            StandardOpenOption.WRITE) :
+                    FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            this.size = channel.size();
+        }
+
+        private void writeHeader() throws IOException {
+            channel.truncate(0);
+            size = 0;
+            write(ByteBuffer.allocate(SEGMENT_HEADER_SIZE).putInt(MAGIC).flip());
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining())
+                size += channel.write(buffer, size);
+        }
+
+        private ByteBuffer getMappedBuffer(int offset) throws IOException {
+            if (mappedBuffer == null || offset + RECORD_HEADER_SIZE >= mappedBuffer.capacity() ||
+                    offset + Integer.BYTES + mappedBuffer.getInt(offset) > mappedBuffer.capacity()) {
+                size = channel.size();
+                mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return mappedBuffer;
+        }
+
+        // Drops the mapping before the file gets truncated
+        private void truncate(int offset) throws IOException {
+            mappedBuffer = null;
+            channel.truncate(offset);
+            size = channel.size();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.proto.network.NetworkProtoResolver;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Map view of a {@link PayloadLog}. Payloads are only parsed when a value is accessed. Parsed payloads are cached
+ * with soft references, so repeated access does not parse again as long as there is enough memory.
+ * Iterating the keys does not parse any payload.
+ */
+@Slf4j
+class PayloadLogMap extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private final PayloadLog payloadLog;
+    private final NetworkProtoResolver networkProtoResolver;
+    private final Cache<P2PDataStorage.ByteArray, PersistableNetworkPayload> cache = CacheBuilder.newBuilder()
+            .softValues()
+            .build();
+    @Nullable
+    private Set<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet;
+
+    PayloadLogMap(PayloadLog payloadLog, NetworkProtoResolver networkProtoResolver) {
+        this.payloadLog = payloadLog;
+        this.networkProtoResolver = networkProtoResolver;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Map
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public int size() {
+        return payloadLog.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof P2PDataStorage.ByteArray && payloadLog.contains(((P2PDataStorage.ByteArray) key).bytes);
+    }
+
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray))
+            return null;
+
+        P2PDataStorage.ByteArray hash = (P2PDataStorage.ByteArray) key;
+        PersistableNetworkPayload payload = cache.getIfPresent(hash);
+        if (payload != null)
+            return payload;
+
+        try {
+            byte[] serialized = payloadLog.read(hash.bytes);
+            if (serialized == null)
+                return null;
+
+            payload = PersistableNetworkPayload.fromProto(protobuf.PersistableNetworkPayload.parseFrom(serialized),
+                    networkProtoResolver);
+            cache.put(hash, payload);
+            return payload;
+        } catch (InvalidProtocolBufferException e) {
+            log.error("Could not parse payload with hash {} from payload log", hash.getHex(), e);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public PersistableNetworkPayload put(P2PDataStorage.ByteArray key, PersistableNetworkPayload value) {
+        PersistableNetworkPayload previous = get(key);
+        // Can happen if we receive data while shutting down. We get it again from the network at the next start.
+        if (payloadLog.isClosed()) {
+            log.warn("Payload log is closed. We do not add the payload with hash {}", key.getHex());
+            return previous;
+        }
+
+        try {
+            payloadLog.append(key.bytes, value.toProtoMessage().toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public PersistableNetworkPayload remove(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray))
+            return null;
+
+        P2PDataStorage.ByteArray hash = (P2PDataStorage.ByteArray) key;
+        PersistableNetworkPayload previous = get(hash);
+        if (payloadLog.isClosed()) {
+            log.warn("Payload log is closed. We do not remove the payload with hash {}", hash.getHex());
+            return previous;
+        }
+
+        try {
+            payloadLog.remove(hash.bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cache.invalidate(hash);
+        return previous;
+    }
+
+    @Override
+    public Set<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        if (entrySet == null)
+            entrySet = new EntrySet();
+        return entrySet;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Views
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private final class EntrySet extends AbstractSet<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> {
+        @Override
+        public Iterator<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+            List<P2PDataStorage.ByteArray> hashes = payloadLog.getHashes();
+            Iterator<P2PDataStorage.ByteArray> iterator = hashes.iterator();
+            return new Iterator<>() {
+                @Nullable
+                private P2PDataStorage.ByteArray lastHash;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> next() {
+                    lastHash = iterator.next();
+                    return new LazyEntry(lastHash);
+                }
+
+                @Override
+                public void remove() {
+                    if (lastHash == null)
+                        throw new IllegalStateException("next() has not been called");
+                    PayloadLogMap.this.remove(lastHash);
+                    lastHash = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return PayloadLogMap.this.size();
+        }
+    }
+
+    // The value gets parsed at the first call of getValue.
+    private final class LazyEntry implements Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final P2PDataStorage.ByteArray key;
+        @Nullable
+        private PersistableNetworkPayload value;
+
+        private LazyEntry(P2PDataStorage.ByteArray key) {
+            this.key = key;
+        }
+
+        @Override
+        public P2PDataStorage.ByteArray getKey() {
+            return key;
+        }
+
+        @Override
+        public PersistableNetworkPayload getValue() {
+            if (value == null)
+                value = get(key);
+            return value;
+        }
+
+        @Override
+        public PersistableNetworkPayload setValue(PersistableNetworkPayload value) {
+            PersistableNetworkPayload previous = put(key, value);
+            this.value = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return key.equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            PersistableNetworkPayload value = getValue();
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+    }
+}
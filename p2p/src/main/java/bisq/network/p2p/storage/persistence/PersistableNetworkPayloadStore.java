@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.storage.persistence;
 
+import bisq.network.p2p.storage.ByteArrayHashMap;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
@@ -24,7 +25,6 @@ import bisq.common.proto.persistable.PersistableEnvelope;
 
 import java.util.Collection;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -36,7 +36,7 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class PersistableNetworkPayloadStore<T extends PersistableNetworkPayload> implements PersistableEnvelope {
     @Getter
-    protected final Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new ConcurrentHashMap<>();
+    protected Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new ByteArrayHashMap<>();
 
     protected PersistableNetworkPayloadStore() {
     }
@@ -48,4 +48,9 @@ public abstract class PersistableNetworkPayloadStore<T extends PersistableNetwor
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
         return map.containsKey(hash);
     }
+
+    // Used if the store is backed by a PayloadLog instead of the protobuf file
+    void setMap(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map) {
+        this.map = map;
+    }
 }
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+import bisq.common.file.FileUtil;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkProtoResolver;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Handles persisted PersistableNetworkPayloads.
+ * <p>
+ * By default the store is persisted as a single protobuf file by the PersistenceManager. If the payload log is
+ * enabled the store is backed by a {@link PayloadLog} instead: new payloads are appended to the log, and payloads
+ * are only parsed when they are accessed. At the first start with the payload log the data of the protobuf file is
+ * migrated to the log. The protobuf file is left untouched, so the payload log can be disabled again (data added in
+ * the meantime is then requested again from the network).
+ *
+ * @param <T>
+ */
+@Slf4j
+public abstract class PersistableNetworkPayloadStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>>
+        extends MapStoreService<T, PersistableNetworkPayload> {
+    private static final String PAYLOAD_LOG_DIR_POSTFIX = "_log";
+
+    @Nullable
+    private final NetworkProtoResolver networkProtoResolver;
+    @Nullable
+    private PayloadLog payloadLog;
+    @Nullable
+    private Timer forcePayloadLogTimer;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public PersistableNetworkPayloadStoreService(File storageDir, PersistenceManager<T> persistenceManager) {
+        this(storageDir, persistenceManager, null, false);
+    }
+
+    public PersistableNetworkPayloadStoreService(File storageDir,
+                                                 PersistenceManager<T> persistenceManager,
+                                                 @Nullable NetworkProtoResolver networkProtoResolver,
+                                                 boolean usePayloadLogStorage) {
+        super(storageDir, persistenceManager);
+        this.networkProtoResolver = usePayloadLogStorage ? networkProtoResolver : null;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Closes the payload log. The data is forced to the storage device, pending writes of the protobuf file are
+    // done by the PersistenceManager at shutdown.
+    public void shutDown() {
+        if (forcePayloadLogTimer != null) {
+            forcePayloadLogTimer.stop();
+            forcePayloadLogTimer = null;
+        }
+
+        if (payloadLog == null)
+            return;
+
+        try {
+            payloadLog.close();
+        } catch (IOException e) {
+            log.error("Could not close payload log of {}", getFileName(), e);
+        }
+    }
+
+    public void persistNow() {
+        if (payloadLog != null) {
+            forcePayloadLog();
+        } else {
+            persistenceManager.persistNow(() -> {
+            });
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Protected
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    protected void requestPersistence() {
+        if (payloadLog == null) {
+            super.requestPersistence();
+            return;
+        }
+
+        // The data is written to the log already. We only delay forcing it to the storage device.
+        if (forcePayloadLogTimer == null) {
+            forcePayloadLogTimer = UserThread.runAfter(this::forcePayloadLog,
+                    PersistenceManager.Source.NETWORK.getDelay(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected void readStore(Consumer<T> consumer) {
+        if (networkProtoResolver == null) {
+            super.readStore(consumer);
+            return;
+        }
+
+        File payloadLogDir = new File(absolutePathOfStorageDir, getFileName() + PAYLOAD_LOG_DIR_POSTFIX);
+        if (payloadLogDir.exists()) {
+            openPayloadLog(payloadLogDir, consumer);
+            return;
+        }
+
+        // First start with the payload log. We migrate the data from our protobuf file.
+        readStore(getFileName(), persisted -> {
+            File tempDir = new File(absolutePathOfStorageDir, payloadLogDir.getName() + ".tmp");
+            try {
+                if (tempDir.exists())
+                    FileUtil.deleteDirectory(tempDir);
+                try (PayloadLog tempLog = new PayloadLog(tempDir)) {
+                    for (PersistableNetworkPayload payload : persisted.getMap().values())
+                        tempLog.append(payload.getHash(), payload.toProtoMessage().toByteArray());
+                }
+                if (!tempDir.renameTo(payloadLogDir))
+                    throw new IOException("Could not rename " + tempDir + " to " + payloadLogDir);
+                log.info("Migrated {} entries from {} to the payload log", persisted.getMap().size(), getFileName());
+            } catch (IOException e) {
+                log.error("Migration of {} to the payload log failed. We use the protobuf file.", getFileName(), e);
+                store = persisted;
+                initializePersistenceManager();
+                consumer.accept(persisted);
+                return;
+            }
+            openPayloadLog(payloadLogDir, consumer);
+        });
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void openPayloadLog(File payloadLogDir, Consumer<T> consumer) {
+        try {
+            payloadLog = new PayloadLog(payloadLogDir);
+        } catch (IOException e) {
+            log.error("Could not open payload log {}. We use the protobuf file.", payloadLogDir, e);
+            super.readStore(consumer);
+            return;
+        }
+
+        // We do not initialize the persistenceManager as the protobuf file must not get written.
+        store = createStore();
+        store.setMap(new PayloadLogMap(payloadLog, networkProtoResolver));
+        consumer.accept(store);
+    }
+
+    private void forcePayloadLog() {
+        forcePayloadLogTimer = null;
+        try {
+            if (payloadLog != null)
+                payloadLog.force();
+        } catch (IOException e) {
+            log.error("Could not force payload log of {}", getFileName(), e);
+        }
+    }
+}
@@ -18,12 +18,12 @@
 package bisq.network.p2p.storage.persistence;
 
 
+import bisq.network.p2p.storage.ByteArrayHashMap;
 import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.util.Utilities;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -36,7 +36,7 @@ public class RemovedPayloadsMap implements PersistableEnvelope {
     private final Map<P2PDataStorage.ByteArray, Long> dateByHashes;
 
     public RemovedPayloadsMap() {
-        this.dateByHashes = new HashMap<>();
+        this.dateByHashes = new ByteArrayHashMap<>();
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -61,9 +61,8 @@ public class RemovedPayloadsMap implements PersistableEnvelope {
     }
 
     public static RemovedPayloadsMap fromProto(protobuf.RemovedPayloadsMap proto) {
-        Map<P2PDataStorage.ByteArray, Long> dateByHashes = proto.getDateByHashesMap().entrySet().stream()
-                .collect(Collectors.toMap(e -> new P2PDataStorage.ByteArray(Utilities.decodeFromHex(e.getKey())),
-                        Map.Entry::getValue));
+        ByteArrayHashMap<Long> dateByHashes = new ByteArrayHashMap<>(proto.getDateByHashesCount());
+        proto.getDateByHashesMap().forEach((hex, date) -> dateByHashes.put(Utilities.decodeFromHex(hex), date));
         return new RemovedPayloadsMap(dateByHashes);
     }
 
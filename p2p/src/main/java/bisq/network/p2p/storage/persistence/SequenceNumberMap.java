@@ -17,17 +17,15 @@
 
 package bisq.network.p2p.storage.persistence;
 
+import bisq.network.p2p.storage.ByteArrayHashMap;
 import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.proto.persistable.PersistableEnvelope;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
-import lombok.Setter;
 
 /**
  * This class was not generalized to HashMapPersistable (like we did with #ListPersistable) because
@@ -36,8 +34,7 @@ import lombok.Setter;
  */
 public class SequenceNumberMap implements PersistableEnvelope {
     @Getter
-    @Setter
-    private Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new ConcurrentHashMap<>();
+    private Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new ByteArrayHashMap<>();
 
     public SequenceNumberMap() {
     }
@@ -65,7 +62,7 @@ public class SequenceNumberMap implements PersistableEnvelope {
     }
 
     public static SequenceNumberMap fromProto(protobuf.SequenceNumberMap proto) {
-        HashMap<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map = new HashMap<>();
+        ByteArrayHashMap<P2PDataStorage.MapValue> map = new ByteArrayHashMap<>(proto.getSequenceNumberEntriesCount());
         proto.getSequenceNumberEntriesList()
                 .forEach(e -> map.put(P2PDataStorage.ByteArray.fromProto(e.getBytes()), P2PDataStorage.MapValue.fromProto(e.getMapValue())));
         return new SequenceNumberMap(map);
@@ -76,6 +73,10 @@ public class SequenceNumberMap implements PersistableEnvelope {
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    public void setMap(Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map) {
+        this.map = new ByteArrayHashMap<>(map);
+    }
+
     // Delegates
     public int size() {
         return map.size();
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.mailbox;
+
+import bisq.network.crypto.EncryptionService;
+import bisq.network.p2p.DecryptedMessageWithPubKey;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.PeerManager;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.time.Clock;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MailboxMessageServiceTest {
+    private static final byte[] MY_SIGNATURE_PUB_KEY_BYTES = new byte[]{1, 2, 3};
+    private static final byte[] OTHER_SIGNATURE_PUB_KEY_BYTES = new byte[]{4, 5, 6};
+
+    private EncryptionService encryptionService;
+    private IgnoredMailboxService ignoredMailboxService;
+    private MailboxMessageService mailboxMessageService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        encryptionService = mock(EncryptionService.class);
+        ignoredMailboxService = mock(IgnoredMailboxService.class);
+        KeyRing keyRing = mock(KeyRing.class);
+        PubKeyRing pubKeyRing = mock(PubKeyRing.class);
+        when(keyRing.getPubKeyRing()).thenReturn(pubKeyRing);
+        when(pubKeyRing.getSignaturePubKeyBytes()).thenReturn(MY_SIGNATURE_PUB_KEY_BYTES);
+
+        mailboxMessageService = new MailboxMessageService(mock(NetworkNode.class),
+                mock(PeerManager.class),
+                mock(P2PDataStorage.class),
+                encryptionService,
+                ignoredMailboxService,
+                mock(PersistenceManager.class),
+                keyRing,
+                Clock.systemDefaultZone(),
+                false);
+    }
+
+    // TESTCASE: Only the entry addressed to our key gets decrypted
+    @Test
+    public void getMailboxItems_decryptsOnlyEntriesAddressedToUs() throws Exception {
+        SealedAndSigned mySealedAndSigned = mock(SealedAndSigned.class);
+        SealedAndSigned otherSealedAndSigned = mock(SealedAndSigned.class);
+        ProtectedMailboxStorageEntry myEntry = buildEntry("myUid", MY_SIGNATURE_PUB_KEY_BYTES, mySealedAndSigned);
+        ProtectedMailboxStorageEntry otherEntry = buildEntry("otherUid", OTHER_SIGNATURE_PUB_KEY_BYTES,
+                otherSealedAndSigned);
+        DecryptedMessageWithPubKey decryptedMessage = buildDecryptedMessage(mock(MailboxMessage.class));
+        when(encryptionService.decryptAndVerify(mySealedAndSigned)).thenReturn(decryptedMessage);
+
+        Set<MailboxItem> mailboxItems = mailboxMessageService.getMailboxItems(List.of(myEntry, otherEntry));
+
+        verify(encryptionService).decryptAndVerify(mySealedAndSigned);
+        verify(encryptionService, never()).decryptAndVerify(otherSealedAndSigned);
+        Map<ProtectedMailboxStorageEntry, MailboxItem> itemsByEntry = mailboxItems.stream()
+                .collect(Collectors.toMap(MailboxItem::getProtectedMailboxStorageEntry, item -> item));
+        Assert.assertEquals(2, itemsByEntry.size());
+        Assert.assertSame(decryptedMessage, itemsByEntry.get(myEntry).getDecryptedMessageWithPubKey());
+        Assert.assertFalse(itemsByEntry.get(otherEntry).isMine());
+    }
+
+    // TESTCASE: An entry which was ignored after a failed decryption does not get decrypted again
+    @Test
+    public void getMailboxItems_skipsIgnoredEntries() throws Exception {
+        ProtectedMailboxStorageEntry myEntry = buildEntry("myUid", MY_SIGNATURE_PUB_KEY_BYTES,
+                mock(SealedAndSigned.class));
+        when(ignoredMailboxService.isIgnored("myUid")).thenReturn(true);
+
+        Set<MailboxItem> mailboxItems = mailboxMessageService.getMailboxItems(List.of(myEntry));
+
+        verify(encryptionService, never()).decryptAndVerify(any());
+        Assert.assertEquals(1, mailboxItems.size());
+        Assert.assertFalse(mailboxItems.iterator().next().isMine());
+    }
+
+    // TESTCASE: A decrypted message which is not a MailboxMessage does not fail the other entries
+    @Test
+    public void getMailboxItems_invalidMessageIsNotMine() throws Exception {
+        SealedAndSigned sealedAndSigned = mock(SealedAndSigned.class);
+        SealedAndSigned invalidSealedAndSigned = mock(SealedAndSigned.class);
+        ProtectedMailboxStorageEntry myEntry = buildEntry("myUid", MY_SIGNATURE_PUB_KEY_BYTES, sealedAndSigned);
+        ProtectedMailboxStorageEntry invalidEntry = buildEntry("invalidUid", MY_SIGNATURE_PUB_KEY_BYTES,
+                invalidSealedAndSigned);
+        when(encryptionService.decryptAndVerify(sealedAndSigned))
+                .thenReturn(buildDecryptedMessage(mock(MailboxMessage.class)));
+        when(encryptionService.decryptAndVerify(invalidSealedAndSigned))
+                .thenReturn(buildDecryptedMessage(mock(NetworkEnvelope.class)));
+
+        Set<MailboxItem> mailboxItems = mailboxMessageService.getMailboxItems(List.of(myEntry, invalidEntry));
+
+        Map<ProtectedMailboxStorageEntry, MailboxItem> itemsByEntry = mailboxItems.stream()
+                .collect(Collectors.toMap(MailboxItem::getProtectedMailboxStorageEntry, item -> item));
+        Assert.assertTrue(itemsByEntry.get(myEntry).isMine());
+        Assert.assertFalse(itemsByEntry.get(invalidEntry).isMine());
+    }
+
+    private static ProtectedMailboxStorageEntry buildEntry(String uid,
+                                                           byte[] receiversPubKeyBytes,
+                                                           SealedAndSigned sealedAndSigned) {
+        PrefixedSealedAndSignedMessage message = mock(PrefixedSealedAndSignedMessage.class);
+        when(message.getUid()).thenReturn(uid);
+        when(message.getSealedAndSigned()).thenReturn(sealedAndSigned);
+        MailboxStoragePayload payload = mock(MailboxStoragePayload.class);
+        when(payload.getPrefixedSealedAndSignedMessage()).thenReturn(message);
+        ProtectedMailboxStorageEntry entry = mock(ProtectedMailboxStorageEntry.class);
+        when(entry.getMailboxStoragePayload()).thenReturn(payload);
+        when(entry.getReceiversPubKeyBytes()).thenReturn(receiversPubKeyBytes);
+        return entry;
+    }
+
+    private static DecryptedMessageWithPubKey buildDecryptedMessage(NetworkEnvelope networkEnvelope) {
+        DecryptedMessageWithPubKey decryptedMessage = mock(DecryptedMessageWithPubKey.class);
+        when(decryptedMessage.getNetworkEnvelope()).thenReturn(networkEnvelope);
+        return decryptedMessage;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.BundleOfEnvelopes;
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.PrefixedSealedAndSignedMessage;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+import bisq.network.p2p.storage.payload.MailboxStoragePayload;
+import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
+
+import bisq.common.app.Version;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.crypto.Sig;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import org.apache.commons.lang3.RandomUtils;
+
+import java.security.KeyPair;
+
+import java.time.Clock;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the CPU time per broadcast message if a bundle of broadcast messages gets encoded for each peer and if
+ * it gets encoded once with an EncodedEnvelope which is written to all peers.
+ */
+@Ignore
+@Slf4j
+public class BroadcastEncodingBenchmark {
+    private static final int NUM_MESSAGES = 20;
+    private static final int NUM_PEERS = 50;
+    private static final int NUM_BROADCASTS = 200;
+
+    private static final OutputStream NULL_OUTPUT_STREAM = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Test
+    public void broadcastCpuTimePerMessage() throws IOException {
+        Version.setBaseCryptoNetworkId(1);
+        List<NetworkEnvelope> messages = createMessages();
+
+        // Warm up
+        for (int i = 0; i < 10; i++) {
+            encodePerPeer(messages);
+            encodeOnce(messages);
+        }
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long ts = threadMXBean.getCurrentThreadCpuTime();
+        for (int i = 0; i < NUM_BROADCASTS; i++)
+            encodePerPeer(messages);
+        long perPeerNanos = threadMXBean.getCurrentThreadCpuTime() - ts;
+
+        ts = threadMXBean.getCurrentThreadCpuTime();
+        for (int i = 0; i < NUM_BROADCASTS; i++)
+            encodeOnce(messages);
+        long onceNanos = threadMXBean.getCurrentThreadCpuTime() - ts;
+
+        long numBroadcastMessages = (long) NUM_BROADCASTS * NUM_MESSAGES;
+        log.info("Broadcast of {} messages to {} peers. CPU time per message: encoded per peer {} µs, encoded once {} µs",
+                NUM_MESSAGES,
+                NUM_PEERS,
+                perPeerNanos / numBroadcastMessages / 1000,
+                onceNanos / numBroadcastMessages / 1000);
+    }
+
+    private void encodePerPeer(List<NetworkEnvelope> messages) throws IOException {
+        for (int i = 0; i < NUM_PEERS; i++) {
+            new BundleOfEnvelopes(messages).toProtoNetworkEnvelope().writeDelimitedTo(NULL_OUTPUT_STREAM);
+        }
+    }
+
+    private void encodeOnce(List<NetworkEnvelope> messages) throws IOException {
+        EncodedEnvelope encodedEnvelope = new EncodedEnvelope(new BundleOfEnvelopes(messages));
+        for (int i = 0; i < NUM_PEERS; i++) {
+            encodedEnvelope.writeTo(NULL_OUTPUT_STREAM);
+        }
+    }
+
+    private List<NetworkEnvelope> createMessages() {
+        KeyPair keyPair = Sig.generateKeyPair();
+        List<NetworkEnvelope> messages = new ArrayList<>();
+        for (int i = 0; i < NUM_MESSAGES; i++) {
+            // About the size of a mailbox message
+            SealedAndSigned sealedAndSigned = new SealedAndSigned(RandomUtils.nextBytes(256),
+                    RandomUtils.nextBytes(2500),
+                    RandomUtils.nextBytes(46),
+                    keyPair.getPublic());
+            PrefixedSealedAndSignedMessage message = new PrefixedSealedAndSignedMessage(new NodeAddress("host", 1000),
+                    sealedAndSigned);
+            MailboxStoragePayload payload = new MailboxStoragePayload(message, keyPair.getPublic(), keyPair.getPublic(),
+                    MailboxStoragePayload.TTL);
+            messages.add(new AddDataMessage(new ProtectedMailboxStorageEntry(payload, keyPair.getPublic(), 1,
+                    RandomUtils.nextBytes(46), keyPair.getPublic(), Clock.systemDefaultZone())));
+        }
+        return messages;
+    }
+}
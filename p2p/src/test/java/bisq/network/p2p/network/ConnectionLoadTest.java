@@ -0,0 +1,143 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.TestUtils;
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import bisq.common.app.Capability;
+import bisq.common.config.Config;
+
+import java.lang.management.ManagementFactory;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.After;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Opens 1000 connections over localhost, lets every peer send a message and sends a bundled reply to every peer.
+ * Logs the number of live threads and the used memory with dedicated threads per connection and with the
+ * shared connection threads.
+ * Not run with the regular tests as it opens a lot of sockets (might require a higher open files limit).
+ */
+@Ignore
+@Slf4j
+public class ConnectionLoadTest {
+    private static final int NUM_PEERS = 1000;
+
+    @After
+    public void tearDown() {
+        Connection.setConfig(null);
+    }
+
+    @Test
+    public void dedicatedThreads() throws Exception {
+        run(new Config("--" + Config.SHARED_CONNECTION_THREADS + "=false"));
+    }
+
+    @Test
+    public void sharedThreads() throws Exception {
+        run(new Config("--" + Config.SHARED_CONNECTION_THREADS + "=true"));
+    }
+
+    private void run(Config config) throws Exception {
+        Connection.setConfig(config);
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long memoryBefore = usedMemory();
+
+        CountDownLatch receivedLatch = new CountDownLatch(NUM_PEERS);
+        MessageListener messageListener = (networkEnvelope, connection) -> receivedLatch.countDown();
+        ConnectionListener connectionListener = new ConnectionListener() {
+            @Override
+            public void onConnection(Connection connection) {
+            }
+
+            @Override
+            public void onDisconnect(CloseConnectionReason closeConnectionReason, Connection connection) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+        };
+
+        List<Socket> peers = new ArrayList<>();
+        List<Connection> connections = new ArrayList<>();
+        try (ServerSocket serverSocket = new ServerSocket(0, NUM_PEERS, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < NUM_PEERS; i++) {
+                peers.add(new Socket(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()));
+                Connection connection = new Connection(serverSocket.accept(), messageListener, connectionListener,
+                        null, TestUtils.getNetworkProtoResolver(), null);
+                connection.getCapabilities().addAll(Capability.BUNDLE_OF_ENVELOPES);
+                connections.add(connection);
+            }
+
+            for (Socket peer : peers)
+                new Ping(1, 0).toProtoNetworkEnvelope().writeDelimitedTo(peer.getOutputStream());
+            assertTrue(receivedLatch.await(60, TimeUnit.SECONDS));
+
+            // The second message is sent within the throttle trigger time and gets bundled.
+            for (Connection connection : connections) {
+                connection.sendMessage(new Ping(2, 0));
+                connection.sendMessage(new Ping(3, 0));
+            }
+            Thread.sleep(1000);
+
+            log.info("{} connections with sharedConnectionThreads={}: {} additional threads, {} kb additional memory",
+                    NUM_PEERS,
+                    config.sharedConnectionThreads,
+                    ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore,
+                    (usedMemory() - memoryBefore) / 1024);
+        } finally {
+            connections.forEach(connection -> connection.shutDown(CloseConnectionReason.APP_SHUT_DOWN));
+            for (Socket peer : peers) {
+                try {
+                    peer.close();
+                } catch (IOException ignore) {
+                }
+            }
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignore) {
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EncodedEnvelopeTest {
+    @Test
+    public void writesDelimitedEncoding() throws Exception {
+        Ping ping = new Ping(1, 2);
+        EncodedEnvelope encodedEnvelope = new EncodedEnvelope(ping);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        encodedEnvelope.writeTo(outputStream);
+        encodedEnvelope.writeTo(outputStream);
+
+        protobuf.NetworkEnvelope expected = ping.toProtoNetworkEnvelope();
+        assertEquals(expected.getSerializedSize(), encodedEnvelope.getSerializedSize());
+
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+        assertEquals(expected, protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+        assertEquals(expected, protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+        assertNull(protobuf.NetworkEnvelope.parseDelimitedFrom(inputStream));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.network.p2p.peers.keepalive.messages.Ping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MessageDispatcherTest {
+    private static final int NUM_CONNECTIONS = 10;
+    private static final int NUM_MESSAGES = 1000;
+
+    @Test
+    public void disabledByDefault() {
+        assertFalse(new MessageDispatcher(0).isEnabled());
+    }
+
+    @Test
+    public void keepsOrderPerConnection() throws InterruptedException {
+        MessageDispatcher messageDispatcher = new MessageDispatcher(4);
+        assertTrue(messageDispatcher.isEnabled());
+
+        CountDownLatch latch = new CountDownLatch(NUM_CONNECTIONS * NUM_MESSAGES);
+        List<List<Integer>> handledNonces = new ArrayList<>();
+        List<AtomicInteger> preProcessedCounters = new ArrayList<>();
+        List<Executor> connectionExecutors = new ArrayList<>();
+        for (int i = 0; i < NUM_CONNECTIONS; i++) {
+            handledNonces.add(new ArrayList<>());
+            preProcessedCounters.add(new AtomicInteger());
+            connectionExecutors.add(messageDispatcher.newConnectionExecutor());
+        }
+
+        for (int nonce = 0; nonce < NUM_MESSAGES; nonce++) {
+            for (int i = 0; i < NUM_CONNECTIONS; i++) {
+                Ping ping = new Ping(nonce, 0);
+                List<Integer> nonces = handledNonces.get(i);
+                AtomicInteger preProcessed = preProcessedCounters.get(i);
+                messageDispatcher.dispatch(connectionExecutors.get(i),
+                        ping,
+                        preProcessed::incrementAndGet,
+                        () -> {
+                            // The handler of a message is called after it has been pre-processed
+                            assertTrue(preProcessed.get() > ping.getNonce());
+                            // UserThread uses the caller thread in tests, so we synchronize on the list
+                            synchronized (nonces) {
+                                nonces.add(ping.getNonce());
+                            }
+                            latch.countDown();
+                        });
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (List<Integer> nonces : handledNonces) {
+            assertEquals(NUM_MESSAGES, nonces.size());
+            for (int nonce = 0; nonce < NUM_MESSAGES; nonce++)
+                assertEquals(nonce, (int) nonces.get(nonce));
+        }
+        assertEquals(0, messageDispatcher.getQueueSize());
+    }
+}
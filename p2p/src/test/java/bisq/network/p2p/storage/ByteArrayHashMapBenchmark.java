@@ -0,0 +1,112 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Compares the retained memory per entry and the lookup throughput of ByteArrayHashMap with the
+ * ConcurrentHashMap we used before and with a HashMap. Keys are fresh byte arrays like the ones we get from the network or from disk.
+ * Not run with the regular tests as the results depend on the machine. Run it with -Xmx2g.
+ */
+@Ignore
+@Slf4j
+public class ByteArrayHashMapBenchmark {
+    private static final int NUM_ENTRIES = 500_000;
+    private static final int NUM_LOOKUPS = 10_000_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void compare20ByteKeys() {
+        run(20);
+    }
+
+    @Test
+    public void compare32ByteKeys() {
+        run(32);
+    }
+
+    private void run(int keyLength) {
+        byte[][] keys = createKeys(keyLength);
+        benchmark("ConcurrentHashMap", ConcurrentHashMap::new, keys);
+        benchmark("HashMap", HashMap::new, keys);
+        benchmark("ByteArrayHashMap", ByteArrayHashMap::new, keys);
+    }
+
+    private void benchmark(String name, Supplier<Map<P2PDataStorage.ByteArray, Object>> mapSupplier, byte[][] keys) {
+        Object value = new Object();
+        long usedBefore = usedMemory();
+        Map<P2PDataStorage.ByteArray, Object> map = mapSupplier.get();
+        for (byte[] key : keys)
+            map.put(new P2PDataStorage.ByteArray(key.clone()), value);
+        long usedAfter = usedMemory();
+        log.info("{} with {} byte keys: {} bytes per entry",
+                name, keys[0].length, (usedAfter - usedBefore) / keys.length);
+
+        // The lookup keys are different instances, as in the GetData handling.
+        P2PDataStorage.ByteArray[] lookupKeys = new P2PDataStorage.ByteArray[keys.length];
+        for (int i = 0; i < keys.length; i++)
+            lookupKeys[i] = new P2PDataStorage.ByteArray(keys[i].clone());
+
+        Random random = new Random(1);
+        for (int round = 0; round < ROUNDS; round++) {
+            long ts = System.nanoTime();
+            int found = 0;
+            for (int i = 0; i < NUM_LOOKUPS; i++) {
+                if (map.get(lookupKeys[random.nextInt(lookupKeys.length)]) != null)
+                    found++;
+            }
+            long duration = System.nanoTime() - ts;
+            log.info("{} round {}: {} lookups/ms ({} found)",
+                    name, round, NUM_LOOKUPS * 1_000_000L / duration, found);
+        }
+        // Keep the map reachable until all rounds are done
+        log.info("{} size {}", name, map.size());
+    }
+
+    private static byte[][] createKeys(int keyLength) {
+        Random random = new Random(1);
+        byte[][] keys = new byte[NUM_ENTRIES][];
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            keys[i] = new byte[keyLength];
+            random.nextBytes(keys[i]);
+        }
+        return keys;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ignore) {
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
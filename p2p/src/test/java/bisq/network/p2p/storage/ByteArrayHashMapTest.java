@@ -0,0 +1,234 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ByteArrayHashMapTest {
+    private Random random;
+    private ByteArrayHashMap<Integer> map;
+
+    @Before
+    public void setUp() {
+        random = new Random(1);
+        map = new ByteArrayHashMap<>();
+    }
+
+    @Test
+    public void putAndGet() {
+        byte[] key = randomKey(32);
+        Assert.assertNull(map.put(new P2PDataStorage.ByteArray(key), 1));
+        Assert.assertEquals(Integer.valueOf(1), map.put(new P2PDataStorage.ByteArray(key.clone()), 2));
+
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals(Integer.valueOf(2), map.get(new P2PDataStorage.ByteArray(key.clone())));
+        Assert.assertEquals(Integer.valueOf(2), map.get(key.clone()));
+        Assert.assertTrue(map.containsKey(key.clone()));
+        Assert.assertFalse(map.containsKey(randomKey(32)));
+    }
+
+    @Test
+    public void keysOfDifferentLength() {
+        // A 20 byte key must not match a 32 byte key with the same prefix and zero padding.
+        byte[] key20 = randomKey(20);
+        byte[] key32 = new byte[32];
+        System.arraycopy(key20, 0, key32, 0, 20);
+        byte[] key40 = randomKey(40);
+        map.put(key20, 20);
+        map.put(key32, 32);
+        map.put(key40, 40);
+        map.put(new byte[0], 0);
+
+        Assert.assertEquals(4, map.size());
+        Assert.assertEquals(Integer.valueOf(20), map.get(key20));
+        Assert.assertEquals(Integer.valueOf(32), map.get(key32));
+        Assert.assertEquals(Integer.valueOf(40), map.get(new P2PDataStorage.ByteArray(key40.clone())));
+        Assert.assertEquals(Integer.valueOf(0), map.get(new byte[0]));
+    }
+
+    @Test
+    public void putIfAbsent() {
+        P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(randomKey(20));
+        Assert.assertNull(map.putIfAbsent(key, 1));
+        Assert.assertEquals(Integer.valueOf(1), map.putIfAbsent(key, 2));
+        Assert.assertEquals(Integer.valueOf(1), map.get(key));
+    }
+
+    @Test
+    public void behavesLikeHashMap() {
+        Map<P2PDataStorage.ByteArray, Integer> expected = new HashMap<>();
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 2000; i++)
+            keys.add(randomKey(i % 3 == 0 ? 20 : 32));
+
+        for (int i = 0; i < 100000; i++) {
+            P2PDataStorage.ByteArray key = new P2PDataStorage.ByteArray(keys.get(random.nextInt(keys.size())).clone());
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(map, expected);
+    }
+
+    @Test
+    public void iteratorIsWeaklyConsistent() {
+        for (int i = 0; i < 100; i++)
+            map.put(randomKey(32), i);
+
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Map.Entry<P2PDataStorage.ByteArray, Integer>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<P2PDataStorage.ByteArray, Integer> entry = iterator.next();
+            // Modifications during iteration must not break the iterator. Added entries might be returned or not.
+            if (entry.getValue() >= 0) {
+                map.put(randomKey(32), -1);
+                Assert.assertTrue(seen.add(entry.getValue()));
+                if (entry.getValue() % 2 == 0)
+                    iterator.remove();
+            }
+        }
+
+        Assert.assertEquals(100, seen.size());
+        Assert.assertEquals(150, map.size());
+    }
+
+    @Test
+    public void iteratorSurvivesResize() {
+        for (int i = 0; i < 10; i++)
+            map.put(randomKey(20), i);
+
+        Set<Integer> seen = new HashSet<>();
+        Iterator<Integer> iterator = map.values().iterator();
+        seen.add(iterator.next());
+        // Forces several resizes
+        for (int i = 0; i < 1000; i++)
+            map.put(randomKey(20), -1);
+        iterator.forEachRemaining(value -> {
+            if (value >= 0)
+                Assert.assertTrue(seen.add(value));
+        });
+
+        Assert.assertEquals(10, seen.size());
+    }
+
+    @Test
+    public void tombstonesAreReused() {
+        byte[] key = randomKey(32);
+        for (int i = 0; i < 100000; i++) {
+            map.put(key, i);
+            map.remove(key.clone());
+        }
+        Assert.assertTrue(map.isEmpty());
+
+        map.put(key, 1);
+        Assert.assertEquals(Integer.valueOf(1), map.get(key));
+    }
+
+    @Test
+    public void views() {
+        byte[] key20 = randomKey(20);
+        byte[] key40 = randomKey(40);
+        map.put(key20, 20);
+        map.put(key40, 40);
+
+        Assert.assertEquals(Set.of(new P2PDataStorage.ByteArray(key20), new P2PDataStorage.ByteArray(key40)),
+                new HashSet<>(map.keySet()));
+        Assert.assertEquals(Set.of(20, 40), new HashSet<>(map.values()));
+        Assert.assertEquals(Map.of(new P2PDataStorage.ByteArray(key20), 20, new P2PDataStorage.ByteArray(key40), 40),
+                new HashMap<>(map));
+
+        Map.Entry<P2PDataStorage.ByteArray, Integer> entry = map.entrySet().iterator().next();
+        entry.setValue(1);
+        Assert.assertEquals(Integer.valueOf(1), map.get(entry.getKey()));
+        Assert.assertEquals(new AbstractMap.SimpleEntry<>(entry.getKey(), 1).hashCode(), entry.hashCode());
+    }
+
+    @Test
+    public void concurrentReadsAndWrites() throws Exception {
+        List<byte[]> stableKeys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            stableKeys.add(randomKey(32));
+            map.put(stableKeys.get(i), i);
+        }
+
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(2);
+            List<byte[]> keys = new ArrayList<>();
+            for (int i = 0; i < 100000; i++) {
+                byte[] key = new byte[20];
+                random.nextBytes(key);
+                keys.add(key);
+                map.put(key, -1);
+                if (keys.size() > 500)
+                    map.remove(keys.remove(random.nextInt(keys.size())));
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            for (int i = 0; i < stableKeys.size(); i++) {
+                if (!Integer.valueOf(i).equals(map.get(stableKeys.get(i))))
+                    failed.set(true);
+            }
+            long numStableValues = map.values().stream().filter(value -> value >= 0).count();
+            if (numStableValues != stableKeys.size())
+                failed.set(true);
+        }
+        writer.join();
+
+        Assert.assertFalse(failed.get());
+    }
+
+    @Test
+    public void clear() {
+        for (int i = 0; i < 100; i++)
+            map.put(randomKey(32), i);
+        map.clear();
+
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullValueNotSupported() {
+        map.put(randomKey(32), null);
+    }
+
+    private byte[] randomKey(int length) {
+        byte[] key = new byte[length];
+        random.nextBytes(key);
+        return key;
+    }
+}
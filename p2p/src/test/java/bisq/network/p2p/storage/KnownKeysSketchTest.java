@@ -0,0 +1,127 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KnownKeysSketchTest {
+    private Random random;
+
+    @Before
+    public void setUp() {
+        random = new Random(1);
+    }
+
+    @Test
+    public void decodeDifference_identicalSets() {
+        KnownKeysSketch ours = new KnownKeysSketch(300);
+        KnownKeysSketch theirs = new KnownKeysSketch(300);
+        for (int i = 0; i < 10000; i++) {
+            byte[] key = randomKey(32);
+            ours.add(key);
+            theirs.add(key);
+        }
+
+        KnownKeysSketch.Difference difference = ours.decodeDifference(theirs);
+        Assert.assertTrue(difference.isComplete());
+        Assert.assertTrue(difference.getOnlyInThis().isEmpty());
+        Assert.assertTrue(difference.getOnlyInOther().isEmpty());
+        Assert.assertEquals(10000, ours.getNumKeys());
+    }
+
+    @Test
+    public void decodeDifference_smallDifference() {
+        KnownKeysSketch ours = new KnownKeysSketch(300);
+        KnownKeysSketch theirs = new KnownKeysSketch(300);
+        for (int i = 0; i < 10000; i++) {
+            byte[] key = randomKey(i % 2 == 0 ? 32 : 20);
+            ours.add(key);
+            theirs.add(key);
+        }
+        Set<P2PDataStorage.ByteArray> onlyOurs = new HashSet<>();
+        Set<P2PDataStorage.ByteArray> onlyTheirs = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            byte[] key = randomKey(i % 2 == 0 ? 32 : 20);
+            if (i % 4 == 0) {
+                theirs.add(key);
+                onlyTheirs.add(new P2PDataStorage.ByteArray(key));
+            } else {
+                ours.add(key);
+                onlyOurs.add(new P2PDataStorage.ByteArray(key));
+            }
+        }
+
+        KnownKeysSketch.Difference difference = ours.decodeDifference(KnownKeysSketch.fromBytes(theirs.toBytes()));
+        Assert.assertTrue(difference.isComplete());
+        Assert.assertEquals(onlyOurs, difference.getOnlyInThis().stream()
+                .map(P2PDataStorage.ByteArray::new)
+                .collect(Collectors.toSet()));
+        Assert.assertEquals(onlyTheirs, difference.getOnlyInOther().stream()
+                .map(P2PDataStorage.ByteArray::new)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void decodeDifference_tooLargeDifference() {
+        KnownKeysSketch ours = new KnownKeysSketch(30);
+        KnownKeysSketch theirs = new KnownKeysSketch(30);
+        for (int i = 0; i < 1000; i++)
+            ours.add(randomKey(32));
+
+        Assert.assertFalse(ours.decodeDifference(theirs).isComplete());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeDifference_differentNumCells() {
+        new KnownKeysSketch(30).decodeDifference(new KnownKeysSketch(60));
+    }
+
+    @Test
+    public void toBytes_roundTrip() {
+        KnownKeysSketch sketch = new KnownKeysSketch(31);
+        Assert.assertEquals(33, sketch.getNumCells());
+        sketch.add(randomKey(32));
+
+        KnownKeysSketch copy = KnownKeysSketch.fromBytes(sketch.toBytes());
+        Assert.assertEquals(sketch.getNumCells(), copy.getNumCells());
+        Assert.assertArrayEquals(sketch.toBytes(), copy.toBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fromBytes_invalidLength() {
+        KnownKeysSketch.fromBytes(new byte[10]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_keyTooLong() {
+        new KnownKeysSketch(30).add(new byte[33]);
+    }
+
+    private byte[] randomKey(int length) {
+        byte[] key = new byte[length];
+        random.nextBytes(key);
+        return key;
+    }
+}
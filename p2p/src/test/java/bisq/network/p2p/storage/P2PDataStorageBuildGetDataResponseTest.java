@@ -20,6 +20,7 @@ package bisq.network.p2p.storage;
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.TestUtils;
 import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.getdata.GetDataResponsePages;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
 import bisq.network.p2p.peers.getdata.messages.GetUpdatedDataRequest;
@@ -39,8 +40,10 @@ import com.google.protobuf.Message;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -245,6 +248,56 @@ public class P2PDataStorageBuildGetDataResponseTest {
             Assert.assertTrue(getDataResponse.getDataSet().isEmpty());
         }
 
+        // TESTCASE: Given a GetDataRequest w/o known PNP, split the response into pages
+        @Test
+        public void buildGetDataResponsePages_unknownPNPSplitIntoPages() {
+            for (byte i = 1; i <= 3; i++) {
+                this.testState.mockedStorage.addPersistableNetworkPayload(
+                        new PersistableNetworkPayloadStub(new byte[]{i}), this.localNodeAddress, false);
+            }
+
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>());
+
+            AtomicBoolean outPNPTruncated = new AtomicBoolean(false);
+            AtomicBoolean outPSETruncated = new AtomicBoolean(false);
+            Capabilities peerCapabilities = new Capabilities();
+            GetDataResponsePages getDataResponsePages = this.testState.mockedStorage.buildGetDataResponsePages(
+                    getDataRequest, 10, 2, outPNPTruncated, outPSETruncated, peerCapabilities);
+
+            Assert.assertFalse(outPNPTruncated.get());
+            Assert.assertFalse(outPSETruncated.get());
+            Assert.assertEquals(2, getDataResponsePages.getNumPages());
+            Assert.assertEquals(3, getDataResponsePages.getNumPersistableNetworkPayloads());
+            List<GetDataResponse> pages = new ArrayList<>();
+            getDataResponsePages.forEachRemaining(pages::add);
+            Assert.assertEquals(2, pages.size());
+            Assert.assertEquals(0, pages.get(0).getPageIndex());
+            Assert.assertTrue(pages.get(0).isHasMorePages());
+            Assert.assertEquals(2, pages.get(0).getPersistableNetworkPayloadSet().size());
+            Assert.assertEquals(1, pages.get(1).getPageIndex());
+            Assert.assertFalse(pages.get(1).isHasMorePages());
+            Assert.assertEquals(1, pages.get(1).getPersistableNetworkPayloadSet().size());
+            pages.forEach(page -> Assert.assertEquals(1, page.getRequestNonce()));
+        }
+
+        // TESTCASE: Given a GetDataRequest w/o any data to send back, a single empty page is built
+        @Test
+        public void buildGetDataResponsePages_nothingToSendBack() {
+            GetDataRequest getDataRequest =
+                    this.buildGetDataRequest(1, new HashSet<>());
+
+            GetDataResponsePages getDataResponsePages = this.testState.mockedStorage.buildGetDataResponsePages(
+                    getDataRequest, 10, 2, new AtomicBoolean(false), new AtomicBoolean(false), new Capabilities());
+
+            List<GetDataResponse> pages = new ArrayList<>();
+            getDataResponsePages.forEachRemaining(pages::add);
+            Assert.assertEquals(1, pages.size());
+            Assert.assertFalse(pages.get(0).isHasMorePages());
+            Assert.assertTrue(pages.get(0).getPersistableNetworkPayloadSet().isEmpty());
+            Assert.assertTrue(pages.get(0).getDataSet().isEmpty());
+        }
+
         // TESTCASE: Given a GetDataRequest w/o known PNP, but missing required capabilities, nothing is sent back
         @Test
         public void buildGetDataResponse_unknownPNPCapabilitiesMismatchDontSendBack() {
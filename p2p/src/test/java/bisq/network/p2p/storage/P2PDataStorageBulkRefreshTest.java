@@ -0,0 +1,140 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.TestUtils;
+import bisq.network.p2p.storage.messages.BulkRefreshOfferMessage;
+import bisq.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
+
+import bisq.common.app.Version;
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Sig;
+
+import com.google.common.primitives.Bytes;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the P2PDataStore handling of BulkRefreshOfferMessages.
+ */
+public class P2PDataStorageBulkRefreshTest {
+    private TestState testState;
+    private KeyPair ownerKeys;
+    private List<ProtectedStoragePayload> payloads;
+
+    @Before
+    public void setUp() throws NoSuchAlgorithmException, CryptoException {
+        this.testState = new TestState();
+
+        // Deep in the bowels of protobuf we grab the messageID from the version module. This is required to hash the
+        // full MailboxStoragePayload so make sure it is initialized.
+        Version.setBaseCryptoNetworkId(1);
+
+        this.ownerKeys = TestUtils.generateKeyPair();
+        this.payloads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ProtectedStoragePayload protectedStoragePayload = new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic());
+            // The stub hashes to the owner key only, so we give each payload of the same owner its own hash
+            when(protectedStoragePayload.toProtoMessage().toByteArray())
+                    .thenReturn(Bytes.concat(Sig.getPublicKeyBytes(ownerKeys.getPublic()), new byte[]{(byte) i}));
+            ProtectedStorageEntry protectedStorageEntry = this.testState.mockedStorage.getProtectedStorageEntry(protectedStoragePayload, ownerKeys);
+            Assert.assertTrue(this.testState.mockedStorage.addProtectedStorageEntry(protectedStorageEntry, TestState.getTestNodeAddress(), null));
+            this.payloads.add(protectedStoragePayload);
+        }
+        this.testState.incrementClock();
+    }
+
+    // TESTCASE: All entries get a new timestamp and the message is broadcast once
+    @Test
+    public void refreshTTL_RefreshesAllEntries() throws CryptoException {
+        List<Long> timeStampsBefore = getCreationTimeStamps();
+
+        BulkRefreshOfferMessage bulkRefreshOfferMessage = this.testState.mockedStorage.getBulkRefreshTTLMessage(payloads, ownerKeys);
+        Assert.assertTrue(this.testState.mockedStorage.refreshTTL(bulkRefreshOfferMessage, TestState.getTestNodeAddress()));
+
+        List<Long> timeStampsAfter = getCreationTimeStamps();
+        for (int i = 0; i < payloads.size(); i++)
+            Assert.assertTrue(timeStampsAfter.get(i) > timeStampsBefore.get(i));
+        verify(this.testState.mockBroadcaster).broadcast(bulkRefreshOfferMessage, TestState.getTestNodeAddress());
+    }
+
+    // TESTCASE: A replayed message is rejected as the sequence numbers did not increase
+    @Test
+    public void refreshTTL_ReplayFails() throws CryptoException {
+        BulkRefreshOfferMessage bulkRefreshOfferMessage = this.testState.mockedStorage.getBulkRefreshTTLMessage(payloads, ownerKeys);
+        Assert.assertTrue(this.testState.mockedStorage.refreshTTL(bulkRefreshOfferMessage, TestState.getTestNodeAddress()));
+        this.testState.incrementClock();
+
+        List<Long> timeStampsBefore = getCreationTimeStamps();
+        Assert.assertFalse(this.testState.mockedStorage.refreshTTL(bulkRefreshOfferMessage, TestState.getTestNodeAddress()));
+        Assert.assertEquals(timeStampsBefore, getCreationTimeStamps());
+    }
+
+    // TESTCASE: A message signed by another key is rejected
+    @Test
+    public void refreshTTL_WrongOwnerFails() throws CryptoException, NoSuchAlgorithmException {
+        KeyPair notOwnerKeys = TestUtils.generateKeyPair();
+        BulkRefreshOfferMessage validMessage = this.testState.mockedStorage.getBulkRefreshTTLMessage(payloads, ownerKeys);
+        BulkRefreshOfferMessage signedByOther = this.testState.mockedStorage.getBulkRefreshTTLMessage(payloads, notOwnerKeys);
+        BulkRefreshOfferMessage bulkRefreshOfferMessage = new BulkRefreshOfferMessage(validMessage.getOwnerPubKeyBytes(),
+                validMessage.getEntries(),
+                signedByOther.getSignature());
+
+        List<Long> timeStampsBefore = getCreationTimeStamps();
+        Assert.assertFalse(this.testState.mockedStorage.refreshTTL(bulkRefreshOfferMessage, TestState.getTestNodeAddress()));
+        Assert.assertEquals(timeStampsBefore, getCreationTimeStamps());
+        verify(this.testState.mockBroadcaster, never()).broadcast(any(BulkRefreshOfferMessage.class), nullable(NodeAddress.class));
+    }
+
+    // TESTCASE: A message for entries we don't have is ignored
+    @Test
+    public void refreshTTL_NoExistingEntriesFails() throws CryptoException {
+        List<ProtectedStoragePayload> unknownPayloads = new ArrayList<>();
+        unknownPayloads.add(new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic()));
+        BulkRefreshOfferMessage bulkRefreshOfferMessage = this.testState.mockedStorage.getBulkRefreshTTLMessage(unknownPayloads, ownerKeys);
+
+        Assert.assertFalse(this.testState.mockedStorage.refreshTTL(bulkRefreshOfferMessage, TestState.getTestNodeAddress()));
+        verify(this.testState.mockBroadcaster, never()).broadcast(any(BulkRefreshOfferMessage.class), nullable(NodeAddress.class));
+    }
+
+    private List<Long> getCreationTimeStamps() {
+        List<Long> creationTimeStamps = new ArrayList<>();
+        for (ProtectedStoragePayload payload : payloads) {
+            P2PDataStorage.ByteArray hash = P2PDataStorage.get32ByteHashAsByteArray(payload);
+            creationTimeStamps.add(this.testState.mockedStorage.getMap().get(hash).getCreationTimeStamp());
+        }
+        return creationTimeStamps;
+    }
+}
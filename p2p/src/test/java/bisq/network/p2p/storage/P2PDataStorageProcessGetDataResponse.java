@@ -30,17 +30,22 @@ import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
 
 public class P2PDataStorageProcessGetDataResponse {
@@ -260,4 +265,21 @@ public class P2PDataStorageProcessGetDataResponse {
         this.testState.verifyProtectedStorageAdd(
                 beforeState, protectedStorageEntry, true, true, false, true);
     }
+
+    // TESTCASE: GetDataResponse w/ several missing PSEs signals the listeners once with all added entries
+    @Test
+    public void processGetDataResponse_newPSEsSignalListenersOnce() throws NoSuchAlgorithmException {
+        List<ProtectedStorageEntry> protectedStorageEntries = Arrays.asList(
+                getProtectedStorageEntryForAdd(), getProtectedStorageEntryForAdd(), getProtectedStorageEntryForAdd());
+        HashMapChangedListener hashMapChangedListener = mock(HashMapChangedListener.class);
+        this.testState.mockedStorage.addHashMapChangedListener(hashMapChangedListener);
+
+        GetDataResponse getDataResponse = buildGetDataResponse(protectedStorageEntries, Collections.emptyList());
+        this.testState.mockedStorage.processGetDataResponse(getDataResponse, this.peerNodeAddress);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<ProtectedStorageEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(hashMapChangedListener).onAdded(captor.capture());
+        Assert.assertEquals(new HashSet<>(protectedStorageEntries), new HashSet<>(captor.getValue()));
+    }
 }
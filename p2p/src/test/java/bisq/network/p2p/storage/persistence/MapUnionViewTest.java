@@ -0,0 +1,83 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MapUnionViewTest {
+
+    @Test
+    public void union() {
+        Map<String, Integer> map1 = new HashMap<>(Map.of("a", 1, "b", 2));
+        Map<String, Integer> map2 = new HashMap<>(Map.of("b", 20, "c", 30));
+        Map<String, Integer> view = new MapUnionView<>(List.of(map1, map2));
+
+        Assert.assertEquals(Map.of("a", 1, "b", 2, "c", 30), view);
+        Assert.assertEquals(3, view.size());
+        Assert.assertEquals(3, view.entrySet().size());
+        Assert.assertEquals(Integer.valueOf(2), view.get("b"));
+        Assert.assertTrue(view.containsKey("c"));
+        Assert.assertNull(view.get("d"));
+    }
+
+    @Test
+    public void viewIsBackedByMaps() {
+        Map<String, Integer> map1 = new HashMap<>();
+        Map<String, Integer> map2 = new HashMap<>();
+        Map<String, Integer> view = new MapUnionView<>(List.of(map1, map2));
+        Assert.assertTrue(view.isEmpty());
+
+        map2.put("a", 1);
+        Assert.assertEquals(Map.of("a", 1), view);
+
+        map1.put("a", 10);
+        Assert.assertEquals(Map.of("a", 10), view);
+    }
+
+    @Test
+    public void valuesAreOnlyAccessedOnRequest() {
+        Map<String, Integer> map = new HashMap<>(Map.of("a", 1)) {
+            @Override
+            public Integer get(Object key) {
+                throw new AssertionError("Value was accessed");
+            }
+        };
+        Map<String, Integer> view = new MapUnionView<>(List.of(new HashMap<>(), map));
+
+        Assert.assertEquals(1, view.size());
+        Assert.assertTrue(view.containsKey("a"));
+        Assert.assertEquals("a", view.keySet().iterator().next());
+        Assert.assertEquals("a", view.entrySet().iterator().next().getKey());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void putIsNotSupported() {
+        new MapUnionView<>(List.of(new HashMap<String, Integer>())).put("a", 1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setValueIsNotSupported() {
+        Map<String, Integer> view = new MapUnionView<>(List.of(new HashMap<>(Map.of("a", 1))));
+        view.entrySet().iterator().next().setValue(2);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.common.file.FileUtil;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Objects;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PayloadLogTest {
+    private File dir;
+    private Random random;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = File.createTempFile("payload_log_test", "");
+        //noinspection ResultOfMethodCallIgnored
+        dir.delete();
+        random = new Random(1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtil.deleteDirectory(dir);
+    }
+
+    @Test
+    public void appendAndRead() throws IOException {
+        byte[] hash = randomBytes(20);
+        byte[] payload = randomBytes(100);
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            payloadLog.append(hash, payload);
+
+            Assert.assertEquals(1, payloadLog.size());
+            Assert.assertTrue(payloadLog.contains(hash));
+            Assert.assertArrayEquals(payload, payloadLog.read(hash.clone()));
+            Assert.assertNull(payloadLog.read(randomBytes(20)));
+        }
+    }
+
+    @Test
+    public void reopen() throws IOException {
+        byte[] hash1 = randomBytes(20);
+        byte[] hash2 = randomBytes(32);
+        byte[] payload = randomBytes(100);
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            payloadLog.append(hash1, randomBytes(50));
+            payloadLog.append(hash2, randomBytes(50));
+            payloadLog.append(hash1, payload);
+            Assert.assertTrue(payloadLog.remove(hash2));
+            Assert.assertFalse(payloadLog.remove(hash2));
+        }
+
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            Assert.assertEquals(1, payloadLog.size());
+            Assert.assertArrayEquals(payload, payloadLog.read(hash1));
+            Assert.assertFalse(payloadLog.contains(hash2));
+        }
+    }
+
+    @Test
+    public void rollSegments() throws IOException {
+        byte[][] hashes = new byte[50][];
+        try (PayloadLog payloadLog = new PayloadLog(dir, 1000)) {
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = randomBytes(32);
+                payloadLog.append(hashes[i], new byte[]{(byte) i});
+            }
+        }
+
+        Assert.assertTrue(Objects.requireNonNull(dir.listFiles()).length > 1);
+        try (PayloadLog payloadLog = new PayloadLog(dir, 1000)) {
+            Assert.assertEquals(hashes.length, payloadLog.size());
+            for (int i = 0; i < hashes.length; i++)
+                Assert.assertArrayEquals(new byte[]{(byte) i}, payloadLog.read(hashes[i]));
+        }
+    }
+
+    @Test
+    public void truncateIncompleteRecord() throws IOException {
+        byte[] hash1 = randomBytes(20);
+        byte[] hash2 = randomBytes(20);
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            payloadLog.append(hash1, randomBytes(100));
+            payloadLog.append(hash2, randomBytes(100));
+        }
+
+        // Simulate a crash in the middle of the second write
+        File segment = Objects.requireNonNull(dir.listFiles())[0];
+        try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 10);
+        }
+
+        byte[] hash3 = randomBytes(20);
+        byte[] payload3 = randomBytes(100);
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            Assert.assertEquals(1, payloadLog.size());
+            Assert.assertTrue(payloadLog.contains(hash1));
+            Assert.assertFalse(payloadLog.contains(hash2));
+
+            payloadLog.append(hash3, payload3);
+        }
+
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            Assert.assertEquals(2, payloadLog.size());
+            Assert.assertArrayEquals(payload3, payloadLog.read(hash3));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPayloadNotAllowed() throws IOException {
+        try (PayloadLog payloadLog = new PayloadLog(dir)) {
+            payloadLog.append(randomBytes(20), new byte[0]);
+        }
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+}